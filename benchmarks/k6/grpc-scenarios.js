@@ -0,0 +1,147 @@
+// gRPC counterpart of scenarios.js: the same operation mix against lamp.LampService, for
+// comparing protobuf over HTTP/2 with the JSON REST API at the same arrival rate.
+import grpc from 'k6/net/grpc';
+import { check } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const RUN_MODE = (__ENV.RUN_MODE || 'fixed').trim();
+const GRPC_ADDR = __ENV.GRPC_ADDR || '';
+const GRPC_PLAINTEXT = (__ENV.GRPC_PLAINTEXT || 'true').trim() === 'true';
+const PROTO_DIR = __ENV.PROTO_DIR || '../../src/java/src/main/proto';
+const TARGET_RPS = Number(__ENV.TARGET_RPS || 1);
+const DURATION = __ENV.DURATION || '60s';
+const PAGE_SIZE = Number(__ENV.PAGE_SIZE || 25);
+// Use the server-streaming StreamLamps call instead of paged ListLamps for list operations.
+const LIST_STREAM = (__ENV.LIST_STREAM || 'false').trim() === 'true';
+
+const LIST_WEIGHT = Number(__ENV.LIST_WEIGHT || 50);
+const GET_WEIGHT = Number(__ENV.GET_WEIGHT || 20);
+const CREATE_WEIGHT = Number(__ENV.CREATE_WEIGHT || 20);
+const UPDATE_WEIGHT = Number(__ENV.UPDATE_WEIGHT || 7);
+const DELETE_WEIGHT = Number(__ENV.DELETE_WEIGHT || 3);
+
+const PRE_ALLOCATED_VUS = Number(
+  __ENV.PRE_ALLOCATED_VUS || Math.max(10, Math.ceil(TARGET_RPS * 2))
+);
+const MAX_VUS = Number(__ENV.MAX_VUS || Math.max(50, Math.ceil(TARGET_RPS * 4)));
+
+if (!GRPC_ADDR) {
+  throw new Error('GRPC_ADDR is required (host:port)');
+}
+
+const SERVICE = 'lamp.LampService';
+
+const client = new grpc.Client();
+client.load([PROTO_DIR], 'lamp.proto');
+
+const errorRate = new Rate(`${RUN_MODE}_error_rate`);
+
+export const options = {
+  summaryTrendStats: ['avg', 'min', 'med', 'max', 'p(90)', 'p(95)', 'p(99)'],
+  scenarios: {
+    main: {
+      executor: 'constant-arrival-rate',
+      rate: TARGET_RPS,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: PRE_ALLOCATED_VUS,
+      maxVUs: MAX_VUS,
+    },
+  },
+};
+
+let connected = false;
+let vuOwnedIds = [];
+
+function connect() {
+  if (!connected) {
+    client.connect(GRPC_ADDR, { plaintext: GRPC_PLAINTEXT });
+    connected = true;
+  }
+}
+
+function invoke(method, request) {
+  const response = client.invoke(`${SERVICE}/${method}`, request);
+  const ok = check(response, {
+    [`${method} status OK`]: (r) => r && r.status === grpc.StatusOK,
+  });
+  errorRate.add(!ok);
+  return ok ? response.message : null;
+}
+
+function randomBool() {
+  return Math.random() < 0.5;
+}
+
+function createLamp() {
+  const lamp = invoke('CreateLamp', { status: randomBool() });
+  if (lamp && lamp.id) {
+    vuOwnedIds.push(lamp.id);
+  }
+  return lamp;
+}
+
+function ownedOrNewLampId() {
+  if (vuOwnedIds.length > 0) {
+    return vuOwnedIds[Math.floor(Math.random() * vuOwnedIds.length)];
+  }
+  const lamp = createLamp();
+  return lamp ? lamp.id : null;
+}
+
+function listLamps() {
+  if (!LIST_STREAM) {
+    invoke('ListLamps', { page_size: PAGE_SIZE });
+    return;
+  }
+  const stream = new grpc.Stream(client, `${SERVICE}/StreamLamps`);
+  stream.on('error', () => errorRate.add(true));
+  stream.on('end', () => errorRate.add(false));
+  stream.write({});
+  stream.end();
+}
+
+function getLamp() {
+  const lampId = ownedOrNewLampId();
+  if (lampId) {
+    invoke('GetLamp', { id: lampId });
+  }
+}
+
+function updateLamp() {
+  const lampId = ownedOrNewLampId();
+  if (lampId) {
+    invoke('UpdateLamp', { id: lampId, status: randomBool() });
+  }
+}
+
+function deleteLamp() {
+  const lampId = vuOwnedIds.length > 0 ? vuOwnedIds.pop() : (createLamp() || {}).id;
+  if (lampId) {
+    invoke('DeleteLamp', { id: lampId });
+  }
+}
+
+function pickOperation() {
+  const total = LIST_WEIGHT + GET_WEIGHT + CREATE_WEIGHT + UPDATE_WEIGHT + DELETE_WEIGHT;
+  const pick = Math.random() * total;
+
+  if (pick < LIST_WEIGHT) {
+    return listLamps;
+  }
+  if (pick < LIST_WEIGHT + GET_WEIGHT) {
+    return getLamp;
+  }
+  if (pick < LIST_WEIGHT + GET_WEIGHT + CREATE_WEIGHT) {
+    return createLamp;
+  }
+  if (pick < LIST_WEIGHT + GET_WEIGHT + CREATE_WEIGHT + UPDATE_WEIGHT) {
+    return updateLamp;
+  }
+  return deleteLamp;
+}
+
+export default function () {
+  connect();
+  pickOperation()();
+}
@@ -16,12 +16,21 @@ const COLD_START_ENDPOINT = __ENV.COLD_START_ENDPOINT || '/lamps?pageSize=1';
 const COLD_START_SUCCESS_STATUS = Number(__ENV.COLD_START_SUCCESS_STATUS || 200);
 const COLD_START_MAX_WAIT_SECONDS = Number(__ENV.COLD_START_MAX_WAIT_SECONDS || 60);
 const COLD_START_PROBE_INTERVAL_MS = Number(__ENV.COLD_START_PROBE_INTERVAL_MS || 500);
+// Overload runs: treat fast 429/503 rejections with Retry-After as load shedding, not errors,
+// and optionally fail the run when p99 of admitted requests exceeds ADMITTED_P99_MS.
+const ACCEPT_SHED = (__ENV.ACCEPT_SHED || 'false').trim() === 'true';
+const ADMITTED_P99_MS = Number(__ENV.ADMITTED_P99_MS || 0);
 
 const LIST_WEIGHT = Number(__ENV.LIST_WEIGHT || 50);
 const GET_WEIGHT = Number(__ENV.GET_WEIGHT || 20);
 const CREATE_WEIGHT = Number(__ENV.CREATE_WEIGHT || 20);
 const UPDATE_WEIGHT = Number(__ENV.UPDATE_WEIGHT || 7);
 const DELETE_WEIGHT = Number(__ENV.DELETE_WEIGHT || 3);
+// Percentage of get/update requests aimed at a single hot lamp (skewed-key workloads).
+const HOT_KEY_PERCENT = Number(__ENV.HOT_KEY_PERCENT || 0);
+// Revalidate list pages with If-None-Match, as a caching client would; 304 counts as success.
+// Services that send no ETag are unaffected.
+const CONDITIONAL_GET = (__ENV.CONDITIONAL_GET || 'false').trim() === 'true';
 
 const PRE_ALLOCATED_VUS = Number(
   __ENV.PRE_ALLOCATED_VUS || Math.max(10, Math.ceil(TARGET_RPS * 2))
@@ -34,12 +43,21 @@ if (!BASE_URL) {
 
 const requestDuration = new Trend(`${RUN_MODE}_req_duration`, true);
 const errorRate = new Rate(`${RUN_MODE}_error_rate`);
+const admittedDuration = new Trend(`${RUN_MODE}_admitted_duration`, true);
+const shedRate = new Rate(`${RUN_MODE}_shed_rate`);
 const coldStartReadyMs = new Trend('cold_start_ready_ms', true);
 const coldStartAttempts = new Gauge('cold_start_attempts');
 const coldStartFirstSuccessStatus = new Gauge('cold_start_first_success_status');
 
+const thresholds = {};
+
+if (ACCEPT_SHED && ADMITTED_P99_MS > 0) {
+  thresholds[`${RUN_MODE}_admitted_duration`] = [`p(99)<${ADMITTED_P99_MS}`];
+}
+
 export const options = {
   discardResponseBodies: false,
+  thresholds,
   summaryTrendStats: ['avg', 'min', 'med', 'max', 'p(90)', 'p(95)', 'p(99)'],
   scenarios: RUN_MODE === 'cold_start'
     ? {
@@ -69,6 +87,7 @@ if (AUTH_HEADER) {
 }
 
 let vuOwnedIds = [];
+const listETags = {};
 
 function url(pathAndQuery) {
   return `${BASE_URL}${BASE_PATH}${pathAndQuery}`;
@@ -87,12 +106,27 @@ function track(resp, ok) {
   errorRate.add(!ok);
 }
 
-function req(method, endpoint, body, expectedStatuses) {
-  const requestHeaders = { ...headers };
+function isShed(resp) {
+  return (resp.status === 429 || resp.status === 503) && Boolean(resp.headers['Retry-After']);
+}
+
+function req(method, endpoint, body, expectedStatuses, extraHeaders) {
+  const requestHeaders = { ...headers, ...extraHeaders };
   if (body !== undefined && body !== null) {
     requestHeaders['Content-Type'] = 'application/json';
   }
   const response = http.request(method, url(endpoint), body, { headers: requestHeaders });
+
+  if (ACCEPT_SHED) {
+    const shed = isShed(response);
+    shedRate.add(shed);
+    if (shed) {
+      requestDuration.add(response.timings.duration);
+      return { response, ok: false };
+    }
+    admittedDuration.add(response.timings.duration);
+  }
+
   const ok = check(response, {
     [`${method} ${endpoint} status`]: (r) => expectedStatuses.includes(r.status),
   });
@@ -109,7 +143,17 @@ function randomFrom(list) {
 }
 
 function listLamps() {
-  const { response } = req('GET', `/lamps?pageSize=${PAGE_SIZE}`, null, [200]);
+  const endpoint = `/lamps?pageSize=${PAGE_SIZE}`;
+  const cachedETag = CONDITIONAL_GET ? listETags[endpoint] : undefined;
+  const { response } = cachedETag
+    ? req('GET', endpoint, null, [200, 304], { 'If-None-Match': cachedETag })
+    : req('GET', endpoint, null, [200]);
+  if (response.status === 304) {
+    return;
+  }
+  if (CONDITIONAL_GET && response.headers.Etag) {
+    listETags[endpoint] = response.headers.Etag;
+  }
   const body = parseJson(response);
   check(body, {
     'list lamps has data array': (b) => b && Array.isArray(b.data),
@@ -136,6 +180,9 @@ function createLamp() {
 }
 
 function pickLampId(data) {
+  if (HOT_KEY_PERCENT > 0 && data.seedIds.length > 0 && Math.random() * 100 < HOT_KEY_PERCENT) {
+    return data.seedIds[0];
+  }
   if (vuOwnedIds.length > 0) {
     return randomFrom(vuOwnedIds);
   }
@@ -7,9 +7,12 @@ package org.openapitools.api;
 
 import org.openapitools.model.Error;
 import org.openapitools.model.Lamp;
+import org.openapitools.model.LampBatchGetRequest;
+import org.openapitools.model.LampBatchGetResponse;
 import org.openapitools.model.LampCreate;
 import org.openapitools.model.LampUpdate;
 import org.openapitools.model.ListLamps200Response;
+import java.time.OffsetDateTime;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +25,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -47,6 +51,56 @@ public interface LampsApi {
         return Optional.empty();
     }
 
+    /**
+     * POST /lamps/batch-get : Get many lamps by ID
+     *
+     * @param lampBatchGetRequest  (required)
+     * @return The lamps found, in request order, and the IDs without a lamp (status code 200)
+     *         or Invalid request data or lamp ID format (status code 400)
+     */
+    @Operation(
+        operationId = "batchGetLamps",
+        summary = "Get many lamps by ID",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "The lamps found, in request order, and the IDs without a lamp", content = {
+                @Content(mediaType = "application/json", schema = @Schema(implementation = LampBatchGetResponse.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid request data or lamp ID format", content = {
+                @Content(mediaType = "application/json", schema = @Schema(implementation = Error.class))
+            })
+        }
+    )
+    @RequestMapping(
+        method = RequestMethod.POST,
+        value = "/lamps/batch-get",
+        produces = { "application/json" },
+        consumes = { "application/json" }
+    )
+    
+    default CompletableFuture<ResponseEntity<LampBatchGetResponse>> batchGetLamps(
+        @Parameter(name = "LampBatchGetRequest", description = "", required = true) @Valid @RequestBody LampBatchGetRequest lampBatchGetRequest
+    ) {
+        return CompletableFuture.supplyAsync(()-> {
+            getRequest().ifPresent(request -> {
+                for (MediaType mediaType: MediaType.parseMediaTypes(request.getHeader("Accept"))) {
+                    if (mediaType.isCompatibleWith(MediaType.valueOf("application/json"))) {
+                        String exampleString = "{ \"data\" : [ { \"createdAt\" : \"2000-01-23T04:56:07.000+00:00\", \"id\" : \"046b6c7f-0b8a-43b9-b35d-6489e6daee91\", \"status\" : true, \"updatedAt\" : \"2000-01-23T04:56:07.000+00:00\" }, { \"createdAt\" : \"2000-01-23T04:56:07.000+00:00\", \"id\" : \"046b6c7f-0b8a-43b9-b35d-6489e6daee91\", \"status\" : true, \"updatedAt\" : \"2000-01-23T04:56:07.000+00:00\" } ], \"missing\" : [ \"missing\", \"missing\" ] }";
+                        ApiUtil.setExampleResponse(request, "application/json", exampleString);
+                        break;
+                    }
+                    if (mediaType.isCompatibleWith(MediaType.valueOf("application/json"))) {
+                        String exampleString = "{ \"error\" : \"INVALID_ARGUMENT\" }";
+                        ApiUtil.setExampleResponse(request, "application/json", exampleString);
+                        break;
+                    }
+                }
+            });
+            return new ResponseEntity<>(HttpStatus.NOT_IMPLEMENTED);
+        }, Runnable::run);
+
+    }
+
+
     /**
      * POST /lamps : Create a new lamp
      *
@@ -145,6 +199,7 @@ public interface LampsApi {
      * GET /lamps/{lampId} : Get a specific lamp
      *
      * @param lampId  (required)
+     * @param fields Only these fields of each lamp, comma separated; the others are left out of the response. The id is always included. (optional)
      * @return Lamp details (status code 200)
      *         or Not Modified (status code 304)
      *         or Invalid lamp ID format (status code 400)
@@ -171,7 +226,8 @@ public interface LampsApi {
     )
     
     default CompletableFuture<ResponseEntity<Lamp>> getLamp(
-        @Parameter(name = "lampId", description = "", required = true, in = ParameterIn.PATH) @PathVariable("lampId") String lampId
+        @Parameter(name = "lampId", description = "", required = true, in = ParameterIn.PATH) @PathVariable("lampId") String lampId,
+        @Parameter(name = "fields", description = "Only these fields of each lamp, comma separated; the others are left out of the response. The id is always included.", in = ParameterIn.QUERY) @Valid @RequestParam(value = "fields", required = false) Optional<List<String>> fields
     ) {
         return CompletableFuture.supplyAsync(()-> {
             getRequest().ifPresent(request -> {
@@ -199,6 +255,14 @@ public interface LampsApi {
      *
      * @param cursor  (optional)
      * @param pageSize  (optional, default to 25)
+     * @param status Only lamps with this status (optional)
+     * @param createdFrom Only lamps created at or after this time (optional)
+     * @param createdTo Only lamps created before this time (optional)
+     * @param updatedFrom Only lamps updated at or after this time (optional)
+     * @param updatedTo Only lamps updated before this time (optional)
+     * @param sort Order of the lamps, by creation or update time, ascending or descending with a leading &#39;-&#39;. With a filter or a sort other than the default, pass the same filter and sort with the returned cursor. (optional, default to createdAt)
+     * @param fields Only these fields of each lamp, comma separated; the others are left out of the response. The id is always included. (optional)
+     * @param includeTotal Also return the number of lamps matching the filter across all pages. It may be a second or so behind the latest writes, and an estimate for large time ranges. (optional, default to false)
      * @return A list of lamps with pagination (status code 200)
      *         or Not Modified (status code 304)
      *         or Invalid request parameters (status code 400)
@@ -224,13 +288,21 @@ public interface LampsApi {
     
     default CompletableFuture<ResponseEntity<ListLamps200Response>> listLamps(
         @Parameter(name = "cursor", description = "", in = ParameterIn.QUERY) @Valid @RequestParam(value = "cursor", required = false) Optional<String> cursor,
-        @Parameter(name = "pageSize", description = "", in = ParameterIn.QUERY) @Valid @RequestParam(value = "pageSize", required = false, defaultValue = "25") Optional<@Min(1) @Max(100) Integer> pageSize
+        @Parameter(name = "pageSize", description = "", in = ParameterIn.QUERY) @Valid @RequestParam(value = "pageSize", required = false, defaultValue = "25") Optional<@Min(1) @Max(100) Integer> pageSize,
+        @Parameter(name = "status", description = "Only lamps with this status", in = ParameterIn.QUERY) @Valid @RequestParam(value = "status", required = false) Optional<Boolean> status,
+        @Parameter(name = "createdFrom", description = "Only lamps created at or after this time", in = ParameterIn.QUERY) @Valid @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<OffsetDateTime> createdFrom,
+        @Parameter(name = "createdTo", description = "Only lamps created before this time", in = ParameterIn.QUERY) @Valid @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<OffsetDateTime> createdTo,
+        @Parameter(name = "updatedFrom", description = "Only lamps updated at or after this time", in = ParameterIn.QUERY) @Valid @RequestParam(value = "updatedFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<OffsetDateTime> updatedFrom,
+        @Parameter(name = "updatedTo", description = "Only lamps updated before this time", in = ParameterIn.QUERY) @Valid @RequestParam(value = "updatedTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<OffsetDateTime> updatedTo,
+        @Parameter(name = "sort", description = "Order of the lamps, by creation or update time, ascending or descending with a leading '-'. With a filter or a sort other than the default, pass the same filter and sort with the returned cursor.", in = ParameterIn.QUERY) @Valid @RequestParam(value = "sort", required = false, defaultValue = "createdAt") Optional<String> sort,
+        @Parameter(name = "fields", description = "Only these fields of each lamp, comma separated; the others are left out of the response. The id is always included.", in = ParameterIn.QUERY) @Valid @RequestParam(value = "fields", required = false) Optional<List<String>> fields,
+        @Parameter(name = "includeTotal", description = "Also return the number of lamps matching the filter across all pages. It may be a second or so behind the latest writes, and an estimate for large time ranges.", in = ParameterIn.QUERY) @Valid @RequestParam(value = "includeTotal", required = false, defaultValue = "false") Optional<Boolean> includeTotal
     ) {
         return CompletableFuture.supplyAsync(()-> {
             getRequest().ifPresent(request -> {
                 for (MediaType mediaType: MediaType.parseMediaTypes(request.getHeader("Accept"))) {
                     if (mediaType.isCompatibleWith(MediaType.valueOf("application/json"))) {
-                        String exampleString = "{ \"nextCursor\" : \"nextCursor\", \"data\" : [ { \"createdAt\" : \"2000-01-23T04:56:07.000+00:00\", \"id\" : \"046b6c7f-0b8a-43b9-b35d-6489e6daee91\", \"status\" : true, \"updatedAt\" : \"2000-01-23T04:56:07.000+00:00\" }, { \"createdAt\" : \"2000-01-23T04:56:07.000+00:00\", \"id\" : \"046b6c7f-0b8a-43b9-b35d-6489e6daee91\", \"status\" : true, \"updatedAt\" : \"2000-01-23T04:56:07.000+00:00\" } ], \"hasMore\" : true }";
+                        String exampleString = "{ \"nextCursor\" : \"nextCursor\", \"data\" : [ { \"createdAt\" : \"2000-01-23T04:56:07.000+00:00\", \"id\" : \"046b6c7f-0b8a-43b9-b35d-6489e6daee91\", \"status\" : true, \"updatedAt\" : \"2000-01-23T04:56:07.000+00:00\" }, { \"createdAt\" : \"2000-01-23T04:56:07.000+00:00\", \"id\" : \"046b6c7f-0b8a-43b9-b35d-6489e6daee91\", \"status\" : true, \"updatedAt\" : \"2000-01-23T04:56:07.000+00:00\" } ], \"total\" : 0, \"totalExact\" : true, \"hasMore\" : true }";
                         ApiUtil.setExampleResponse(request, "application/json", exampleString);
                         break;
                     }
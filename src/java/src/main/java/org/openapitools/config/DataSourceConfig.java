@@ -13,6 +13,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 /**
  * DataSource configuration for PostgreSQL database connectivity.
@@ -289,4 +290,19 @@ public class DataSourceConfig {
   public DataSource dataSource(HikariConfig hikariConfig) {
     return new HikariDataSource(hikariConfig);
   }
+
+  /**
+   * Creates the source of connections opened outside the pool, with the same settings as the pool.
+   *
+   * @param hikariConfig the HikariConfig bean with all properties already applied
+   * @return unpooled connections to the configured database
+   */
+  @Bean
+  public UnpooledConnections unpooledConnections(HikariConfig hikariConfig) {
+    DriverManagerDataSource unpooled =
+        new DriverManagerDataSource(
+            hikariConfig.getJdbcUrl(), hikariConfig.getUsername(), hikariConfig.getPassword());
+    unpooled.setConnectionProperties(hikariConfig.getDataSourceProperties());
+    return unpooled::getConnection;
+  }
 }
@@ -60,6 +60,8 @@ public class JpaConfig {
     properties.setProperty("hibernate.format_sql", String.valueOf(formatSql));
     properties.setProperty("hibernate.dialect", dialect);
     properties.setProperty("hibernate.jdbc.time_zone", timeZone);
+    // lamps is a partitioned table from migration V5 on; let schema validation find it.
+    properties.setProperty("hibernate.hbm2ddl.extra_physical_table_types", "PARTITIONED TABLE");
 
     em.setJpaProperties(properties);
 
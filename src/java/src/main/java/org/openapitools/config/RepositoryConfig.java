@@ -1,10 +1,14 @@
 package org.openapitools.config;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.openapitools.entity.LampEntity;
 import org.openapitools.repository.JpaLampRepository;
+import org.openapitools.repository.LampListSql;
 import org.openapitools.repository.LampRepository;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
@@ -38,7 +42,8 @@ public class RepositoryConfig {
     return new LampRepository() {
       @Override
       public LampEntity save(final LampEntity entity) {
-        return jpaRepository.save(entity);
+        // Flushed at once so the generated timestamps are on the entity returned.
+        return jpaRepository.saveAndFlush(entity);
       }
 
       @Override
@@ -86,15 +91,79 @@ public class RepositoryConfig {
         return jpaRepository.findAllActive();
       }
 
+      @Override
+      public List<LampEntity> findActiveByIds(final Collection<UUID> lampIds) {
+        return jpaRepository.findActiveByIds(LampListSql.idArray(lampIds));
+      }
+
       @Override
       public List<LampEntity> findAllActive(final Pageable pageable) {
         return jpaRepository.findAllActive(pageable);
       }
 
+      @Override
+      public List<LampEntity> findActive(
+          final ListFilter filter,
+          final ListSort sort,
+          final Optional<SortPosition> after,
+          final int limit) {
+        return jpaRepository.findActive(filter, sort, after, limit);
+      }
+
+      @Override
+      public Optional<LampView> findActiveView(final UUID lampId, final Set<LampField> fields) {
+        return jpaRepository.findActiveView(lampId, fields);
+      }
+
+      @Override
+      public List<LampView> findActiveViews(final Pageable pageable, final Set<LampField> fields) {
+        return jpaRepository.findActiveViews(pageable, fields);
+      }
+
+      @Override
+      public List<LampView> findActiveViews(
+          final ListFilter filter,
+          final ListSort sort,
+          final Optional<SortPosition> after,
+          final int limit,
+          final Set<LampField> fields) {
+        return jpaRepository.findActiveViews(filter, sort, after, limit, fields);
+      }
+
       @Override
       public long countActive() {
         return jpaRepository.countActive();
       }
+
+      @Override
+      public ActiveCount countActive(final ListFilter filter, final int exactLimit) {
+        return jpaRepository.countActive(filter, exactLimit);
+      }
+
+      @Override
+      public long changeHorizon() {
+        return jpaRepository.findChangeHorizon();
+      }
+
+      @Override
+      public List<LampEntity> findChangedAfter(
+          final ChangePosition after, final long before, final int limit) {
+        return jpaRepository.findChangedAfter(after.changeSeq(), after.id(), before, limit);
+      }
+
+      @Override
+      public int purgeDeletedBefore(final OffsetDateTime cutoff, final int limit) {
+        return jpaRepository.purgeDeletedBefore(cutoff, limit);
+      }
+
+      @Override
+      public List<LampEntity> updateStatus(
+          final StatusUpdate update,
+          final UUID after,
+          final OffsetDateTime updatedAt,
+          final int limit) {
+        return jpaRepository.updateStatus(update, after, updatedAt, limit);
+      }
     };
   }
 }
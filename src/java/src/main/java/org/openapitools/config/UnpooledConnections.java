@@ -0,0 +1,21 @@
+package org.openapitools.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Opens database connections outside the pool, with the pool's URL, credentials and driver
+ * properties. For sessions held open for the life of the application, such as a {@code LISTEN},
+ * which would otherwise keep a pooled connection from requests for good.
+ */
+@FunctionalInterface
+public interface UnpooledConnections {
+
+  /**
+   * Open a connection; closing it closes the session.
+   *
+   * @return a new connection
+   * @throws SQLException if the database cannot be reached
+   */
+  Connection open() throws SQLException;
+}
@@ -0,0 +1,89 @@
+package org.openapitools.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.openapitools.api.LampsApi;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Lets the {@link LampsApi} endpoints speak CBOR (RFC 8949) as well as JSON.
+ *
+ * <p>Clients opt in with {@code Accept: application/cbor} and, for create and update, {@code
+ * Content-Type: application/cbor}; everyone else keeps getting JSON. The generated interface pins
+ * its mappings to {@code application/json}, and the OpenAPI document is shared with the other
+ * implementations, so the extra media type is added when the mappings are registered rather than in
+ * the generated code.
+ */
+@Configuration
+public class ContentNegotiationConfiguration {
+
+  private static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+
+  /**
+   * CBOR converter built from the same Jackson builder as the JSON one, so modules, date handling
+   * and null handling are identical in both formats.
+   *
+   * @param builder Spring Boot's configured Jackson builder
+   * @return the CBOR message converter
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      final Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        builder.createXmlMapper(false).factory(new CBORFactory()).build());
+  }
+
+  /**
+   * Widen the produces and consumes conditions of {@link LampsApi} mappings with CBOR.
+   *
+   * @return registrations supplying the customised handler mapping
+   */
+  @Bean
+  public WebMvcRegistrations lampsApiMediaTypes() {
+    return new WebMvcRegistrations() {
+      @Override
+      public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+        return new CborRequestMappingHandlerMapping();
+      }
+    };
+  }
+
+  /** Handler mapping that adds CBOR next to JSON on {@link LampsApi} handlers. */
+  /* default */ static class CborRequestMappingHandlerMapping extends RequestMappingHandlerMapping {
+
+    @Override
+    protected RequestMappingInfo getMappingForMethod(
+        final Method method, final Class<?> handlerType) {
+      final RequestMappingInfo info = super.getMappingForMethod(method, handlerType);
+      if (info == null || !LampsApi.class.isAssignableFrom(handlerType)) {
+        return info;
+      }
+      final RequestMappingInfo.Builder builder = info.mutate();
+      final Set<MediaType> produces = info.getProducesCondition().getProducibleMediaTypes();
+      if (!produces.isEmpty()) {
+        builder.produces(withCbor(produces));
+      }
+      final Set<MediaType> consumes = info.getConsumesCondition().getConsumableMediaTypes();
+      if (!consumes.isEmpty()) {
+        builder.consumes(withCbor(consumes));
+      }
+      return builder.build();
+    }
+
+    private static String[] withCbor(final Set<MediaType> mediaTypes) {
+      final Set<String> values = new LinkedHashSet<>();
+      mediaTypes.forEach(mediaType -> values.add(mediaType.toString()));
+      values.add(CBOR);
+      return values.toArray(new String[0]);
+    }
+  }
+}
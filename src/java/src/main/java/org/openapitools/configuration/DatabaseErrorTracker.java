@@ -0,0 +1,98 @@
+package org.openapitools.configuration;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionTimedOutException;
+
+/**
+ * Counts database errors over a sliding window of one-second buckets.
+ *
+ * <p>Recording is lock-free and allocation-free so it can sit on the request error path; the
+ * readiness sampler reads the windowed total in the background. Each bucket is one atomic long
+ * holding its second in the high 32 bits and its count in the low 32, so moving a bucket on to a
+ * new second and counting in it is a single update that concurrent errors cannot undo.
+ */
+@Component
+public class DatabaseErrorTracker {
+
+  private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+  private final int windowSeconds;
+  private final LongSupplier epochSeconds;
+  private final AtomicLongArray buckets;
+
+  @Autowired
+  public DatabaseErrorTracker(
+      @Value("${lamp.health.db-error-window-seconds:10}") final int window) {
+    this(window, () -> System.currentTimeMillis() / 1000L);
+  }
+
+  /* default */ DatabaseErrorTracker(final int windowSeconds, final LongSupplier epochSeconds) {
+    this.windowSeconds = Math.max(windowSeconds, 1);
+    this.epochSeconds = epochSeconds;
+    this.buckets = new AtomicLongArray(this.windowSeconds);
+  }
+
+  /**
+   * Whether a database error means the database could not be reached or did not answer in time,
+   * rather than that it refused one statement. Only those say anything about the instance, so only
+   * those are recorded; a burst of conflicting or invalid writes is not.
+   *
+   * @param error the error of a database call
+   * @return true for connection, pool and timeout failures
+   */
+  public static boolean isOutage(final Throwable error) {
+    return error instanceof DataAccessResourceFailureException
+        || error instanceof TransientDataAccessResourceException
+        || error instanceof RecoverableDataAccessException
+        || error instanceof QueryTimeoutException
+        || error instanceof CannotCreateTransactionException
+        || error instanceof TransactionTimedOutException;
+  }
+
+  /** Record one database error at the current time. */
+  public void record() {
+    final long now = epochSeconds.getAsLong();
+    final int index = (int) (now % windowSeconds);
+    long bucket;
+    long next;
+    do {
+      bucket = buckets.get(index);
+      // An error read before the bucket moved on to a later second counts in that second.
+      next = second(bucket) < now ? now << 32 | 1 : bucket + (count(bucket) < COUNT_MASK ? 1 : 0);
+    } while (!buckets.compareAndSet(index, bucket, next));
+  }
+
+  /**
+   * Number of errors recorded within the window.
+   *
+   * @return windowed error count
+   */
+  public long errorsInWindow() {
+    final long now = epochSeconds.getAsLong();
+    long total = 0;
+    for (int i = 0; i < windowSeconds; i++) {
+      final long bucket = buckets.get(i);
+      if (now - second(bucket) < windowSeconds) {
+        total += count(bucket);
+      }
+    }
+    return total;
+  }
+
+  private static long second(final long bucket) {
+    return bucket >>> 32;
+  }
+
+  private static long count(final long bucket) {
+    return bucket & COUNT_MASK;
+  }
+}
@@ -1,70 +1,129 @@
 package org.openapitools.configuration;
 
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-/** Configuration to provide health endpoint at root level */
+/**
+ * Configuration to provide health endpoints at root level.
+ *
+ * <ul>
+ *   <li>{@code /health/live} - liveness: 200 whenever the process can serve HTTP
+ *   <li>{@code /health/ready} - readiness: 503 while warming up, when the connection pool is
+ *       saturated, or when the database is failing (see {@link HealthSampler})
+ *   <li>{@code /health} - alias of readiness, kept for existing load balancer configuration
+ * </ul>
+ */
 @Configuration
 public class HealthConfiguration {
 
+  private static final String LIVENESS_PATH = "/health/live";
+
+  private static final String READINESS_PATH = "/health/ready";
+
+  private static final String HEALTH_PATH = "/health";
+
   /**
-   * Register a servlet for health endpoint at root level. Note: Due to context path configuration,
+   * Register a servlet for health endpoints at root level. Note: Due to context path configuration,
    * this servlet serves at /health within the /v1 context. A separate root-level endpoint would
    * require additional container configuration.
+   *
+   * @param healthSampler background readiness sampler consulted on every readiness probe
    */
   @Bean
-  public ServletRegistrationBean<HttpServlet> healthServletRegistration() {
+  public ServletRegistrationBean<HttpServlet> healthServletRegistration(
+      final HealthSampler healthSampler) {
     final ServletRegistrationBean<HttpServlet> registration = new ServletRegistrationBean<>();
-    registration.setServlet(new HealthServlet());
-    registration.addUrlMappings("/health");
+    registration.setServlet(new HealthServlet(healthSampler::readiness));
+    registration.addUrlMappings(HEALTH_PATH, LIVENESS_PATH, READINESS_PATH);
     registration.setName("healthServlet");
     registration.setLoadOnStartup(1);
     return registration;
   }
 
-  /** Simple servlet providing health status at root level */
+  /**
+   * Servlet providing health status at root level. Responses are pre-encoded, so a probe costs a
+   * volatile read and a small buffer write.
+   */
   public static class HealthServlet extends HttpServlet {
 
     private static final long serialVersionUID = 1L;
 
-    private static final String HEALTH_RESPONSE = "{\"status\":\"ok\"}";
+    private final transient Supplier<HealthStatus> readiness;
+
+    /** Create a servlet that always reports healthy. */
+    public HealthServlet() {
+      this(() -> HealthStatus.OK);
+    }
+
+    /**
+     * Create a servlet whose readiness endpoints report the supplied status.
+     *
+     * @param readiness readiness status evaluated on every readiness probe
+     */
+    public HealthServlet(final Supplier<HealthStatus> readiness) {
+      super();
+      this.readiness = readiness;
+    }
 
     @Override
     protected void doGet(HttpServletRequest request, final HttpServletResponse response)
         throws IOException {
+      final HealthStatus status =
+          LIVENESS_PATH.equals(request.getServletPath()) ? HealthStatus.OK : readiness.get();
       response.setContentType(MediaType.APPLICATION_JSON_VALUE);
       response.setCharacterEncoding(StandardCharsets.UTF_8.name());
-      response.setStatus(HttpServletResponse.SC_OK);
-      writeHealthResponse(response);
+      response.setStatus(
+          status.isHealthy()
+              ? HttpServletResponse.SC_OK
+              : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      writeHealthResponse(response, status);
     }
 
     @SuppressWarnings("PMD.LawOfDemeter")
-    private static void writeHealthResponse(final HttpServletResponse response) throws IOException {
-      try (PrintWriter writer = response.getWriter()) {
-        writer.write(HEALTH_RESPONSE);
+    private static void writeHealthResponse(
+        final HttpServletResponse response, final HealthStatus status) throws IOException {
+      response.setContentLength(status.contentLength());
+      try (ServletOutputStream output = response.getOutputStream()) {
+        status.writeTo(output);
       }
     }
   }
 
   /** Health controller providing service status - kept for context path aware access */
   @RestController
+  @RequiredArgsConstructor
   public static class HealthController {
 
-    @GetMapping(value = "/health", produces = "application/json")
+    private final HealthSampler healthSampler;
+
+    @GetMapping(
+        value = {HEALTH_PATH, READINESS_PATH},
+        produces = "application/json")
     public ResponseEntity<Map<String, String>> health() {
-      return ResponseEntity.ok(Map.of("status", "ok"));
+      final HealthStatus status = healthSampler.readiness();
+      final HttpStatus httpStatus =
+          status.isHealthy() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+      return ResponseEntity.status(httpStatus).body(Map.of("status", status.getStatus()));
+    }
+
+    @GetMapping(value = LIVENESS_PATH, produces = "application/json")
+    public ResponseEntity<Map<String, String>> liveness() {
+      return ResponseEntity.ok(Map.of("status", HealthStatus.OK.getStatus()));
     }
   }
 }
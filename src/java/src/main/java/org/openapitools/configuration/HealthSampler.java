@@ -0,0 +1,148 @@
+package org.openapitools.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes readiness in the background so health probes never touch the database.
+ *
+ * <p>A single daemon thread samples warm-up state, Hikari pool saturation, the recent database
+ * error count and (when the pool has an idle connection to spare) connection validity, and
+ * publishes the result as an immutable {@link HealthStatus}. Probes only perform a volatile read of
+ * the latest sample, which keeps them cheap no matter how often they are called.
+ */
+@Component
+public class HealthSampler {
+
+  private static final Logger logger = LoggerFactory.getLogger(HealthSampler.class);
+
+  private final JitWarmupRunner warmupRunner;
+  private final ObjectProvider<DataSource> dataSourceProvider;
+  private final DatabaseErrorTracker errorTracker;
+  private final long sampleIntervalMs;
+  private final int maxAwaitingConnections;
+  private final long maxDbErrors;
+  private final int probeTimeoutSeconds;
+
+  private volatile HealthStatus latest = HealthStatus.WARMING_UP;
+
+  private ScheduledExecutorService scheduler;
+
+  public HealthSampler(
+      final JitWarmupRunner warmupRunner,
+      final ObjectProvider<DataSource> dataSourceProvider,
+      final DatabaseErrorTracker errorTracker,
+      @Value("${lamp.health.sample-interval-ms:1000}") final long sampleIntervalMs,
+      @Value("${lamp.health.max-awaiting-connections:10}") final int maxAwaitingConnections,
+      @Value("${lamp.health.max-db-errors:5}") final long maxDbErrors,
+      @Value("${lamp.health.probe-timeout-seconds:1}") final int probeTimeoutSeconds) {
+    this.warmupRunner = warmupRunner;
+    this.dataSourceProvider = dataSourceProvider;
+    this.errorTracker = errorTracker;
+    this.sampleIntervalMs = sampleIntervalMs;
+    this.maxAwaitingConnections = maxAwaitingConnections;
+    this.maxDbErrors = maxDbErrors;
+    this.probeTimeoutSeconds = probeTimeoutSeconds;
+  }
+
+  /** Take a first sample and start periodic sampling. */
+  @PostConstruct
+  public void start() {
+    sample();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "health-sampler");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::sample, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop periodic sampling. */
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Latest readiness sample.
+   *
+   * @return readiness as of the most recent sample
+   */
+  public HealthStatus readiness() {
+    return latest;
+  }
+
+  /** Recompute readiness from the current warm-up, pool and error state. */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public void sample() {
+    try {
+      latest = evaluate();
+    } catch (RuntimeException e) {
+      logger.warn("Readiness sampling failed", e);
+      latest = HealthStatus.DATABASE_UNREACHABLE;
+    }
+  }
+
+  private HealthStatus evaluate() {
+    if (!warmupRunner.isWarmedUp()) {
+      return HealthStatus.WARMING_UP;
+    }
+    final DataSource dataSource = dataSourceProvider.getIfAvailable();
+    if (dataSource instanceof HikariDataSource hikari) {
+      final HealthStatus poolStatus = evaluatePool(hikari);
+      if (!poolStatus.isHealthy()) {
+        return poolStatus;
+      }
+    }
+    if (errorTracker.errorsInWindow() > maxDbErrors) {
+      return HealthStatus.DATABASE_ERRORS;
+    }
+    return HealthStatus.OK;
+  }
+
+  private HealthStatus evaluatePool(final HikariDataSource hikari) {
+    final HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+    if (pool == null) {
+      // Pool not started yet; it is created lazily on first use.
+      return HealthStatus.OK;
+    }
+    if (pool.getThreadsAwaitingConnection() > maxAwaitingConnections) {
+      return HealthStatus.POOL_SATURATED;
+    }
+    if (pool.getTotalConnections() == 0) {
+      return HealthStatus.DATABASE_UNREACHABLE;
+    }
+    if (pool.getIdleConnections() > 0 && !probe(hikari)) {
+      errorTracker.record();
+      return HealthStatus.DATABASE_UNREACHABLE;
+    }
+    return HealthStatus.OK;
+  }
+
+  private boolean probe(final DataSource dataSource) {
+    try (Connection connection = dataSource.getConnection()) {
+      return connection.isValid(probeTimeoutSeconds);
+    } catch (SQLException e) {
+      logger.debug("Readiness probe connection failed", e);
+      return false;
+    }
+  }
+}
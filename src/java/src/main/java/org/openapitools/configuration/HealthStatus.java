@@ -0,0 +1,54 @@
+package org.openapitools.configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable health probe result with its JSON body pre-encoded, so probes can be answered without
+ * any per-request serialization.
+ */
+public final class HealthStatus {
+
+  /** Healthy / ready status. */
+  public static final HealthStatus OK = new HealthStatus(true, "ok");
+
+  /** Warm-up has not finished yet. */
+  public static final HealthStatus WARMING_UP = new HealthStatus(false, "warming_up");
+
+  /** Too many requests are waiting for a database connection. */
+  public static final HealthStatus POOL_SATURATED = new HealthStatus(false, "pool_saturated");
+
+  /** Too many database errors were recorded recently. */
+  public static final HealthStatus DATABASE_ERRORS = new HealthStatus(false, "database_errors");
+
+  /** The connection pool holds no connections, or a probe connection was not valid. */
+  public static final HealthStatus DATABASE_UNREACHABLE =
+      new HealthStatus(false, "database_unreachable");
+
+  private final boolean healthy;
+  private final String status;
+  private final byte[] encoded;
+
+  private HealthStatus(final boolean healthy, final String status) {
+    this.healthy = healthy;
+    this.status = status;
+    this.encoded = ("{\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  /* default */ int contentLength() {
+    return encoded.length;
+  }
+
+  /* default */ void writeTo(final OutputStream output) throws IOException {
+    output.write(encoded);
+  }
+}
@@ -0,0 +1,264 @@
+package org.openapitools.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.openapitools.mapper.LampMapper;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.impl.InMemoryLampRepository;
+import org.openapitools.service.LampPagePrefetch;
+import org.openapitools.service.LampService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drives the lamp request path through the JIT compiler before the service reports ready.
+ *
+ * <p>Warm-up runs on a background thread once the application context is ready, and never writes a
+ * real lamp. Reads are HTTP requests to this instance's own server on the loopback interface, so
+ * they take the whole path of a client request: the filters, the real {@code LampsController} and
+ * {@code LampService}, the message converters and the store. They list the lamps that exist, in the
+ * default and the filtered order, and get the lamps listed, whole and projected. Writes go to a
+ * private {@link LampService} over its own {@link InMemoryLampRepository} that publishes no events,
+ * so creates, updates and deletes, and the JSON of what they return, are compiled without anything
+ * reaching the store, the analytics, the history, the change feed or other instances. Rounds are
+ * repeated until the JVM's accumulated compilation time stops growing (C2 has settled), or until
+ * the configured round or time budget is exhausted.
+ *
+ * <p>{@link #isWarmedUp()} stays false until warm-up finishes; the health endpoint uses it to keep
+ * the instance out of rotation in the meantime. Without a web server there is nothing to warm up.
+ */
+@Component
+public class JitWarmupRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(JitWarmupRunner.class);
+
+  private static final int SEED_LAMPS = 50;
+
+  private static final int PAGE_SIZE = 25;
+
+  private static final String LAMPS_PATH = "/v1/lamps";
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+  private final ObjectMapper objectMapper;
+  private final boolean enabled;
+  private final long maxDurationMs;
+  private final int maxRounds;
+  private final int iterationsPerRound;
+  private final long settleThresholdMs;
+  private final int settleRounds;
+
+  private volatile boolean warmedUp;
+
+  public JitWarmupRunner(
+      final ObjectMapper objectMapper,
+      @Value("${lamp.warmup.enabled:true}") final boolean enabled,
+      @Value("${lamp.warmup.max-duration-ms:60000}") final long maxDurationMs,
+      @Value("${lamp.warmup.max-rounds:200}") final int maxRounds,
+      @Value("${lamp.warmup.iterations-per-round:500}") final int iterationsPerRound,
+      @Value("${lamp.warmup.settle-threshold-ms:5}") final long settleThresholdMs,
+      @Value("${lamp.warmup.settle-rounds:3}") final int settleRounds) {
+    this.objectMapper = objectMapper;
+    this.enabled = enabled;
+    this.maxDurationMs = maxDurationMs;
+    this.maxRounds = maxRounds;
+    this.iterationsPerRound = iterationsPerRound;
+    this.settleThresholdMs = settleThresholdMs;
+    this.settleRounds = settleRounds;
+    this.warmedUp = !enabled;
+  }
+
+  /**
+   * Whether warm-up has finished (or is disabled).
+   *
+   * @return true once the instance may receive traffic
+   */
+  public boolean isWarmedUp() {
+    return warmedUp;
+  }
+
+  /**
+   * Start warm-up on a daemon thread once the application has started.
+   *
+   * @param event the application being ready, with the web server it listens on
+   */
+  @EventListener
+  public void startWarmup(final ApplicationReadyEvent event) {
+    if (!enabled || warmedUp) {
+      return;
+    }
+    final int port =
+        event.getApplicationContext() instanceof WebServerApplicationContext web
+            ? web.getWebServer().getPort()
+            : -1;
+    if (port <= 0) {
+      logger.info("JIT warm-up skipped: no web server to send requests to");
+      warmedUp = true;
+      return;
+    }
+    final URI server = URI.create("http://localhost:" + port);
+    final Thread thread = new Thread(() -> runWarmup(server), "jit-warmup");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Run warm-up rounds against a server until compilation settles or the budget is exhausted, then
+   * mark the instance as warmed up. Failures are logged and never keep the instance out of
+   * rotation.
+   *
+   * @param server base URI of this instance's web server
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public void runWarmup(final URI server) {
+    final long startNanos = System.nanoTime();
+    final long deadline = startNanos + maxDurationMs * 1_000_000L;
+    int rounds = 0;
+    final LampPagePrefetch noPrefetch = new LampPagePrefetch(false, 0, 1);
+    try (HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build()) {
+      final Requests requests = new Requests(client, server);
+      final LampService scratch =
+          new LampService(
+              new InMemoryLampRepository(),
+              new LampMapper(),
+              event -> {},
+              noPrefetch,
+              Optional.empty());
+      final List<UUID> scratchIds = new ArrayList<>(SEED_LAMPS);
+      for (int i = 0; i < SEED_LAMPS; i++) {
+        scratchIds.add(scratch.create(withStatus(i % 2 == 0)).getId());
+      }
+      final List<String> listedIds = requests.listedIds();
+      long previousCompilationMs = compilationTimeMs();
+      int stableRounds = 0;
+      while (rounds < maxRounds && stableRounds < settleRounds && System.nanoTime() < deadline) {
+        runRound(requests, listedIds, scratch, scratchIds);
+        rounds++;
+        final long currentCompilationMs = compilationTimeMs();
+        if (currentCompilationMs - previousCompilationMs <= settleThresholdMs) {
+          stableRounds++;
+        } else {
+          stableRounds = 0;
+        }
+        previousCompilationMs = currentCompilationMs;
+      }
+    } catch (RuntimeException | IOException e) {
+      logger.warn("JIT warm-up aborted after {} round(s); continuing without it", rounds, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("JIT warm-up interrupted after {} round(s)", rounds);
+    } finally {
+      noPrefetch.stop();
+      warmedUp = true;
+    }
+    if (logger.isInfoEnabled()) {
+      logger.info(
+          "JIT warm-up finished after {} round(s) in {} ms",
+          rounds,
+          (System.nanoTime() - startNanos) / 1_000_000L);
+    }
+  }
+
+  private void runRound(
+      final Requests requests,
+      final List<String> listedIds,
+      final LampService scratch,
+      final List<UUID> scratchIds)
+      throws IOException, InterruptedException {
+    for (int i = 0; i < iterationsPerRound; i++) {
+      if (!listedIds.isEmpty()) {
+        final String lampPath = LAMPS_PATH + "/" + listedIds.get(i % listedIds.size());
+        requests.send(HttpRequest.newBuilder().GET(), lampPath);
+        // The projection pollers ask for; it reads through different code.
+        requests.send(HttpRequest.newBuilder().GET(), lampPath + "?fields=id,status");
+      }
+      requests.send(
+          HttpRequest.newBuilder().GET().header("Accept-Encoding", "gzip"),
+          LAMPS_PATH + "?pageSize=" + PAGE_SIZE + (i % 2 == 0 ? "" : "&cursor=" + PAGE_SIZE));
+      // The filtered, keyset-paged list runs different code; warm it as well.
+      requests.send(
+          HttpRequest.newBuilder().GET(),
+          LAMPS_PATH
+              + "?pageSize="
+              + PAGE_SIZE
+              + "&status="
+              + (i % 2 == 0)
+              + "&sort=-updatedAt&fields=id,status&includeTotal=true");
+
+      final UUID scratchId = scratchIds.get(i % scratchIds.size());
+      objectMapper.writeValueAsBytes(scratch.findById(scratchId).orElseThrow());
+      objectMapper.writeValueAsBytes(scratch.update(scratchId, withStatus(i % 2 != 0)));
+    }
+    final Lamp created = scratch.create(withStatus(false));
+    objectMapper.writeValueAsBytes(created);
+    scratch.delete(created.getId());
+  }
+
+  private static Lamp withStatus(final boolean status) {
+    return new Lamp().status(status);
+  }
+
+  private static long compilationTimeMs() {
+    final CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+    if (compilation == null || !compilation.isCompilationTimeMonitoringSupported()) {
+      return 0L;
+    }
+    return compilation.getTotalCompilationTime();
+  }
+
+  /** Read requests to the server warmed up, failing on any status but success. */
+  private final class Requests {
+
+    private final HttpClient client;
+    private final URI server;
+
+    private Requests(final HttpClient client, final URI server) {
+      this.client = client;
+      this.server = server;
+    }
+
+    /** IDs of the lamps on the first page of the list, to get them one by one. */
+    private List<String> listedIds() throws IOException, InterruptedException {
+      final byte[] page =
+          send(HttpRequest.newBuilder().GET(), LAMPS_PATH + "?pageSize=" + PAGE_SIZE);
+      final List<String> ids = new ArrayList<>(PAGE_SIZE);
+      objectMapper.readTree(page).path("data").forEach(lamp -> ids.add(lamp.get("id").asText()));
+      return ids;
+    }
+
+    private byte[] send(final HttpRequest.Builder request, final String path)
+        throws IOException, InterruptedException {
+      final HttpResponse<byte[]> response =
+          client.send(
+              request
+                  .uri(server.resolve(path))
+                  .timeout(REQUEST_TIMEOUT)
+                  .header("Content-Type", "application/json")
+                  .header("Accept", "application/json")
+                  .build(),
+              HttpResponse.BodyHandlers.ofByteArray());
+      if (!HttpStatusCode.valueOf(response.statusCode()).is2xxSuccessful()) {
+        throw new IllegalStateException(
+            "Warm-up request " + path + " answered " + response.statusCode());
+      }
+      return response.body();
+    }
+  }
+}
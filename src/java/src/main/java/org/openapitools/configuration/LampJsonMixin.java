@@ -0,0 +1,15 @@
+package org.openapitools.configuration;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.openapitools.model.Lamp;
+import org.springframework.boot.jackson.JsonMixin;
+
+/**
+ * Leaves null fields of a {@link Lamp} out of JSON and CBOR bodies. A full lamp has none; a lamp
+ * read with a {@code fields} projection has the fields outside it null, and they are skipped
+ * instead of written out as {@code null}. The model is generated, so the inclusion is mixed in
+ * rather than declared on it.
+ */
+@JsonMixin(Lamp.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+interface LampJsonMixin {}
@@ -0,0 +1,20 @@
+package org.openapitools.configuration;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.openapitools.model.ListLamps200Response;
+import org.springframework.boot.jackson.JsonMixin;
+
+/**
+ * Leaves the total of a {@link ListLamps200Response} out of JSON and CBOR bodies unless it was
+ * asked for with {@code includeTotal}, so lists without it keep their body. Only these two
+ * properties are mixed in; the others are written as before.
+ */
+@JsonMixin(ListLamps200Response.class)
+interface ListLampsJsonMixin {
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  Long getTotal();
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  Boolean getTotalExact();
+}
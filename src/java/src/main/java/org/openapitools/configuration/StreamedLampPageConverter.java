@@ -0,0 +1,59 @@
+package org.openapitools.configuration;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.openapitools.service.StreamedLampPage;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Writes a {@link StreamedLampPage} as JSON straight from its rows into the response body.
+ *
+ * <p>Message converter beans come before Spring's own, so a JSON page of this type is written here
+ * rather than by the Jackson converter; the generator is the application's {@code ObjectMapper}'s,
+ * configured as for any other body. Other media types fall through to their converters, which read
+ * the page through its getters.
+ */
+@Component
+public class StreamedLampPageConverter extends AbstractHttpMessageConverter<StreamedLampPage> {
+
+  private final ObjectMapper objectMapper;
+
+  public StreamedLampPageConverter(final ObjectMapper objectMapper) {
+    super(MediaType.APPLICATION_JSON);
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean supports(final Class<?> clazz) {
+    return StreamedLampPage.class.equals(clazz);
+  }
+
+  @Override
+  protected boolean canRead(final MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected StreamedLampPage readInternal(
+      final Class<? extends StreamedLampPage> clazz, final HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Streamed lamp pages are only written", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(final StreamedLampPage page, final HttpOutputMessage outputMessage)
+      throws IOException {
+    try (JsonGenerator gen =
+        objectMapper.createGenerator(
+            StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+      page.writeTo(gen);
+    }
+  }
+}
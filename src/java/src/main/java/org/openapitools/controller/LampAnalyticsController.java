@@ -0,0 +1,83 @@
+package org.openapitools.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.openapitools.service.LampAnalytics;
+import org.openapitools.service.LampAnalytics.HourOfDayUsage;
+import org.openapitools.service.LampAnalytics.HourlyStateChanges;
+import org.openapitools.service.LampAnalytics.StatusTotals;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Dashboard analytics, served from the precomputed aggregates kept by {@link LampAnalytics} instead
+ * of the full-table queries in {@code database/ANALYTICS.md}. Ranges are half-open, {@code from}
+ * inclusive and {@code to} exclusive, and bucketed by UTC hour.
+ */
+@RestController
+@RequestMapping("/v1/analytics")
+@RequiredArgsConstructor
+public class LampAnalyticsController {
+
+  private static final Duration STATE_CHANGES_DEFAULT_RANGE = Duration.ofHours(24);
+
+  private static final Duration USAGE_DEFAULT_RANGE = Duration.ofDays(7);
+
+  private final LampAnalytics analytics;
+
+  /**
+   * Active lamp counts.
+   *
+   * @return total lamps, lamps on and lamps off
+   */
+  @GetMapping("/status")
+  public ResponseEntity<StatusTotals> getStatusTotals() {
+    return ResponseEntity.ok(analytics.statusTotals());
+  }
+
+  /**
+   * Lamps turned on and off per hour.
+   *
+   * @param from start of the range; defaults to 24 hours before {@code to}
+   * @param to end of the range; defaults to now
+   * @return hours with at least one transition, oldest first
+   */
+  @GetMapping("/state-changes")
+  public ResponseEntity<List<HourlyStateChanges>> getStateChanges(
+      @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final Optional<OffsetDateTime> from,
+      @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final Optional<OffsetDateTime> to) {
+    final Instant end = to.map(OffsetDateTime::toInstant).orElseGet(Instant::now);
+    final Instant start =
+        from.map(OffsetDateTime::toInstant).orElseGet(() -> end.minus(STATE_CHANGES_DEFAULT_RANGE));
+    return ResponseEntity.ok(analytics.stateChanges(start, end));
+  }
+
+  /**
+   * Lamps turned on and off by hour of day.
+   *
+   * @param from start of the range; defaults to 7 days before {@code to}
+   * @param to end of the range; defaults to now
+   * @return 24 entries, hour 0 first
+   */
+  @GetMapping("/usage-by-hour")
+  public ResponseEntity<List<HourOfDayUsage>> getUsageByHour(
+      @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final Optional<OffsetDateTime> from,
+      @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final Optional<OffsetDateTime> to) {
+    final Instant end = to.map(OffsetDateTime::toInstant).orElseGet(Instant::now);
+    final Instant start =
+        from.map(OffsetDateTime::toInstant).orElseGet(() -> end.minus(USAGE_DEFAULT_RANGE));
+    return ResponseEntity.ok(analytics.usageByHourOfDay(start, end));
+  }
+}
@@ -0,0 +1,95 @@
+package org.openapitools.controller;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.openapitools.service.LampBulkUpdate;
+import org.openapitools.service.LampBulkUpdate.BulkJob;
+import org.openapitools.service.LampBulkUpdate.LampFilter;
+import org.openapitools.service.LampBulkUpdate.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bulk status updates of the lamps matching a filter; see {@link LampBulkUpdate} for the chunking
+ * and job semantics.
+ */
+@RestController
+@RequestMapping("/v1/lamps/bulk-status")
+@RequiredArgsConstructor
+public class LampBulkUpdateController {
+
+  private static final String JOBS_PATH = "/v1/lamps/bulk-status/jobs/";
+
+  private final LampBulkUpdate bulkUpdate;
+
+  /**
+   * Set the status of every active lamp matching a filter.
+   *
+   * @param request the status, the filter and whether to run as a job
+   * @return 200 with the finished job, 500 with the lamps changed so far if it failed, or 202 with
+   *     the queued job and its location when run as a job
+   */
+  @PostMapping
+  public ResponseEntity<BulkJob> updateLampStatus(@RequestBody final BulkStatusRequest request) {
+    if (request.status() == null) {
+      throw new IllegalArgumentException("'status' is required");
+    }
+    final LampFilter filter =
+        new LampFilter(
+            Optional.ofNullable(request.currentStatus()),
+            Optional.ofNullable(request.createdFrom()),
+            Optional.ofNullable(request.createdTo()),
+            Optional.ofNullable(request.ids()));
+    if (request.async()) {
+      final BulkJob job = bulkUpdate.submit(filter, request.status());
+      return ResponseEntity.accepted().location(URI.create(JOBS_PATH + job.id())).body(job);
+    }
+    final BulkJob job = bulkUpdate.run(filter, request.status());
+    return job.state() == State.FAILED
+        ? ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job)
+        : ResponseEntity.ok(job);
+  }
+
+  /**
+   * Progress of a bulk update job.
+   *
+   * @param jobId job ID
+   * @return the job, or 404 if it is unknown to this instance or no longer retained
+   */
+  @GetMapping("/jobs/{jobId}")
+  public ResponseEntity<BulkJob> getBulkUpdateJob(@PathVariable("jobId") final UUID jobId) {
+    return ResponseEntity.of(bulkUpdate.job(jobId));
+  }
+
+  /**
+   * Body of a bulk status update.
+   *
+   * @param status status to set
+   * @param currentStatus only lamps with this status; optional
+   * @param createdFrom only lamps created at or after this; optional
+   * @param createdTo only lamps created before this; optional
+   * @param ids only these lamps; optional
+   * @param async whether to run as a job and answer at once
+   */
+  @SuppressFBWarnings(
+      value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+      justification = "Request body, only read by the controller")
+  public record BulkStatusRequest(
+      Boolean status,
+      Boolean currentStatus,
+      OffsetDateTime createdFrom,
+      OffsetDateTime createdTo,
+      List<UUID> ids,
+      boolean async) {}
+}
@@ -0,0 +1,143 @@
+package org.openapitools.controller;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.LampField;
+
+/**
+ * Entity tags for lamp responses, computed from lamp fields rather than from serialized bodies.
+ *
+ * <p>A single lamp gets a strong tag from its ID, {@code updatedAt} and status. Pages get weak
+ * tags, because their gzip and identity encodings are interchangeable and Tomcat does not compress
+ * responses that carry a strong tag. A page tag either names the collection version (see {@link
+ * org.openapitools.service.LampCollectionVersion}), or, when that is not known, hashes the same
+ * fields of every lamp on the page. Fields outside a {@code fields} projection hash as absent, and
+ * the tag names the projection. A page sent with the total of its list also names the total.
+ */
+/* default */ final class LampETags {
+
+  private static final int LAMP_BYTES = 2 * Long.BYTES + Long.BYTES + Integer.BYTES + 1;
+
+  private static final int HASH_BYTES = 12;
+
+  private LampETags() {}
+
+  /**
+   * Strong tag for one lamp.
+   *
+   * @param lamp the lamp
+   * @return quoted entity tag
+   */
+  /* default */ static String forLamp(final Lamp lamp) {
+    final OffsetDateTime updatedAt = lamp.getUpdatedAt();
+    final long seconds = updatedAt == null ? 0 : updatedAt.toEpochSecond();
+    final int nanos = updatedAt == null ? 0 : updatedAt.getNano();
+    return "\""
+        + lamp.getId()
+        + '-'
+        + Long.toHexString(seconds)
+        + '.'
+        + Integer.toHexString(nanos)
+        + '-'
+        + (Boolean.TRUE.equals(lamp.getStatus()) ? '1' : '0')
+        + '"';
+  }
+
+  /**
+   * Weak tag for a page at a known collection version.
+   *
+   * @param instanceId process the version belongs to
+   * @param version collection version
+   * @param offset page offset
+   * @param limit page size
+   * @return weak entity tag
+   */
+  /* default */ static String forPage(
+      final String instanceId, final long version, final int offset, final int limit) {
+    return "W/\"v" + instanceId + '.' + version + '.' + offset + '.' + limit + '"';
+  }
+
+  /**
+   * Weak tag for a page, hashed from its lamps.
+   *
+   * @param lamps lamps on the page
+   * @param hasMore whether more pages follow
+   * @param offset page offset
+   * @param limit page size
+   * @return weak entity tag
+   */
+  /* default */ static String forPage(
+      final List<Lamp> lamps, final boolean hasMore, final int offset, final int limit) {
+    final ByteBuffer buffer = ByteBuffer.allocate(lamps.size() * LAMP_BYTES);
+    for (final Lamp lamp : lamps) {
+      final UUID id = lamp.getId();
+      final OffsetDateTime updatedAt = lamp.getUpdatedAt();
+      buffer
+          .putLong(id.getMostSignificantBits())
+          .putLong(id.getLeastSignificantBits())
+          .putLong(updatedAt == null ? 0 : updatedAt.toEpochSecond())
+          .putInt(updatedAt == null ? 0 : updatedAt.getNano())
+          .put((byte) (Boolean.TRUE.equals(lamp.getStatus()) ? 1 : 0));
+    }
+    final byte[] hash = sha256().digest(buffer.array());
+    return "W/\"h"
+        + HexFormat.of().formatHex(hash, 0, HASH_BYTES)
+        + '.'
+        + (hasMore ? 'm' : 'e')
+        + '.'
+        + offset
+        + '.'
+        + limit
+        + '"';
+  }
+
+  /**
+   * A tag for a projection of the tagged lamps: the tag of the full lamps as is, otherwise with the
+   * projection appended, since the same lamps have one representation per projection.
+   *
+   * @param tag quoted entity tag, strong or weak
+   * @param fields the fields of the projection
+   * @return quoted entity tag
+   */
+  /* default */ static String projected(final String tag, final Set<LampField> fields) {
+    if (LampField.ALL.equals(fields)) {
+      return tag;
+    }
+    return tag.substring(0, tag.length() - 1)
+        + ".f"
+        + Integer.toHexString(LampField.mask(fields))
+        + '"';
+  }
+
+  /**
+   * A tag for a page sent with the total of its list: the total is appended, since it can change
+   * while the lamps of the page do not.
+   *
+   * @param tag quoted entity tag, strong or weak
+   * @param total the total sent with the page
+   * @return quoted entity tag
+   */
+  /* default */ static String counted(final String tag, final ActiveCount total) {
+    return tag.substring(0, tag.length() - 1)
+        + ".t"
+        + total.count()
+        + (total.exact() ? 'x' : 'e')
+        + '"';
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required by the Java platform", e);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.openapitools.controller;
+
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.openapitools.service.LampChangeFeed;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams lamp changes as Server-Sent Events, so dashboards do not have to poll {@code GET
+ * /v1/lamps}. Event names are {@code created}, {@code updated} and {@code deleted}, with the lamp
+ * as JSON data; see {@link LampChangeFeed} for resume and eviction semantics.
+ */
+@RestController
+@RequestMapping("/v1")
+@RequiredArgsConstructor
+public class LampEventsController {
+
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+  private final LampChangeFeed changeFeed;
+
+  /**
+   * Subscribe to lamp changes.
+   *
+   * @param lastEventId ID of the last event received, to resume after a reconnect
+   * @return the event stream, or 503 when the feed is at its subscriber limit
+   */
+  @GetMapping(value = "/lamps/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamLampEvents(
+      @RequestHeader(value = LAST_EVENT_ID, required = false) final Optional<String> lastEventId) {
+    return changeFeed
+        .subscribe(lastEventId)
+        .map(ResponseEntity::ok)
+        .orElseGet(
+            () ->
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build());
+  }
+}
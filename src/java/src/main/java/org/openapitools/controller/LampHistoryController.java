@@ -0,0 +1,55 @@
+package org.openapitools.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.openapitools.service.LampStateHistory;
+import org.openapitools.service.LampStateHistory.LampStateChange;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Status history of a single lamp, from the log kept by {@link LampStateHistory}. The history of a
+ * deleted lamp stays readable until it expires.
+ */
+@RestController
+@RequestMapping("/v1/lamps")
+@RequiredArgsConstructor
+public class LampHistoryController {
+
+  private static final Duration DEFAULT_RANGE = Duration.ofDays(30);
+
+  private final LampStateHistory history;
+
+  /**
+   * Status transitions of a lamp, oldest first.
+   *
+   * @param lampId lamp ID
+   * @param from start of the range, inclusive; defaults to 30 days before {@code to}
+   * @param to end of the range, exclusive; defaults to now
+   * @param limit maximum number of transitions
+   * @return the transitions; empty for an unknown lamp
+   */
+  @GetMapping("/{lampId}/history")
+  public ResponseEntity<List<LampStateChange>> getLampHistory(
+      @PathVariable("lampId") final UUID lampId,
+      @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final Optional<OffsetDateTime> from,
+      @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          final Optional<OffsetDateTime> to,
+      @RequestParam(value = "limit", defaultValue = "100") final int limit) {
+    final Instant end = to.map(OffsetDateTime::toInstant).orElseGet(Instant::now);
+    final Instant start =
+        from.map(OffsetDateTime::toInstant).orElseGet(() -> end.minus(DEFAULT_RANGE));
+    return ResponseEntity.ok(history.history(lampId, start, end, limit));
+  }
+}
@@ -0,0 +1,60 @@
+package org.openapitools.controller;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.ListSort;
+
+/**
+ * The {@code sort} and {@code fields} query parameters of the lamp endpoints, as the orders and
+ * fields the repository reads by. A name the API does not define is a bad request.
+ */
+/* default */ final class LampQueryParameters {
+
+  private LampQueryParameters() {}
+
+  /**
+   * The order named by a {@code sort} parameter.
+   *
+   * @param parameter {@code createdAt}, {@code updatedAt}, or either prefixed with {@code -} for
+   *     descending
+   * @return the order
+   * @throws IllegalArgumentException if no order has that name
+   */
+  /* default */ static ListSort sort(final String parameter) {
+    return switch (parameter) {
+      case "createdAt" -> ListSort.CREATED_AT;
+      case "-createdAt" -> ListSort.CREATED_AT_DESC;
+      case "updatedAt" -> ListSort.UPDATED_AT;
+      case "-updatedAt" -> ListSort.UPDATED_AT_DESC;
+      default -> throw new IllegalArgumentException("Invalid query parameter 'sort'");
+    };
+  }
+
+  /**
+   * The fields named by a {@code fields} parameter, with {@link LampField#ID} added.
+   *
+   * @param names field names as in the API
+   * @return the fields, in declaration order
+   * @throws IllegalArgumentException if a name is not a field
+   */
+  /* default */ static Set<LampField> fields(final List<String> names) {
+    final Set<LampField> fields = EnumSet.of(LampField.ID);
+    for (final String name : names) {
+      fields.add(field(name.trim()));
+    }
+    return Collections.unmodifiableSet(fields);
+  }
+
+  private static LampField field(final String name) {
+    return switch (name) {
+      case "id" -> LampField.ID;
+      case "status" -> LampField.STATUS;
+      case "createdAt" -> LampField.CREATED_AT;
+      case "updatedAt" -> LampField.UPDATED_AT;
+      default -> throw new IllegalArgumentException("Invalid query parameter 'fields'");
+    };
+  }
+}
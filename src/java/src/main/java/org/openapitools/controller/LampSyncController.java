@@ -0,0 +1,41 @@
+package org.openapitools.controller;
+
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.openapitools.service.LampSync;
+import org.openapitools.service.LampSync.LampChanges;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Delta sync of the lamp list for offline-first clients; see {@link LampSync} for the ordering and
+ * token semantics.
+ */
+@RestController
+@RequestMapping("/v1/lamps")
+@RequiredArgsConstructor
+public class LampSyncController {
+
+  private final LampSync sync;
+
+  /**
+   * Lamps created, updated or deleted since a sync token.
+   *
+   * @param syncToken {@code syncToken} of the previous response; omit for a first sync
+   * @param limit maximum number of changes
+   * @return the changes and the next token, or 410 if the token is too old to resume from and the
+   *     client has to sync from scratch
+   */
+  @GetMapping("/changes")
+  public ResponseEntity<LampChanges> getLampChanges(
+      @RequestParam("syncToken") final Optional<String> syncToken,
+      @RequestParam(value = "limit", defaultValue = "100") final int limit) {
+    return sync.changesSince(syncToken, limit)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+  }
+}
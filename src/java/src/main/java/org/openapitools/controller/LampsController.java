@@ -1,27 +1,90 @@
 package org.openapitools.controller;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.openapitools.api.LampsApi;
 import org.openapitools.exception.LampNotFoundException;
 import org.openapitools.model.Lamp;
+import org.openapitools.model.LampBatchGetRequest;
+import org.openapitools.model.LampBatchGetResponse;
 import org.openapitools.model.LampCreate;
 import org.openapitools.model.LampUpdate;
 import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.service.LampCollectionVersion;
+import org.openapitools.service.LampCounts;
+import org.openapitools.service.LampKeysetCursor;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampPageStream;
 import org.openapitools.service.LampService;
+import org.openapitools.service.LampWriteCoalescer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.NativeWebRequest;
 
+/**
+ * REST implementation of {@link LampsApi}.
+ *
+ * <p>{@code getLamp} and {@code listLamps} send entity tags (see {@link LampETags}) and answer a
+ * matching {@code If-None-Match} with 304 before the body is serialized. When the collection
+ * version is in use, a page of the unfiltered list is revalidated without reading it from the
+ * repository.
+ *
+ * <p>{@code listLamps} without a filter and in the default order pages by offset, in a snapshot
+ * where the repository keeps them; with a filter or another order it pages by keyset through the
+ * index of that order (see {@link LampService#findActivePage}).
+ *
+ * <p>Both take a {@code fields} projection: only those fields are read and serialized, the others
+ * are left out of the body, and the entity tags name the projection so that tags of different
+ * projections never match.
+ *
+ * <p>With {@code includeTotal}, a list page also carries the number of lamps matching its filter,
+ * from {@link LampCounts}, and its entity tag names that total.
+ *
+ * <p>A page of whole lamps of the unfiltered list whose tag is the collection version needs no lamp
+ * for its tag, so where {@link LampPageStream} streams pages it is written from the rows of the
+ * store as the body is written, without a model per lamp.
+ */
 @Controller
 @RequestMapping("/v1")
 @RequiredArgsConstructor
+@SuppressWarnings("PMD.CouplingBetweenObjects")
 public class LampsController implements LampsApi {
 
   private final LampService lampService;
+  private final LampWriteCoalescer writeCoalescer;
+  private final LampCollectionVersion collectionVersion;
+  private final LampCounts lampCounts;
+  private final LampPageStream pageStream;
+  private final NativeWebRequest request;
+
+  @Override
+  public Optional<NativeWebRequest> getRequest() {
+    return Optional.of(request);
+  }
+
+  @Override
+  public CompletableFuture<ResponseEntity<LampBatchGetResponse>> batchGetLamps(
+      final LampBatchGetRequest lampBatchGetRequest) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          final List<UUID> ids =
+              lampBatchGetRequest.getIds().stream().map(UUID::fromString).toList();
+          final LampService.LampBatch batch = lampService.findByIds(ids);
+          return ResponseEntity.ok(
+              new LampBatchGetResponse(
+                  batch.lamps(), batch.missing().stream().map(UUID::toString).toList()));
+        },
+        Runnable::run);
+  }
 
   @Override
   public CompletableFuture<ResponseEntity<Lamp>> createLamp(final LampCreate lampCreate) {
@@ -47,46 +110,157 @@ public class LampsController implements LampsApi {
   }
 
   @Override
-  public CompletableFuture<ResponseEntity<Lamp>> getLamp(final String lampId) {
+  public CompletableFuture<ResponseEntity<Lamp>> getLamp(
+      final String lampId, final Optional<List<String>> fields) {
     return CompletableFuture.supplyAsync(
         () -> {
           final UUID lampUuid = UUID.fromString(lampId);
+          final Set<LampRepository.LampField> projection = projection(fields);
           final Lamp lamp =
-              lampService.findById(lampUuid).orElseThrow(() -> new LampNotFoundException(lampUuid));
-          return ResponseEntity.ok().body(lamp);
+              (LampRepository.LampField.ALL.equals(projection)
+                      ? lampService.findById(lampUuid)
+                      : lampService.findById(lampUuid, projection))
+                  .orElseThrow(() -> new LampNotFoundException(lampUuid));
+          return ResponseEntity.ok()
+              .eTag(LampETags.projected(LampETags.forLamp(lamp), projection))
+              .body(lamp);
         },
         Runnable::run);
   }
 
   @Override
   public CompletableFuture<ResponseEntity<ListLamps200Response>> listLamps(
-      final Optional<String> cursor, final Optional<Integer> pageSize) {
+      final Optional<String> cursor,
+      final Optional<Integer> pageSize,
+      final Optional<Boolean> status,
+      final Optional<OffsetDateTime> createdFrom,
+      final Optional<OffsetDateTime> createdTo,
+      final Optional<OffsetDateTime> updatedFrom,
+      final Optional<OffsetDateTime> updatedTo,
+      final Optional<String> sort,
+      final Optional<List<String>> fields,
+      final Optional<Boolean> includeTotal) {
     return CompletableFuture.supplyAsync(
         () -> {
-          final int offset = parseCursor(cursor);
           final int limit = pageSize.orElse(25);
-          final LampService.PagedLampsResult pagedResult =
-              lampService.findAllActivePage(offset, limit);
-          final ListLamps200Response response = new ListLamps200Response();
-          response.setData(pagedResult.data());
-          response.setHasMore(pagedResult.hasMore());
-          pagedResult.nextCursor().ifPresent(response::nextCursor);
-          return ResponseEntity.ok().body(response);
+          final LampRepository.ListSort order =
+              sort.map(LampQueryParameters::sort).orElse(LampRepository.ListSort.CREATED_AT);
+          final LampRepository.ListFilter filter =
+              new LampRepository.ListFilter(status, createdFrom, createdTo, updatedFrom, updatedTo);
+          final Set<LampRepository.LampField> projection = projection(fields);
+          final Optional<LampRepository.ActiveCount> total =
+              includeTotal.orElse(false) ? Optional.of(lampCounts.total(filter)) : Optional.empty();
+          return LampRepository.ListFilter.NONE.equals(filter)
+                  && order == LampRepository.ListSort.CREATED_AT
+              ? listAll(cursor, limit, projection, total)
+              : listMatching(filter, order, cursor, limit, projection, total);
         },
         Runnable::run);
   }
 
-  private int parseCursor(final Optional<String> cursor) {
-    if (cursor.isEmpty() || cursor.get().isBlank()) {
-      return 0;
+  /**
+   * Every active lamp in creation order, by offset cursor and revalidated by collection version.
+   */
+  private ResponseEntity<ListLamps200Response> listAll(
+      final Optional<String> cursor,
+      final int limit,
+      final Set<LampRepository.LampField> projection,
+      final Optional<LampRepository.ActiveCount> total) {
+    final LampPageCursor position = parseCursor(cursor);
+    final int offset = position.offset();
+    // Read before the page, so a write racing the read leaves the tag stale, not the page.
+    final OptionalLong version = collectionVersion.current();
+    final String versionTag =
+        version.isPresent()
+            ? tagged(
+                LampETags.forPage(
+                    collectionVersion.instanceId(), version.getAsLong(), offset, limit),
+                projection,
+                total)
+            : null;
+    if (versionTag != null && request.checkNotModified(versionTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(versionTag)
+          .<ListLamps200Response>build();
     }
-
-    try {
-      final int parsed = Integer.parseInt(cursor.get());
-      return Math.max(parsed, 0);
-    } catch (final NumberFormatException ignored) {
-      return 0;
+    if (versionTag != null && LampRepository.LampField.ALL.equals(projection)) {
+      final Optional<ListLamps200Response> streamed = pageStream.page(position, limit);
+      if (streamed.isPresent()) {
+        return ResponseEntity.ok().eTag(versionTag).body(withTotal(streamed.get(), total));
+      }
     }
+    final LampService.PagedLampsResult pagedResult =
+        LampRepository.LampField.ALL.equals(projection)
+            ? lampService.findAllActivePage(position, limit)
+            : lampService.findAllActivePage(position, limit, projection);
+    final String eTag =
+        versionTag != null
+            ? versionTag
+            : tagged(
+                LampETags.forPage(pagedResult.data(), pagedResult.hasMore(), offset, limit),
+                projection,
+                total);
+    return ResponseEntity.ok().eTag(eTag).body(toResponse(pagedResult, total));
+  }
+
+  /**
+   * The lamps matching a filter in a sort order, by keyset cursor. The collection version says
+   * nothing about which lamps match, so the page is always read and its tag hashed from its lamps.
+   */
+  private ResponseEntity<ListLamps200Response> listMatching(
+      final LampRepository.ListFilter filter,
+      final LampRepository.ListSort order,
+      final Optional<String> cursor,
+      final int limit,
+      final Set<LampRepository.LampField> projection,
+      final Optional<LampRepository.ActiveCount> total) {
+    final Optional<LampKeysetCursor> after = cursor.flatMap(LampKeysetCursor::parse);
+    final LampService.PagedLampsResult pagedResult =
+        LampRepository.LampField.ALL.equals(projection)
+            ? lampService.findActivePage(filter, order, after, limit)
+            : lampService.findActivePage(filter, order, after, limit, projection);
+    final String eTag =
+        tagged(
+            LampETags.forPage(pagedResult.data(), pagedResult.hasMore(), 0, limit),
+            projection,
+            total);
+    return ResponseEntity.ok().eTag(eTag).body(toResponse(pagedResult, total));
+  }
+
+  private static Set<LampRepository.LampField> projection(final Optional<List<String>> fields) {
+    return fields.map(LampQueryParameters::fields).orElse(LampRepository.LampField.ALL);
+  }
+
+  private static String tagged(
+      final String tag,
+      final Set<LampRepository.LampField> projection,
+      final Optional<LampRepository.ActiveCount> total) {
+    final String projected = LampETags.projected(tag, projection);
+    return total.map(count -> LampETags.counted(projected, count)).orElse(projected);
+  }
+
+  private static ListLamps200Response toResponse(
+      final LampService.PagedLampsResult pagedResult,
+      final Optional<LampRepository.ActiveCount> total) {
+    final ListLamps200Response response = new ListLamps200Response();
+    response.setData(pagedResult.data());
+    response.setHasMore(pagedResult.hasMore());
+    pagedResult.nextCursor().ifPresent(response::nextCursor);
+    return withTotal(response, total);
+  }
+
+  private static ListLamps200Response withTotal(
+      final ListLamps200Response response, final Optional<LampRepository.ActiveCount> total) {
+    total.ifPresent(
+        count -> {
+          response.setTotal(count.count());
+          response.setTotalExact(count.exact());
+        });
+    return response;
+  }
+
+  private LampPageCursor parseCursor(final Optional<String> cursor) {
+    return cursor.flatMap(LampPageCursor::parse).orElse(LampPageCursor.FIRST);
   }
 
   @Override
@@ -97,7 +271,7 @@ public class LampsController implements LampsApi {
           final UUID lampUuid = UUID.fromString(lampId);
           final Lamp lampData = new Lamp();
           lampData.setStatus(lampUpdate.getStatus());
-          final Lamp updated = lampService.update(lampUuid, lampData);
+          final Lamp updated = writeCoalescer.update(lampUuid, lampData);
           return ResponseEntity.ok().body(updated);
         },
         Runnable::run);
@@ -21,6 +21,9 @@ import org.hibernate.annotations.Where;
  *
  * <p>Supports soft deletes via the deletedAt field. Soft-deleted entities are automatically
  * filtered from queries by the @Where clause.
+ *
+ * <p>changeSeq is the position of the last write in the change order of delta sync. The store sets
+ * it (a trigger of migration V11 in Postgres), so JPA neither inserts nor updates it.
  */
 @Entity
 @Table(name = "lamps")
@@ -49,6 +52,9 @@ public class LampEntity {
   @Column(name = "deleted_at")
   private OffsetDateTime deletedAt;
 
+  @Column(name = "change_seq", insertable = false, updatable = false)
+  private long changeSeq;
+
   public LampEntity(final Boolean status) {
     this.status = status;
   }
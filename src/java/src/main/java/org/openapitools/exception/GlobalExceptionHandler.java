@@ -1,9 +1,16 @@
 package org.openapitools.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.openapitools.configuration.DatabaseErrorTracker;
 import org.openapitools.model.Error;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -19,6 +26,16 @@ public class GlobalExceptionHandler {
 
   private static final String INVALID_ARG_ERROR = "INVALID_ARGUMENT";
 
+  private static final String UNAVAILABLE_ERROR = "SERVICE_UNAVAILABLE";
+
+  private static final String CONFLICT_ERROR = "CONFLICT";
+
+  private final ObjectProvider<DatabaseErrorTracker> databaseErrorTracker;
+
+  public GlobalExceptionHandler(final ObjectProvider<DatabaseErrorTracker> databaseErrorTracker) {
+    this.databaseErrorTracker = databaseErrorTracker;
+  }
+
   /**
    * Handle validation constraint violations (e.g., @Min, @Max annotations).
    *
@@ -92,4 +109,46 @@ public class GlobalExceptionHandler {
     final Error error = new Error(INVALID_ARG_ERROR);
     return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
   }
+
+  /**
+   * Handle a lamp that was gone by the time the store removed it.
+   *
+   * @param ex the empty result exception
+   * @return 404 Not Found
+   */
+  @ExceptionHandler(EmptyResultDataAccessException.class)
+  public ResponseEntity<Void> handleEmptyResultException(final EmptyResultDataAccessException ex) {
+    return ResponseEntity.notFound().build();
+  }
+
+  /**
+   * Handle writes the database refused because they conflict with the data or with a concurrent
+   * write. These are caused by the request, not by the database being unwell, so they do not count
+   * towards readiness.
+   *
+   * @param ex the integrity violation or concurrency failure
+   * @return 409 Conflict with error details
+   */
+  @ExceptionHandler({DataIntegrityViolationException.class, ConcurrencyFailureException.class})
+  public ResponseEntity<Error> handleConflictException(final DataAccessException ex) {
+    final Error error = new Error(CONFLICT_ERROR);
+    return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+  }
+
+  /**
+   * Handle other database failures, including connection pool timeouts surfaced as transaction
+   * exceptions. Connection and timeout failures are recorded so readiness can take the instance out
+   * of rotation; see {@link DatabaseErrorTracker#isOutage}.
+   *
+   * @param ex the data access or transaction exception
+   * @return 503 Service Unavailable with error details
+   */
+  @ExceptionHandler({DataAccessException.class, TransactionException.class})
+  public ResponseEntity<Error> handleDatabaseException(final RuntimeException ex) {
+    if (DatabaseErrorTracker.isOutage(ex)) {
+      databaseErrorTracker.ifAvailable(DatabaseErrorTracker::record);
+    }
+    final Error error = new Error(UNAVAILABLE_ERROR);
+    return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+  }
 }
@@ -0,0 +1,182 @@
+package org.openapitools.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load on the lamps API before it queues on the connection pool.
+ *
+ * <p>Each {@link LampOperation} has its own {@link GradientConcurrencyLimit}. A request that finds
+ * its operation at the limit is rejected immediately with 503, a {@code Retry-After} header and a
+ * pre-encoded {@code SERVICE_UNAVAILABLE} error body, instead of waiting up to the pool's
+ * connection timeout. Admitted requests hold their permit until the response completes, including
+ * asynchronous completion of the controller's {@code CompletableFuture}.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final byte[] REJECTED_BODY =
+      "{\"error\":\"SERVICE_UNAVAILABLE\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final boolean enabled;
+  private final String retryAfterSeconds;
+  private final Map<LampOperation, GradientConcurrencyLimit> limits =
+      new EnumMap<>(LampOperation.class);
+
+  public ConcurrencyLimitFilter(
+      @Value("${lamp.limiter.enabled:true}") final boolean enabled,
+      @Value("${lamp.limiter.initial-limit:20}") final int initialLimit,
+      @Value("${lamp.limiter.min-limit:4}") final int minLimit,
+      @Value("${lamp.limiter.list-max-limit:100}") final int listMaxLimit,
+      @Value("${lamp.limiter.read-max-limit:200}") final int readMaxLimit,
+      @Value("${lamp.limiter.write-max-limit:200}") final int writeMaxLimit,
+      @Value("${lamp.limiter.rtt-tolerance:2.0}") final double rttTolerance,
+      @Value("${lamp.limiter.retry-after-seconds:1}") final int retryAfterSeconds) {
+    super();
+    this.enabled = enabled;
+    this.retryAfterSeconds = Integer.toString(retryAfterSeconds);
+    limits.put(
+        LampOperation.LIST,
+        new GradientConcurrencyLimit(initialLimit, minLimit, listMaxLimit, rttTolerance));
+    limits.put(
+        LampOperation.READ,
+        new GradientConcurrencyLimit(initialLimit, minLimit, readMaxLimit, rttTolerance));
+    limits.put(
+        LampOperation.WRITE,
+        new GradientConcurrencyLimit(initialLimit, minLimit, writeMaxLimit, rttTolerance));
+  }
+
+  /**
+   * Whether requests are limited at all.
+   *
+   * @return false when {@code lamp.limiter.enabled} is off
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Limit applied to an operation class.
+   *
+   * @param operation operation class
+   * @return the adaptive limit for that class
+   */
+  public GradientConcurrencyLimit limitFor(final LampOperation operation) {
+    return limits.get(operation);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(final HttpServletRequest request) {
+    return !enabled || operationOf(request).isEmpty();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final FilterChain filterChain)
+      throws ServletException, IOException {
+    final Optional<LampOperation> operation = operationOf(request);
+    if (operation.isEmpty()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    final GradientConcurrencyLimit limit = limits.get(operation.get());
+    if (!limit.tryAcquire()) {
+      reject(response);
+      return;
+    }
+
+    final Permit permit = new Permit(limit, response);
+    boolean async = false;
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(permit);
+        async = true;
+      }
+    } finally {
+      if (!async) {
+        permit.release(false);
+      }
+    }
+  }
+
+  private static Optional<LampOperation> operationOf(final HttpServletRequest request) {
+    final String uri = request.getRequestURI();
+    final String contextPath = request.getContextPath();
+    final String path =
+        contextPath.isEmpty() || !uri.startsWith(contextPath)
+            ? uri
+            : uri.substring(contextPath.length());
+    return LampOperation.classify(request.getMethod(), path);
+  }
+
+  private void reject(final HttpServletResponse response) throws IOException {
+    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(REJECTED_BODY.length);
+    try (ServletOutputStream output = response.getOutputStream()) {
+      output.write(REJECTED_BODY);
+    }
+  }
+
+  /** A held permit, released exactly once when the response completes. */
+  private static final class Permit implements AsyncListener {
+
+    private final GradientConcurrencyLimit limit;
+    private final HttpServletResponse response;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(final GradientConcurrencyLimit limit, final HttpServletResponse response) {
+      this.limit = limit;
+      this.response = response;
+    }
+
+    private void release(final boolean failed) {
+      if (released.compareAndSet(false, true)) {
+        final boolean dropped =
+            failed || response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        limit.release(System.nanoTime() - startNanos, dropped);
+      }
+    }
+
+    @Override
+    public void onComplete(final AsyncEvent event) {
+      release(false);
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+      release(true);
+    }
+
+    @Override
+    public void onError(final AsyncEvent event) {
+      release(true);
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent event) {
+      // The permit stays attached to the original request.
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package org.openapitools.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit driven by observed latency (gradient style, with AIMD backoff).
+ *
+ * <p>Latency samples are grouped into fixed-size windows. At the end of each window the average RTT
+ * is compared with a baseline that tracks the lowest sustained RTT:
+ *
+ * <ul>
+ *   <li>while the window RTT stays within {@code tolerance} times the baseline, the limit grows by
+ *       roughly {@code sqrt(limit)}, probing for more throughput;
+ *   <li>once requests start queueing (RTT beyond the tolerance) the limit shrinks proportionally to
+ *       the gradient {@code tolerance * baseline / rtt}, floored at half;
+ *   <li>if any request in the window was dropped (timed out or failed with 503) the limit is cut
+ *       multiplicatively.
+ * </ul>
+ *
+ * Changes are smoothed, clamped to {@code [minLimit, maxLimit]}, and the limit is not raised while
+ * the application is not actually using it. Acquiring a permit is a single CAS; the window
+ * bookkeeping is the only synchronized section.
+ */
+public final class GradientConcurrencyLimit {
+
+  private static final int WINDOW_SAMPLES = 20;
+
+  private static final double SMOOTHING = 0.2;
+
+  private static final double BASELINE_DECAY = 0.01;
+
+  private static final double MIN_GRADIENT = 0.5;
+
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private volatile int limit;
+
+  // Window state, guarded by this.
+  private double estimatedLimit;
+  private double baselineRttNanos;
+  private long windowRttNanos;
+  private int windowSamples;
+  private int windowMaxInFlight;
+  private boolean windowDropped;
+
+  /**
+   * Create a limit.
+   *
+   * @param initialLimit starting concurrency limit
+   * @param minLimit lower bound of the limit
+   * @param maxLimit upper bound of the limit
+   * @param tolerance RTT growth over the baseline accepted before the limit shrinks
+   */
+  public GradientConcurrencyLimit(
+      final int initialLimit, final int minLimit, final int maxLimit, final double tolerance) {
+    this.minLimit = Math.max(minLimit, 1);
+    this.maxLimit = Math.max(maxLimit, this.minLimit);
+    this.tolerance = Math.max(tolerance, 1.0);
+    this.estimatedLimit = clamp(initialLimit);
+    this.limit = (int) estimatedLimit;
+  }
+
+  /**
+   * Try to take a permit without waiting.
+   *
+   * @return true if the request may proceed; the caller must then call {@link #release}
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      final int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Return a permit and feed its latency into the limit.
+   *
+   * @param rttNanos time the request held the permit
+   * @param dropped whether the request timed out or failed due to overload
+   */
+  public void release(final long rttNanos, final boolean dropped) {
+    final int inFlightBefore = inFlight.getAndDecrement();
+    sample(rttNanos, inFlightBefore, dropped);
+  }
+
+  /**
+   * Current concurrency limit.
+   *
+   * @return maximum number of requests admitted concurrently
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Requests currently holding a permit.
+   *
+   * @return in-flight count
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void sample(
+      final long rttNanos, final int inFlightBefore, final boolean dropped) {
+    windowRttNanos += rttNanos;
+    windowSamples++;
+    windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+    windowDropped |= dropped;
+    if (windowSamples < WINDOW_SAMPLES) {
+      return;
+    }
+
+    final double rtt = (double) windowRttNanos / windowSamples;
+    final boolean anyDropped = windowDropped;
+    final int maxInFlight = windowMaxInFlight;
+    windowRttNanos = 0;
+    windowSamples = 0;
+    windowMaxInFlight = 0;
+    windowDropped = false;
+
+    if (anyDropped) {
+      updateLimit(estimatedLimit * BACKOFF_RATIO);
+      return;
+    }
+    if (baselineRttNanos == 0 || rtt < baselineRttNanos) {
+      baselineRttNanos = rtt;
+    } else {
+      baselineRttNanos += (rtt - baselineRttNanos) * BASELINE_DECAY;
+    }
+    if (maxInFlight < estimatedLimit / 2) {
+      // Application-limited: latency says nothing about what a higher limit would do.
+      return;
+    }
+    final double gradient =
+        Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRttNanos / rtt));
+    final double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    updateLimit(estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING);
+  }
+
+  private void updateLimit(final double newLimit) {
+    estimatedLimit = clamp(newLimit);
+    limit = (int) estimatedLimit;
+  }
+
+  private double clamp(final double value) {
+    return Math.max(minLimit, Math.min(maxLimit, value));
+  }
+}
@@ -0,0 +1,84 @@
+package org.openapitools.filter;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operation classes of the lamps API that get independent concurrency limits, so a storm of one
+ * kind of request (typically list) cannot starve the others.
+ */
+public enum LampOperation {
+  /** {@code GET /v1/lamps}, {@code GET /v1/lamps/changes} and {@code POST /v1/lamps/batch-get}. */
+  LIST,
+  /** {@code GET /v1/lamps/{lampId}}. */
+  READ,
+  /** {@code POST}, {@code PUT} and {@code DELETE} on lamps, and bulk status updates. */
+  WRITE;
+
+  private static final String COLLECTION_PATH = "/v1/lamps";
+
+  /** Long-lived streaming endpoint; limiting it would pin permits for the life of the stream. */
+  private static final String EVENTS_PATH = "/v1/lamps/events";
+
+  /** Delta sync; reads a page of lamps like a list request. */
+  private static final String CHANGES_PATH = "/v1/lamps/changes";
+
+  /** Multi-get; reads up to a page of lamps, though by POST. */
+  private static final String BATCH_GET_PATH = "/v1/lamps/batch-get";
+
+  /** Bulk status update; job status reads below it are not limited. */
+  private static final String BULK_STATUS_PATH = "/v1/lamps/bulk-status";
+
+  /** Operations under the collection path that are not lamps, by path. */
+  private static final Map<String, Subresource> SUBRESOURCES =
+      Map.of(
+          CHANGES_PATH, new Subresource("GET", LIST),
+          BATCH_GET_PATH, new Subresource("POST", LIST),
+          BULK_STATUS_PATH, new Subresource("POST", WRITE));
+
+  /**
+   * Classify a request by method and context-relative path.
+   *
+   * @param method HTTP method
+   * @param path request path without the context path
+   * @return the operation class, or empty when the request is not a lamps API call
+   */
+  public static Optional<LampOperation> classify(final String method, final String path) {
+    if (!path.startsWith(COLLECTION_PATH) || EVENTS_PATH.equals(path)) {
+      return Optional.empty();
+    }
+    final String rest = path.substring(COLLECTION_PATH.length());
+    if (rest.isEmpty() || "/".equals(rest)) {
+      return forCollection(method);
+    }
+    if (rest.charAt(0) == '/' && rest.indexOf('/', 1) < 0) {
+      return forItem(path, method);
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<LampOperation> forCollection(final String method) {
+    return switch (method) {
+      case "GET" -> Optional.of(LIST);
+      case "POST" -> Optional.of(WRITE);
+      default -> Optional.empty();
+    };
+  }
+
+  private static Optional<LampOperation> forItem(final String path, final String method) {
+    final Subresource subresource = SUBRESOURCES.get(path);
+    if (subresource != null) {
+      return subresource.method().equals(method)
+          ? Optional.of(subresource.operation())
+          : Optional.empty();
+    }
+    return switch (method) {
+      case "GET" -> Optional.of(READ);
+      case "PUT", "DELETE" -> Optional.of(WRITE);
+      default -> Optional.empty();
+    };
+  }
+
+  /** The one method a subresource accepts, and its operation class. */
+  private record Subresource(String method, LampOperation operation) {}
+}
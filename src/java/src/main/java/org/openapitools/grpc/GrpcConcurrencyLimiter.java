@@ -0,0 +1,141 @@
+package org.openapitools.grpc;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.openapitools.filter.ConcurrencyLimitFilter;
+import org.openapitools.filter.GradientConcurrencyLimit;
+import org.openapitools.filter.LampOperation;
+import org.openapitools.grpc.proto.LampServiceGrpc;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sheds gRPC load with the same {@link GradientConcurrencyLimit}s as {@link
+ * ConcurrencyLimitFilter}, so REST and gRPC calls of one operation class share a single limit.
+ *
+ * <p>A unary call holds a permit from start to close. One that finds its class at the limit is
+ * closed with {@code UNAVAILABLE} straight away. {@code StreamLamps} is not limited as a call,
+ * since that would pin a permit for the life of the stream; it reads each page under a {@code LIST}
+ * permit instead, see {@link #withPermit}.
+ */
+@Component
+public class GrpcConcurrencyLimiter implements ServerInterceptor {
+
+  private static final Status OVERLOADED =
+      Status.UNAVAILABLE.withDescription("Too many concurrent requests");
+
+  private static final Map<String, LampOperation> OPERATIONS =
+      Map.of(
+          LampServiceGrpc.getCreateLampMethod().getFullMethodName(), LampOperation.WRITE,
+          LampServiceGrpc.getUpdateLampMethod().getFullMethodName(), LampOperation.WRITE,
+          LampServiceGrpc.getDeleteLampMethod().getFullMethodName(), LampOperation.WRITE,
+          LampServiceGrpc.getGetLampMethod().getFullMethodName(), LampOperation.READ,
+          LampServiceGrpc.getListLampsMethod().getFullMethodName(), LampOperation.LIST);
+
+  private final ConcurrencyLimitFilter limits;
+
+  public GrpcConcurrencyLimiter(final ConcurrencyLimitFilter limits) {
+    this.limits = limits;
+  }
+
+  @Override
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public <Q, R> ServerCall.Listener<Q> interceptCall(
+      final ServerCall<Q, R> call, final Metadata headers, final ServerCallHandler<Q, R> next) {
+    final LampOperation operation = OPERATIONS.get(call.getMethodDescriptor().getFullMethodName());
+    if (operation == null || !limits.isEnabled()) {
+      return next.startCall(call, headers);
+    }
+    final GradientConcurrencyLimit limit = limits.limitFor(operation);
+    if (!limit.tryAcquire()) {
+      call.close(OVERLOADED, new Metadata());
+      return new ServerCall.Listener<>() {};
+    }
+    final Permit permit = new Permit(limit);
+    final ServerCall.Listener<Q> listener;
+    try {
+      listener = next.startCall(new PermitCall<>(call, permit), headers);
+    } catch (RuntimeException e) {
+      permit.release(true);
+      throw e;
+    }
+    return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+      @Override
+      public void onCancel() {
+        permit.release(true);
+        super.onCancel();
+      }
+    };
+  }
+
+  /**
+   * Run one read under a permit of its operation class, as a request of that class would be.
+   *
+   * @param operation operation class
+   * @param read the read
+   * @param <T> result type
+   * @return what the read returned
+   * @throws io.grpc.StatusRuntimeException {@code UNAVAILABLE} if the class is at its limit
+   */
+  public <T> T withPermit(final LampOperation operation, final Supplier<T> read) {
+    if (!limits.isEnabled()) {
+      return read.get();
+    }
+    final GradientConcurrencyLimit limit = limits.limitFor(operation);
+    if (!limit.tryAcquire()) {
+      throw OVERLOADED.asRuntimeException();
+    }
+    final Permit permit = new Permit(limit);
+    boolean failed = true;
+    try {
+      final T result = read.get();
+      failed = false;
+      return result;
+    } finally {
+      permit.release(failed);
+    }
+  }
+
+  /** Releases the permit when the call closes, dropped if it closes {@code UNAVAILABLE}. */
+  private static final class PermitCall<Q, R>
+      extends ForwardingServerCall.SimpleForwardingServerCall<Q, R> {
+
+    private final Permit permit;
+
+    private PermitCall(final ServerCall<Q, R> call, final Permit permit) {
+      super(call);
+      this.permit = permit;
+    }
+
+    @Override
+    public void close(final Status status, final Metadata trailers) {
+      permit.release(status.getCode() == Status.Code.UNAVAILABLE);
+      super.close(status, trailers);
+    }
+  }
+
+  /** A held permit, released exactly once. */
+  private static final class Permit {
+
+    private final GradientConcurrencyLimit limit;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(final GradientConcurrencyLimit limit) {
+      this.limit = limit;
+    }
+
+    private void release(final boolean dropped) {
+      if (released.compareAndSet(false, true)) {
+        limit.release(System.nanoTime() - startNanos, dropped);
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package org.openapitools.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the gRPC server next to the servlet container, on its own HTTP/2 port.
+ *
+ * <p>Every {@link BindableService} bean is registered, behind every {@link ServerInterceptor} bean.
+ * The server is off unless {@code lamp.grpc.enabled} is set, since it listens in plaintext and
+ * without authentication. Calls run on virtual threads, since {@link
+ * org.openapitools.service.LampService} blocks on the database. Cloud Run exposes a single port per
+ * container, so there the server is only reachable when it is given the container port instead of
+ * the REST API.
+ */
+@Component
+public class GrpcServer {
+
+  private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+
+  private final List<BindableService> services;
+  private final List<ServerInterceptor> interceptors;
+  private final boolean enabled;
+  private final int port;
+  private final long shutdownGraceMs;
+
+  private Server server;
+  private ExecutorService executor;
+
+  public GrpcServer(
+      final List<BindableService> services,
+      final List<ServerInterceptor> interceptors,
+      @Value("${lamp.grpc.enabled:false}") final boolean enabled,
+      @Value("${lamp.grpc.port:50051}") final int port,
+      @Value("${lamp.grpc.shutdown-grace-ms:5000}") final long shutdownGraceMs) {
+    this.services = List.copyOf(services);
+    this.interceptors = List.copyOf(interceptors);
+    this.enabled = enabled;
+    this.port = port;
+    this.shutdownGraceMs = shutdownGraceMs;
+  }
+
+  /**
+   * Start listening.
+   *
+   * @throws IOException if the port cannot be bound
+   */
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    final ServerBuilder<?> builder =
+        Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create()).executor(executor);
+    services.forEach(
+        service -> builder.addService(ServerInterceptors.intercept(service, interceptors)));
+    server = builder.build().start();
+    if (logger.isInfoEnabled()) {
+      logger.info("gRPC server listening on port {}", server.getPort());
+    }
+  }
+
+  /**
+   * Stop accepting calls and give in-flight calls the grace period to finish.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (server == null) {
+      return;
+    }
+    server.shutdown();
+    if (!server.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+      server.shutdownNow();
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Port the server is bound to; useful when configured with port 0.
+   *
+   * @return bound port, or -1 when the server is disabled
+   */
+  public int getPort() {
+    return server == null ? -1 : server.getPort();
+  }
+}
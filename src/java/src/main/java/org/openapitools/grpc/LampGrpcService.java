@@ -0,0 +1,280 @@
+package org.openapitools.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.openapitools.configuration.DatabaseErrorTracker;
+import org.openapitools.exception.LampNotFoundException;
+import org.openapitools.filter.LampOperation;
+import org.openapitools.grpc.proto.LampProto;
+import org.openapitools.grpc.proto.LampServiceGrpc;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampWriteCoalescer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * gRPC implementation of {@code lamp.LampService} (see {@code src/main/proto/lamp.proto}) on top of
+ * the same {@link LampService} and {@link LampWriteCoalescer} as the REST controller.
+ *
+ * <p>Errors map to status codes the way {@code GlobalExceptionHandler} maps them to HTTP: unknown
+ * lamps are {@code NOT_FOUND}, malformed IDs, page sizes and page tokens are {@code
+ * INVALID_ARGUMENT}, conflicting writes are {@code ABORTED}, and other database failures are {@code
+ * UNAVAILABLE}; only connection and timeout failures count towards readiness. Calls share the
+ * concurrency limits of the REST API through {@link GrpcConcurrencyLimiter}.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class LampGrpcService extends LampServiceGrpc.LampServiceImplBase {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampGrpcService.class);
+
+  private static final int DEFAULT_PAGE_SIZE = 25;
+
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final LampService lampService;
+  private final LampWriteCoalescer writeCoalescer;
+  private final ObjectProvider<DatabaseErrorTracker> databaseErrorTracker;
+  private final GrpcConcurrencyLimiter limiter;
+
+  @Override
+  public void createLamp(
+      final LampProto.CreateLampRequest request,
+      final StreamObserver<LampProto.Lamp> responseObserver) {
+    respond(
+        responseObserver,
+        () -> {
+          final Lamp lamp = new Lamp();
+          lamp.setStatus(request.getStatus());
+          return toProto(lampService.create(lamp));
+        });
+  }
+
+  @Override
+  public void getLamp(
+      final LampProto.GetLampRequest request,
+      final StreamObserver<LampProto.Lamp> responseObserver) {
+    respond(
+        responseObserver,
+        () -> {
+          final UUID lampId = parseId(request.getId());
+          return toProto(
+              lampService.findById(lampId).orElseThrow(() -> new LampNotFoundException(lampId)));
+        });
+  }
+
+  @Override
+  public void listLamps(
+      final LampProto.ListLampsRequest request,
+      final StreamObserver<LampProto.ListLampsResponse> responseObserver) {
+    respond(
+        responseObserver,
+        () -> {
+          final LampService.PagedLampsResult page =
+              lampService.findAllActivePage(
+                  parsePageToken(request.getPageToken()), pageSize(request.getPageSize()));
+          final LampProto.ListLampsResponse.Builder response =
+              LampProto.ListLampsResponse.newBuilder();
+          page.data().forEach(lamp -> response.addLamps(toProto(lamp)));
+          page.nextCursor().ifPresent(response::setNextPageToken);
+          return response.build();
+        });
+  }
+
+  @Override
+  public void updateLamp(
+      final LampProto.UpdateLampRequest request,
+      final StreamObserver<LampProto.Lamp> responseObserver) {
+    respond(
+        responseObserver,
+        () -> {
+          final UUID lampId = parseId(request.getId());
+          if (!request.hasStatus()) {
+            throw invalidArgument("status is required");
+          }
+          final Lamp lamp = new Lamp();
+          lamp.setStatus(request.getStatus());
+          return toProto(writeCoalescer.update(lampId, lamp));
+        });
+  }
+
+  @Override
+  public void deleteLamp(
+      final LampProto.DeleteLampRequest request,
+      final StreamObserver<LampProto.DeleteLampResponse> responseObserver) {
+    respond(
+        responseObserver,
+        () -> {
+          lampService.delete(parseId(request.getId()));
+          return LampProto.DeleteLampResponse.newBuilder().setSuccess(true).build();
+        });
+  }
+
+  /**
+   * Stream all active lamps page by page, so the client receives the first lamps before the last
+   * page has been read. Lamps are only sent while the call is ready for them, and the next page is
+   * only read once the last one has been sent, so a slow client holds back one page rather than
+   * having the server buffer the fleet. Each page is read under a {@code LIST} permit of the
+   * concurrency limiter. Stops early if the client cancels.
+   */
+  @Override
+  public void streamLamps(
+      final LampProto.ListLampsRequest request,
+      final StreamObserver<LampProto.Lamp> responseObserver) {
+    final ServerCallStreamObserver<LampProto.Lamp> call =
+        (ServerCallStreamObserver<LampProto.Lamp>) responseObserver;
+    final LampStream stream = new LampStream(call, request.getPageToken());
+    call.setOnCancelHandler(stream::cancel);
+    call.setOnReadyHandler(stream::send);
+  }
+
+  /**
+   * Convert a lamp to its protobuf message.
+   *
+   * @param lamp the lamp
+   * @return the protobuf message
+   */
+  /* default */ static LampProto.Lamp toProto(final Lamp lamp) {
+    final LampProto.Lamp.Builder builder =
+        LampProto.Lamp.newBuilder().setId(lamp.getId().toString()).setStatus(lamp.getStatus());
+    if (lamp.getCreatedAt() != null) {
+      builder.setCreatedAt(lamp.getCreatedAt().toString());
+    }
+    if (lamp.getUpdatedAt() != null) {
+      builder.setUpdatedAt(lamp.getUpdatedAt().toString());
+    }
+    return builder.build();
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private <T> void respond(final StreamObserver<T> responseObserver, final Supplier<T> call) {
+    final T response;
+    try {
+      response = call.get();
+    } catch (RuntimeException e) {
+      responseObserver.onError(toStatus(e));
+      return;
+    }
+    responseObserver.onNext(response);
+    responseObserver.onCompleted();
+  }
+
+  private StatusRuntimeException toStatus(final RuntimeException error) {
+    if (error instanceof StatusRuntimeException status) {
+      return status;
+    }
+    if (error instanceof LampNotFoundException) {
+      return Status.NOT_FOUND.withDescription(error.getMessage()).asRuntimeException();
+    }
+    if (error instanceof EmptyResultDataAccessException) {
+      return Status.NOT_FOUND.withDescription("Lamp not found").asRuntimeException();
+    }
+    if (error instanceof DataIntegrityViolationException
+        || error instanceof ConcurrencyFailureException) {
+      return Status.ABORTED.withDescription("Conflicting write").asRuntimeException();
+    }
+    if (error instanceof DataAccessException || error instanceof TransactionException) {
+      if (DatabaseErrorTracker.isOutage(error)) {
+        databaseErrorTracker.ifAvailable(DatabaseErrorTracker::record);
+      }
+      return Status.UNAVAILABLE.withDescription("Database unavailable").asRuntimeException();
+    }
+    logger.error("Unexpected error in gRPC call", error);
+    return Status.INTERNAL.withDescription("Internal server error").asRuntimeException();
+  }
+
+  /**
+   * One {@code StreamLamps} call. gRPC runs the ready and cancel handlers of a call one at a time,
+   * so the state needs no locking.
+   */
+  private final class LampStream {
+
+    private final ServerCallStreamObserver<LampProto.Lamp> call;
+    private Optional<String> token;
+    private Iterator<Lamp> page = Collections.emptyIterator();
+    private boolean done;
+
+    private LampStream(final ServerCallStreamObserver<LampProto.Lamp> call, final String token) {
+      this.call = call;
+      this.token = Optional.of(token);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void send() {
+      try {
+        while (!done && call.isReady()) {
+          if (page.hasNext()) {
+            call.onNext(toProto(page.next()));
+          } else if (token.isPresent()) {
+            readPage(parsePageToken(token.get()));
+          } else {
+            done = true;
+            call.onCompleted();
+          }
+        }
+      } catch (RuntimeException e) {
+        done = true;
+        call.onError(toStatus(e));
+      }
+    }
+
+    private void readPage(final LampPageCursor cursor) {
+      final LampService.PagedLampsResult result =
+          limiter.withPermit(
+              LampOperation.LIST, () -> lampService.findAllActivePage(cursor, MAX_PAGE_SIZE));
+      page = result.data().iterator();
+      token = result.nextCursor();
+    }
+
+    private void cancel() {
+      done = true;
+    }
+  }
+
+  private static UUID parseId(final String id) {
+    try {
+      return UUID.fromString(id);
+    } catch (IllegalArgumentException e) {
+      throw Status.INVALID_ARGUMENT
+          .withDescription("id must be a UUID")
+          .withCause(e)
+          .asRuntimeException();
+    }
+  }
+
+  private static int pageSize(final int requested) {
+    if (requested == 0) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    if (requested < 0 || requested > MAX_PAGE_SIZE) {
+      throw invalidArgument("page_size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    return requested;
+  }
+
+  private static LampPageCursor parsePageToken(final String token) {
+    return LampPageCursor.parse(token).orElseThrow(() -> invalidArgument("invalid page_token"));
+  }
+
+  private static StatusRuntimeException invalidArgument(final String description) {
+    return Status.INVALID_ARGUMENT.withDescription(description).asRuntimeException();
+  }
+}
@@ -2,6 +2,7 @@ package org.openapitools.mapper;
 
 import org.openapitools.entity.LampEntity;
 import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.LampView;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -21,6 +22,19 @@ public class LampMapper {
     return result;
   }
 
+  public Lamp toPartialModel(final LampView view) {
+    Lamp result = null;
+    if (view != null) {
+      // Fields outside the projection stay null and are left out of the response
+      result = new Lamp();
+      result.setId(view.id());
+      result.setStatus(view.status());
+      result.setCreatedAt(view.createdAt());
+      result.setUpdatedAt(view.updatedAt());
+    }
+    return result;
+  }
+
   public LampEntity toEntity(final Lamp lamp) {
     LampEntity result = null;
     if (lamp != null) {
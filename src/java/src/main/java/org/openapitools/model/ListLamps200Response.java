@@ -38,6 +38,10 @@ public class ListLamps200Response {
 
   private Boolean hasMore;
 
+  private Long total;
+
+  private Boolean totalExact;
+
   public ListLamps200Response() {
     super();
   }
@@ -118,6 +122,46 @@ public class ListLamps200Response {
     this.hasMore = hasMore;
   }
 
+  public ListLamps200Response total(Long total) {
+    this.total = total;
+    return this;
+  }
+
+  /**
+   * Lamps matching the filter across all pages; only with includeTotal
+   * @return total
+   */
+  
+  @Schema(name = "total", description = "Lamps matching the filter across all pages; only with includeTotal", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+  @JsonProperty("total")
+  public Long getTotal() {
+    return total;
+  }
+
+  public void setTotal(Long total) {
+    this.total = total;
+  }
+
+  public ListLamps200Response totalExact(Boolean totalExact) {
+    this.totalExact = totalExact;
+    return this;
+  }
+
+  /**
+   * Whether total is a count, rather than an estimate
+   * @return totalExact
+   */
+  
+  @Schema(name = "totalExact", description = "Whether total is a count, rather than an estimate", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+  @JsonProperty("totalExact")
+  public Boolean getTotalExact() {
+    return totalExact;
+  }
+
+  public void setTotalExact(Boolean totalExact) {
+    this.totalExact = totalExact;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -129,7 +173,9 @@ public class ListLamps200Response {
     ListLamps200Response listLamps200Response = (ListLamps200Response) o;
     return Objects.equals(this.data, listLamps200Response.data) &&
         equalsNullable(this.nextCursor, listLamps200Response.nextCursor) &&
-        Objects.equals(this.hasMore, listLamps200Response.hasMore);
+        Objects.equals(this.hasMore, listLamps200Response.hasMore) &&
+        Objects.equals(this.total, listLamps200Response.total) &&
+        Objects.equals(this.totalExact, listLamps200Response.totalExact);
   }
 
   private static <T> boolean equalsNullable(JsonNullable<T> a, JsonNullable<T> b) {
@@ -138,7 +184,7 @@ public class ListLamps200Response {
 
   @Override
   public int hashCode() {
-    return Objects.hash(data, hashCodeNullable(nextCursor), hasMore);
+    return Objects.hash(data, hashCodeNullable(nextCursor), hasMore, total, totalExact);
   }
 
   private static <T> int hashCodeNullable(JsonNullable<T> a) {
@@ -155,6 +201,8 @@ public class ListLamps200Response {
     sb.append("    data: ").append(toIndentedString(data)).append("\n");
     sb.append("    nextCursor: ").append(toIndentedString(nextCursor)).append("\n");
     sb.append("    hasMore: ").append(toIndentedString(hasMore)).append("\n");
+    sb.append("    total: ").append(toIndentedString(total)).append("\n");
+    sb.append("    totalExact: ").append(toIndentedString(totalExact)).append("\n");
     sb.append("}");
     return sb.toString();
   }
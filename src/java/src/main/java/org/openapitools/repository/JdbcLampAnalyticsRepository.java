@@ -0,0 +1,149 @@
+package org.openapitools.repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import javax.sql.DataSource;
+import org.openapitools.config.OnDatabaseUrlCondition;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Postgres implementation of the LampAnalyticsRepository, on the {@code lamp_state_changes_hourly}
+ * and {@code lamp_status_totals} tables (migration V3). Deltas are added with upserts, so every
+ * instance writes to the same counters.
+ *
+ * <p>Uses plain JDBC rather than JPA, as the analytics tables have no entities. Deltas go through a
+ * {@link JdbcTemplate} on the shared DataSource, so inside a lamp write they use the connection of
+ * its JPA transaction and commit with it. They update the totals row first and then the hours in
+ * ascending order, so concurrent writes lock rows in one order.
+ */
+@Repository
+@Conditional(OnDatabaseUrlCondition.class)
+public class JdbcLampAnalyticsRepository implements LampAnalyticsRepository {
+
+  // Arbitrary key for pg_try_advisory_xact_lock, so only one instance backfills at a time.
+  private static final long BACKFILL_LOCK = 0x6c616d70_616e61L;
+
+  private static final String UPSERT_HOUR =
+      "INSERT INTO lamp_state_changes_hourly (hour_start, turned_on, turned_off) VALUES (?, ?, ?) "
+          + "ON CONFLICT (hour_start) DO UPDATE SET "
+          + "turned_on = lamp_state_changes_hourly.turned_on + EXCLUDED.turned_on, "
+          + "turned_off = lamp_state_changes_hourly.turned_off + EXCLUDED.turned_off";
+
+  private static final String UPDATE_TOTALS =
+      "UPDATE lamp_status_totals SET lamps = lamps + ?, lamps_on = lamps_on + ? WHERE id = 1";
+
+  private static final String BACKFILL_HOURS =
+      "INSERT INTO lamp_state_changes_hourly (hour_start, turned_on, turned_off) "
+          + "SELECT date_trunc('hour', updated_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', "
+          + "count(*) FILTER (WHERE is_on), count(*) FILTER (WHERE NOT is_on) "
+          + "FROM lamps WHERE deleted_at IS NULL GROUP BY 1";
+
+  private static final String RESET_TOTALS =
+      "UPDATE lamp_status_totals SET (lamps, lamps_on, backfilled_at) = "
+          + "(SELECT count(*), count(*) FILTER (WHERE is_on), now() "
+          + "FROM lamps WHERE deleted_at IS NULL) WHERE id = 1";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public JdbcLampAnalyticsRepository(final DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(new JdbcTransactionManager(dataSource));
+  }
+
+  @Override
+  public void apply(final long lamps, final long lampsOn, final Collection<HourBucket> hours) {
+    if (lamps != 0 || lampsOn != 0) {
+      jdbcTemplate.update(UPDATE_TOTALS, lamps, lampsOn);
+    }
+    if (!hours.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          UPSERT_HOUR,
+          hours.stream()
+              .map(hour -> new Object[] {utc(hour.start()), hour.turnedOn(), hour.turnedOff()})
+              .toList());
+    }
+  }
+
+  @Override
+  public Totals totals() {
+    return jdbcTemplate.queryForObject(
+        "SELECT lamps, lamps_on FROM lamp_status_totals WHERE id = 1",
+        (rs, rowNum) -> new Totals(rs.getLong(1), rs.getLong(2)));
+  }
+
+  @Override
+  public boolean seeded() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT backfilled_at IS NOT NULL FROM lamp_status_totals WHERE id = 1",
+            Boolean.class));
+  }
+
+  @Override
+  public List<HourBucket> hours(final Instant from, final Instant to) {
+    return jdbcTemplate.query(
+        "SELECT hour_start, turned_on, turned_off FROM lamp_state_changes_hourly "
+            + "WHERE hour_start >= ? AND hour_start < ? ORDER BY hour_start",
+        (rs, rowNum) ->
+            new HourBucket(
+                rs.getObject(1, OffsetDateTime.class).toInstant(), rs.getLong(2), rs.getLong(3)),
+        utc(from),
+        utc(to));
+  }
+
+  /**
+   * Seed the counters from the lamps table.
+   *
+   * <p>The first run fills both the totals and the hour buckets. The lamps table only keeps the
+   * latest state, so each active lamp counts as one transition to its current status in the hour of
+   * its last update, as the ad-hoc queries in {@code database/ANALYTICS.md} do. Later runs are
+   * no-ops unless {@code resyncTotals} is set, in which case only the totals are recounted: the
+   * hour buckets then hold real transitions that a rebuild would lose.
+   *
+   * <p>Runs under an advisory lock, so instances starting together do not double count. It locks
+   * the totals row before counting, which every lamp write's deltas update first: writes that
+   * committed before are in the count, and writes still running wait and add their deltas after it,
+   * so none is counted twice or lost.
+   *
+   * @param resyncTotals recount the totals even if the counters were already seeded
+   * @return whether anything was written
+   */
+  public boolean backfill(final boolean resyncTotals) {
+    return Boolean.TRUE.equals(
+        transactionTemplate.execute(
+            status -> {
+              if (!Boolean.TRUE.equals(
+                  jdbcTemplate.queryForObject(
+                      "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, BACKFILL_LOCK))) {
+                return false;
+              }
+              final boolean seeded =
+                  Boolean.TRUE.equals(
+                      jdbcTemplate.queryForObject(
+                          "SELECT backfilled_at IS NOT NULL FROM lamp_status_totals WHERE id = 1 "
+                              + "FOR UPDATE",
+                          Boolean.class));
+              if (seeded && !resyncTotals) {
+                return false;
+              }
+              if (!seeded) {
+                jdbcTemplate.update("DELETE FROM lamp_state_changes_hourly");
+                jdbcTemplate.update(BACKFILL_HOURS);
+              }
+              jdbcTemplate.update(RESET_TOTALS);
+              return true;
+            }));
+  }
+
+  private static OffsetDateTime utc(final Instant instant) {
+    return instant.atOffset(ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,40 @@
+package org.openapitools.repository;
+
+import javax.sql.DataSource;
+import org.openapitools.config.OnDatabaseUrlCondition;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Version of the lamp collection kept by PostgreSQL itself: a hash of the current transaction
+ * snapshot.
+ *
+ * <p>Two equal snapshots see the same committed rows, and a snapshot changes whenever a transaction
+ * that wrote ends, on any instance or outside the service. So a version read before a page is read
+ * stays the same only while no write can have reached that page, and it is the same on every
+ * instance. Writes to other tables, and autovacuum analyzing one, move it too; that only costs a
+ * full response.
+ */
+@Repository
+@Conditional(OnDatabaseUrlCondition.class)
+public class JdbcLampCollectionVersion {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JdbcLampCollectionVersion(final DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  /**
+   * Current version.
+   *
+   * @return 64-bit hash of {@code pg_current_snapshot()}
+   */
+  public long current() {
+    final Long version =
+        jdbcTemplate.queryForObject(
+            "SELECT hashtextextended(pg_current_snapshot()::text, 0)", Long.class);
+    return version == null ? 0 : version;
+  }
+}
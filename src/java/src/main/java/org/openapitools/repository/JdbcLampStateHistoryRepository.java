@@ -0,0 +1,178 @@
+package org.openapitools.repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.openapitools.config.OnDatabaseUrlCondition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Postgres implementation of the LampStateHistoryRepository, on the {@code lamp_state_history}
+ * table (migration V4), which is range partitioned by month on {@code changed_at}.
+ *
+ * <p>Appends go through a {@link JdbcTemplate} on the shared DataSource, so inside a lamp write
+ * they use the connection of its JPA transaction. Lookups by lamp and time range are served by the
+ * primary key and only touch the partitions of the range.
+ *
+ * <p>{@link #maintain(YearMonth, int, int)} creates {@code lamp_state_history_pYYYYMM} partitions
+ * ahead of time and drops expired ones, under an advisory lock so instances do not race each other.
+ * Expired rows that were routed to the default partition, because their month had no partition yet,
+ * are deleted from it.
+ */
+@Repository
+@Conditional(OnDatabaseUrlCondition.class)
+public class JdbcLampStateHistoryRepository implements LampStateHistoryRepository {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(JdbcLampStateHistoryRepository.class);
+
+  private static final String PARTITION_PREFIX = "lamp_state_history_p";
+
+  private static final String DEFAULT_PARTITION = "lamp_state_history_default";
+
+  private static final Pattern PARTITION_NAME =
+      Pattern.compile(PARTITION_PREFIX + "(\\d{4})(\\d{2})");
+
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+  // Arbitrary key for pg_try_advisory_xact_lock, distinct from the analytics backfill.
+  private static final long MAINTENANCE_LOCK = 0x6c616d70_686973L;
+
+  private static final String INSERT =
+      "INSERT INTO lamp_state_history (lamp_id, changed_at, previous_status, status) "
+          + "VALUES (?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate maintenanceTransaction;
+  private final TransactionTemplate partitionSavepoint;
+
+  public JdbcLampStateHistoryRepository(final DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    final JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+    this.maintenanceTransaction = new TransactionTemplate(transactionManager);
+    this.partitionSavepoint = new TransactionTemplate(transactionManager);
+    this.partitionSavepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT to_regclass('lamp_state_history') IS NOT NULL", Boolean.class));
+  }
+
+  @Override
+  public void append(final List<LampTransition> transitions) {
+    jdbcTemplate.batchUpdate(
+        INSERT,
+        transitions.stream()
+            .map(
+                transition ->
+                    new Object[] {
+                      transition.lampId(),
+                      transition.changedAt().atOffset(ZoneOffset.UTC),
+                      transition.previousStatus(),
+                      transition.status()
+                    })
+            .toList());
+  }
+
+  @Override
+  public List<LampTransition> findByLamp(
+      final UUID lampId, final Instant from, final Instant to, final int limit) {
+    return jdbcTemplate.query(
+        "SELECT changed_at, previous_status, status FROM lamp_state_history "
+            + "WHERE lamp_id = ? AND changed_at >= ? AND changed_at < ? "
+            + "ORDER BY changed_at, id LIMIT ?",
+        (rs, rowNum) ->
+            new LampTransition(
+                lampId,
+                rs.getObject(1, OffsetDateTime.class).toInstant(),
+                rs.getObject(2, Boolean.class),
+                rs.getObject(3, Boolean.class)),
+        lampId,
+        from.atOffset(ZoneOffset.UTC),
+        to.atOffset(ZoneOffset.UTC),
+        limit);
+  }
+
+  @Override
+  public void maintain(
+      final YearMonth current, final int premakeMonths, final int retentionMonths) {
+    maintenanceTransaction.executeWithoutResult(
+        status -> {
+          if (!Boolean.TRUE.equals(
+              jdbcTemplate.queryForObject(
+                  "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK))) {
+            return;
+          }
+          for (int i = 0; i <= premakeMonths; i++) {
+            createPartition(current.plusMonths(i));
+          }
+          final YearMonth oldestKept = current.minusMonths(retentionMonths);
+          dropPartitionsBefore(oldestKept);
+          final int expired =
+              jdbcTemplate.update(
+                  "DELETE FROM " + DEFAULT_PARTITION + " WHERE changed_at < ?",
+                  oldestKept.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+          if (expired > 0 && logger.isInfoEnabled()) {
+            logger.info("Deleted {} expired lamp history rows from {}", expired, DEFAULT_PARTITION);
+          }
+        });
+  }
+
+  private void createPartition(final YearMonth month) {
+    final String name = PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    try {
+      // A failure (e.g. matching rows already in the default partition) only skips this month.
+      partitionSavepoint.executeWithoutResult(
+          status ->
+              jdbcTemplate.execute(
+                  "CREATE TABLE IF NOT EXISTS "
+                      + name
+                      + " PARTITION OF lamp_state_history FOR VALUES FROM ('"
+                      + month.atDay(1)
+                      + " 00:00:00+00') TO ('"
+                      + month.plusMonths(1).atDay(1)
+                      + " 00:00:00+00')"));
+    } catch (DataAccessException e) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Could not create lamp history partition {}", name, e);
+      }
+    }
+  }
+
+  private void dropPartitionsBefore(final YearMonth oldestKept) {
+    final List<String> partitions =
+        jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'lamp_state_history'::regclass",
+            String.class);
+    for (final String partition : partitions) {
+      final Matcher matcher = PARTITION_NAME.matcher(partition);
+      if (matcher.matches()
+          && YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)))
+              .isBefore(oldestKept)) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        if (logger.isInfoEnabled()) {
+          logger.info("Dropped expired lamp history partition {}", partition);
+        }
+      }
+    }
+  }
+}
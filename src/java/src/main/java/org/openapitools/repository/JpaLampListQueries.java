@@ -0,0 +1,103 @@
+package org.openapitools.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.LampView;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.openapitools.repository.LampRepository.StatusUpdate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Queries of {@link JpaLampRepository} whose statement depends on their arguments, or whose results
+ * are read as typed scalars, so cannot be declared with {@code @Query}. Spring Data JPA implements
+ * them with {@link JpaLampListQueriesImpl}.
+ */
+public interface JpaLampListQueries {
+
+  /**
+   * Find a page of active lamps with the statement of {@link LampListSql}.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param after position to continue after; empty for the first page
+   * @param limit maximum number of lamps to return
+   * @return the matching lamps in sort order
+   */
+  List<LampEntity> findActive(
+      ListFilter filter, ListSort sort, Optional<SortPosition> after, int limit);
+
+  /**
+   * Find an active lamp, selecting only the columns of some fields.
+   *
+   * @param lampId the lamp ID
+   * @param fields the fields to read
+   * @return the lamp, or empty if there is no active lamp with that ID
+   */
+  Optional<LampView> findActiveView(UUID lampId, Set<LampField> fields);
+
+  /**
+   * Find an offset window of active lamps in creation order, selecting only the columns of some
+   * fields.
+   *
+   * @param pageable offset and limit of the window
+   * @param fields the fields to read
+   * @return active lamps for the requested window
+   */
+  List<LampView> findActiveViews(Pageable pageable, Set<LampField> fields);
+
+  /**
+   * {@link #findActive}, selecting only the columns of some fields.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param after position to continue after; empty for the first page
+   * @param limit maximum number of lamps to return
+   * @param fields the fields to read, the sort key among them
+   * @return the matching lamps in sort order
+   */
+  List<LampView> findActiveViews(
+      ListFilter filter,
+      ListSort sort,
+      Optional<SortPosition> after,
+      int limit,
+      Set<LampField> fields);
+
+  /**
+   * Count the active lamps matching a filter with the statements of {@link LampListSql}: up to
+   * {@code exactLimit} by reading them, beyond it by the planner's estimate from the table
+   * statistics.
+   *
+   * @param filter which lamps
+   * @param exactLimit the largest count that is always exact
+   * @return the count, and whether it is exact
+   */
+  ActiveCount countActive(ListFilter filter, int exactLimit);
+
+  /**
+   * Set the status of the next chunk of active lamps matching a filter, in ID order, with one
+   * set-based {@code UPDATE}; see {@link LampRepository#updateStatus}.
+   *
+   * <p>The statement changes rows behind the persistence context, which is flushed before it and
+   * cleared after it, so no copy of a changed lamp read earlier in the transaction outlives it. The
+   * changed lamps are read as typed scalars from its {@code RETURNING} clause into new entities
+   * that are not managed.
+   *
+   * @param update the filter and the status to set
+   * @param after only lamps with an ID above this one
+   * @param updatedAt new update time of the changed lamps
+   * @param limit maximum number of lamps to change
+   * @return the changed lamps in ID order
+   */
+  @Transactional
+  List<LampEntity> updateStatus(
+      StatusUpdate update, UUID after, OffsetDateTime updatedAt, int limit);
+}
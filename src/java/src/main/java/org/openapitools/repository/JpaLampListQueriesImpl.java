@@ -0,0 +1,154 @@
+package org.openapitools.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.query.NativeQuery;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.LampView;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.openapitools.repository.LampRepository.StatusUpdate;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Implementation of {@link JpaLampListQueries}, picked up by Spring Data JPA by its name.
+ *
+ * <p>Projections are read as typed scalars straight into {@link LampView}s: no entity is
+ * instantiated, registered with the persistence context or kept for dirty checking.
+ *
+ * <p>Counts never run an unbounded {@code COUNT(*)}: past the exact limit, the statement is only
+ * planned, so its cost does not grow with the number of lamps.
+ */
+// Native queries hand back raw lists; each is read as the type its statement selects
+@SuppressWarnings("unchecked")
+public class JpaLampListQueriesImpl implements JpaLampListQueries {
+
+  // The chunk is picked and locked by a primary key range scan of lamps_active; lamps that already
+  // have the status are skipped without being written. RETURNING hands back the changed rows so
+  // that no second read is needed; the outer SELECT puts them in ID order.
+  private static final String UPDATE_STATUS =
+      "WITH updated AS (UPDATE lamps SET is_on = :status, updated_at = :updatedAt "
+          + "WHERE deleted_at IS NULL AND id IN ("
+          + "SELECT id FROM lamps WHERE deleted_at IS NULL AND is_on <> :status "
+          + "AND id > :after AND created_at >= :createdFrom AND created_at < :createdTo "
+          + "ORDER BY id LIMIT :chunkSize FOR UPDATE) "
+          + "RETURNING id, is_on, created_at, updated_at) "
+          + "SELECT id, is_on, created_at, updated_at FROM updated ORDER BY id";
+
+  // The same, restricted to a list of IDs looked up by primary key instead of scanning a range.
+  private static final String UPDATE_STATUS_OF_IDS =
+      "WITH updated AS (UPDATE lamps SET is_on = :status, updated_at = :updatedAt "
+          + "WHERE deleted_at IS NULL AND id IN ("
+          + "SELECT id FROM lamps WHERE deleted_at IS NULL AND is_on <> :status "
+          + "AND id = ANY(CAST(:ids AS uuid[])) AND id > :after "
+          + "AND created_at >= :createdFrom AND created_at < :createdTo "
+          + "ORDER BY id LIMIT :chunkSize FOR UPDATE) "
+          + "RETURNING id, is_on, created_at, updated_at) "
+          + "SELECT id, is_on, created_at, updated_at FROM updated ORDER BY id";
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public List<LampEntity> findActive(
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit) {
+    final LampListSql statement = LampListSql.forPage(filter, sort, after, limit);
+    final Query query = entityManager.createNativeQuery(statement.sql(), LampEntity.class);
+    statement.parameters().forEach(query::setParameter);
+    return query.getResultList();
+  }
+
+  @Override
+  public Optional<LampView> findActiveView(final UUID lampId, final Set<LampField> fields) {
+    return views(LampListSql.forLamp(lampId, fields), fields).stream().findFirst();
+  }
+
+  @Override
+  public List<LampView> findActiveViews(final Pageable pageable, final Set<LampField> fields) {
+    return views(LampListSql.forWindow(pageable, fields), fields);
+  }
+
+  @Override
+  public List<LampView> findActiveViews(
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit,
+      final Set<LampField> fields) {
+    return views(LampListSql.forPage(filter, sort, after, limit, fields), fields);
+  }
+
+  @Override
+  public ActiveCount countActive(final ListFilter filter, final int exactLimit) {
+    final LampListSql count = LampListSql.forCount(filter, exactLimit + 1);
+    final Query counted = entityManager.createNativeQuery(count.sql());
+    count.parameters().forEach(counted::setParameter);
+    final long matching = ((Number) counted.getSingleResult()).longValue();
+    if (matching <= exactLimit) {
+      return new ActiveCount(matching, true);
+    }
+    final LampListSql estimate = LampListSql.forEstimate(filter);
+    final Query plan = entityManager.createNativeQuery(estimate.sql());
+    estimate.parameters().forEach(plan::setParameter);
+    return new ActiveCount(
+        Math.max(matching, LampListSql.estimatedRows(plan.getResultList())), false);
+  }
+
+  @Override
+  public List<LampEntity> updateStatus(
+      final StatusUpdate update,
+      final UUID after,
+      final OffsetDateTime updatedAt,
+      final int limit) {
+    entityManager.flush();
+    final NativeQuery<LampEntity> query =
+        entityManager
+            .createNativeQuery(update.ids().isEmpty() ? UPDATE_STATUS : UPDATE_STATUS_OF_IDS)
+            .unwrap(NativeQuery.class);
+    for (final LampField field : LampField.ALL) {
+      query.addScalar(field.column(), field.type());
+    }
+    query.setParameter("status", update.status());
+    query.setParameter("updatedAt", updatedAt);
+    query.setParameter("after", after);
+    query.setParameter("createdFrom", update.createdFrom());
+    query.setParameter("createdTo", update.createdTo());
+    query.setParameter("chunkSize", limit);
+    if (!update.ids().isEmpty()) {
+      query.setParameter("ids", LampListSql.idArray(update.ids()));
+    }
+    query.setTupleTransformer(
+        (row, aliases) -> {
+          final LampView view = LampView.fromRow(LampField.ALL, row);
+          final LampEntity lamp = new LampEntity(view.id(), view.status());
+          lamp.setCreatedAt(view.createdAt());
+          lamp.setUpdatedAt(view.updatedAt());
+          return lamp;
+        });
+    final List<LampEntity> changed = query.getResultList();
+    entityManager.clear();
+    return changed;
+  }
+
+  private List<LampView> views(final LampListSql statement, final Set<LampField> fields) {
+    final NativeQuery<LampView> query =
+        entityManager.createNativeQuery(statement.sql()).unwrap(NativeQuery.class);
+    for (final LampField field : fields) {
+      query.addScalar(field.column(), field.type());
+    }
+    statement.parameters().forEach(query::setParameter);
+    query.setTupleTransformer((row, aliases) -> LampView.fromRow(fields, row));
+    return query.getResultList();
+  }
+}
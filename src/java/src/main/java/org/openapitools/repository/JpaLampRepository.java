@@ -1,13 +1,17 @@
 package org.openapitools.repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import org.openapitools.entity.LampEntity;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * JPA repository interface for Lamp entities. Spring Data JPA will automatically provide an
@@ -23,10 +27,12 @@ import org.springframework.stereotype.Repository;
  * used instead.
  *
  * <p>Marked as @Primary to take precedence over InMemoryLampRepository when both are available.
+ *
+ * <p>Queries whose statement depends on their arguments come from {@link JpaLampListQueries}.
  */
 @Repository
 @Primary
-public interface JpaLampRepository extends JpaRepository<LampEntity, UUID> {
+public interface JpaLampRepository extends JpaRepository<LampEntity, UUID>, JpaLampListQueries {
 
   /**
    * Find all lamps with the specified on/off status.
@@ -61,6 +67,18 @@ public interface JpaLampRepository extends JpaRepository<LampEntity, UUID> {
   @Query("SELECT l FROM LampEntity l WHERE l.deletedAt IS NULL ORDER BY l.createdAt ASC, l.id ASC")
   List<LampEntity> findAllActive(Pageable pageable);
 
+  /**
+   * Find the active lamps with the given IDs with one array parameter, so the statement is the same
+   * whatever the number of IDs and is served by primary key lookups in {@code lamps_active}.
+   *
+   * @param lampIds the lamp IDs as an array literal, see {@link LampListSql#idArray}
+   * @return the active lamps among them
+   */
+  @Query(
+      value = "SELECT * FROM lamps WHERE id = ANY(CAST(:ids AS uuid[])) AND deleted_at IS NULL",
+      nativeQuery = true)
+  List<LampEntity> findActiveByIds(@Param("ids") String lampIds);
+
   /**
    * Count all active (non-deleted) lamps.
    *
@@ -70,4 +88,62 @@ public interface JpaLampRepository extends JpaRepository<LampEntity, UUID> {
    */
   @Query("SELECT COUNT(l) FROM LampEntity l WHERE l.deletedAt IS NULL")
   long countActive();
+
+  /**
+   * The oldest transaction still running, below which every lamp change has committed or been
+   * rolled back.
+   *
+   * @return the xmin of the current snapshot
+   */
+  @Query(
+      value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)",
+      nativeQuery = true)
+  long findChangeHorizon();
+
+  /**
+   * Find lamps changed after a position, soft-deleted ones included, ordered by the transaction
+   * that changed them and ID.
+   *
+   * <p>Native, since the {@code @Where} clause on LampEntity hides deleted rows from JPQL. The row
+   * comparison is a range scan of the {@code (change_seq, id)} index of migration V11.
+   *
+   * @param changeSeq transaction of the position to continue after
+   * @param id lamp ID of the position to continue after
+   * @param before only lamps changed by a transaction before this are returned
+   * @param limit maximum number of lamps to return
+   * @return the changed lamps
+   */
+  @Query(
+      value =
+          "SELECT * FROM lamps WHERE (change_seq, id) > (:changeSeq, :id) "
+              + "AND change_seq < :before ORDER BY change_seq, id LIMIT :limit",
+      nativeQuery = true)
+  List<LampEntity> findChangedAfter(
+      @Param("changeSeq") long changeSeq,
+      @Param("id") UUID id,
+      @Param("before") long before,
+      @Param("limit") int limit);
+
+  /**
+   * Hard delete up to {@code limit} lamps soft deleted before {@code cutoff}, oldest first, in one
+   * short transaction.
+   *
+   * <p>Native, since the {@code @Where} clause on LampEntity hides deleted rows from JPQL. Rows
+   * locked by a concurrent purge are skipped rather than waited for. {@code deleted_at IS NOT NULL}
+   * prunes the scan to the {@code lamps_deleted} partition (migration V5); on an unpartitioned
+   * table the partial index of migration V6 serves it.
+   *
+   * @param cutoff lamps deleted before this are removed
+   * @param limit maximum number of lamps to remove
+   * @return number of lamps removed
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "DELETE FROM lamps WHERE deleted_at IS NOT NULL AND id IN ("
+              + "SELECT id FROM lamps WHERE deleted_at IS NOT NULL AND deleted_at < :cutoff "
+              + "ORDER BY deleted_at LIMIT :limit FOR UPDATE SKIP LOCKED)",
+      nativeQuery = true)
+  int purgeDeletedBefore(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,65 @@
+package org.openapitools.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage for the precomputed lamp analytics: hourly counts of lamps turned on and off, and the
+ * number of active lamps and of those that are on.
+ *
+ * <p>Counters only ever receive deltas, so several instances can add to the same store. Reads cost
+ * one row per hour bucket in the range, whatever the number of lamps.
+ */
+public interface LampAnalyticsRepository {
+
+  /**
+   * Add deltas to the counters, in the caller's transaction if there is one.
+   *
+   * @param lamps change in the number of active lamps
+   * @param lampsOn change in the number of active lamps that are on
+   * @param hours per-hour transitions to add
+   */
+  void apply(long lamps, long lampsOn, Collection<HourBucket> hours);
+
+  /**
+   * Current active lamp counts.
+   *
+   * @return the totals
+   */
+  Totals totals();
+
+  /**
+   * Whether the totals count every active lamp: the store started out empty, or it was seeded from
+   * the lamps table. Until then, lamps written before the counters existed are missing from them.
+   *
+   * @return whether the totals are complete
+   */
+  boolean seeded();
+
+  /**
+   * Hour buckets with at least one transition, oldest first.
+   *
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @return the buckets in the range
+   */
+  List<HourBucket> hours(Instant from, Instant to);
+
+  /**
+   * Transitions within one UTC hour.
+   *
+   * @param start start of the hour
+   * @param turnedOn lamps created on or switched on
+   * @param turnedOff lamps created off or switched off
+   */
+  record HourBucket(Instant start, long turnedOn, long turnedOff) {}
+
+  /**
+   * Active lamp counts.
+   *
+   * @param lamps active lamps
+   * @param lampsOn active lamps that are on
+   */
+  record Totals(long lamps, long lampsOn) {}
+}
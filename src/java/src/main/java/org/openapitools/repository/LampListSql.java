@@ -0,0 +1,241 @@
+package org.openapitools.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.LampView;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Native statements of {@link LampRepository#findActive} and of the reads of {@link LampView}s. A
+ * page has only the predicates of the criteria given, so that every combination is its own
+ * statement with its own plan instead of one generic plan full of {@code :param IS NULL OR ...}
+ * branches.
+ *
+ * <p>Each statement is served by a range scan, forwards or backwards, of one index of migrations
+ * V2, V5, V7 and V8: {@code (created_at, id)} or {@code (updated_at, id)} for the sort column, or
+ * {@code (is_on, created_at, id)} or {@code (is_on, updated_at, id)} when filtering by status. The
+ * range of the sort column and the keyset position bound the scan; the range of the other column is
+ * a filter on the rows it reads.
+ *
+ * <p>Statements of a projection select only the columns of its {@link LampField}s. Counts of a
+ * filter read at most a limit of matching rows, or only plan the statement for an estimate.
+ *
+ * @param sql the statement, with named parameters
+ * @param parameters the parameter values by name
+ */
+public record LampListSql(String sql, Map<String, Object> parameters) {
+
+  private static final Pattern PLAN_ROWS = Pattern.compile(" rows=(\\d+)");
+
+  /** Keep an unmodifiable copy of the parameters. */
+  public LampListSql {
+    parameters = Map.copyOf(parameters);
+  }
+
+  /**
+   * The statement for a page of whole lamps.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param after position to continue after; empty for the first page
+   * @param limit maximum number of lamps to return
+   * @return the statement and its parameters
+   */
+  public static LampListSql forPage(
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit) {
+    return page("*", filter, sort, after, limit);
+  }
+
+  /**
+   * The statement for a page of lamps projected to some fields.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param after position to continue after; empty for the first page
+   * @param limit maximum number of lamps to return
+   * @param fields the fields to select
+   * @return the statement and its parameters
+   */
+  public static LampListSql forPage(
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit,
+      final Set<LampField> fields) {
+    return page(LampField.columns(fields), filter, sort, after, limit);
+  }
+
+  /**
+   * The statement for an offset window of active lamps in creation order, projected to some fields;
+   * the statement of {@link JpaLampRepository#findAllActive(Pageable)}.
+   *
+   * @param pageable offset and limit of the window
+   * @param fields the fields to select
+   * @return the statement and its parameters
+   */
+  public static LampListSql forWindow(final Pageable pageable, final Set<LampField> fields) {
+    return new LampListSql(
+        "SELECT "
+            + LampField.columns(fields)
+            + " FROM lamps WHERE deleted_at IS NULL"
+            + " ORDER BY created_at, id LIMIT :limit OFFSET :offset",
+        Map.of("limit", pageable.getPageSize(), "offset", pageable.getOffset()));
+  }
+
+  /**
+   * The statement for one active lamp projected to some fields.
+   *
+   * @param lampId the lamp ID
+   * @param fields the fields to select
+   * @return the statement and its parameters
+   */
+  public static LampListSql forLamp(final UUID lampId, final Set<LampField> fields) {
+    return new LampListSql(
+        "SELECT " + LampField.columns(fields) + " FROM lamps WHERE id = :id AND deleted_at IS NULL",
+        Map.of("id", lampId));
+  }
+
+  /**
+   * The statement counting the active lamps matching a filter, stopping at a limit.
+   *
+   * @param filter which lamps
+   * @param limit maximum number of lamps to count
+   * @return the statement and its parameters
+   */
+  public static LampListSql forCount(final ListFilter filter, final int limit) {
+    final Map<String, Object> parameters = new HashMap<>();
+    final StringBuilder sql =
+        matching(new StringBuilder(256).append("SELECT count(*) FROM ("), parameters, filter)
+            .append(" LIMIT :limit) AS matching");
+    parameters.put("limit", limit);
+    return new LampListSql(sql.toString(), parameters);
+  }
+
+  /**
+   * The statement planning, but not running, a read of the active lamps matching a filter; the
+   * first line of its plan holds the number of rows the planner expects from the table statistics.
+   *
+   * @param filter which lamps
+   * @return the statement and its parameters
+   */
+  public static LampListSql forEstimate(final ListFilter filter) {
+    final Map<String, Object> parameters = new HashMap<>();
+    final StringBuilder sql =
+        matching(new StringBuilder(256).append("EXPLAIN "), parameters, filter);
+    return new LampListSql(sql.toString(), parameters);
+  }
+
+  /**
+   * The number of rows the planner expects, read from the first line of a plan of {@link
+   * #forEstimate}.
+   *
+   * @param plan the lines of the plan
+   * @return the expected number of rows; 0 if the plan has none
+   */
+  public static long estimatedRows(final List<?> plan) {
+    if (plan.isEmpty()) {
+      return 0;
+    }
+    final Matcher rows = PLAN_ROWS.matcher(String.valueOf(plan.get(0)));
+    return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+  }
+
+  /**
+   * Lamp IDs as the text of a Postgres array, for {@code id = ANY(CAST(:ids AS uuid[]))}: one text
+   * parameter whatever the number of IDs, bound the same way by every driver and dialect version.
+   *
+   * @param ids the lamp IDs
+   * @return the array literal, such as <code>{a,b}</code>
+   */
+  public static String idArray(final Collection<UUID> ids) {
+    final StringJoiner array = new StringJoiner(",", "{", "}");
+    ids.forEach(id -> array.add(id.toString()));
+    return array.toString();
+  }
+
+  private static LampListSql page(
+      final String select,
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit) {
+    final String column = sort.byUpdatedAt() ? "updated_at" : "created_at";
+    final String direction = sort.descending() ? " DESC" : "";
+    final StringBuilder sql =
+        new StringBuilder(256)
+            .append("SELECT ")
+            .append(select)
+            .append(" FROM lamps WHERE deleted_at IS NULL");
+    final Map<String, Object> parameters = new HashMap<>();
+    predicates(sql, parameters, filter);
+    after.ifPresent(
+        position -> {
+          sql.append(" AND (")
+              .append(column)
+              .append(", id) ")
+              .append(sort.descending() ? '<' : '>')
+              .append(" (:afterKey, :afterId)");
+          parameters.put("afterKey", position.key());
+          parameters.put("afterId", position.id());
+        });
+    sql.append(" ORDER BY ")
+        .append(column)
+        .append(direction)
+        .append(", id")
+        .append(direction)
+        .append(" LIMIT :limit");
+    parameters.put("limit", limit);
+    return new LampListSql(sql.toString(), parameters);
+  }
+
+  private static StringBuilder matching(
+      final StringBuilder sql, final Map<String, Object> parameters, final ListFilter filter) {
+    sql.append("SELECT 1 FROM lamps WHERE deleted_at IS NULL");
+    predicates(sql, parameters, filter);
+    return sql;
+  }
+
+  private static void predicates(
+      final StringBuilder sql, final Map<String, Object> parameters, final ListFilter filter) {
+    filter
+        .status()
+        .ifPresent(
+            status -> {
+              sql.append(" AND is_on = :status");
+              parameters.put("status", status);
+            });
+    bound(sql, parameters, "created_at >= :createdFrom", "createdFrom", filter.createdFrom());
+    bound(sql, parameters, "created_at < :createdTo", "createdTo", filter.createdTo());
+    bound(sql, parameters, "updated_at >= :updatedFrom", "updatedFrom", filter.updatedFrom());
+    bound(sql, parameters, "updated_at < :updatedTo", "updatedTo", filter.updatedTo());
+  }
+
+  private static void bound(
+      final StringBuilder sql,
+      final Map<String, Object> parameters,
+      final String predicate,
+      final String name,
+      final Optional<OffsetDateTime> value) {
+    value.ifPresent(
+        at -> {
+          sql.append(" AND ").append(predicate);
+          parameters.put(name, at);
+        });
+  }
+}
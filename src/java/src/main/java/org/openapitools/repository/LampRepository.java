@@ -1,8 +1,17 @@
 package org.openapitools.repository;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.openapitools.entity.LampEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +29,9 @@ public interface LampRepository {
   /**
    * Save a lamp entity (create or update).
    *
+   * <p>The row is written before this returns, so the entity returned carries the {@code createdAt}
+   * and {@code updatedAt} it was stored with.
+   *
    * @param entity the lamp entity to save
    * @return the saved lamp entity
    */
@@ -94,6 +106,14 @@ public interface LampRepository {
    */
   List<LampEntity> findAllActive();
 
+  /**
+   * Find the active (non-deleted) lamps with the given IDs in one lookup.
+   *
+   * @param lampIds the lamp IDs
+   * @return the active lamps among them, in no particular order; IDs without one are left out
+   */
+  List<LampEntity> findActiveByIds(Collection<UUID> lampIds);
+
   /**
    * Find a paginated window of active (non-deleted) lamps ordered by creation time and ID.
    *
@@ -106,10 +126,482 @@ public interface LampRepository {
    */
   List<LampEntity> findAllActive(Pageable pageable);
 
+  /**
+   * Find a window of active lamps in an immutable snapshot of the repository, so that a traversal
+   * that passes the returned snapshot on from page to page sees one consistent state, whatever is
+   * written meanwhile. Repositories that keep no snapshots return empty, and callers fall back to
+   * {@link #findAllActive(Pageable)}.
+   *
+   * @param snapshot snapshot returned with an earlier window; empty, or one no longer kept, pins
+   *     the current state
+   * @param offset number of lamps to skip
+   * @param limit maximum number of lamps to return
+   * @return the window and the snapshot it was read from, or empty without snapshot support
+   */
+  default Optional<ActiveWindow> findActiveInSnapshot(
+      final OptionalLong snapshot, final int offset, final int limit) {
+    return Optional.empty();
+  }
+
+  /**
+   * Find a page of active lamps matching a filter, in one of the {@link ListSort} orders, after a
+   * keyset position. Ties on the sort key are broken by ID compared as an unsigned 128-bit number
+   * (the order of the Postgres uuid type), so passing the position of the last lamp returned
+   * continues where the previous call stopped, whatever is written meanwhile before it.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param after position to continue after; empty for the first page
+   * @param limit maximum number of lamps to return
+   * @return the matching lamps in sort order
+   */
+  List<LampEntity> findActive(
+      ListFilter filter, ListSort sort, Optional<SortPosition> after, int limit);
+
+  /**
+   * Find an active lamp projected to some fields. The default reads the whole lamp and drops the
+   * other fields; a database repository selects only their columns.
+   *
+   * @param lampId the lamp ID
+   * @param fields the fields to read
+   * @return the lamp, or empty if there is no active lamp with that ID
+   */
+  default Optional<LampView> findActiveView(final UUID lampId, final Set<LampField> fields) {
+    return findById(lampId)
+        .filter(lamp -> lamp.getDeletedAt() == null)
+        .map(lamp -> LampView.from(lamp, fields));
+  }
+
+  /**
+   * {@link #findAllActive(Pageable)} projected to some fields.
+   *
+   * @param pageable pagination information
+   * @param fields the fields to read
+   * @return active lamps for the requested offset/limit window
+   */
+  default List<LampView> findActiveViews(final Pageable pageable, final Set<LampField> fields) {
+    return findAllActive(pageable).stream().map(lamp -> LampView.from(lamp, fields)).toList();
+  }
+
+  /**
+   * {@link #findActive} projected to some fields.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param after position to continue after; empty for the first page
+   * @param limit maximum number of lamps to return
+   * @param fields the fields to read
+   * @return the matching lamps in sort order
+   */
+  default List<LampView> findActiveViews(
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit,
+      final Set<LampField> fields) {
+    return findActive(filter, sort, after, limit).stream()
+        .map(lamp -> LampView.from(lamp, fields))
+        .toList();
+  }
+
   /**
    * Count all active (non-deleted) lamps.
    *
    * @return count of active lamps
    */
   long countActive();
+
+  /**
+   * Count the active lamps matching a filter: exactly as long as there are at most {@code
+   * exactLimit}, reading no more than that many lamps; beyond it, stores whose statistics allow a
+   * cheap estimate return one instead.
+   *
+   * @param filter which lamps
+   * @param exactLimit the largest count that is always exact
+   * @return the count, and whether it is exact
+   */
+  ActiveCount countActive(ListFilter filter, int exactLimit);
+
+  /**
+   * The change order position below which every change is final: no write that is still running can
+   * take a position before it. In Postgres this is the oldest transaction still running; an open
+   * write transaction anywhere in the database holds it back until it ends.
+   *
+   * @return the {@link ChangePosition#changeSeq} of the first change that may still be written
+   */
+  long changeHorizon();
+
+  /**
+   * Find lamps changed after a position, soft-deleted ones included, in change order: by {@link
+   * LampEntity#getChangeSeq()}, the order in which their writes were sequenced, then by ID compared
+   * as an unsigned 128-bit number (the order of the Postgres uuid type). Passing the position of
+   * the last lamp returned continues where the previous call stopped.
+   *
+   * @param after position to continue after; {@link ChangePosition#START} for the first call
+   * @param before only lamps with a {@code changeSeq} before this are returned; a {@link
+   *     #changeHorizon()} read before the call makes the result final
+   * @param limit maximum number of lamps to return
+   * @return the changed lamps in change order
+   */
+  List<LampEntity> findChangedAfter(ChangePosition after, long before, int limit);
+
+  /**
+   * Permanently remove lamps that were soft deleted before a cutoff.
+   *
+   * @param cutoff lamps with a {@code deletedAt} before this are removed
+   * @param limit maximum number of lamps to remove
+   * @return number of lamps removed
+   */
+  int purgeDeletedBefore(OffsetDateTime cutoff, int limit);
+
+  /**
+   * Set the status of the next chunk of active lamps matching a filter, in ID order (IDs compared
+   * as unsigned 128-bit numbers, as Postgres does). Lamps that already have the status are not
+   * touched, so they are neither counted nor given a new {@code updatedAt}. Passing the ID of the
+   * last lamp returned continues where the previous call stopped.
+   *
+   * @param update the filter and the status to set
+   * @param after only lamps with an ID above this one; the nil UUID for the first chunk
+   * @param updatedAt new update time of the changed lamps
+   * @param limit maximum number of lamps to change
+   * @return the changed lamps as stored now, in ID order
+   */
+  List<LampEntity> updateStatus(
+      StatusUpdate update, UUID after, OffsetDateTime updatedAt, int limit);
+
+  /**
+   * A status to set on every active lamp matching a filter.
+   *
+   * @param status status to set
+   * @param createdFrom only lamps created at or after this
+   * @param createdTo only lamps created before this
+   * @param ids only these lamps; empty for any lamp
+   */
+  record StatusUpdate(
+      boolean status, OffsetDateTime createdFrom, OffsetDateTime createdTo, Set<UUID> ids) {
+
+    /** Creation time before every lamp. */
+    public static final OffsetDateTime ANY_CREATED_FROM = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+
+    /** Creation time after every lamp. */
+    public static final OffsetDateTime ANY_CREATED_TO =
+        OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    /** Keep an unmodifiable copy of the IDs. */
+    public StatusUpdate {
+      ids = Set.copyOf(ids);
+    }
+  }
+
+  /**
+   * Which active lamps {@link #findActive} returns; every criterion given must match. Ranges are
+   * half-open: the lower bound is inclusive, the upper one exclusive.
+   *
+   * @param status only lamps with this status
+   * @param createdFrom only lamps created at or after this
+   * @param createdTo only lamps created before this
+   * @param updatedFrom only lamps updated at or after this
+   * @param updatedTo only lamps updated before this
+   */
+  record ListFilter(
+      Optional<Boolean> status,
+      Optional<OffsetDateTime> createdFrom,
+      Optional<OffsetDateTime> createdTo,
+      Optional<OffsetDateTime> updatedFrom,
+      Optional<OffsetDateTime> updatedTo) {
+
+    /** Every active lamp. */
+    public static final ListFilter NONE =
+        new ListFilter(
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+
+    /**
+     * Reject empty ranges.
+     *
+     * @throws IllegalArgumentException if a lower bound is not before its upper bound
+     */
+    public ListFilter {
+      requireBefore(createdFrom, createdTo, "'createdFrom' must be before 'createdTo'");
+      requireBefore(updatedFrom, updatedTo, "'updatedFrom' must be before 'updatedTo'");
+    }
+
+    private static void requireBefore(
+        final Optional<OffsetDateTime> from,
+        final Optional<OffsetDateTime> to,
+        final String message) {
+      if (from.isPresent() && to.isPresent() && !from.get().isBefore(to.get())) {
+        throw new IllegalArgumentException(message);
+      }
+    }
+  }
+
+  /**
+   * Orders of {@link #findActive}, each served by an index of the repository: by creation or update
+   * time, ascending or descending, then by ID in the same direction.
+   */
+  enum ListSort {
+    /** Oldest first; the order of {@link #findAllActive(Pageable)}. */
+    CREATED_AT(false, false),
+    /** Newest first. */
+    CREATED_AT_DESC(false, true),
+    /** Least recently updated first. */
+    UPDATED_AT(true, false),
+    /** Most recently updated first. */
+    UPDATED_AT_DESC(true, true);
+
+    private final boolean updateOrder;
+    private final boolean reversed;
+
+    ListSort(final boolean updateOrder, final boolean reversed) {
+      this.updateOrder = updateOrder;
+      this.reversed = reversed;
+    }
+
+    /**
+     * Whether lamps are ordered by update rather than creation time.
+     *
+     * @return true for the update time orders
+     */
+    public boolean byUpdatedAt() {
+      return updateOrder;
+    }
+
+    /**
+     * Whether the order is descending.
+     *
+     * @return true for the newest first orders
+     */
+    public boolean descending() {
+      return reversed;
+    }
+
+    /**
+     * The sort key of a lamp.
+     *
+     * @param lamp the lamp
+     * @return its update or creation time
+     */
+    public OffsetDateTime key(final LampEntity lamp) {
+      return updateOrder ? lamp.getUpdatedAt() : lamp.getCreatedAt();
+    }
+
+    /**
+     * Some fields and the sort key, which a keyset cursor is made of.
+     *
+     * @param fields the fields
+     * @return the fields with {@link LampField#UPDATED_AT} or {@link LampField#CREATED_AT}
+     */
+    public Set<LampField> withKey(final Set<LampField> fields) {
+      final Set<LampField> withKey = EnumSet.copyOf(fields);
+      withKey.add(updateOrder ? LampField.UPDATED_AT : LampField.CREATED_AT);
+      return Collections.unmodifiableSet(withKey);
+    }
+  }
+
+  /**
+   * Position in a {@link ListSort} order.
+   *
+   * @param key sort key of the lamp at the position
+   * @param id ID of the lamp at the position
+   */
+  record SortPosition(OffsetDateTime key, UUID id) {
+
+    /**
+     * Position of a lamp.
+     *
+     * @param sort the order
+     * @param lamp the lamp
+     * @return its position in the order
+     */
+    public static SortPosition from(final ListSort sort, final LampEntity lamp) {
+      return new SortPosition(sort.key(lamp), lamp.getId());
+    }
+
+    /**
+     * Position of a projected lamp.
+     *
+     * @param sort the order
+     * @param lamp the lamp, projected to at least {@link ListSort#withKey(Set)}
+     * @return its position in the order
+     */
+    public static SortPosition from(final ListSort sort, final LampView lamp) {
+      return new SortPosition(sort.byUpdatedAt() ? lamp.updatedAt() : lamp.createdAt(), lamp.id());
+    }
+  }
+
+  /**
+   * Position in the change order of {@link #findChangedAfter}.
+   *
+   * @param changeSeq sequence of the last write of the lamp at the position: the ID of its
+   *     transaction in Postgres, a counter in memory
+   * @param id ID of the lamp at the position
+   */
+  record ChangePosition(long changeSeq, UUID id) {
+
+    /** Position before every lamp. */
+    public static final ChangePosition START = new ChangePosition(0, new UUID(0, 0));
+
+    /**
+     * Position of a lamp.
+     *
+     * @param lamp the lamp
+     * @return its position
+     */
+    public static ChangePosition from(final LampEntity lamp) {
+      return new ChangePosition(lamp.getChangeSeq(), lamp.getId());
+    }
+  }
+
+  /**
+   * A number of active lamps.
+   *
+   * @param count the number of lamps
+   * @param exact whether the number is a count, rather than an estimate
+   */
+  record ActiveCount(long count, boolean exact) {}
+
+  /**
+   * A window of active lamps read from one snapshot.
+   *
+   * @param snapshot the snapshot the lamps were read from
+   * @param lamps the lamps, ordered by creation time and ID
+   */
+  record ActiveWindow(long snapshot, List<LampEntity> lamps) {
+
+    /** Keep an unmodifiable copy of the lamps. */
+    public ActiveWindow {
+      lamps = List.copyOf(lamps);
+    }
+  }
+
+  /**
+   * Fields of a lamp a projection can select, and the columns they are read from. Reads of a
+   * projection select only these columns (see {@link LampView}).
+   */
+  enum LampField {
+    /** Lamp ID; part of every projection. */
+    ID("id", UUID.class),
+    /** On/off status. */
+    STATUS("is_on", Boolean.class),
+    /** Creation time. */
+    CREATED_AT("created_at", OffsetDateTime.class),
+    /** Last update time. */
+    UPDATED_AT("updated_at", OffsetDateTime.class);
+
+    /** Every field: the full lamp. */
+    public static final Set<LampField> ALL =
+        Collections.unmodifiableSet(EnumSet.allOf(LampField.class));
+
+    private final String columnName;
+    private final Class<?> javaType;
+
+    LampField(final String column, final Class<?> type) {
+      this.columnName = column;
+      this.javaType = type;
+    }
+
+    /**
+     * The select list of a projection, in declaration order.
+     *
+     * @param fields the fields to read
+     * @return comma separated column names
+     */
+    public static String columns(final Set<LampField> fields) {
+      return fields.stream().map(LampField::column).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * The bit set of a projection, in declaration order, to tell projections apart in short keys.
+     *
+     * @param fields the fields
+     * @return one bit per field, {@link #ID} lowest
+     */
+    public static int mask(final Set<LampField> fields) {
+      int mask = 0;
+      for (final LampField field : fields) {
+        mask |= 1 << field.ordinal();
+      }
+      return mask;
+    }
+
+    /**
+     * The column the field is read from.
+     *
+     * @return the column name
+     */
+    public String column() {
+      return columnName;
+    }
+
+    /**
+     * The Java type the column is read as.
+     *
+     * @return the type
+     */
+    public Class<?> type() {
+      return javaType;
+    }
+  }
+
+  /**
+   * Read-only projection of a lamp to some of its {@link LampField}s, read without hydrating a
+   * managed {@link LampEntity}. Fields outside the projection are null.
+   *
+   * @param id lamp ID; always present
+   * @param status on/off status, or null
+   * @param createdAt creation time, or null
+   * @param updatedAt last update time, or null
+   */
+  record LampView(UUID id, Boolean status, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+
+    /**
+     * Projection of a lamp.
+     *
+     * @param lamp the lamp
+     * @param fields the fields to keep
+     * @return the view
+     */
+    public static LampView from(final LampEntity lamp, final Set<LampField> fields) {
+      return new LampView(lamp.getId(), lamp.getStatus(), lamp.getCreatedAt(), lamp.getUpdatedAt())
+          .only(fields);
+    }
+
+    /**
+     * Projection of a row read with {@link LampField#columns(Set)}.
+     *
+     * @param fields the fields selected
+     * @param row the column values, in the order of {@code fields}
+     * @return the view
+     */
+    public static LampView fromRow(final Set<LampField> fields, final Object... row) {
+      final Object[] values = new Object[LampField.values().length];
+      int column = 0;
+      for (final LampField field : fields) {
+        values[field.ordinal()] = row[column++];
+      }
+      return new LampView(
+          (UUID) values[LampField.ID.ordinal()],
+          (Boolean) values[LampField.STATUS.ordinal()],
+          (OffsetDateTime) values[LampField.CREATED_AT.ordinal()],
+          (OffsetDateTime) values[LampField.UPDATED_AT.ordinal()]);
+    }
+
+    /**
+     * This view narrowed to some fields.
+     *
+     * @param fields the fields to keep
+     * @return a view with the other fields null
+     */
+    public LampView only(final Set<LampField> fields) {
+      return new LampView(
+          id,
+          fields.contains(LampField.STATUS) ? status : null,
+          fields.contains(LampField.CREATED_AT) ? createdAt : null,
+          fields.contains(LampField.UPDATED_AT) ? updatedAt : null);
+    }
+  }
 }
@@ -0,0 +1,40 @@
+package org.openapitools.repository;
+
+import java.io.IOException;
+
+/**
+ * The default lamp list as raw column values, for writing a page straight into a response without
+ * building an entity or a model per lamp. Only stores that can hand out their rows this way
+ * implement it; the others serve pages through {@link LampRepository}.
+ */
+public interface LampRows {
+
+  /**
+   * Hand the active lamps of a window of the default order, creation time then ID, to a handler,
+   * one row at a time.
+   *
+   * @param offset number of lamps to skip
+   * @param limit maximum number of lamps
+   * @param handler receives each row; the arrays it is given are only valid during the call
+   * @return the number of rows handed over
+   * @throws IOException when the handler fails to write a row
+   */
+  int forEachActive(int offset, int limit, RowHandler handler) throws IOException;
+
+  /** Receives the rows of {@link #forEachActive}. */
+  @FunctionalInterface
+  interface RowHandler {
+
+    /**
+     * One lamp.
+     *
+     * @param id the canonical text of the lamp ID, in ASCII
+     * @param status whether the lamp is on
+     * @param createdAtMicros creation time, in microseconds since the epoch
+     * @param updatedAtMicros last update time, in microseconds since the epoch
+     * @throws IOException when the row cannot be written
+     */
+    void row(byte[] id, boolean status, long createdAtMicros, long updatedAtMicros)
+        throws IOException;
+  }
+}
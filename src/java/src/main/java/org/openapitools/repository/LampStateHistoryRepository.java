@@ -0,0 +1,57 @@
+package org.openapitools.repository;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only log of lamp status transitions. Entries are never updated; old ones are dropped a
+ * month at a time by {@link #maintain(YearMonth, int, int)}.
+ */
+public interface LampStateHistoryRepository {
+
+  /**
+   * Whether the log can be written, e.g. its table exists.
+   *
+   * @return true if {@link #append(List)} is expected to succeed
+   */
+  boolean isAvailable();
+
+  /**
+   * Append transitions, in the caller's transaction when there is one.
+   *
+   * @param transitions transitions to append
+   */
+  void append(List<LampTransition> transitions);
+
+  /**
+   * Transitions of one lamp within a time range, oldest first.
+   *
+   * @param lampId lamp ID
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @param limit maximum number of transitions
+   * @return the transitions
+   */
+  List<LampTransition> findByLamp(UUID lampId, Instant from, Instant to, int limit);
+
+  /**
+   * Prepare storage for the coming months and drop expired ones.
+   *
+   * @param current the current month, UTC
+   * @param premakeMonths months after the current one to prepare
+   * @param retentionMonths full months before the current one to keep
+   */
+  void maintain(YearMonth current, int premakeMonths, int retentionMonths);
+
+  /**
+   * One status transition.
+   *
+   * @param lampId lamp ID
+   * @param changedAt when the transition happened
+   * @param previousStatus status before; null for a create
+   * @param status status after; null for a delete
+   */
+  record LampTransition(UUID lampId, Instant changedAt, Boolean previousStatus, Boolean status) {}
+}
@@ -0,0 +1,48 @@
+package org.openapitools.repository.impl;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Change sequence numbers of the in-memory store, the counterpart of the transaction IDs that order
+ * lamp changes in the database: each write takes the next number and ends it once the lamp is in
+ * change order, and the horizon is the lowest number still in flight.
+ *
+ * <p>Numbers are taken and ended under one monitor, held only for the set operation, so a number
+ * below the horizon is always ended.
+ */
+final class ChangeSequence {
+
+  private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+  private long last;
+
+  /**
+   * Take the next number.
+   *
+   * @return the number, in flight until {@link #end}
+   */
+  /* default */ synchronized long begin() {
+    last++;
+    inFlight.add(last);
+    return last;
+  }
+
+  /**
+   * End a number taken by {@link #begin}.
+   *
+   * @param changeSeq the number
+   */
+  /* default */ synchronized void end(final long changeSeq) {
+    inFlight.remove(changeSeq);
+  }
+
+  /**
+   * The lowest number still in flight, or the next one to be taken.
+   *
+   * @return the number below which every write has ended
+   */
+  /* default */ synchronized long horizon() {
+    return inFlight.isEmpty() ? last + 1 : inFlight.first();
+  }
+}
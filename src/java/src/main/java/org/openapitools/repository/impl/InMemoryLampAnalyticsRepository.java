@@ -0,0 +1,58 @@
+package org.openapitools.repository.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.openapitools.config.OnNoDatabaseUrlCondition;
+import org.openapitools.repository.LampAnalyticsRepository;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory implementation of the LampAnalyticsRepository, used together with the
+ * InMemoryLampRepository when no database URL is configured. Like the lamps, the counters start
+ * empty on every start, so there is nothing to backfill.
+ */
+@Repository
+@Conditional(OnNoDatabaseUrlCondition.class)
+public class InMemoryLampAnalyticsRepository implements LampAnalyticsRepository {
+
+  private final NavigableMap<Instant, HourBucket> buckets = new TreeMap<>();
+  private long lamps;
+  private long lampsOn;
+
+  @Override
+  public synchronized void apply(
+      final long lampsDelta, final long lampsOnDelta, final Collection<HourBucket> hourDeltas) {
+    lamps += lampsDelta;
+    lampsOn += lampsOnDelta;
+    for (final HourBucket delta : hourDeltas) {
+      buckets.merge(delta.start(), delta, InMemoryLampAnalyticsRepository::add);
+    }
+  }
+
+  @Override
+  public synchronized Totals totals() {
+    return new Totals(lamps, lampsOn);
+  }
+
+  @Override
+  public boolean seeded() {
+    return true;
+  }
+
+  @Override
+  public synchronized List<HourBucket> hours(final Instant from, final Instant to) {
+    return new ArrayList<>(buckets.subMap(from, true, to, false).values());
+  }
+
+  private static HourBucket add(final HourBucket current, final HourBucket added) {
+    return new HourBucket(
+        current.start(),
+        current.turnedOn() + added.turnedOn(),
+        current.turnedOff() + added.turnedOff());
+  }
+}
@@ -1,15 +1,28 @@
 package org.openapitools.repository.impl;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import org.openapitools.config.OnNoDatabaseUrlCondition;
 import org.openapitools.entity.LampEntity;
 import org.openapitools.repository.LampRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -21,15 +34,89 @@ import org.springframework.stereotype.Repository;
  * store lamp entities in memory, providing thread-safe operations suitable for testing and
  * development environments.
  *
+ * <p>Active lamps are also kept in a {@link PersistentLampIndex} in list order, published as a new
+ * numbered version on every write. Pages are windows of a version, O(log n + page size) instead of
+ * a sort of the whole map. {@link #findActiveInSnapshot(OptionalLong, int, int)} pins the version
+ * it reads so that the following pages of a traversal read the same one; versions share all
+ * unchanged nodes, so a pin costs only what has changed since. Pins idle for {@code
+ * snapshot-ttl-ms} are reclaimed, and only the newest {@code max-snapshots} are kept.
+ *
+ * <p>Every stored lamp, soft-deleted ones included, is also kept in a skip list in change order, so
+ * {@link #findChangedAfter} reads only the lamps it returns. Each write takes the next number of a
+ * {@link ChangeSequence} and holds it in flight until the lamp is in the skip list, so no write can
+ * land behind {@link #changeHorizon}.
+ *
+ * <p>Active lamps are also kept in a {@link LampSortIndex} per timestamp, the counterparts of the
+ * database indexes behind {@link #findActive}: a filtered page reads a range of the index of its
+ * sort column, of the lamps with the wanted status if it filters by one.
+ *
+ * <p>{@link #updateStatus} picks its chunk in one parallel pass over the map and changes the lamps
+ * in parallel, each under its bin lock like {@link #save}.
+ *
  * <p>This implementation is activated when no database URL is configured (i.e., when
  * spring.datasource.url is empty or missing).
  */
 @Repository
 @Conditional(OnNoDatabaseUrlCondition.class)
+@SuppressWarnings({"PMD.CouplingBetweenObjects", "PMD.GodClass"})
 public class InMemoryLampRepository implements LampRepository {
 
+  private static final long DEFAULT_SNAPSHOT_TTL_MS = 300_000;
+
+  private static final int DEFAULT_MAX_SNAPSHOTS = 1024;
+
+  /** IDs as unsigned 128-bit numbers, like Postgres, rather than by signed halves. */
+  /* default */ static final Comparator<UUID> UNSIGNED_ID_ORDER =
+      Comparator.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+          .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
   private final Map<UUID, LampEntity> lamps = new ConcurrentHashMap<>();
 
+  private final AtomicReference<Version> current =
+      new AtomicReference<>(new Version(0, PersistentLampIndex.EMPTY));
+
+  private final ConcurrentNavigableMap<Long, PinnedVersion> pinned = new ConcurrentSkipListMap<>();
+
+  private final ConcurrentNavigableMap<ChangePosition, LampEntity> changes =
+      new ConcurrentSkipListMap<>(
+          Comparator.comparingLong(ChangePosition::changeSeq)
+              .thenComparing(ChangePosition::id, UNSIGNED_ID_ORDER));
+
+  private final ChangeSequence changeSequence = new ChangeSequence();
+
+  private final LampSortIndex byCreatedAt = new LampSortIndex(LampEntity::getCreatedAt);
+
+  private final LampSortIndex byUpdatedAt = new LampSortIndex(LampEntity::getUpdatedAt);
+
+  private final long snapshotTtlNanos;
+  private final int maxSnapshots;
+  private final LongSupplier nanoTime;
+
+  /** Create a repository with the default snapshot retention. */
+  public InMemoryLampRepository() {
+    this(DEFAULT_SNAPSHOT_TTL_MS, DEFAULT_MAX_SNAPSHOTS);
+  }
+
+  /**
+   * Create a repository.
+   *
+   * @param snapshotTtlMs how long a pinned snapshot is kept after its last page was read
+   * @param maxSnapshots maximum number of pinned snapshots; the oldest are reclaimed first
+   */
+  @Autowired
+  public InMemoryLampRepository(
+      @Value("${lamp.pagination.snapshot-ttl-ms:300000}") final long snapshotTtlMs,
+      @Value("${lamp.pagination.max-snapshots:1024}") final int maxSnapshots) {
+    this(snapshotTtlMs, maxSnapshots, System::nanoTime);
+  }
+
+  /* default */ InMemoryLampRepository(
+      final long snapshotTtlMs, final int maxSnapshots, final LongSupplier nanoTime) {
+    this.snapshotTtlNanos = TimeUnit.MILLISECONDS.toNanos(snapshotTtlMs);
+    this.maxSnapshots = Math.max(maxSnapshots, 1);
+    this.nanoTime = nanoTime;
+  }
+
   @Override
   public List<LampEntity> findAll() {
     return new ArrayList<>(lamps.values());
@@ -37,20 +124,11 @@ public class InMemoryLampRepository implements LampRepository {
 
   @Override
   public Page<LampEntity> findAll(final Pageable pageable) {
-    final List<LampEntity> allLamps =
-        lamps.values().stream()
-            .filter(lamp -> lamp.getDeletedAt() == null)
-            .sorted(Comparator.comparing(LampEntity::getCreatedAt).thenComparing(LampEntity::getId))
-            .toList();
-    final int start = (int) pageable.getOffset();
-    final int end = Math.min(start + pageable.getPageSize(), allLamps.size());
-
-    if (start >= allLamps.size()) {
-      return new PageImpl<>(List.of(), pageable, allLamps.size());
-    }
-
-    final List<LampEntity> pageContent = allLamps.subList(start, end);
-    return new PageImpl<>(pageContent, pageable, allLamps.size());
+    final PersistentLampIndex active = current.get().active();
+    return new PageImpl<>(
+        window(active, (int) pageable.getOffset(), pageable.getPageSize()),
+        pageable,
+        active.size());
   }
 
   @Override
@@ -64,21 +142,94 @@ public class InMemoryLampRepository implements LampRepository {
       entity.setId(UUID.randomUUID());
     }
 
-    // Check if this is an update or create operation
-    final UUID entityId = entity.getId();
-    final LampEntity existing = lamps.get(entityId);
-    final boolean isUpdate = existing != null;
+    // compute holds the lock of the lamp's bin, so the map and the index see the writes of one lamp
+    // in the same order; writes of other lamps go on in parallel.
+    return lamps.compute(
+        entity.getId(),
+        (lampId, existing) -> {
+          // Create a copy to avoid external modifications
+          final LampEntity copy = copyOf(entity);
 
-    // Create a copy to avoid external modifications
-    final LampEntity copy = new LampEntity();
-    copy.setId(entity.getId());
-    copy.setStatus(entity.getStatus());
-    copy.setDeletedAt(entity.getDeletedAt());
+          // Set timestamps: preserve createdAt on updates, always update updatedAt
+          this.setTimestamps(entity, copy, existing, existing != null);
 
-    // Set timestamps: preserve createdAt on updates, always update updatedAt
-    this.setTimestamps(entity, copy, existing, isUpdate);
+          recordChange(existing, copy);
+          publish(existing, copy);
+          return copy;
+        });
+  }
 
-    lamps.put(copy.getId(), copy);
+  /** Move a lamp to the end of the change order under a new change sequence number. */
+  private void recordChange(final LampEntity before, final LampEntity after) {
+    final long changeSeq = changeSequence.begin();
+    try {
+      after.setChangeSeq(changeSeq);
+      if (before != null) {
+        changes.remove(ChangePosition.from(before));
+      }
+      changes.put(ChangePosition.from(after), copyOf(after));
+    } finally {
+      changeSequence.end(changeSeq);
+    }
+  }
+
+  /**
+   * Publish a new version of the index with a lamp replaced, and replace it in the sort indexes.
+   *
+   * @param before the lamp as stored so far; removed if in the index
+   * @param after the lamp as stored now; added if active
+   */
+  private void publish(final LampEntity before, final LampEntity after) {
+    final LampEntity indexed = after != null && after.getDeletedAt() == null ? copyOf(after) : null;
+    if (before != null) {
+      byCreatedAt.remove(before.getId());
+      byUpdatedAt.remove(before.getId());
+    }
+    if (indexed != null) {
+      byCreatedAt.add(indexed);
+      byUpdatedAt.add(indexed);
+    }
+    current.updateAndGet(
+        version -> {
+          PersistentLampIndex active = version.active();
+          if (before != null) {
+            active = active.without(before);
+          }
+          if (indexed != null) {
+            active = active.with(indexed);
+          }
+          return new Version(version.number() + 1, active);
+        });
+  }
+
+  /** Pin a version, reclaiming expired and surplus pins when it was not pinned yet. */
+  private PinnedVersion pin(final Version version, final long now) {
+    final PinnedVersion created = new PinnedVersion(version.active(), now);
+    final PinnedVersion existing = pinned.putIfAbsent(version.number(), created);
+    if (existing != null) {
+      return existing;
+    }
+    pinned.values().removeIf(pin -> pin.isExpired(now, snapshotTtlNanos));
+    while (pinned.size() > maxSnapshots) {
+      pinned.pollFirstEntry();
+    }
+    return created;
+  }
+
+  /** Copies of the lamps in a window, so callers cannot change an indexed lamp. */
+  private static List<LampEntity> window(
+      final PersistentLampIndex active, final int offset, final int limit) {
+    final List<LampEntity> window = new ArrayList<>();
+    active.window(offset, limit).forEach(lamp -> window.add(copyOf(lamp)));
+    return window;
+  }
+
+  private static LampEntity copyOf(final LampEntity lamp) {
+    final LampEntity copy = new LampEntity(lamp.getId(), lamp.getStatus());
+    copy.setCreatedAt(lamp.getCreatedAt());
+    copy.setUpdatedAt(lamp.getUpdatedAt());
+    copy.setDeletedAt(lamp.getDeletedAt());
+    copy.setChangeSeq(lamp.getChangeSeq());
     return copy;
   }
 
@@ -87,15 +238,15 @@ public class InMemoryLampRepository implements LampRepository {
       final LampEntity target,
       final LampEntity existing,
       final boolean isUpdate) {
-    final java.time.OffsetDateTime now = java.time.OffsetDateTime.now();
+    final OffsetDateTime now = OffsetDateTime.now();
 
     // For updates: preserve createdAt from existing entity
     // For creates: use source's createdAt or generate new timestamp
     if (isUpdate) {
-      final java.time.OffsetDateTime existingCreatedAt = existing.getCreatedAt();
+      final OffsetDateTime existingCreatedAt = existing.getCreatedAt();
       target.setCreatedAt(existingCreatedAt);
     } else {
-      final java.time.OffsetDateTime sourceCreatedAt = source.getCreatedAt();
+      final OffsetDateTime sourceCreatedAt = source.getCreatedAt();
       if (sourceCreatedAt != null) {
         target.setCreatedAt(sourceCreatedAt);
       } else {
@@ -114,12 +265,22 @@ public class InMemoryLampRepository implements LampRepository {
 
   @Override
   public void deleteById(final UUID lampId) {
-    lamps.remove(lampId);
+    lamps.computeIfPresent(
+        lampId,
+        (id, existing) -> {
+          publish(existing, null);
+          changes.remove(ChangePosition.from(existing));
+          return null;
+        });
   }
 
   @Override
   public void deleteAll() {
     lamps.clear();
+    changes.clear();
+    byCreatedAt.clear();
+    byUpdatedAt.clear();
+    current.updateAndGet(version -> new Version(version.number() + 1, PersistentLampIndex.EMPTY));
   }
 
   @Override
@@ -137,32 +298,208 @@ public class InMemoryLampRepository implements LampRepository {
 
   @Override
   public List<LampEntity> findAllActive() {
-    return lamps.values().stream()
-        .filter(lamp -> lamp.getDeletedAt() == null)
-        .sorted(Comparator.comparing(LampEntity::getCreatedAt))
-        .toList();
+    final PersistentLampIndex active = current.get().active();
+    return window(active, 0, active.size());
+  }
+
+  @Override
+  public List<LampEntity> findActiveByIds(final Collection<UUID> lampIds) {
+    final List<LampEntity> found = new ArrayList<>(lampIds.size());
+    for (final UUID lampId : lampIds) {
+      final LampEntity lamp = lamps.get(lampId);
+      if (lamp != null && lamp.getDeletedAt() == null) {
+        found.add(lamp);
+      }
+    }
+    return found;
   }
 
   @Override
   public List<LampEntity> findAllActive(final Pageable pageable) {
-    final List<LampEntity> activeLamps =
-        lamps.values().stream()
-            .filter(lamp -> lamp.getDeletedAt() == null)
-            .sorted(Comparator.comparing(LampEntity::getCreatedAt).thenComparing(LampEntity::getId))
-            .toList();
+    return window(current.get().active(), (int) pageable.getOffset(), pageable.getPageSize());
+  }
+
+  @Override
+  public Optional<ActiveWindow> findActiveInSnapshot(
+      final OptionalLong snapshot, final int offset, final int limit) {
+    final long now = nanoTime.getAsLong();
+    PinnedVersion pin = snapshot.isPresent() ? pinned.get(snapshot.getAsLong()) : null;
+    long number = snapshot.orElse(0);
+    if (pin == null || pin.isExpired(now, snapshotTtlNanos)) {
+      final Version version = current.get();
+      number = version.number();
+      pin = pin(version, now);
+    }
+    pin.touch(now);
+    return Optional.of(new ActiveWindow(number, window(pin.index, offset, limit)));
+  }
 
-    final int start = (int) pageable.getOffset();
-    if (start >= activeLamps.size()) {
-      return List.of();
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Reads the range of the sort column's index, skipping lamps outside the other column's range.
+   */
+  @Override
+  public List<LampEntity> findActive(
+      final ListFilter filter,
+      final ListSort sort,
+      final Optional<SortPosition> after,
+      final int limit) {
+    final List<LampEntity> found = new ArrayList<>();
+    for (final LampEntity lamp : range(filter, sort, after)) {
+      if (found.size() >= limit) {
+        break;
+      }
+      if (isWithinOtherRange(lamp, filter, sort.byUpdatedAt())) {
+        found.add(copyOf(lamp));
+      }
     }
+    return found;
+  }
 
-    final int end = Math.min(start + pageable.getPageSize(), activeLamps.size());
-    return activeLamps.subList(start, end);
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Always exact: counts the range of the creation time index without copying any lamp.
+   */
+  @Override
+  public ActiveCount countActive(final ListFilter filter, final int exactLimit) {
+    long count = 0;
+    for (final LampEntity lamp : range(filter, ListSort.CREATED_AT, Optional.empty())) {
+      if (isWithinOtherRange(lamp, filter, false)) {
+        count++;
+      }
+    }
+    return new ActiveCount(count, true);
+  }
+
+  private Collection<LampEntity> range(
+      final ListFilter filter, final ListSort sort, final Optional<SortPosition> after) {
+    final boolean updated = sort.byUpdatedAt();
+    return (updated ? byUpdatedAt : byCreatedAt)
+        .range(
+            filter.status(),
+            updated ? filter.updatedFrom() : filter.createdFrom(),
+            updated ? filter.updatedTo() : filter.createdTo(),
+            after,
+            sort.descending());
+  }
+
+  private static boolean isWithinOtherRange(
+      final LampEntity lamp, final ListFilter filter, final boolean sortedByUpdate) {
+    return sortedByUpdate
+        ? isWithin(lamp.getCreatedAt(), filter.createdFrom(), filter.createdTo())
+        : isWithin(lamp.getUpdatedAt(), filter.updatedFrom(), filter.updatedTo());
+  }
+
+  private static boolean isWithin(
+      final OffsetDateTime at,
+      final Optional<OffsetDateTime> from,
+      final Optional<OffsetDateTime> to) {
+    return from.map(bound -> !at.isBefore(bound)).orElse(true) && to.map(at::isBefore).orElse(true);
   }
 
   @Override
   public long countActive() {
-    return lamps.values().stream().filter(lamp -> lamp.getDeletedAt() == null).count();
+    return current.get().active().size();
+  }
+
+  @Override
+  public long changeHorizon() {
+    return changeSequence.horizon();
+  }
+
+  @Override
+  public List<LampEntity> findChangedAfter(
+      final ChangePosition after, final long before, final int limit) {
+    final List<LampEntity> changed = new ArrayList<>();
+    for (final LampEntity lamp : changes.tailMap(after, false).values()) {
+      if (changed.size() >= limit || lamp.getChangeSeq() >= before) {
+        break;
+      }
+      changed.add(copyOf(lamp));
+    }
+    return changed;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Walks the map with its weakly consistent iterator, so readers and writers are never blocked.
+   * A lamp is only removed if it is still the deleted copy that was inspected.
+   */
+  @Override
+  public int purgeDeletedBefore(final OffsetDateTime cutoff, final int limit) {
+    int purged = 0;
+    for (final Map.Entry<UUID, LampEntity> entry : lamps.entrySet()) {
+      if (purged >= limit) {
+        break;
+      }
+      final OffsetDateTime deletedAt = entry.getValue().getDeletedAt();
+      if (deletedAt != null
+          && deletedAt.isBefore(cutoff)
+          && lamps.remove(entry.getKey(), entry.getValue())) {
+        changes.remove(ChangePosition.from(entry.getValue()));
+        purged++;
+      }
+    }
+    return purged;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Each lamp is checked against the filter again under its bin lock, so a write that lands
+   * between the pass and the change is never overwritten by a stale decision.
+   */
+  @Override
+  public List<LampEntity> updateStatus(
+      final StatusUpdate update,
+      final UUID after,
+      final OffsetDateTime updatedAt,
+      final int limit) {
+    final Collection<LampEntity> candidates =
+        update.ids().isEmpty()
+            ? lamps.values()
+            : update.ids().stream().map(lamps::get).filter(Objects::nonNull).toList();
+    final List<UUID> chunk =
+        candidates.parallelStream()
+            .filter(lamp -> isToUpdate(lamp, update, after))
+            .map(LampEntity::getId)
+            .sorted(UNSIGNED_ID_ORDER)
+            .limit(limit)
+            .toList();
+    final Queue<LampEntity> changed = new ConcurrentLinkedQueue<>();
+    chunk.parallelStream()
+        .forEach(
+            lampId ->
+                lamps.computeIfPresent(
+                    lampId,
+                    (id, existing) -> {
+                      if (!isToUpdate(existing, update, after)) {
+                        return existing;
+                      }
+                      final LampEntity copy = copyOf(existing);
+                      copy.setStatus(update.status());
+                      copy.setUpdatedAt(updatedAt);
+                      recordChange(existing, copy);
+                      publish(existing, copy);
+                      changed.add(copyOf(copy));
+                      return copy;
+                    }));
+    return changed.stream()
+        .sorted(Comparator.comparing(LampEntity::getId, UNSIGNED_ID_ORDER))
+        .toList();
+  }
+
+  private static boolean isToUpdate(
+      final LampEntity lamp, final StatusUpdate update, final UUID after) {
+    return lamp.getDeletedAt() == null
+        && !Boolean.valueOf(update.status()).equals(lamp.getStatus())
+        && UNSIGNED_ID_ORDER.compare(lamp.getId(), after) > 0
+        && !lamp.getCreatedAt().isBefore(update.createdFrom())
+        && lamp.getCreatedAt().isBefore(update.createdTo())
+        && (update.ids().isEmpty() || update.ids().contains(lamp.getId()));
   }
 
   /**
@@ -182,4 +519,26 @@ public class InMemoryLampRepository implements LampRepository {
   public boolean isEmpty() {
     return lamps.isEmpty();
   }
+
+  /** A numbered version of the index of active lamps. */
+  private record Version(long number, PersistentLampIndex active) {}
+
+  /** A version kept for a traversal, with the time of its last read. */
+  private static final class PinnedVersion {
+    private final PersistentLampIndex index;
+    private volatile long lastReadNanos;
+
+    private PinnedVersion(final PersistentLampIndex index, final long now) {
+      this.index = index;
+      this.lastReadNanos = now;
+    }
+
+    private void touch(final long now) {
+      lastReadNanos = now;
+    }
+
+    private boolean isExpired(final long now, final long ttlNanos) {
+      return now - lastReadNanos > ttlNanos;
+    }
+  }
 }
@@ -0,0 +1,61 @@
+package org.openapitools.repository.impl;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.openapitools.config.OnNoDatabaseUrlCondition;
+import org.openapitools.repository.LampStateHistoryRepository;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Repository;
+
+/**
+ * In-memory implementation of the LampStateHistoryRepository, used together with the
+ * InMemoryLampRepository when no database URL is configured. Transitions are kept per lamp in the
+ * order they were appended; maintenance only applies retention.
+ */
+@Repository
+@Conditional(OnNoDatabaseUrlCondition.class)
+public class InMemoryLampStateHistoryRepository implements LampStateHistoryRepository {
+
+  private final Map<UUID, List<LampTransition>> transitions = new HashMap<>();
+
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  public synchronized void append(final List<LampTransition> appended) {
+    appended.forEach(
+        transition ->
+            transitions
+                .computeIfAbsent(transition.lampId(), id -> new ArrayList<>())
+                .add(transition));
+  }
+
+  @Override
+  public synchronized List<LampTransition> findByLamp(
+      final UUID lampId, final Instant from, final Instant to, final int limit) {
+    return transitions.getOrDefault(lampId, List.of()).stream()
+        .filter(transition -> !transition.changedAt().isBefore(from))
+        .filter(transition -> transition.changedAt().isBefore(to))
+        .limit(limit)
+        .toList();
+  }
+
+  @Override
+  public synchronized void maintain(
+      final YearMonth current, final int premakeMonths, final int retentionMonths) {
+    final Instant cutoff =
+        current.minusMonths(retentionMonths).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    transitions
+        .values()
+        .forEach(lamp -> lamp.removeIf(transition -> transition.changedAt().isBefore(cutoff)));
+    transitions.values().removeIf(List::isEmpty);
+  }
+}
@@ -0,0 +1,134 @@
+package org.openapitools.repository.impl;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.SortPosition;
+
+/**
+ * Secondary index of active lamps on one timestamp column, the in-memory counterpart of the {@code
+ * (column, id)} and {@code (is_on, column, id)} indexes of the database: lamps in (timestamp, ID)
+ * order, all of them and per status, so that a page of a filtered list reads a range instead of
+ * sorting the whole store.
+ *
+ * <p>Entries are added and removed by the repository under the lamp's bin lock; readers see the
+ * skip lists weakly consistent, never blocked.
+ */
+final class LampSortIndex {
+
+  private static final UUID NIL = new UUID(0, 0);
+
+  private static final Comparator<Key> KEY_ORDER =
+      Comparator.comparing(Key::at)
+          .thenComparing(Key::id, InMemoryLampRepository.UNSIGNED_ID_ORDER);
+
+  private final Function<LampEntity, OffsetDateTime> column;
+
+  /** Key of each indexed lamp, so an entry is found again whatever was changed on the lamp. */
+  private final Map<UUID, Key> keys = new ConcurrentHashMap<>();
+
+  private final ConcurrentNavigableMap<Key, LampEntity> all =
+      new ConcurrentSkipListMap<>(KEY_ORDER);
+
+  private final List<ConcurrentNavigableMap<Key, LampEntity>> byStatus =
+      List.of(new ConcurrentSkipListMap<>(KEY_ORDER), new ConcurrentSkipListMap<>(KEY_ORDER));
+
+  /**
+   * Create an empty index.
+   *
+   * @param column the indexed timestamp of a lamp
+   */
+  /* default */ LampSortIndex(final Function<LampEntity, OffsetDateTime> column) {
+    this.column = column;
+  }
+
+  /* default */ void add(final LampEntity lamp) {
+    final Key key = new Key(column.apply(lamp).toInstant(), lamp.getId());
+    keys.put(lamp.getId(), key);
+    all.put(key, lamp);
+    statusMap(lamp.getStatus()).put(key, lamp);
+  }
+
+  /* default */ void remove(final UUID lampId) {
+    final Key key = keys.remove(lampId);
+    if (key != null) {
+      all.remove(key);
+      byStatus.forEach(map -> map.remove(key));
+    }
+  }
+
+  /* default */ void clear() {
+    keys.clear();
+    all.clear();
+    byStatus.forEach(NavigableMap::clear);
+  }
+
+  /**
+   * The indexed lamps in a range, in index order or its reverse.
+   *
+   * @param status only lamps with this status
+   * @param from only lamps with the timestamp at or after this
+   * @param to only lamps with the timestamp before this
+   * @param after only lamps past this position in the direction read
+   * @param descending whether to read the range backwards
+   * @return a live view of the lamps in the range
+   */
+  /* default */ Collection<LampEntity> range(
+      final Optional<Boolean> status,
+      final Optional<OffsetDateTime> from,
+      final Optional<OffsetDateTime> to,
+      final Optional<SortPosition> after,
+      final boolean descending) {
+    Bound lower = from.map(at -> new Bound(new Key(at.toInstant(), NIL), true)).orElse(null);
+    Bound upper = to.map(at -> new Bound(new Key(at.toInstant(), NIL), false)).orElse(null);
+    if (after.isPresent()) {
+      final Bound position =
+          new Bound(new Key(after.get().key().toInstant(), after.get().id()), false);
+      if (descending) {
+        upper =
+            upper == null || KEY_ORDER.compare(position.key(), upper.key()) < 0 ? position : upper;
+      } else {
+        lower =
+            lower == null || KEY_ORDER.compare(position.key(), lower.key()) >= 0 ? position : lower;
+      }
+    }
+    final NavigableMap<Key, LampEntity> range =
+        slice(status.map(this::statusMap).orElse(all), lower, upper);
+    return descending ? range.descendingMap().values() : range.values();
+  }
+
+  private static NavigableMap<Key, LampEntity> slice(
+      final ConcurrentNavigableMap<Key, LampEntity> map, final Bound lower, final Bound upper) {
+    if (lower == null) {
+      return upper == null ? map : map.headMap(upper.key(), upper.inclusive());
+    }
+    if (upper == null) {
+      return map.tailMap(lower.key(), lower.inclusive());
+    }
+    if (KEY_ORDER.compare(lower.key(), upper.key()) > 0) {
+      return new ConcurrentSkipListMap<>(KEY_ORDER);
+    }
+    return map.subMap(lower.key(), lower.inclusive(), upper.key(), upper.inclusive());
+  }
+
+  private ConcurrentNavigableMap<Key, LampEntity> statusMap(final Boolean status) {
+    return byStatus.get(Boolean.TRUE.equals(status) ? 1 : 0);
+  }
+
+  /** Index key: the timestamp as an instant, so offsets do not matter, then the ID. */
+  private record Key(Instant at, UUID id) {}
+
+  /** One end of a range. */
+  private record Bound(Key key, boolean inclusive) {}
+}
@@ -0,0 +1,148 @@
+package org.openapitools.repository.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openapitools.entity.LampEntity;
+
+/**
+ * Immutable set of lamps ordered by creation time, then ID, the order of the lamp list.
+ *
+ * <p>A persistent treap: {@link #with} and {@link #without} return a new index that copies only the
+ * O(log n) nodes on the changed path and shares every other node with this one, so an old version
+ * stays readable, and cheap to keep, for as long as someone holds it. Nodes carry their subtree
+ * size, so {@link #window} finds an offset in O(log n) and then costs O(limit).
+ *
+ * <p>Holds the lamps it is given; callers must not change them afterwards.
+ */
+final class PersistentLampIndex {
+
+  /** Index without lamps. */
+  /* default */ static final PersistentLampIndex EMPTY = new PersistentLampIndex(null);
+
+  private static final Comparator<LampEntity> ORDER =
+      Comparator.comparing(LampEntity::getCreatedAt).thenComparing(LampEntity::getId);
+
+  private final Node root;
+
+  private PersistentLampIndex(final Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Number of lamps.
+   *
+   * @return the size
+   */
+  /* default */ int size() {
+    return size(root);
+  }
+
+  /**
+   * This index plus a lamp.
+   *
+   * @param lamp a lamp not in this index
+   * @return the new index
+   */
+  /* default */ PersistentLampIndex with(final LampEntity lamp) {
+    final Node[] parts = split(root, lamp);
+    final Node single = node(lamp, ThreadLocalRandom.current().nextInt(), null, null);
+    return new PersistentLampIndex(merge(merge(parts[0], single), parts[1]));
+  }
+
+  /**
+   * This index minus the lamp with the creation time and ID of the given one.
+   *
+   * @param lamp the lamp to remove
+   * @return the new index; this one if the lamp is not in it
+   */
+  @SuppressWarnings("PMD.CompareObjectsWithEquals") // unchanged means the very same node
+  /* default */ PersistentLampIndex without(final LampEntity lamp) {
+    final Node removed = remove(root, lamp);
+    return removed == root ? this : new PersistentLampIndex(removed);
+  }
+
+  /**
+   * Lamps from an offset on, in order.
+   *
+   * @param offset number of lamps to skip
+   * @param limit maximum number of lamps to return
+   * @return the lamps
+   */
+  /* default */ List<LampEntity> window(final int offset, final int limit) {
+    final List<LampEntity> lamps = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+    collect(root, offset, limit, lamps);
+    return lamps;
+  }
+
+  private static void collect(
+      final Node node, final int offset, final int limit, final List<LampEntity> lamps) {
+    if (node == null || lamps.size() >= limit) {
+      return;
+    }
+    final int leftSize = size(node.left());
+    if (offset < leftSize) {
+      collect(node.left(), offset, limit, lamps);
+    }
+    if (offset <= leftSize && lamps.size() < limit) {
+      lamps.add(node.lamp());
+    }
+    collect(node.right(), Math.max(0, offset - leftSize - 1), limit, lamps);
+  }
+
+  /** Split into the lamps before the given one and the rest. */
+  private static Node[] split(final Node node, final LampEntity lamp) {
+    if (node == null) {
+      return new Node[2];
+    }
+    if (ORDER.compare(node.lamp(), lamp) < 0) {
+      final Node[] right = split(node.right(), lamp);
+      return new Node[] {node(node.lamp(), node.priority(), node.left(), right[0]), right[1]};
+    }
+    final Node[] left = split(node.left(), lamp);
+    return new Node[] {left[0], node(node.lamp(), node.priority(), left[1], node.right())};
+  }
+
+  /** Join two treaps, every lamp of the first ordered before every lamp of the second. */
+  private static Node merge(final Node first, final Node second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    if (first.priority() >= second.priority()) {
+      return node(first.lamp(), first.priority(), first.left(), merge(first.right(), second));
+    }
+    return node(second.lamp(), second.priority(), merge(first, second.left()), second.right());
+  }
+
+  @SuppressWarnings("PMD.CompareObjectsWithEquals") // unchanged means the very same node
+  private static Node remove(final Node node, final LampEntity lamp) {
+    if (node == null) {
+      return null;
+    }
+    final int order = ORDER.compare(lamp, node.lamp());
+    if (order == 0) {
+      return merge(node.left(), node.right());
+    }
+    if (order < 0) {
+      final Node left = remove(node.left(), lamp);
+      return left == node.left() ? node : node(node.lamp(), node.priority(), left, node.right());
+    }
+    final Node right = remove(node.right(), lamp);
+    return right == node.right() ? node : node(node.lamp(), node.priority(), node.left(), right);
+  }
+
+  private static Node node(
+      final LampEntity lamp, final int priority, final Node left, final Node right) {
+    return new Node(lamp, priority, left, right, size(left) + size(right) + 1);
+  }
+
+  private static int size(final Node node) {
+    return node == null ? 0 : node.size();
+  }
+
+  private record Node(LampEntity lamp, int priority, Node left, Node right, int size) {}
+}
@@ -0,0 +1,259 @@
+package org.openapitools.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openapitools.repository.LampAnalyticsRepository;
+import org.openapitools.repository.LampAnalyticsRepository.HourBucket;
+import org.openapitools.repository.LampAnalyticsRepository.Totals;
+import org.openapitools.service.LampChangedEvent.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lamp analytics served from incrementally maintained aggregates instead of scans of the lamps
+ * table: the number of active lamps and of those that are on, and per UTC hour the number of lamps
+ * turned on and off.
+ *
+ * <p>Every lamp change is turned into counter deltas. A create counts as a transition to its
+ * initial status, an update only when it flips the status, and a delete only changes the totals.
+ * Deltas are collected while the lamp write's transaction runs and added to the {@link
+ * LampAnalyticsRepository} in one call just before it commits, so the aggregates commit or roll
+ * back with the lamps and are never lost or counted twice. Without a transaction (in memory mode)
+ * they are added at once.
+ */
+@Service
+public class LampAnalytics {
+
+  private static final int HOURS_PER_DAY = 24;
+
+  private final LampAnalyticsRepository repository;
+  private final long maxRangeHours;
+
+  public LampAnalytics(
+      final LampAnalyticsRepository repository,
+      @Value("${lamp.analytics.max-range-hours:2232}") final long maxRangeHours) {
+    this.repository = repository;
+    this.maxRangeHours = maxRangeHours;
+  }
+
+  /**
+   * Turn a lamp change into counter deltas, as part of its transaction when there is one.
+   *
+   * @param event the change
+   */
+  @EventListener
+  public void onLampChanged(final LampChangedEvent event) {
+    final Type type = event.type();
+    if (type == Type.UPDATED && event.previousStatus() == null) {
+      return;
+    }
+    final boolean wasOn = type != Type.CREATED && Boolean.TRUE.equals(event.previousStatus());
+    final boolean on = type != Type.DELETED && Boolean.TRUE.equals(event.status());
+    if (type == Type.UPDATED && wasOn == on) {
+      return;
+    }
+    add(
+        lampsDelta(type),
+        (on ? 1 : 0) - (wasOn ? 1 : 0),
+        type == Type.DELETED ? null : hourOf(event.updatedAt()),
+        on);
+  }
+
+  /**
+   * Current active lamp counts.
+   *
+   * @return the totals
+   */
+  public StatusTotals statusTotals() {
+    final Totals totals = repository.totals();
+    return new StatusTotals(totals.lamps(), totals.lampsOn(), totals.lamps() - totals.lampsOn());
+  }
+
+  /**
+   * Whether {@link #statusTotals()} counts every active lamp. With PostgreSQL that is only once the
+   * backfill has seeded the counters; lamps written before they existed are missing until then.
+   *
+   * @return whether the totals are complete
+   */
+  public boolean countsAllLamps() {
+    return repository.seeded();
+  }
+
+  /**
+   * Transitions per UTC hour, only for hours that had any.
+   *
+   * @param from start of the range, inclusive; truncated to the hour
+   * @param to end of the range, exclusive
+   * @return one entry per hour with transitions, oldest first
+   * @throws IllegalArgumentException if the range is empty or longer than {@code max-range-hours}
+   */
+  public List<HourlyStateChanges> stateChanges(final Instant from, final Instant to) {
+    return buckets(from, to).stream()
+        .map(
+            bucket ->
+                new HourlyStateChanges(
+                    OffsetDateTime.ofInstant(bucket.start(), ZoneOffset.UTC),
+                    bucket.turnedOn() + bucket.turnedOff(),
+                    bucket.turnedOn(),
+                    bucket.turnedOff()))
+        .toList();
+  }
+
+  /**
+   * Transitions by UTC hour of day.
+   *
+   * @param from start of the range, inclusive; truncated to the hour
+   * @param to end of the range, exclusive
+   * @return 24 entries, hour 0 first
+   * @throws IllegalArgumentException if the range is empty or longer than {@code max-range-hours}
+   */
+  public List<HourOfDayUsage> usageByHourOfDay(final Instant from, final Instant to) {
+    final long[] turnedOn = new long[HOURS_PER_DAY];
+    final long[] turnedOff = new long[HOURS_PER_DAY];
+    for (final HourBucket bucket : buckets(from, to)) {
+      final int hour = bucket.start().atOffset(ZoneOffset.UTC).getHour();
+      turnedOn[hour] += bucket.turnedOn();
+      turnedOff[hour] += bucket.turnedOff();
+    }
+    final List<HourOfDayUsage> usage = new ArrayList<>(HOURS_PER_DAY);
+    for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+      usage.add(
+          new HourOfDayUsage(
+              hour, turnedOn[hour] + turnedOff[hour], turnedOn[hour], turnedOff[hour]));
+    }
+    return usage;
+  }
+
+  private List<HourBucket> buckets(final Instant from, final Instant to) {
+    final Instant start = from.truncatedTo(ChronoUnit.HOURS);
+    if (!start.isBefore(to)) {
+      throw new IllegalArgumentException("'from' must be before 'to'");
+    }
+    if (Duration.between(start, to).toHours() >= maxRangeHours) {
+      throw new IllegalArgumentException(
+          "Analytics range must be shorter than " + maxRangeHours + " hours");
+    }
+    return repository.hours(start, to);
+  }
+
+  private void add(
+      final long lamps, final long lampsOn, final Instant transitionHour, final boolean on) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      pendingForTransaction().add(lamps, lampsOn, transitionHour, on);
+      return;
+    }
+    final Deltas deltas = new Deltas();
+    deltas.add(lamps, lampsOn, transitionHour, on);
+    deltas.applyTo(repository);
+  }
+
+  private Deltas pendingForTransaction() {
+    final Object bound = TransactionSynchronizationManager.getResource(this);
+    if (bound != null) {
+      return (Deltas) bound;
+    }
+    final Deltas pending = new Deltas();
+    TransactionSynchronizationManager.bindResource(this, pending);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void beforeCommit(final boolean readOnly) {
+            pending.applyTo(repository);
+          }
+
+          @Override
+          public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LampAnalytics.this);
+          }
+        });
+    return pending;
+  }
+
+  private static long lampsDelta(final Type type) {
+    return switch (type) {
+      case CREATED -> 1;
+      case DELETED -> -1;
+      case UPDATED -> 0;
+    };
+  }
+
+  private static Instant hourOf(final OffsetDateTime timestamp) {
+    return (timestamp == null ? Instant.now() : timestamp.toInstant())
+        .truncatedTo(ChronoUnit.HOURS);
+  }
+
+  /** Counter deltas of the changes in one transaction. */
+  private static final class Deltas {
+
+    private final Map<Instant, long[]> hours = new HashMap<>();
+    private long lamps;
+    private long lampsOn;
+
+    private void add(
+        final long lampsDelta,
+        final long lampsOnDelta,
+        final Instant transitionHour,
+        final boolean on) {
+      lamps += lampsDelta;
+      lampsOn += lampsOnDelta;
+      if (transitionHour != null) {
+        hours.computeIfAbsent(transitionHour, hour -> new long[2])[on ? 0 : 1]++;
+      }
+    }
+
+    private void applyTo(final LampAnalyticsRepository repository) {
+      if (hours.isEmpty() && lamps == 0 && lampsOn == 0) {
+        return;
+      }
+      repository.apply(
+          lamps,
+          lampsOn,
+          hours.entrySet().stream()
+              .map(
+                  entry -> new HourBucket(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+              .sorted(Comparator.comparing(HourBucket::start))
+              .toList());
+    }
+  }
+
+  /**
+   * Active lamp counts.
+   *
+   * @param totalLamps active lamps
+   * @param lampsOn active lamps that are on
+   * @param lampsOff active lamps that are off
+   */
+  public record StatusTotals(long totalLamps, long lampsOn, long lampsOff) {}
+
+  /**
+   * Transitions within one UTC hour.
+   *
+   * @param hour start of the hour
+   * @param changes lamps turned on or off
+   * @param turnedOn lamps created on or switched on
+   * @param turnedOff lamps created off or switched off
+   */
+  public record HourlyStateChanges(
+      OffsetDateTime hour, long changes, long turnedOn, long turnedOff) {}
+
+  /**
+   * Transitions within one UTC hour of the day, summed over the range.
+   *
+   * @param hourOfDay hour of the day, 0 to 23
+   * @param changes lamps turned on or off
+   * @param turnedOn lamps created on or switched on
+   * @param turnedOff lamps created off or switched off
+   */
+  public record HourOfDayUsage(int hourOfDay, long changes, long turnedOn, long turnedOff) {}
+}
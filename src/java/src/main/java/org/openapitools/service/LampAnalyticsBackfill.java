@@ -0,0 +1,54 @@
+package org.openapitools.service;
+
+import org.openapitools.config.OnDatabaseUrlCondition;
+import org.openapitools.repository.JdbcLampAnalyticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the Postgres analytics counters from the existing lamps at startup; see {@link
+ * JdbcLampAnalyticsRepository#backfill(boolean)}. Only the first instance to start after the
+ * migration does any work. A failure is logged and does not stop the application, since lamp
+ * requests do not depend on the counters.
+ */
+@Component
+@Conditional(OnDatabaseUrlCondition.class)
+public class LampAnalyticsBackfill implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampAnalyticsBackfill.class);
+
+  private final JdbcLampAnalyticsRepository repository;
+  private final boolean enabled;
+  private final boolean resyncTotals;
+
+  public LampAnalyticsBackfill(
+      final JdbcLampAnalyticsRepository repository,
+      @Value("${lamp.analytics.backfill.enabled:true}") final boolean enabled,
+      @Value("${lamp.analytics.backfill.resync-totals:false}") final boolean resyncTotals) {
+    this.repository = repository;
+    this.enabled = enabled;
+    this.resyncTotals = resyncTotals;
+  }
+
+  @Override
+  public void run(final ApplicationArguments args) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      if (repository.backfill(resyncTotals) && logger.isInfoEnabled()) {
+        logger.info("Seeded lamp analytics from the lamps table");
+      }
+    } catch (DataAccessException e) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Could not backfill lamp analytics; is migration V3 applied?", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package org.openapitools.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.StatusUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Sets the status of every active lamp matching a filter, e.g. turns every lamp off, without
+ * reading the lamps page by page and updating them one at a time.
+ *
+ * <p>Lamps are changed in chunks of {@code chunk-size}, in ID order, each chunk one set-based
+ * update in its own short transaction (see {@link LampService#updateStatus}), with {@code
+ * chunk-pause-ms} between chunks. Lamps that already have the status are skipped. A lamp is changed
+ * if it matches the filter when its chunk runs; a failure stops the update, keeping the chunks
+ * already committed.
+ *
+ * <p>An update runs on the calling thread or as a job on a background thread. Jobs run one at a
+ * time in submission order; the last {@code retained-jobs} can be looked up by ID on the instance
+ * that runs them.
+ */
+@Service
+public class LampBulkUpdate {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampBulkUpdate.class);
+
+  private static final UUID FIRST_ID = new UUID(0, 0);
+
+  private final LampService lampService;
+  private final ExecutorService executor;
+  private final int chunkSize;
+  private final long chunkPauseMs;
+  private final int maxIds;
+  private final int retainedJobs;
+
+  private final Map<UUID, Progress> jobs = new ConcurrentHashMap<>();
+  private final Queue<UUID> jobOrder = new ConcurrentLinkedQueue<>();
+
+  @Autowired
+  public LampBulkUpdate(
+      final LampService lampService,
+      @Value("${lamp.bulk.chunk-size:1000}") final int chunkSize,
+      @Value("${lamp.bulk.chunk-pause-ms:0}") final long chunkPauseMs,
+      @Value("${lamp.bulk.max-ids:10000}") final int maxIds,
+      @Value("${lamp.bulk.retained-jobs:100}") final int retainedJobs) {
+    this(
+        lampService,
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "lamp-bulk-update");
+              thread.setDaemon(true);
+              return thread;
+            }),
+        chunkSize,
+        chunkPauseMs,
+        maxIds,
+        retainedJobs);
+  }
+
+  /* default */ LampBulkUpdate(
+      final LampService lampService,
+      final ExecutorService executor,
+      final int chunkSize,
+      final long chunkPauseMs,
+      final int maxIds,
+      final int retainedJobs) {
+    this.lampService = lampService;
+    this.executor = executor;
+    this.chunkSize = Math.max(chunkSize, 1);
+    this.chunkPauseMs = chunkPauseMs;
+    this.maxIds = maxIds;
+    this.retainedJobs = Math.max(retainedJobs, 1);
+  }
+
+  /** Stop running jobs, interrupting the current one between chunks. */
+  @PreDestroy
+  public void stop() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Set the status of the matching lamps on the calling thread.
+   *
+   * @param filter which lamps
+   * @param status status to set
+   * @return the finished job: {@link State#SUCCEEDED}, or {@link State#FAILED} with the lamps
+   *     changed before the failure
+   * @throws IllegalArgumentException if the filter is invalid
+   */
+  public BulkJob run(final LampFilter filter, final boolean status) {
+    final Progress job = register(filter, status);
+    job.run();
+    return job.snapshot();
+  }
+
+  /**
+   * Queue a job setting the status of the matching lamps.
+   *
+   * @param filter which lamps
+   * @param status status to set
+   * @return the job as queued; poll {@link #job} for its progress
+   * @throws IllegalArgumentException if the filter is invalid
+   */
+  public BulkJob submit(final LampFilter filter, final boolean status) {
+    final Progress job = register(filter, status);
+    try {
+      executor.execute(job::run);
+    } catch (RejectedExecutionException e) {
+      job.fail(e);
+    }
+    return job.snapshot();
+  }
+
+  /**
+   * A job by ID.
+   *
+   * @param jobId job ID
+   * @return the job's current state, or empty if it is unknown or no longer retained
+   */
+  public Optional<BulkJob> job(final UUID jobId) {
+    return Optional.ofNullable(jobs.get(jobId)).map(Progress::snapshot);
+  }
+
+  private Progress register(final LampFilter filter, final boolean status) {
+    final Progress job = new Progress(UUID.randomUUID(), status, toUpdate(filter, status));
+    jobs.put(job.id, job);
+    jobOrder.add(job.id);
+    while (jobOrder.size() > retainedJobs) {
+      final UUID evicted = jobOrder.poll();
+      if (evicted != null) {
+        jobs.remove(evicted);
+      }
+    }
+    return job;
+  }
+
+  /**
+   * The repository update for a filter, or empty when no lamp can match.
+   *
+   * @throws IllegalArgumentException if the filter is invalid
+   */
+  private Optional<StatusUpdate> toUpdate(final LampFilter filter, final boolean status) {
+    final OffsetDateTime from = filter.createdFrom().orElse(StatusUpdate.ANY_CREATED_FROM);
+    final OffsetDateTime to = filter.createdTo().orElse(StatusUpdate.ANY_CREATED_TO);
+    if (!from.isBefore(to)) {
+      throw new IllegalArgumentException("'createdFrom' must be before 'createdTo'");
+    }
+    final List<UUID> ids = filter.ids().orElse(List.of());
+    if (ids.size() > maxIds) {
+      throw new IllegalArgumentException("At most " + maxIds + " 'ids' are allowed");
+    }
+    // Only lamps without the status are changed, so a current status equal to it matches none.
+    final boolean none =
+        filter.status().map(current -> current == status).orElse(false)
+            || filter.ids().map(List::isEmpty).orElse(false);
+    return none
+        ? Optional.empty()
+        : Optional.of(new StatusUpdate(status, from, to, Set.copyOf(ids)));
+  }
+
+  /** Progress of one update. */
+  private final class Progress {
+    private final UUID id;
+    private final boolean status;
+    private final Optional<StatusUpdate> update;
+    private final OffsetDateTime submittedAt = OffsetDateTime.now();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicInteger chunks = new AtomicInteger();
+    private volatile State state = State.QUEUED;
+    private volatile OffsetDateTime finishedAt;
+    private volatile String error;
+
+    private Progress(final UUID id, final boolean status, final Optional<StatusUpdate> update) {
+      this.id = id;
+      this.status = status;
+      this.update = update;
+    }
+
+    private void run() {
+      state = State.RUNNING;
+      try {
+        if (update.isPresent()) {
+          runChunks(update.get());
+        }
+        finish(State.SUCCEEDED);
+      } catch (DataAccessException | TransactionException e) {
+        fail(e);
+      }
+    }
+
+    private void runChunks(final StatusUpdate statusUpdate) {
+      UUID after = FIRST_ID;
+      List<Lamp> changed;
+      do {
+        changed = lampService.updateStatus(statusUpdate, after, chunkSize);
+        updated.addAndGet(changed.size());
+        chunks.incrementAndGet();
+        if (!changed.isEmpty()) {
+          after = changed.get(changed.size() - 1).getId();
+        }
+      } while (changed.size() == chunkSize && pause());
+    }
+
+    private boolean pause() {
+      if (chunkPauseMs > 0) {
+        try {
+          Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        error = "Interrupted between chunks";
+        return false;
+      }
+      return true;
+    }
+
+    private void fail(final Exception cause) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Bulk lamp update {} failed after {} lamps", id, updated.get(), cause);
+      }
+      error = cause.getMessage();
+      finish(State.FAILED);
+    }
+
+    private void finish(final State finalState) {
+      finishedAt = OffsetDateTime.now();
+      state = error == null ? finalState : State.FAILED;
+    }
+
+    private BulkJob snapshot() {
+      return new BulkJob(
+          id, state, status, updated.get(), chunks.get(), submittedAt, finishedAt, error);
+    }
+  }
+
+  /** State of a job. */
+  public enum State {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+  }
+
+  /**
+   * Which lamps to change; every criterion given must match.
+   *
+   * @param status only lamps with this current status
+   * @param createdFrom only lamps created at or after this
+   * @param createdTo only lamps created before this
+   * @param ids only these lamps; an empty list matches none
+   */
+  public record LampFilter(
+      Optional<Boolean> status,
+      Optional<OffsetDateTime> createdFrom,
+      Optional<OffsetDateTime> createdTo,
+      Optional<List<UUID>> ids) {
+
+    /** Every active lamp. */
+    public static final LampFilter ALL =
+        new LampFilter(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+  }
+
+  /**
+   * A bulk update.
+   *
+   * @param id job ID
+   * @param state state
+   * @param status status being set
+   * @param updated lamps changed so far
+   * @param chunks chunks committed so far
+   * @param submittedAt submission time
+   * @param finishedAt completion time; null while queued or running
+   * @param error why the job failed; null unless failed
+   */
+  public record BulkJob(
+      UUID id,
+      State state,
+      boolean status,
+      long updated,
+      int chunks,
+      OffsetDateTime submittedAt,
+      OffsetDateTime finishedAt,
+      String error) {}
+}
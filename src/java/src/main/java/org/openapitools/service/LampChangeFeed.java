@@ -0,0 +1,263 @@
+package org.openapitools.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events feed of committed lamp changes.
+ *
+ * <p>Each {@link LampChangedEvent} is serialized once when its transaction commits and given an
+ * event ID of the form {@code <feedId>-<sequence>}. The most recent events are kept in a ring
+ * buffer, so a client that reconnects with {@code Last-Event-ID} gets the events it missed. If they
+ * are no longer buffered, or the ID belongs to another instance or an earlier process, the client
+ * gets a {@code reset} event and should reload the lamp list.
+ *
+ * <p>Publishing never blocks on a subscriber. Each subscriber has a bounded queue drained by its
+ * own virtual thread. A subscriber whose queue is full is evicted: it receives an {@code evicted}
+ * event and its stream is closed, and it can reconnect and resume from its last event ID. Idle
+ * streams get a comment line every heartbeat interval, which also detects closed connections.
+ */
+@Component
+public class LampChangeFeed {
+
+  /** Event name sent when a resume token can no longer be honored. */
+  public static final String RESET_EVENT = "reset";
+
+  /** Event name sent before a slow subscriber is disconnected. */
+  public static final String EVICTED_EVENT = "evicted";
+
+  private static final Logger logger = LoggerFactory.getLogger(LampChangeFeed.class);
+
+  private static final Frame CLOSE = new Frame(null, null, null);
+
+  private static final Frame EVICTED = new Frame(null, EVICTED_EVENT, "{}");
+
+  private static final Frame RESET = new Frame(null, RESET_EVENT, "{}");
+
+  private final ObjectMapper objectMapper;
+  private final Supplier<SseEmitter> emitterFactory;
+  private final int maxSubscribers;
+  private final int bufferSize;
+  private final long heartbeatMs;
+  private final String feedId = Long.toString(System.currentTimeMillis(), 36);
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  // Replay ring buffer, guarded by this.
+  private final Frame[] replay;
+  private long nextSequence = 1;
+
+  @Autowired
+  public LampChangeFeed(
+      final ObjectMapper objectMapper,
+      @Value("${lamp.feed.max-subscribers:10000}") final int maxSubscribers,
+      @Value("${lamp.feed.buffer-size:256}") final int bufferSize,
+      @Value("${lamp.feed.replay-size:1024}") final int replaySize,
+      @Value("${lamp.feed.heartbeat-ms:15000}") final long heartbeatMs) {
+    this(
+        objectMapper,
+        () -> new SseEmitter(0L),
+        maxSubscribers,
+        bufferSize,
+        replaySize,
+        heartbeatMs);
+  }
+
+  /* default */ LampChangeFeed(
+      final ObjectMapper objectMapper,
+      final Supplier<SseEmitter> emitterFactory,
+      final int maxSubscribers,
+      final int bufferSize,
+      final int replaySize,
+      final long heartbeatMs) {
+    this.objectMapper = objectMapper;
+    this.emitterFactory = emitterFactory;
+    this.maxSubscribers = maxSubscribers;
+    this.bufferSize = Math.max(bufferSize, 1);
+    this.heartbeatMs = heartbeatMs;
+    this.replay = new Frame[Math.max(replaySize, 1)];
+  }
+
+  /**
+   * Open a new subscription.
+   *
+   * @param lastEventId resume token from the client's {@code Last-Event-ID} header, if any
+   * @return the event stream, or empty when the feed is at its subscriber limit
+   */
+  public Optional<SseEmitter> subscribe(final Optional<String> lastEventId) {
+    if (subscribers.size() >= maxSubscribers) {
+      return Optional.empty();
+    }
+    final SseEmitter emitter = emitterFactory.get();
+    final Subscriber subscriber = new Subscriber(emitter, bufferSize + replay.length);
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(subscriber::close);
+    emitter.onError(error -> subscriber.close());
+    synchronized (this) {
+      lastEventId.ifPresent(token -> replayAfter(token, subscriber));
+      subscribers.add(subscriber);
+    }
+    Thread.ofVirtual().name("lamp-feed-subscriber").start(subscriber::drain);
+    return Optional.of(emitter);
+  }
+
+  /**
+   * Publish a committed lamp change to all subscribers.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onLampChanged(final LampChangedEvent event) {
+    final String data;
+    try {
+      data = objectMapper.writeValueAsString(event.toLamp());
+    } catch (JsonProcessingException e) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Could not serialize lamp change for {}", event.id(), e);
+      }
+      return;
+    }
+    final String name = event.type().name().toLowerCase(Locale.ROOT);
+    synchronized (this) {
+      final long sequence = nextSequence++;
+      final Frame frame = new Frame(feedId + "-" + sequence, name, data);
+      replay[(int) (sequence % replay.length)] = frame;
+      for (final Subscriber subscriber : subscribers) {
+        if (!subscriber.offer(frame)) {
+          evict(subscriber);
+        }
+      }
+    }
+  }
+
+  /**
+   * Number of open subscriptions.
+   *
+   * @return subscriber count
+   */
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  /** Close all subscriptions on shutdown. */
+  @PreDestroy
+  public void shutdown() {
+    for (final Subscriber subscriber : subscribers) {
+      subscriber.close();
+    }
+  }
+
+  private void replayAfter(final String token, final Subscriber subscriber) {
+    final long last = parseSequence(token);
+    final long oldest = Math.max(1, nextSequence - replay.length);
+    if (last < oldest - 1 || last >= nextSequence) {
+      subscriber.offer(RESET);
+      return;
+    }
+    for (long sequence = last + 1; sequence < nextSequence; sequence++) {
+      subscriber.offer(replay[(int) (sequence % replay.length)]);
+    }
+  }
+
+  private long parseSequence(final String token) {
+    final String prefix = feedId + "-";
+    if (!token.startsWith(prefix)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(token.substring(prefix.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static void evict(final Subscriber subscriber) {
+    subscriber.terminate(EVICTED);
+  }
+
+  /** One pre-serialized SSE event; {@code id} is null for control events. */
+  private record Frame(String id, String name, String data) {
+
+    private SseEmitter.SseEventBuilder toEvent() {
+      final SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data);
+      return id == null ? event : event.id(id);
+    }
+  }
+
+  /** A subscription with its bounded queue, drained on a virtual thread. */
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<Frame> queue;
+    private volatile Frame terminal;
+
+    private Subscriber(final SseEmitter emitter, final int capacity) {
+      this.emitter = emitter;
+      this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    private boolean offer(final Frame frame) {
+      return queue.offer(frame);
+    }
+
+    private void close() {
+      terminate(CLOSE);
+    }
+
+    /** Stop the drainer after it has sent the given control frame, dropping anything queued. */
+    private void terminate(final Frame reason) {
+      if (terminal != null) {
+        return;
+      }
+      terminal = reason;
+      subscribers.remove(this);
+      queue.clear();
+      // Only a wake-up: if the queue is full again the drainer is awake and checks terminal next.
+      if (!queue.offer(reason) && logger.isTraceEnabled()) {
+        logger.trace("Lamp feed subscriber queue refilled while terminating");
+      }
+    }
+
+    private void drain() {
+      try {
+        while (true) {
+          final Frame polled = queue.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+          final Frame frame = terminal == null ? polled : terminal;
+          if (frame == null) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+          } else if (frame.equals(CLOSE)) {
+            break;
+          } else {
+            emitter.send(frame.toEvent());
+            if (frame.equals(EVICTED)) {
+              emitter.complete();
+              break;
+            }
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        logger.debug("Lamp feed subscriber disconnected", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        subscribers.remove(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.openapitools.service;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.openapitools.model.Lamp;
+
+/**
+ * Application event published by {@link LampService} for every lamp create, update and soft delete.
+ * Listeners that must only see committed changes should use {@code @TransactionalEventListener}.
+ *
+ * @param type kind of change
+ * @param id lamp ID
+ * @param status lamp status after the change
+ * @param createdAt creation timestamp
+ * @param updatedAt last update timestamp after the change
+ * @param previousStatus status before the change; null for creates
+ */
+public record LampChangedEvent(
+    Type type,
+    UUID id,
+    Boolean status,
+    OffsetDateTime createdAt,
+    OffsetDateTime updatedAt,
+    Boolean previousStatus) {
+
+  /** Kind of change. */
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+
+  /**
+   * Create an event from the lamp state after the change.
+   *
+   * @param type kind of change
+   * @param lamp lamp after the change
+   * @return the event
+   */
+  public static LampChangedEvent from(final Type type, final Lamp lamp) {
+    return from(type, lamp, null);
+  }
+
+  /**
+   * Create an event from the lamp state after the change and its status before it.
+   *
+   * @param type kind of change
+   * @param lamp lamp after the change
+   * @param previousStatus status before the change
+   * @return the event
+   */
+  public static LampChangedEvent from(
+      final Type type, final Lamp lamp, final Boolean previousStatus) {
+    return new LampChangedEvent(
+        type,
+        lamp.getId(),
+        lamp.getStatus(),
+        lamp.getCreatedAt(),
+        lamp.getUpdatedAt(),
+        previousStatus);
+  }
+
+  /**
+   * Lamp state after the change, as an API model.
+   *
+   * @return a new lamp model
+   */
+  public Lamp toLamp() {
+    return new Lamp(id, status, createdAt, updatedAt);
+  }
+}
@@ -0,0 +1,91 @@
+package org.openapitools.service;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openapitools.repository.JdbcLampCollectionVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Version of the lamp collection, so list pages can be revalidated without reading them from the
+ * repository.
+ *
+ * <p>With a database the version is {@link JdbcLampCollectionVersion}, read from PostgreSQL on
+ * every call. It moves with every committed write, whichever instance made it, so every instance
+ * reports the same version for the same rows and a page tagged on one is revalidated correctly on
+ * any other.
+ *
+ * <p>In memory mode it is a counter bumped on every lamp write: once when the write is published
+ * and again when it commits, so a page read between the two is never tagged with a version that
+ * outlives the write. Counters are only comparable within one process, so {@link #instanceId()} is
+ * part of every tag built from them.
+ *
+ * <p>{@code lamp.etag.trust-collection-version=false} turns versions off, and pages are then tagged
+ * from their lamps.
+ */
+@Component
+public class LampCollectionVersion {
+
+  private static final String DATABASE = "db";
+
+  private final AtomicLong version = new AtomicLong();
+  private final String instance;
+  private final JdbcLampCollectionVersion database;
+  private final boolean trusted;
+
+  public LampCollectionVersion(
+      final Optional<JdbcLampCollectionVersion> database,
+      @Value("${lamp.etag.trust-collection-version:true}") final boolean trusted) {
+    this.database = database.orElse(null);
+    this.instance =
+        this.database == null
+            ? Long.toHexString(UUID.randomUUID().getMostSignificantBits() >>> 16)
+            : DATABASE;
+    this.trusted = trusted;
+  }
+
+  /**
+   * Current version, if versions are in use.
+   *
+   * @return the version, or empty when pages are to be tagged from their lamps
+   */
+  public OptionalLong current() {
+    if (!trusted) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(database == null ? version.get() : database.current());
+  }
+
+  /**
+   * What versions are comparable within: the database, or this process in memory mode.
+   *
+   * @return short identifier
+   */
+  public String instanceId() {
+    return instance;
+  }
+
+  /**
+   * Bump the version as soon as a write is published.
+   *
+   * @param event the change
+   */
+  @EventListener
+  public void onLampChanged(final LampChangedEvent event) {
+    version.incrementAndGet();
+  }
+
+  /**
+   * Bump the version again once the write has committed.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onLampCommitted(final LampChangedEvent event) {
+    version.incrementAndGet();
+  }
+}
@@ -0,0 +1,113 @@
+package org.openapitools.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.service.LampAnalytics.StatusTotals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Totals of the lamps matching a list filter, without counting the lamps table on the request path.
+ *
+ * <p>All active lamps, or those with a status, are the counters {@link LampAnalytics} keeps. Their
+ * deltas are applied in the transaction of each write, so they are exact once they count every
+ * lamp: always in memory, and with PostgreSQL once the backfill has seeded them. Before that, and
+ * for a filter with a time range, which has no counter, the repository counts the lamps up to
+ * {@code exact-limit} and beyond that may estimate them instead, from the table statistics with
+ * PostgreSQL.
+ *
+ * <p>Each total is reused for {@code max-staleness-ms}, so a client paging through a list costs one
+ * count rather than one per page; a total may therefore miss the writes of that last interval. At
+ * most {@code max-cached-filters} filters are kept, after which the cache starts over.
+ */
+@Service
+public class LampCounts {
+
+  private final LampRepository repository;
+  private final LampAnalytics analytics;
+  private final LongSupplier nanoTime;
+  private final long maxStalenessNanos;
+  private final int exactLimit;
+  private final int maxCachedFilters;
+
+  private final Map<ListFilter, CachedTotal> totals = new ConcurrentHashMap<>();
+  private volatile boolean seeded;
+
+  @Autowired
+  public LampCounts(
+      final LampRepository repository,
+      final LampAnalytics analytics,
+      @Value("${lamp.count.max-staleness-ms:1000}") final long maxStalenessMs,
+      @Value("${lamp.count.exact-limit:10000}") final int exactLimit,
+      @Value("${lamp.count.max-cached-filters:1024}") final int maxCachedFilters) {
+    this(repository, analytics, System::nanoTime, maxStalenessMs, exactLimit, maxCachedFilters);
+  }
+
+  /* default */ LampCounts(
+      final LampRepository repository,
+      final LampAnalytics analytics,
+      final LongSupplier nanoTime,
+      final long maxStalenessMs,
+      final int exactLimit,
+      final int maxCachedFilters) {
+    this.repository = repository;
+    this.analytics = analytics;
+    this.nanoTime = nanoTime;
+    this.maxStalenessNanos = Math.max(maxStalenessMs, 0) * 1_000_000;
+    this.exactLimit = Math.max(exactLimit, 0);
+    this.maxCachedFilters = Math.max(maxCachedFilters, 1);
+  }
+
+  /**
+   * The number of active lamps matching a filter.
+   *
+   * @param filter which lamps
+   * @return the total, and whether it is exact or an estimate
+   */
+  public ActiveCount total(final ListFilter filter) {
+    final long now = nanoTime.getAsLong();
+    final CachedTotal cached = totals.get(filter);
+    if (cached != null && now - cached.readAt() < maxStalenessNanos) {
+      return cached.total();
+    }
+    final ActiveCount total = count(filter);
+    if (maxStalenessNanos > 0) {
+      if (totals.size() >= maxCachedFilters) {
+        totals.clear();
+      }
+      totals.put(filter, new CachedTotal(total, now));
+    }
+    return total;
+  }
+
+  private ActiveCount count(final ListFilter filter) {
+    if (filter.createdFrom().isPresent()
+        || filter.createdTo().isPresent()
+        || filter.updatedFrom().isPresent()
+        || filter.updatedTo().isPresent()
+        || !countersSeeded()) {
+      return repository.countActive(filter, exactLimit);
+    }
+    final StatusTotals counters = analytics.statusTotals();
+    final long lamps =
+        filter
+            .status()
+            .map(on -> on ? counters.lampsOn() : counters.lampsOff())
+            .orElse(counters.totalLamps());
+    return new ActiveCount(lamps, true);
+  }
+
+  private boolean countersSeeded() {
+    if (!seeded) {
+      seeded = analytics.countsAllLamps();
+    }
+    return seeded;
+  }
+
+  private record CachedTotal(ActiveCount total, long readAt) {}
+}
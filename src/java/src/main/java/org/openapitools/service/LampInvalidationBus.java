@@ -0,0 +1,334 @@
+package org.openapitools.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.openapitools.config.OnDatabaseUrlCondition;
+import org.openapitools.config.UnpooledConnections;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cross-instance invalidation bus built on Postgres {@code LISTEN}/{@code NOTIFY}.
+ *
+ * <p>After a lamp write commits, its ID is queued and sent to the other instances on the {@value
+ * #CHANNEL} channel. IDs queued within {@code flush-delay-ms} of each other go out together, as few
+ * notifications as the payload limit allows, so a burst of writes costs a handful of {@code
+ * NOTIFY}s. Each instance holds one connection that listens on the channel and republishes what
+ * other instances sent as a {@link LampsInvalidatedEvent}; its own notifications are ignored.
+ *
+ * <p>Notifications are not durable. Whenever one may have been lost (the listener connection
+ * dropped, a {@code NOTIFY} failed, or too many IDs were queued) the bus falls back to invalidating
+ * everything: the listener publishes {@link LampsInvalidatedEvent#everything()} once it has
+ * reconnected, and a failed send is retried as a wildcard notification.
+ *
+ * <p>Only active when a database is configured. The listener connection is opened for the bus
+ * alone, outside the pool, with the pool's URL, credentials and driver properties, so it never
+ * takes a pooled connection from requests and no pooled connection is ever handed back still
+ * listening. It stops listening with {@code UNLISTEN *} before it is closed.
+ */
+@Component
+@Conditional(OnDatabaseUrlCondition.class)
+public class LampInvalidationBus {
+
+  /** Postgres notification channel shared by all instances. */
+  public static final String CHANNEL = "lamp_invalidation";
+
+  /** Payload body that invalidates every lamp. */
+  /* default */ static final String ALL = "*";
+
+  private static final Logger logger = LoggerFactory.getLogger(LampInvalidationBus.class);
+
+  private static final char NODE_SEPARATOR = '|';
+
+  private static final char ID_SEPARATOR = ',';
+
+  // Postgres rejects payloads of 8000 bytes or more.
+  private static final int MAX_PAYLOAD_BYTES = 7900;
+
+  private static final int POLL_MS = 500;
+
+  private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+  private final DataSource dataSource;
+  private final UnpooledConnections listenerConnections;
+  private final ApplicationEventPublisher eventPublisher;
+  private final boolean enabled;
+  private final long flushDelayMs;
+  private final int maxPending;
+  private final long keepaliveMs;
+  private final long retryDelayMs;
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean pendingAll = new AtomicBoolean();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  private volatile boolean running;
+  private volatile boolean listening;
+  private volatile ScheduledExecutorService notifier;
+  private Thread listener;
+
+  public LampInvalidationBus(
+      final DataSource dataSource,
+      final UnpooledConnections listenerConnections,
+      final ApplicationEventPublisher eventPublisher,
+      @Value("${lamp.invalidation.enabled:true}") final boolean enabled,
+      @Value("${lamp.invalidation.flush-delay-ms:5}") final long flushDelayMs,
+      @Value("${lamp.invalidation.max-pending:1000}") final int maxPending,
+      @Value("${lamp.invalidation.keepalive-ms:10000}") final long keepaliveMs,
+      @Value("${lamp.invalidation.retry-delay-ms:1000}") final long retryDelayMs) {
+    this.dataSource = dataSource;
+    this.listenerConnections = listenerConnections;
+    this.eventPublisher = eventPublisher;
+    this.enabled = enabled;
+    this.flushDelayMs = flushDelayMs;
+    this.maxPending = maxPending;
+    this.keepaliveMs = keepaliveMs;
+    this.retryDelayMs = Math.max(retryDelayMs, 1);
+  }
+
+  /** Start the notifier and the listener connection. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    notifier =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "lamp-invalidation-notify");
+              thread.setDaemon(true);
+              return thread;
+            });
+    listener = new Thread(this::listen, "lamp-invalidation-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  /** Send what is still queued and stop listening. */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    if (notifier != null) {
+      notifier.execute(this::flush);
+      notifier.shutdown();
+      notifier.awaitTermination(1, TimeUnit.SECONDS);
+    }
+    if (listener != null) {
+      listener.join(POLL_MS * 2L);
+    }
+  }
+
+  /**
+   * Whether the listener connection is up, so writes made by other instances are being received.
+   *
+   * @return true while listening on {@value #CHANNEL}
+   */
+  public boolean isListening() {
+    return listening;
+  }
+
+  /**
+   * Queue a committed lamp change for the other instances.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onLampChanged(final LampChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    if (pending.size() >= maxPending) {
+      pendingAll.set(true);
+    } else {
+      pending.add(event.id());
+    }
+    scheduleFlush(flushDelayMs);
+  }
+
+  /** Send everything queued so far; on failure, retry later as a wildcard notification. */
+  /* default */ void flush() {
+    flushScheduled.set(false);
+    final boolean all = pendingAll.getAndSet(false);
+    final List<UUID> ids = new ArrayList<>(pending);
+    pending.removeAll(ids);
+    if (!all && ids.isEmpty()) {
+      return;
+    }
+    final List<String> payloads = all ? List.of(payload(ALL)) : payloads(ids);
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+      for (final String payload : payloads) {
+        statement.setString(1, CHANNEL);
+        statement.setString(2, payload);
+        statement.execute();
+      }
+    } catch (SQLException e) {
+      // The IDs are dropped; other instances must assume anything may have changed.
+      pendingAll.set(true);
+      if (logger.isWarnEnabled()) {
+        logger.warn("Could not send lamp invalidation, retrying in {} ms", retryDelayMs, e);
+      }
+      scheduleFlush(retryDelayMs);
+    }
+  }
+
+  /**
+   * Split IDs into as few notification payloads as the Postgres payload limit allows.
+   *
+   * @param ids lamp IDs
+   * @return payloads of the form {@code <nodeId>|<id>,<id>,...}
+   */
+  /* default */ List<String> payloads(final List<UUID> ids) {
+    final List<String> payloads = new ArrayList<>();
+    final StringBuilder payload = new StringBuilder(MAX_PAYLOAD_BYTES).append(payload(""));
+    final int prefixLength = payload.length();
+    for (final UUID id : ids) {
+      final String value = id.toString();
+      if (payload.length() + value.length() + 1 > MAX_PAYLOAD_BYTES) {
+        payloads.add(payload.toString());
+        payload.setLength(prefixLength);
+      }
+      if (payload.length() > prefixLength) {
+        payload.append(ID_SEPARATOR);
+      }
+      payload.append(value);
+    }
+    payloads.add(payload.toString());
+    return payloads;
+  }
+
+  /**
+   * Republish a notification from another instance as a {@link LampsInvalidatedEvent}.
+   *
+   * @param payload notification payload
+   */
+  /* default */ void dispatch(final String payload) {
+    final int separator = payload.indexOf(NODE_SEPARATOR);
+    if (separator < 0 || nodeId.equals(payload.substring(0, separator))) {
+      return;
+    }
+    final String body = payload.substring(separator + 1);
+    eventPublisher.publishEvent(
+        ALL.equals(body)
+            ? LampsInvalidatedEvent.everything()
+            : parse(body.split(String.valueOf(ID_SEPARATOR))));
+  }
+
+  private String payload(final String body) {
+    return nodeId + NODE_SEPARATOR + body;
+  }
+
+  private static LampsInvalidatedEvent parse(final String... values) {
+    final Set<UUID> ids = new HashSet<>();
+    try {
+      for (final String value : values) {
+        ids.add(UUID.fromString(value));
+      }
+    } catch (IllegalArgumentException e) {
+      logger.debug("Malformed lamp invalidation, invalidating all lamps", e);
+      return LampsInvalidatedEvent.everything();
+    }
+    return LampsInvalidatedEvent.forLamps(ids);
+  }
+
+  private void scheduleFlush(final long delayMs) {
+    final ScheduledExecutorService executor = notifier;
+    if (executor != null && running && flushScheduled.compareAndSet(false, true)) {
+      executor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Hold a listening connection, reconnecting with backoff until stopped. */
+  private void listen() {
+    long delayMs = retryDelayMs;
+    boolean reconnecting = false;
+    while (running) {
+      try (Connection connection = listenerConnections.open()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        if (reconnecting) {
+          // Writes made while disconnected were never delivered to this instance.
+          eventPublisher.publishEvent(LampsInvalidatedEvent.everything());
+        }
+        delayMs = retryDelayMs;
+        listening = true;
+        receive(connection);
+        // Stopped on a working connection; a failed one is closed as it is.
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("UNLISTEN *");
+        }
+      } catch (SQLException e) {
+        if (running && logger.isWarnEnabled()) {
+          logger.warn("Lamp invalidation listener disconnected, retrying in {} ms", delayMs, e);
+        }
+      }
+      listening = false;
+      reconnecting = true;
+      if (!pause(delayMs)) {
+        return;
+      }
+      delayMs = Math.min(delayMs * 2, MAX_RETRY_DELAY_MS);
+    }
+  }
+
+  private void receive(final Connection connection) throws SQLException {
+    final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+    long lastActivity = System.currentTimeMillis();
+    while (running) {
+      final PGNotification[] notifications = pgConnection.getNotifications(POLL_MS);
+      final long now = System.currentTimeMillis();
+      if (notifications != null && notifications.length > 0) {
+        lastActivity = now;
+        for (final PGNotification notification : notifications) {
+          dispatch(notification.getParameter());
+        }
+      } else if (now - lastActivity >= keepaliveMs) {
+        // A silently dropped connection would otherwise look like a quiet channel.
+        if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+          throw new SQLException("Lamp invalidation listener connection is no longer valid");
+        }
+        lastActivity = now;
+      }
+    }
+  }
+
+  private boolean pause(final long delayMs) {
+    if (!running) {
+      return false;
+    }
+    try {
+      Thread.sleep(delayMs);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.openapitools.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+
+/**
+ * Position in a filtered or sorted list of lamps, as carried by the REST {@code cursor}: the order
+ * and the sort key and ID of the last lamp of the previous page, encoded as an opaque URL-safe
+ * token. Unlike {@link LampPageCursor}, it does not shift when lamps before it are created or
+ * deleted.
+ *
+ * @param sort order the position is in
+ * @param after the last lamp of the previous page
+ */
+public record LampKeysetCursor(ListSort sort, SortPosition after) {
+
+  private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder TOKEN_DECODER = Base64.getUrlDecoder();
+
+  private static final int TOKEN_PARTS = 4;
+
+  /**
+   * Parse a token.
+   *
+   * @param token token returned by {@link #token}
+   * @return the cursor, or empty if the token is malformed
+   */
+  public static Optional<LampKeysetCursor> parse(final String token) {
+    try {
+      final String[] parts =
+          new String(TOKEN_DECODER.decode(token), StandardCharsets.UTF_8).split("\\.", TOKEN_PARTS);
+      if (parts.length != TOKEN_PARTS) {
+        return Optional.empty();
+      }
+      final Instant key = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+      return Optional.of(
+          new LampKeysetCursor(
+              ListSort.valueOf(parts[0]),
+              new SortPosition(key.atOffset(ZoneOffset.UTC), UUID.fromString(parts[3]))));
+    } catch (IllegalArgumentException | DateTimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Format as a token for {@link #parse}.
+   *
+   * @return the token
+   */
+  public String token() {
+    final Instant key = after.key().toInstant();
+    final String token =
+        sort.name() + "." + key.getEpochSecond() + "." + key.getNano() + "." + after.id();
+    return TOKEN_ENCODER.encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,50 @@
+package org.openapitools.service;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Position in the list of active lamps, as carried by the REST {@code cursor} and the gRPC page
+ * token: {@code <offset>}, or {@code <offset>.<snapshot>} when the repository pinned a snapshot for
+ * the traversal, so that the following pages read the same state.
+ *
+ * @param offset number of lamps before the page
+ * @param snapshot snapshot pinned by the first page, if any
+ */
+public record LampPageCursor(int offset, OptionalLong snapshot) {
+
+  /** The first page, reading the current state. */
+  public static final LampPageCursor FIRST = new LampPageCursor(0, OptionalLong.empty());
+
+  /**
+   * Parse a token.
+   *
+   * @param token {@code <offset>} or {@code <offset>.<snapshot>}; blank for the first page
+   * @return the cursor, or empty if the token is malformed or the offset negative
+   */
+  public static Optional<LampPageCursor> parse(final String token) {
+    if (token.isBlank()) {
+      return Optional.of(FIRST);
+    }
+    final int dot = token.indexOf('.');
+    try {
+      final int offset = Integer.parseInt(dot < 0 ? token : token.substring(0, dot));
+      final OptionalLong snapshot =
+          dot < 0
+              ? OptionalLong.empty()
+              : OptionalLong.of(Long.parseLong(token.substring(dot + 1)));
+      return offset < 0 ? Optional.empty() : Optional.of(new LampPageCursor(offset, snapshot));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Format as a token for {@link #parse}.
+   *
+   * @return the token
+   */
+  public String token() {
+    return snapshot.isPresent() ? offset + "." + snapshot.getAsLong() : Integer.toString(offset);
+  }
+}
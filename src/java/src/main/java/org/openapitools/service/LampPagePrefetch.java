@@ -0,0 +1,169 @@
+package org.openapitools.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.LampView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pages of the default lamp list read ahead of the client, for clients that walk the list page by
+ * page.
+ *
+ * <p>After {@link LampService} serves a page by offset, it asks for the next one here; that page is
+ * read on a virtual thread while the client is still handling the current one, and kept for {@code
+ * ttl-ms}. The first request for it in that time takes it from memory, or waits for the read
+ * already running instead of starting its own. Every write, on this instance or another, drops all
+ * the pages, including those still being read, so a prefetched page is never older than the last
+ * write this instance has seen. At most {@code max-pages} pages not yet taken are held; beyond that
+ * no more are read ahead until some are taken or expire.
+ *
+ * <p>Off unless {@code lamp.prefetch.enabled} is set: every page served then costs one more read,
+ * which is wasted when clients stop after the first page.
+ */
+@Service
+public class LampPagePrefetch {
+
+  private final boolean enabled;
+  private final ExecutorService executor;
+  private final LongSupplier nanoTime;
+  private final long ttlNanos;
+  private final int maxPages;
+
+  private final Map<PageKey, Prefetched> pages = new ConcurrentHashMap<>();
+
+  @Autowired
+  public LampPagePrefetch(
+      @Value("${lamp.prefetch.enabled:false}") final boolean enabled,
+      @Value("${lamp.prefetch.ttl-ms:2000}") final long ttlMs,
+      @Value("${lamp.prefetch.max-pages:256}") final int maxPages) {
+    this(enabled, Executors.newVirtualThreadPerTaskExecutor(), System::nanoTime, ttlMs, maxPages);
+  }
+
+  /* default */ LampPagePrefetch(
+      final boolean enabled,
+      final ExecutorService executor,
+      final LongSupplier nanoTime,
+      final long ttlMs,
+      final int maxPages) {
+    this.enabled = enabled;
+    this.executor = executor;
+    this.nanoTime = nanoTime;
+    this.ttlNanos = Math.max(ttlMs, 0) * 1_000_000;
+    this.maxPages = Math.max(maxPages, 1);
+  }
+
+  /** Stop the reads still running; their pages are never served. */
+  @PreDestroy
+  public void stop() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Take a page read ahead, waiting for its read if it is still running.
+   *
+   * @param key the page
+   * @return the page, or empty if it was not read ahead, was already taken, has expired or its read
+   *     failed
+   */
+  public Optional<List<LampView>> prefetched(final PageKey key) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    final Prefetched page = pages.remove(key);
+    if (page == null || expired(page, nanoTime.getAsLong())) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(page.views().join());
+    } catch (CompletionException | CancellationException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Read a page ahead, unless it already is.
+   *
+   * @param key the page
+   * @param loader reads the page from the repository
+   */
+  public void prefetch(final PageKey key, final Supplier<List<LampView>> loader) {
+    if (!enabled) {
+      return;
+    }
+    final long now = nanoTime.getAsLong();
+    if (pages.size() >= maxPages) {
+      pages.values().removeIf(page -> expired(page, now));
+      if (pages.size() >= maxPages) {
+        return;
+      }
+    }
+    // In the map before the read starts, so a write committed meanwhile drops it with the others
+    final Prefetched page = new Prefetched(new CompletableFuture<>(), now);
+    final Prefetched current =
+        pages.compute(
+            key,
+            (ignored, existing) -> existing == null || expired(existing, now) ? page : existing);
+    if (!page.equals(current)) {
+      return;
+    }
+    try {
+      page.views().completeAsync(loader, executor);
+    } catch (RejectedExecutionException e) {
+      pages.remove(key, page);
+      page.views().completeExceptionally(e);
+    }
+  }
+
+  /** Drop every page read ahead, or being read. */
+  public void forgetAll() {
+    pages.clear();
+  }
+
+  private boolean expired(final Prefetched page, final long now) {
+    return now - page.startedAt() >= ttlNanos;
+  }
+
+  /**
+   * A page of the default list.
+   *
+   * @param offset position of its first lamp
+   * @param limit lamps read: the page size and one more, to tell whether another page follows
+   * @param fields fields read
+   */
+  public record PageKey(int offset, int limit, Set<LampField> fields) {
+
+    /** Keep an unmodifiable copy. */
+    public PageKey {
+      fields = Set.copyOf(fields);
+    }
+
+    /**
+     * The page after this one, if there can be one.
+     *
+     * @return the next page, or empty when its offset would not fit in an int
+     */
+    public Optional<PageKey> next() {
+      final int pageSize = limit - 1;
+      return pageSize > 0 && offset <= Integer.MAX_VALUE - pageSize
+          ? Optional.of(new PageKey(offset + pageSize, limit, fields))
+          : Optional.empty();
+    }
+  }
+
+  private record Prefetched(CompletableFuture<List<LampView>> views, long startedAt) {}
+}
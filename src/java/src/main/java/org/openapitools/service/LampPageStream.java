@@ -0,0 +1,52 @@
+package org.openapitools.service;
+
+import java.util.Optional;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRows;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pages of the default lamp list written from the rows of the store. Only stores that can hand out
+ * their rows do this (see {@link LampRows}), and only while {@code lamp.list.streaming.enabled} is
+ * set.
+ *
+ * <p>Such a page is a {@link StreamedLampPage}: the JSON converter reads its rows as it writes the
+ * body, as column values, without the models {@link LampService#findAllActivePage} builds for them.
+ * Pages read ahead by {@link LampPagePrefetch} are models already, so while prefetching is on pages
+ * go through {@link LampService} instead. Pages of a snapshot cursor do too, as rows are read from
+ * the current state.
+ */
+@Service
+public class LampPageStream {
+
+  private final Optional<LampRows> rows;
+  private final boolean enabled;
+
+  @Autowired
+  public LampPageStream(
+      final Optional<LampRows> rows,
+      @Value("${lamp.list.streaming.enabled:true}") final boolean enabled,
+      @Value("${lamp.prefetch.enabled:false}") final boolean prefetchEnabled) {
+    this.rows = rows;
+    this.enabled = enabled && !prefetchEnabled;
+  }
+
+  /**
+   * A page of whole lamps, read from the store.
+   *
+   * @param cursor position of the page
+   * @param pageSize maximum number of lamps to return
+   * @return the page, or empty when pages are not streamed or not for this cursor
+   */
+  public Optional<ListLamps200Response> page(final LampPageCursor cursor, final int pageSize) {
+    if (!enabled || cursor.snapshot().isPresent()) {
+      return Optional.empty();
+    }
+    return rows.map(
+        source ->
+            new StreamedLampPage(
+                source, Math.max(cursor.offset(), 0), pageSize > 0 ? pageSize : 25));
+  }
+}
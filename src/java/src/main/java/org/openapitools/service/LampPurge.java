@@ -0,0 +1,195 @@
+package org.openapitools.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.openapitools.repository.LampRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hard deletes lamps that have been soft deleted for longer than {@code retention-days}, so
+ * tombstones stop growing the lamps table, its indexes and the in-memory map.
+ *
+ * <p>Runs every {@code interval-ms} on a background thread. Each run removes at most {@code
+ * max-per-run} lamps in batches of {@code batch-size}, each batch its own short transaction, and
+ * sleeps {@code batch-pause-ms} between batches, so a large backlog is worked off over several runs
+ * instead of loading the database at once.
+ *
+ * <p>Meters, under {@code /actuator/metrics} (kept locally when no registry is configured):
+ *
+ * <ul>
+ *   <li>{@code lamp.purge.deleted} - lamps hard deleted
+ *   <li>{@code lamp.purge.runs} - run durations, tagged {@code outcome=success|failure}
+ *   <li>{@code lamp.purge.last.success} - epoch seconds of the last successful run
+ * </ul>
+ */
+@Service
+public class LampPurge {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampPurge.class);
+
+  // First run shortly after startup, so frequent restarts do not postpone it indefinitely.
+  private static final long MAX_INITIAL_DELAY_MS = 60_000;
+
+  private final LampRepository repository;
+  private final MeterRegistry meterRegistry;
+  private final LongSupplier epochMillis;
+  private final boolean enabled;
+  private final Duration retention;
+  private final int batchSize;
+  private final int maxPerRun;
+  private final long batchPauseMs;
+  private final long intervalMs;
+  private final Counter deleted;
+  private final AtomicLong lastSuccess = new AtomicLong();
+
+  private ScheduledExecutorService purger;
+
+  @Autowired
+  public LampPurge(
+      final LampRepository repository,
+      final ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${lamp.purge.enabled:true}") final boolean enabled,
+      @Value("${lamp.purge.retention-days:30}") final int retentionDays,
+      @Value("${lamp.purge.batch-size:1000}") final int batchSize,
+      @Value("${lamp.purge.max-per-run:100000}") final int maxPerRun,
+      @Value("${lamp.purge.batch-pause-ms:100}") final long batchPauseMs,
+      @Value("${lamp.purge.interval-ms:3600000}") final long intervalMs) {
+    this(
+        repository,
+        meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+        System::currentTimeMillis,
+        enabled,
+        retentionDays,
+        batchSize,
+        maxPerRun,
+        batchPauseMs,
+        intervalMs);
+  }
+
+  /* default */ LampPurge(
+      final LampRepository repository,
+      final MeterRegistry meterRegistry,
+      final LongSupplier epochMillis,
+      final boolean enabled,
+      final int retentionDays,
+      final int batchSize,
+      final int maxPerRun,
+      final long batchPauseMs,
+      final long intervalMs) {
+    this.repository = repository;
+    this.meterRegistry = meterRegistry;
+    this.epochMillis = epochMillis;
+    this.enabled = enabled;
+    this.retention = Duration.ofDays(Math.max(retentionDays, 0));
+    this.batchSize = Math.max(batchSize, 1);
+    this.maxPerRun = Math.max(maxPerRun, 1);
+    this.batchPauseMs = batchPauseMs;
+    this.intervalMs = Math.max(intervalMs, 1);
+    this.deleted =
+        Counter.builder("lamp.purge.deleted")
+            .description("Soft-deleted lamps permanently removed")
+            .baseUnit("lamps")
+            .register(meterRegistry);
+    Gauge.builder("lamp.purge.last.success", lastSuccess, AtomicLong::get)
+        .description("Epoch seconds of the last successful purge run")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /** Schedule the purge. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    purger =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "lamp-purge");
+              thread.setDaemon(true);
+              return thread;
+            });
+    purger.scheduleWithFixedDelay(
+        this::purge, Math.min(intervalMs, MAX_INITIAL_DELAY_MS), intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop the purge, interrupting a run between batches. */
+  @PreDestroy
+  public void stop() {
+    if (purger != null) {
+      purger.shutdownNow();
+    }
+  }
+
+  /**
+   * Remove lamps deleted more than {@code retention-days} ago, up to {@code max-per-run}.
+   *
+   * @return number of lamps removed; a failed run counts the batches that succeeded
+   */
+  public int purge() {
+    final Timer.Sample sample = Timer.start(meterRegistry);
+    final OffsetDateTime cutoff =
+        Instant.ofEpochMilli(epochMillis.getAsLong()).minus(retention).atOffset(ZoneOffset.UTC);
+    int purged = 0;
+    String outcome = "failure";
+    try {
+      int requested;
+      int removed;
+      do {
+        requested = Math.min(batchSize, maxPerRun - purged);
+        removed = repository.purgeDeletedBefore(cutoff, requested);
+        purged += removed;
+        deleted.increment(removed);
+      } while (removed == requested && purged < maxPerRun && pause());
+      outcome = "success";
+      lastSuccess.set(epochMillis.getAsLong() / 1_000);
+    } catch (DataAccessException e) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Lamp purge failed after removing {} lamps", purged, e);
+      }
+    } finally {
+      sample.stop(
+          Timer.builder("lamp.purge.runs")
+              .description("Duration of purge runs")
+              .tag("outcome", outcome)
+              .register(meterRegistry));
+    }
+    if (purged > 0 && logger.isInfoEnabled()) {
+      logger.info("Purged {} lamps deleted before {}", purged, cutoff);
+    }
+    return purged;
+  }
+
+  private boolean pause() {
+    if (batchPauseMs <= 0) {
+      return !Thread.currentThread().isInterrupted();
+    }
+    try {
+      Thread.sleep(batchPauseMs);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
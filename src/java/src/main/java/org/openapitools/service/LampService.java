@@ -3,21 +3,32 @@ package org.openapitools.service;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.function.Supplier;
 import org.openapitools.entity.LampEntity;
 import org.openapitools.exception.LampNotFoundException;
 import org.openapitools.mapper.LampMapper;
 import org.openapitools.model.Lamp;
 import org.openapitools.repository.LampRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service layer for Lamp entity operations. Provides business logic and transaction management for
@@ -34,14 +45,58 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * <p>Read-only operations are marked with @Transactional(readOnly = true) at the class level for
  * performance optimization. Write operations override with @Transactional.
+ *
+ * <p>{@link #findById} and {@link #findAllActivePage} coalesce concurrent identical reads (same id,
+ * or same offset, page size and fields) into one repository call via {@link SingleFlight}; each
+ * caller maps its own model from the shared entities or views. Pages are read as {@link
+ * LampRepository.LampView}s even when whole, so no entity is hydrated or tracked for them. They use
+ * {@code Propagation.SUPPORTS} so that waiting callers do not hold a connection, and they are not
+ * coalesced when called inside a transaction, which may have uncommitted writes of its own. Writes
+ * detach the in-flight reads they affect once they commit, so later readers never join a read that
+ * started before the write.
+ *
+ * <p>Pages read by offset may be read ahead by {@link LampPagePrefetch}: serving one asks for the
+ * next, which a client walking the list then gets without waiting for the repository. Writes drop
+ * those pages as they detach in-flight reads.
+ *
+ * <p>Updates and soft deletes of one lamp run in a transaction of their own through {@link
+ * LampWriteRetry}, which runs them again when they race a soft delete of the same lamp.
+ *
+ * <p>Every create, update and soft delete publishes a {@link LampChangedEvent}. Writes committed by
+ * other instances arrive as {@link LampsInvalidatedEvent}s and detach in-flight reads the same way.
  */
 @Service
 @Transactional(readOnly = true)
-@RequiredArgsConstructor
+@SuppressWarnings("PMD.CouplingBetweenObjects")
 public class LampService {
 
   private final LampRepository repository;
   private final LampMapper mapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final LampPagePrefetch pagePrefetch;
+  private final LampWriteRetry writes;
+
+  private final SingleFlight<UUID, Optional<LampEntity>> lampReads = new SingleFlight<>();
+
+  private final SingleFlight<ViewKey, Optional<LampRepository.LampView>> viewReads =
+      new SingleFlight<>();
+  private final SingleFlight<LampPagePrefetch.PageKey, List<LampRepository.LampView>>
+      viewPageReads = new SingleFlight<>();
+
+  private record ViewKey(UUID id, Set<LampRepository.LampField> fields) {}
+
+  public LampService(
+      final LampRepository repository,
+      final LampMapper mapper,
+      final ApplicationEventPublisher eventPublisher,
+      final LampPagePrefetch pagePrefetch,
+      final Optional<PlatformTransactionManager> transactionManager) {
+    this.repository = repository;
+    this.mapper = mapper;
+    this.eventPublisher = eventPublisher;
+    this.pagePrefetch = pagePrefetch;
+    this.writes = new LampWriteRetry(transactionManager);
+  }
 
   public static final class PagedLampsResult {
     private final List<Lamp> pagedData;
@@ -81,7 +136,8 @@ public class LampService {
   public Lamp create(final Lamp lamp) {
     final LampEntity entity = mapper.toEntity(lamp);
     final LampEntity saved = repository.save(entity);
-    return mapper.toModel(saved);
+    invalidateAfterCommit(saved.getId());
+    return published(LampChangedEvent.Type.CREATED, mapper.toModel(saved), null);
   }
 
   /**
@@ -90,8 +146,52 @@ public class LampService {
    * @param id the lamp ID
    * @return optional containing the lamp if found, empty otherwise
    */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   public Optional<Lamp> findById(final UUID id) {
-    return repository.findById(id).map(mapper::toModel);
+    return coalesce(lampReads, id, () -> repository.findById(id)).map(mapper::toModel);
+  }
+
+  /**
+   * Find a lamp by its ID, with only some of its fields; the others are null. Only the columns of
+   * those fields are read.
+   *
+   * @param id the lamp ID
+   * @param fields the fields to return
+   * @return optional containing the lamp if found, empty otherwise
+   */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  public Optional<Lamp> findById(final UUID id, final Set<LampRepository.LampField> fields) {
+    if (LampRepository.LampField.ALL.equals(fields)) {
+      return findById(id);
+    }
+    return coalesce(viewReads, new ViewKey(id, fields), () -> repository.findActiveView(id, fields))
+        .map(mapper::toPartialModel);
+  }
+
+  /**
+   * Find many lamps by ID with one repository call, instead of one call (and transaction) per lamp.
+   *
+   * @param ids lamp IDs; a repeated ID is looked up and returned once
+   * @return the lamps found, in the order of {@code ids}, and the IDs without an active lamp
+   */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  public LampBatch findByIds(final List<UUID> ids) {
+    final Set<UUID> requested = new LinkedHashSet<>(ids);
+    final Map<UUID, LampEntity> found = new HashMap<>();
+    for (final LampEntity lamp : repository.findActiveByIds(requested)) {
+      found.put(lamp.getId(), lamp);
+    }
+    final List<Lamp> lamps = new ArrayList<>(found.size());
+    final List<UUID> missing = new ArrayList<>();
+    for (final UUID id : requested) {
+      final LampEntity lamp = found.get(id);
+      if (lamp == null) {
+        missing.add(id);
+      } else {
+        lamps.add(mapper.toModel(lamp));
+      }
+    }
+    return new LampBatch(lamps, missing);
   }
 
   /**
@@ -125,19 +225,142 @@ public class LampService {
    * @param pageSize maximum number of lamps to return
    * @return paged lamps and pagination metadata
    */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   public PagedLampsResult findAllActivePage(final int offset, final int pageSize) {
-    final int safeOffset = Math.max(offset, 0);
+    return findAllActivePage(new LampPageCursor(offset, OptionalLong.empty()), pageSize);
+  }
+
+  /**
+   * Find a page of active lamps at a cursor.
+   *
+   * <p>When the repository keeps snapshots, the page is read from the cursor's snapshot, or from a
+   * newly pinned one for a first page, and the next cursor carries it on: a traversal then sees
+   * every lamp of one state exactly once, whatever is created or deleted meanwhile. Otherwise pages
+   * are read by offset from the current state.
+   *
+   * @param cursor position of the page
+   * @param pageSize maximum number of lamps to return
+   * @return paged lamps and pagination metadata
+   */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  public PagedLampsResult findAllActivePage(final LampPageCursor cursor, final int pageSize) {
+    return findAllActivePage(cursor, pageSize, LampRepository.LampField.ALL);
+  }
+
+  /**
+   * {@link #findAllActivePage(LampPageCursor, int)} with only some fields of each lamp; the others
+   * are null. Without snapshots, only the columns of those fields are read.
+   *
+   * @param cursor position of the page
+   * @param pageSize maximum number of lamps to return
+   * @param fields the fields to return
+   * @return paged lamps and pagination metadata
+   */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  public PagedLampsResult findAllActivePage(
+      final LampPageCursor cursor, final int pageSize, final Set<LampRepository.LampField> fields) {
+    final int safeOffset = Math.max(cursor.offset(), 0);
     final int safePageSize = pageSize > 0 ? pageSize : 25;
     final int queryLimit = safePageSize == Integer.MAX_VALUE ? Integer.MAX_VALUE : safePageSize + 1;
-    final Pageable pageable =
-        new OffsetBasedPageRequest(
-            safeOffset, queryLimit, Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")));
 
-    final List<LampEntity> entities = repository.findAllActive(pageable);
+    final Optional<LampRepository.ActiveWindow> window =
+        repository.findActiveInSnapshot(cursor.snapshot(), safeOffset, queryLimit);
+    final List<Lamp> lamps =
+        window.isPresent()
+            ? window.get().lamps().stream().map(lamp -> toModel(lamp, fields)).toList()
+            : findActiveWindow(safeOffset, queryLimit, fields);
+    final OptionalLong snapshot =
+        window.isPresent() ? OptionalLong.of(window.get().snapshot()) : OptionalLong.empty();
+    final boolean hasMore = lamps.size() > safePageSize;
+    final List<Lamp> data = hasMore ? lamps.subList(0, safePageSize) : lamps;
+    final Optional<String> nextCursor =
+        hasMore
+            ? Optional.of(new LampPageCursor(safeOffset + safePageSize, snapshot).token())
+            : Optional.empty();
+
+    return new PagedLampsResult(data, hasMore, nextCursor);
+  }
+
+  /**
+   * Find a page of active lamps matching a filter, in one of the indexed orders, by keyset: the
+   * page starts after the last lamp of the previous one, so it neither repeats nor skips lamps when
+   * lamps before it are created or deleted.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param cursor the cursor of the previous page; empty, or one of another order, for the first
+   *     page
+   * @param pageSize maximum number of lamps to return
+   * @return paged lamps and pagination metadata
+   */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  public PagedLampsResult findActivePage(
+      final LampRepository.ListFilter filter,
+      final LampRepository.ListSort sort,
+      final Optional<LampKeysetCursor> cursor,
+      final int pageSize) {
+    final int safePageSize = pageSize > 0 ? pageSize : 25;
+    final int queryLimit = safePageSize == Integer.MAX_VALUE ? Integer.MAX_VALUE : safePageSize + 1;
+    final Optional<LampRepository.SortPosition> after =
+        cursor.filter(position -> position.sort() == sort).map(LampKeysetCursor::after);
+
+    final List<LampEntity> entities = repository.findActive(filter, sort, after, queryLimit);
     final boolean hasMore = entities.size() > safePageSize;
+    final Optional<String> nextCursor =
+        hasMore
+            ? Optional.of(
+                new LampKeysetCursor(
+                        sort,
+                        LampRepository.SortPosition.from(sort, entities.get(safePageSize - 1)))
+                    .token())
+            : Optional.empty();
     final List<Lamp> data = entities.stream().limit(safePageSize).map(mapper::toModel).toList();
+
+    return new PagedLampsResult(data, hasMore, nextCursor);
+  }
+
+  /**
+   * {@link #findActivePage(LampRepository.ListFilter, LampRepository.ListSort, Optional, int)} with
+   * only some fields of each lamp; the others are null. Only the columns of those fields and of the
+   * sort key, for the next cursor, are read.
+   *
+   * @param filter which lamps
+   * @param sort order of the lamps
+   * @param cursor the cursor of the previous page; empty, or one of another order, for the first
+   *     page
+   * @param pageSize maximum number of lamps to return
+   * @param fields the fields to return
+   * @return paged lamps and pagination metadata
+   */
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  public PagedLampsResult findActivePage(
+      final LampRepository.ListFilter filter,
+      final LampRepository.ListSort sort,
+      final Optional<LampKeysetCursor> cursor,
+      final int pageSize,
+      final Set<LampRepository.LampField> fields) {
+    if (LampRepository.LampField.ALL.equals(fields)) {
+      return findActivePage(filter, sort, cursor, pageSize);
+    }
+    final int safePageSize = pageSize > 0 ? pageSize : 25;
+    final int queryLimit = safePageSize == Integer.MAX_VALUE ? Integer.MAX_VALUE : safePageSize + 1;
+    final Optional<LampRepository.SortPosition> after =
+        cursor.filter(position -> position.sort() == sort).map(LampKeysetCursor::after);
+    final List<LampRepository.LampView> views =
+        repository.findActiveViews(filter, sort, after, queryLimit, sort.withKey(fields));
+    final boolean hasMore = views.size() > safePageSize;
     final Optional<String> nextCursor =
-        hasMore ? Optional.of(Integer.toString(safeOffset + safePageSize)) : Optional.empty();
+        hasMore
+            ? Optional.of(
+                new LampKeysetCursor(
+                        sort, LampRepository.SortPosition.from(sort, views.get(safePageSize - 1)))
+                    .token())
+            : Optional.empty();
+    final List<Lamp> data =
+        views.stream()
+            .limit(safePageSize)
+            .map(view -> mapper.toPartialModel(view.only(fields)))
+            .toList();
 
     return new PagedLampsResult(data, hasMore, nextCursor);
   }
@@ -169,17 +392,23 @@ public class LampService {
    * @return the updated lamp
    * @throws LampNotFoundException if no lamp exists with the given ID
    */
-  @Transactional
+  @Transactional(propagation = Propagation.SUPPORTS)
   public Lamp update(final UUID id, final Lamp lamp) {
-    return repository
-        .findById(id)
-        .map(
-            entity -> {
-              entity.setStatus(lamp.getStatus());
-              // updatedAt is automatically set by @UpdateTimestamp
-              return mapper.toModel(repository.save(entity));
-            })
-        .orElseThrow(() -> new LampNotFoundException(id));
+    return writes.run(
+        () ->
+            repository
+                .findById(id)
+                .map(
+                    entity -> {
+                      final Boolean previousStatus = entity.getStatus();
+                      entity.setStatus(lamp.getStatus());
+                      // updatedAt is automatically set by @UpdateTimestamp
+                      final LampEntity saved = repository.save(entity);
+                      invalidateAfterCommit(id);
+                      return published(
+                          LampChangedEvent.Type.UPDATED, mapper.toModel(saved), previousStatus);
+                    })
+                .orElseThrow(() -> new LampNotFoundException(id)));
   }
 
   /**
@@ -191,12 +420,148 @@ public class LampService {
    * @param id the lamp ID to delete
    * @throws LampNotFoundException if no lamp exists with the given ID
    */
-  @Transactional
+  @Transactional(propagation = Propagation.SUPPORTS)
   public void delete(final UUID id) {
-    final LampEntity entity =
-        repository.findById(id).orElseThrow(() -> new LampNotFoundException(id));
-    entity.setDeletedAt(OffsetDateTime.now());
-    repository.save(entity);
+    writes.run(
+        () -> {
+          final LampEntity entity =
+              repository.findById(id).orElseThrow(() -> new LampNotFoundException(id));
+          final Boolean previousStatus = entity.getStatus();
+          entity.setDeletedAt(OffsetDateTime.now());
+          final LampEntity saved = repository.save(entity);
+          invalidateAfterCommit(id);
+          return published(LampChangedEvent.Type.DELETED, mapper.toModel(saved), previousStatus);
+        });
+  }
+
+  /**
+   * Set the status of the next chunk of lamps matching a filter in one transaction, publishing a
+   * {@link LampChangedEvent} per changed lamp as {@link #update} does.
+   *
+   * @param update the filter and the status to set
+   * @param after only lamps with an ID above this one; the nil UUID for the first chunk
+   * @param limit maximum number of lamps to change
+   * @return the changed lamps in ID order; fewer than {@code limit} when no lamps are left
+   */
+  @Transactional
+  public List<Lamp> updateStatus(
+      final LampRepository.StatusUpdate update, final UUID after, final int limit) {
+    final List<LampEntity> changed =
+        repository.updateStatus(update, after, OffsetDateTime.now(), limit);
+    invalidateAfterCommit(changed.stream().map(LampEntity::getId).toList());
+    final Boolean previousStatus = !update.status();
+    return changed.stream()
+        .map(lamp -> published(LampChangedEvent.Type.UPDATED, mapper.toModel(lamp), previousStatus))
+        .toList();
+  }
+
+  /**
+   * Detach in-flight reads of lamps changed by another instance.
+   *
+   * @param event the lamps changed elsewhere
+   */
+  @EventListener
+  public void onLampsInvalidated(final LampsInvalidatedEvent event) {
+    if (event.all()) {
+      lampReads.forgetAll();
+      viewReads.forgetAll();
+      viewPageReads.forgetAll();
+      pagePrefetch.forgetAll();
+      return;
+    }
+    invalidateAll(event.lampIds());
+  }
+
+  /**
+   * Result of {@link #findByIds}.
+   *
+   * @param lamps the lamps found, in request order
+   * @param missing the requested IDs without an active lamp, in request order
+   */
+  public record LampBatch(List<Lamp> lamps, List<UUID> missing) {
+
+    /** Keep unmodifiable copies. */
+    public LampBatch {
+      lamps = List.copyOf(lamps);
+      missing = List.copyOf(missing);
+    }
+  }
+
+  private List<Lamp> findActiveWindow(
+      final int offset, final int limit, final Set<LampRepository.LampField> fields) {
+    final LampPagePrefetch.PageKey key = new LampPagePrefetch.PageKey(offset, limit, fields);
+    final List<LampRepository.LampView> views;
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      views = readWindow(key);
+    } else {
+      views =
+          pagePrefetch
+              .prefetched(key)
+              .orElseGet(() -> viewPageReads.execute(key, () -> readWindow(key)));
+      if (views.size() >= limit) {
+        key.next().ifPresent(next -> pagePrefetch.prefetch(next, () -> readWindow(next)));
+      }
+    }
+    return views.stream().map(mapper::toPartialModel).toList();
+  }
+
+  private List<LampRepository.LampView> readWindow(final LampPagePrefetch.PageKey key) {
+    final Pageable pageable =
+        new OffsetBasedPageRequest(
+            key.offset(), key.limit(), Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")));
+    return repository.findActiveViews(pageable, key.fields());
+  }
+
+  private Lamp toModel(final LampEntity lamp, final Set<LampRepository.LampField> fields) {
+    return LampRepository.LampField.ALL.equals(fields)
+        ? mapper.toModel(lamp)
+        : mapper.toPartialModel(LampRepository.LampView.from(lamp, fields));
+  }
+
+  private Lamp published(
+      final LampChangedEvent.Type type, final Lamp lamp, final Boolean previousStatus) {
+    if (lamp != null) {
+      eventPublisher.publishEvent(LampChangedEvent.from(type, lamp, previousStatus));
+    }
+    return lamp;
+  }
+
+  private static <K, V> V coalesce(
+      final SingleFlight<K, V> flight, final K key, final Supplier<V> loader) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return loader.get();
+    }
+    return flight.execute(key, loader);
+  }
+
+  /**
+   * Detach in-flight reads of the lamp and of every page once the current transaction commits, or
+   * immediately when no transaction is active (in-memory mode).
+   */
+  private void invalidateAfterCommit(final UUID id) {
+    invalidateAfterCommit(id == null ? List.of() : List.of(id));
+  }
+
+  private void invalidateAfterCommit(final Iterable<UUID> ids) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              invalidateAll(ids);
+            }
+          });
+    } else {
+      invalidateAll(ids);
+    }
+  }
+
+  private void invalidateAll(final Iterable<UUID> ids) {
+    ids.forEach(lampReads::forget);
+    // Views are keyed by their fields too; writes are rare next to the polls they serve
+    viewReads.forgetAll();
+    viewPageReads.forgetAll();
+    pagePrefetch.forgetAll();
   }
 
   private static final class OffsetBasedPageRequest implements Pageable {
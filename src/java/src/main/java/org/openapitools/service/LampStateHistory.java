@@ -0,0 +1,203 @@
+package org.openapitools.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openapitools.repository.LampStateHistoryRepository;
+import org.openapitools.repository.LampStateHistoryRepository.LampTransition;
+import org.openapitools.service.LampChangedEvent.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records every lamp status transition in the {@link LampStateHistoryRepository} and serves a
+ * lamp's history by time range.
+ *
+ * <p>Creates, deletes and updates that change the status are recorded; updates that leave it as it
+ * was are not. A transition is stamped with the lamp's {@code updatedAt}, the time the analytics
+ * counters file it under too. Transitions are collected while the lamp write's transaction runs and
+ * appended in one batch just before it commits, so the log and the lamps table never disagree.
+ * Without a transaction (in memory mode) they are appended at once.
+ *
+ * <p>A background task creates storage for the coming months and drops months older than {@code
+ * retention-months}. If the history table is missing at startup (migration V4 not applied),
+ * recording is turned off rather than failing every lamp write.
+ */
+@Service
+public class LampStateHistory {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampStateHistory.class);
+
+  private final LampStateHistoryRepository repository;
+  private final boolean enabled;
+  private final int premakeMonths;
+  private final int retentionMonths;
+  private final long maintenanceIntervalMs;
+  private final int maxLimit;
+
+  private volatile boolean recording;
+  private ScheduledExecutorService maintainer;
+
+  public LampStateHistory(
+      final LampStateHistoryRepository repository,
+      @Value("${lamp.history.enabled:true}") final boolean enabled,
+      @Value("${lamp.history.premake-months:2}") final int premakeMonths,
+      @Value("${lamp.history.retention-months:12}") final int retentionMonths,
+      @Value("${lamp.history.maintenance-interval-ms:3600000}") final long maintenanceIntervalMs,
+      @Value("${lamp.history.max-limit:1000}") final int maxLimit) {
+    this.repository = repository;
+    this.enabled = enabled;
+    this.premakeMonths = premakeMonths;
+    this.retentionMonths = retentionMonths;
+    this.maintenanceIntervalMs = maintenanceIntervalMs;
+    this.maxLimit = maxLimit;
+  }
+
+  /** Check the log can be written and start maintenance. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      recording = repository.isAvailable();
+    } catch (DataAccessException e) {
+      recording = false;
+    }
+    if (!recording) {
+      if (logger.isWarnEnabled()) {
+        logger.warn(
+            "Lamp state history is not available (is migration V4 applied?), not recording");
+      }
+      return;
+    }
+    maintainer =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "lamp-history-maintenance");
+              thread.setDaemon(true);
+              return thread;
+            });
+    maintainer.scheduleWithFixedDelay(
+        this::maintain, 0, Math.max(maintenanceIntervalMs, 1), TimeUnit.MILLISECONDS);
+  }
+
+  /** Stop maintenance. */
+  @PreDestroy
+  public void stop() {
+    if (maintainer != null) {
+      maintainer.shutdownNow();
+    }
+  }
+
+  /**
+   * Record a lamp change, as part of its transaction when there is one.
+   *
+   * @param event the change
+   */
+  @EventListener
+  public void onLampChanged(final LampChangedEvent event) {
+    if (!recording
+        || event.type() == Type.UPDATED && Objects.equals(event.previousStatus(), event.status())) {
+      return;
+    }
+    final LampTransition transition =
+        new LampTransition(
+            event.id(),
+            event.updatedAt() == null ? Instant.now() : event.updatedAt().toInstant(),
+            event.previousStatus(),
+            event.type() == Type.DELETED ? null : event.status());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      pendingForTransaction().add(transition);
+    } else {
+      repository.append(List.of(transition));
+    }
+  }
+
+  /**
+   * Transitions of one lamp, oldest first.
+   *
+   * @param lampId lamp ID
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @param limit maximum number of transitions
+   * @return the transitions
+   * @throws IllegalArgumentException if the range is empty or the limit out of bounds
+   */
+  public List<LampStateChange> history(
+      final UUID lampId, final Instant from, final Instant to, final int limit) {
+    if (!from.isBefore(to)) {
+      throw new IllegalArgumentException("'from' must be before 'to'");
+    }
+    if (limit < 1 || limit > maxLimit) {
+      throw new IllegalArgumentException("'limit' must be between 1 and " + maxLimit);
+    }
+    return repository.findByLamp(lampId, from, to, limit).stream()
+        .map(
+            transition ->
+                new LampStateChange(
+                    OffsetDateTime.ofInstant(transition.changedAt(), ZoneOffset.UTC),
+                    transition.previousStatus(),
+                    transition.status()))
+        .toList();
+  }
+
+  /** Create storage for the coming months and drop expired months. */
+  /* default */ void maintain() {
+    try {
+      repository.maintain(YearMonth.now(ZoneOffset.UTC), premakeMonths, retentionMonths);
+    } catch (DataAccessException e) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Lamp state history maintenance failed", e);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<LampTransition> pendingForTransaction() {
+    final Object bound = TransactionSynchronizationManager.getResource(this);
+    if (bound != null) {
+      return (List<LampTransition>) bound;
+    }
+    final List<LampTransition> pending = new ArrayList<>();
+    TransactionSynchronizationManager.bindResource(this, pending);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void beforeCommit(final boolean readOnly) {
+            repository.append(pending);
+          }
+
+          @Override
+          public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LampStateHistory.this);
+          }
+        });
+    return pending;
+  }
+
+  /**
+   * One recorded transition.
+   *
+   * @param changedAt when the transition happened
+   * @param previousStatus status before; null for a create
+   * @param status status after; null for a delete
+   */
+  public record LampStateChange(OffsetDateTime changedAt, Boolean previousStatus, Boolean status) {}
+}
@@ -0,0 +1,218 @@
+package org.openapitools.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.repository.LampRepository.ChangePosition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Delta sync for offline-first clients: the lamps changed since a sync token, so a client refreshes
+ * its copy at the cost of what changed instead of re-reading the whole list.
+ *
+ * <p>Lamps come in change order, by the transaction that last wrote them and then ID, keyset
+ * paginated on the {@code (change_seq, id)} index of migration V11 (a skip list in memory mode).
+ * Soft-deleted lamps come as tombstones. The token is the position after the last change returned;
+ * once a client has caught up it moves to the change horizon, so an idle client's next sync reads
+ * nothing it has already seen.
+ *
+ * <p>Only changes below the {@link LampRepository#changeHorizon() change horizon} read before the
+ * page are returned: every transaction before it has ended, so however long a write takes to
+ * commit, it cannot land behind a token already handed out. A long write transaction delays sync
+ * until it ends instead.
+ *
+ * <p>Tombstones are purged {@code lamp.purge.retention-days} after the delete, so a client that has
+ * not caught up for longer than that may have missed deletes. The token carries the time the client
+ * last caught up; once it is older than the retention, the token is rejected and the client has to
+ * reload the list. A token from before change sequences resumes from the start.
+ */
+@Service
+public class LampSync {
+
+  private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder TOKEN_DECODER = Base64.getUrlDecoder();
+
+  private static final UUID FIRST_ID = new UUID(0, 0);
+
+  private static final String TOKEN_VERSION = "2";
+
+  private static final int TOKEN_PARTS = 4;
+
+  /** Parts of a token by update time, from before change sequences. */
+  private static final int LEGACY_TOKEN_PARTS = 3;
+
+  private final LampRepository repository;
+  private final LongSupplier epochMillis;
+  private final int maxLimit;
+  private final boolean tombstonesPurged;
+  private final Duration tombstoneRetention;
+
+  @Autowired
+  public LampSync(
+      final LampRepository repository,
+      @Value("${lamp.sync.max-limit:1000}") final int maxLimit,
+      @Value("${lamp.purge.enabled:true}") final boolean tombstonesPurged,
+      @Value("${lamp.purge.retention-days:30}") final int retentionDays) {
+    this(repository, System::currentTimeMillis, maxLimit, tombstonesPurged, retentionDays);
+  }
+
+  /* default */ LampSync(
+      final LampRepository repository,
+      final LongSupplier epochMillis,
+      final int maxLimit,
+      final boolean tombstonesPurged,
+      final int retentionDays) {
+    this.repository = repository;
+    this.epochMillis = epochMillis;
+    this.maxLimit = maxLimit;
+    this.tombstonesPurged = tombstonesPurged;
+    this.tombstoneRetention = Duration.ofDays(Math.max(retentionDays, 0));
+  }
+
+  /**
+   * Lamps changed since a sync token.
+   *
+   * @param syncToken token returned by the previous sync; empty for a first sync, which returns
+   *     every lamp
+   * @param limit maximum number of changes
+   * @return the changes and the token to continue with, or empty if the token has expired
+   * @throws IllegalArgumentException if the token is malformed or the limit out of bounds
+   */
+  public Optional<LampChanges> changesSince(final Optional<String> syncToken, final int limit) {
+    if (limit < 1 || limit > maxLimit) {
+      throw new IllegalArgumentException("'limit' must be between 1 and " + maxLimit);
+    }
+    final Instant now = Instant.ofEpochMilli(epochMillis.getAsLong());
+    final SyncToken from =
+        syncToken
+            .map(
+                token ->
+                    decode(token)
+                        .orElseThrow(() -> new IllegalArgumentException("Invalid sync token")))
+            .orElse(new SyncToken(ChangePosition.START, now));
+    if (isExpired(from, now)) {
+      return Optional.empty();
+    }
+    // Read first, so that every change below it is final by the time the page is read.
+    final long horizon = repository.changeHorizon();
+    final List<LampEntity> changed =
+        repository.findChangedAfter(from.position(), horizon, limit + 1);
+    final boolean hasMore = changed.size() > limit;
+    final List<LampEntity> page = hasMore ? changed.subList(0, limit) : changed;
+    final SyncToken next;
+    if (hasMore) {
+      next = new SyncToken(ChangePosition.from(page.get(page.size() - 1)), from.caughtUpAt());
+    } else {
+      // Caught up: every change before the horizon has been returned.
+      final ChangePosition position = from.position();
+      next =
+          new SyncToken(
+              horizon > position.changeSeq() ? new ChangePosition(horizon, FIRST_ID) : position,
+              now);
+    }
+    return Optional.of(
+        new LampChanges(page.stream().map(LampSync::toChange).toList(), encode(next), hasMore));
+  }
+
+  /** Whether tombstones the client has not seen yet may have been purged. */
+  private boolean isExpired(final SyncToken token, final Instant now) {
+    return tombstonesPurged && token.caughtUpAt().isBefore(now.minus(tombstoneRetention));
+  }
+
+  private static LampChange toChange(final LampEntity lamp) {
+    return new LampChange(
+        lamp.getId(),
+        lamp.getStatus(),
+        lamp.getCreatedAt(),
+        lamp.getUpdatedAt(),
+        lamp.getDeletedAt() != null);
+  }
+
+  private static String encode(final SyncToken token) {
+    final String encoded =
+        TOKEN_VERSION
+            + "."
+            + token.position().changeSeq()
+            + "."
+            + token.position().id()
+            + "."
+            + token.caughtUpAt().toEpochMilli();
+    return TOKEN_ENCODER.encodeToString(encoded.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Optional<SyncToken> decode(final String token) {
+    try {
+      final String[] parts =
+          new String(TOKEN_DECODER.decode(token), StandardCharsets.UTF_8).split("\\.", TOKEN_PARTS);
+      if (parts.length == LEGACY_TOKEN_PARTS) {
+        // An update time has no place in the change order: resend everything, unless deletes
+        // since that time may have been purged.
+        return Optional.of(
+            new SyncToken(
+                ChangePosition.START,
+                Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]))));
+      }
+      if (parts.length != TOKEN_PARTS || !TOKEN_VERSION.equals(parts[0])) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          new SyncToken(
+              new ChangePosition(Long.parseLong(parts[1]), UUID.fromString(parts[2])),
+              Instant.ofEpochMilli(Long.parseLong(parts[3]))));
+    } catch (IllegalArgumentException | DateTimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * What a sync token holds.
+   *
+   * @param position position after the last change returned
+   * @param caughtUpAt when the client last had every change, or started its first sync; it needs
+   *     every delete since
+   */
+  private record SyncToken(ChangePosition position, Instant caughtUpAt) {}
+
+  /**
+   * A page of changes.
+   *
+   * @param changes changed lamps, in change order
+   * @param syncToken token for the next sync
+   * @param hasMore whether more changes are waiting; sync again with the new token at once
+   */
+  public record LampChanges(List<LampChange> changes, String syncToken, boolean hasMore) {
+
+    /** Keep an unmodifiable copy of the changes. */
+    public LampChanges {
+      changes = List.copyOf(changes);
+    }
+  }
+
+  /**
+   * The state of a lamp after a change.
+   *
+   * @param id lamp ID
+   * @param status status; the last one for a deleted lamp
+   * @param createdAt creation time
+   * @param updatedAt time of the change
+   * @param deleted whether the lamp was deleted; drop it from the local copy
+   */
+  public record LampChange(
+      UUID id,
+      Boolean status,
+      OffsetDateTime createdAt,
+      OffsetDateTime updatedAt,
+      boolean deleted) {}
+}
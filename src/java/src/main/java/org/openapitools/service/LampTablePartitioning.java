@@ -0,0 +1,250 @@
+package org.openapitools.service;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.openapitools.config.OnDatabaseUrlCondition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Online copy of an unpartitioned {@code lamps} table into the partitioned one created by migration
+ * V5, for tables too large to copy inside the migration.
+ *
+ * <p>While the copy runs, a trigger on the old table mirrors every write into {@code
+ * lamps_partitioned}, so lamp requests keep working on the old table throughout. The copy walks the
+ * old table in ID order, {@code batch-size} rows per transaction. Each batch locks its rows {@code
+ * FOR SHARE}, then deletes and re-inserts them in the new table, so a concurrent write either
+ * finishes before the batch reads the row or waits for the batch and is then mirrored by the
+ * trigger. The cursor is stored in {@code lamps_partitioning_progress} and its row lock keeps
+ * instances from copying at the same time, so a restart resumes where the copy stopped.
+ *
+ * <p>Once everything is copied and {@code cutover} is set, the tables are swapped in one short
+ * transaction that holds an exclusive lock on the old table for a few renames: the trigger is
+ * dropped, the old table becomes {@code lamps_unpartitioned} and the new one {@code lamps}. The old
+ * table is kept for the operator to drop.
+ *
+ * <p>Opt in with {@code lamp.partitioning.migrate=true}; does nothing once the table is
+ * partitioned.
+ *
+ * <p>Each partition has its own primary key, since none can span partitions keyed by an expression.
+ * IDs are kept unique across them by {@code lamp_ids} (migration V10), whose triggers are on {@code
+ * lamps_partitioned} during the copy and so come along at cutover. Copies keep the {@code
+ * change_seq} of their row (migration V11), so delta sync does not hand them out again after
+ * cutover. Writes that race a soft delete, which moves the row to the other partition, are run
+ * again by {@link LampService}.
+ */
+@Component
+@Conditional(OnDatabaseUrlCondition.class)
+public class LampTablePartitioning {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampTablePartitioning.class);
+
+  private static final String SELECT_BATCH =
+      "SELECT id FROM lamps WHERE (?::uuid IS NULL OR id > ?::uuid) ORDER BY id LIMIT ? FOR SHARE";
+
+  private static final String DELETE_COPIES = "DELETE FROM lamps_partitioned WHERE id = ANY(?)";
+
+  private static final String INSERT_COPIES =
+      "INSERT INTO lamps_partitioned (id, is_on, created_at, updated_at, deleted_at, change_seq) "
+          + "SELECT id, is_on, created_at, updated_at, deleted_at, change_seq FROM lamps "
+          + "WHERE id = ANY(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean migrate;
+  private final boolean cutover;
+  private final int batchSize;
+  private final long batchPauseMs;
+  private final String cutoverLockTimeout;
+
+  @Autowired
+  public LampTablePartitioning(
+      final DataSource dataSource,
+      @Value("${lamp.partitioning.migrate:false}") final boolean migrate,
+      @Value("${lamp.partitioning.cutover:true}") final boolean cutover,
+      @Value("${lamp.partitioning.batch-size:5000}") final int batchSize,
+      @Value("${lamp.partitioning.batch-pause-ms:50}") final long batchPauseMs,
+      @Value("${lamp.partitioning.cutover-lock-timeout:5s}") final String cutoverLockTimeout) {
+    this(
+        new JdbcTemplate(dataSource),
+        new TransactionTemplate(new JdbcTransactionManager(dataSource)),
+        migrate,
+        cutover,
+        batchSize,
+        batchPauseMs,
+        cutoverLockTimeout);
+  }
+
+  /* default */ LampTablePartitioning(
+      final JdbcTemplate jdbcTemplate,
+      final TransactionTemplate transactionTemplate,
+      final boolean migrate,
+      final boolean cutover,
+      final int batchSize,
+      final long batchPauseMs,
+      final String cutoverLockTimeout) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.migrate = migrate;
+    this.cutover = cutover;
+    this.batchSize = Math.max(batchSize, 1);
+    this.batchPauseMs = batchPauseMs;
+    this.cutoverLockTimeout = cutoverLockTimeout;
+  }
+
+  /** Start the copy on a background thread once the application is serving. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!migrate) {
+      return;
+    }
+    final Thread thread = new Thread(this::run, "lamp-partitioning");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Copy until done, then swap the tables if {@code cutover} is set.
+   *
+   * @return whether the table is partitioned when this returns
+   */
+  public boolean run() {
+    try {
+      if (!isPending()) {
+        return true;
+      }
+      long copied = 0;
+      int batch = copyBatch();
+      while (batch > 0 && !Thread.currentThread().isInterrupted()) {
+        copied += batch;
+        if (logger.isInfoEnabled() && copied % (batchSize * 100L) < batch) {
+          logger.info("Copied {} lamps into lamps_partitioned", copied);
+        }
+        pause();
+        batch = copyBatch();
+      }
+      return cutover && swap();
+    } catch (DataAccessException e) {
+      if (logger.isWarnEnabled()) {
+        logger.warn("Lamp table partitioning stopped; it resumes on the next start", e);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Whether an online copy is set up and not yet swapped in.
+   *
+   * @return true while {@code lamps_partitioning_progress} exists
+   */
+  public boolean isPending() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT to_regclass('lamps_partitioning_progress') IS NOT NULL", Boolean.class));
+  }
+
+  /**
+   * Copy the next batch of lamps.
+   *
+   * @return number of lamps copied; 0 once the copy has reached the end of the table
+   */
+  public int copyBatch() {
+    final Integer copied =
+        transactionTemplate.execute(
+            status -> {
+              final Optional<UUID> after =
+                  Optional.ofNullable(
+                      jdbcTemplate.queryForObject(
+                          "SELECT last_id FROM lamps_partitioning_progress WHERE id = 1 FOR UPDATE",
+                          UUID.class));
+              final List<UUID> ids =
+                  jdbcTemplate.queryForList(
+                      SELECT_BATCH, UUID.class, after.orElse(null), after.orElse(null), batchSize);
+              if (ids.isEmpty()) {
+                jdbcTemplate.update(
+                    "UPDATE lamps_partitioning_progress SET copied_at = now() "
+                        + "WHERE id = 1 AND copied_at IS NULL");
+                return 0;
+              }
+              jdbcTemplate.execute(
+                  (ConnectionCallback<Void>)
+                      connection -> {
+                        final Array array = connection.createArrayOf("uuid", ids.toArray());
+                        try (PreparedStatement delete = connection.prepareStatement(DELETE_COPIES);
+                            PreparedStatement insert = connection.prepareStatement(INSERT_COPIES)) {
+                          delete.setArray(1, array);
+                          delete.executeUpdate();
+                          insert.setArray(1, array);
+                          insert.executeUpdate();
+                        } finally {
+                          array.free();
+                        }
+                        return null;
+                      });
+              jdbcTemplate.update(
+                  "UPDATE lamps_partitioning_progress SET last_id = ? WHERE id = 1",
+                  ids.get(ids.size() - 1));
+              return ids.size();
+            });
+    return copied == null ? 0 : copied;
+  }
+
+  /**
+   * Swap the partitioned table in, giving up if the old table cannot be locked within {@code
+   * cutover-lock-timeout}.
+   *
+   * @return whether the swap happened
+   */
+  /* default */ boolean swap() {
+    return Boolean.TRUE.equals(
+        transactionTemplate.execute(
+            status -> {
+              jdbcTemplate.queryForObject(
+                  "SELECT set_config('lock_timeout', ?, true)", String.class, cutoverLockTimeout);
+              jdbcTemplate.execute("LOCK TABLE lamps IN ACCESS EXCLUSIVE MODE");
+              final Boolean copied =
+                  jdbcTemplate.queryForObject(
+                      "SELECT copied_at IS NOT NULL FROM lamps_partitioning_progress WHERE id = 1",
+                      Boolean.class);
+              if (!Boolean.TRUE.equals(copied)) {
+                return false;
+              }
+              jdbcTemplate.execute("DROP TRIGGER lamps_partitioning_sync ON lamps");
+              jdbcTemplate.execute("DROP FUNCTION lamps_partitioning_sync()");
+              jdbcTemplate.execute("ALTER TABLE lamps RENAME TO lamps_unpartitioned");
+              jdbcTemplate.execute("ALTER TABLE lamps_partitioned RENAME TO lamps");
+              jdbcTemplate.execute("DROP TABLE lamps_partitioning_progress");
+              if (logger.isInfoEnabled()) {
+                logger.info(
+                    "Swapped in the partitioned lamps table; the old one is lamps_unpartitioned");
+              }
+              return true;
+            }));
+  }
+
+  private void pause() {
+    if (batchPauseMs <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(batchPauseMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
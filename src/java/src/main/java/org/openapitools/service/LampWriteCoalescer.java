@@ -0,0 +1,140 @@
+package org.openapitools.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.openapitools.model.Lamp;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optionally merges rapid successive updates of the same lamp into one persisted write.
+ *
+ * <p>When enabled, the first update of a lamp opens a batch and waits for the coalescing window.
+ * Updates of the same lamp arriving within the window join the batch and overwrite its pending
+ * status, so the last writer wins. When the window closes, a single {@link LampService#update}
+ * persists the final status, which also sets {@code updatedAt} to the time of that write. Every
+ * caller in the batch then receives the persisted lamp, or the exception it failed with; no
+ * response is returned before the merged write has committed.
+ *
+ * <p>The writes of one lamp are made in the order of their windows: a batch stays in place until
+ * its write has finished, and a batch opened meanwhile writes only after it, so a write of an older
+ * status can never commit after, and overwrite, a newer one.
+ *
+ * <p>When disabled (the default), updates go straight to {@link LampService#update}.
+ */
+@Component
+public class LampWriteCoalescer {
+
+  private final LampService lampService;
+  private final boolean enabled;
+  private final long windowMs;
+  private final Map<UUID, Batch> batches = new ConcurrentHashMap<>();
+
+  public LampWriteCoalescer(
+      final LampService lampService,
+      @Value("${lamp.write-coalescing.enabled:false}") final boolean enabled,
+      @Value("${lamp.write-coalescing.window-ms:10}") final long windowMs) {
+    this.lampService = lampService;
+    this.enabled = enabled;
+    this.windowMs = windowMs;
+  }
+
+  /**
+   * Update a lamp, merging with concurrent updates of the same lamp when coalescing is enabled.
+   *
+   * @param id the lamp ID
+   * @param lamp the updated lamp data
+   * @return the lamp as persisted by the (possibly merged) write
+   */
+  public Lamp update(final UUID id, final Lamp lamp) {
+    if (!enabled) {
+      return lampService.update(id, lamp);
+    }
+    final Batch created = new Batch(lamp.getStatus());
+    final Batch batch =
+        batches.compute(
+            id,
+            (key, open) -> {
+              if (open != null && open.offer(lamp.getStatus())) {
+                return open;
+              }
+              if (open != null) {
+                created.previous = open.result;
+              }
+              return created;
+            });
+    if (!created.equals(batch)) {
+      return batch.await();
+    }
+    return lead(id, batch);
+  }
+
+  private Lamp lead(final UUID id, final Batch batch) {
+    try {
+      Thread.sleep(windowMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    batch.awaitPrevious();
+    final Lamp merged = new Lamp();
+    merged.setStatus(batch.close());
+    try {
+      final Lamp persisted = lampService.update(id, merged);
+      batch.result.complete(persisted);
+      return persisted;
+    } catch (RuntimeException | Error e) {
+      batch.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      batches.remove(id, batch);
+    }
+  }
+
+  /** Updates of one lamp collected during a window. */
+  private static final class Batch {
+
+    private final CompletableFuture<Lamp> result = new CompletableFuture<>();
+    private Boolean status;
+    private boolean closed;
+    // The write of the window before, which this batch waits for; set when it is mapped.
+    private CompletableFuture<Lamp> previous = CompletableFuture.completedFuture(null);
+
+    private Batch(final Boolean status) {
+      this.status = status;
+    }
+
+    private synchronized boolean offer(final Boolean newStatus) {
+      if (closed) {
+        return false;
+      }
+      status = newStatus;
+      return true;
+    }
+
+    private synchronized Boolean close() {
+      closed = true;
+      return status;
+    }
+
+    // Its outcome is that batch's callers' own; this batch writes either way.
+    private void awaitPrevious() {
+      previous.exceptionally(e -> null).join();
+    }
+
+    // Rethrow the leader's own exception so every caller sees the same failure.
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private Lamp await() {
+      try {
+        return result.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException runtime) {
+          throw runtime;
+        }
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.openapitools.service;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a write of one lamp in a transaction of its own, and runs it again when it loses a race with
+ * a soft delete of the lamp.
+ *
+ * <p>On the partitioned lamps table (migration V5) a soft delete moves the row from {@code
+ * lamps_active} to {@code lamps_deleted}. A write that read the lamp before the delete committed
+ * then fails with a serialization failure ("tuple to be updated was already moved to another
+ * partition") instead of waiting and updating the row, as it would on one table. Run again, it
+ * reads the lamp as deleted and fails with {@code LampNotFoundException}, or succeeds if the
+ * failure came from another race. Inside a caller's transaction there is nothing to run again, so
+ * the write just joins it; without a transaction manager (in memory) it runs as it is.
+ */
+final class LampWriteRetry {
+
+  // Attempts of a write that keeps losing the race
+  private static final int ATTEMPTS = 3;
+
+  // SQLSTATE serialization_failure
+  private static final String SERIALIZATION_FAILURE = "40001";
+
+  private final TransactionOperations transaction;
+
+  /* default */ LampWriteRetry(final Optional<PlatformTransactionManager> transactionManager) {
+    this.transaction =
+        transactionManager
+            .<TransactionOperations>map(TransactionTemplate::new)
+            .orElseGet(TransactionOperations::withoutTransaction);
+  }
+
+  /**
+   * Run a write.
+   *
+   * @param write the write, which may run more than once
+   * @param <T> the result of the write
+   * @return the result of the attempt that succeeded
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  /* default */ <T> T run(final Supplier<T> write) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return write.get();
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transaction.execute(status -> write.get());
+      } catch (RuntimeException e) {
+        if (attempt == ATTEMPTS || !isSerializationFailure(e)) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /* default */ static boolean isSerializationFailure(final Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sql && SERIALIZATION_FAILURE.equals(sql.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,38 @@
+package org.openapitools.service;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Application event published by {@link LampInvalidationBus} when another instance has committed
+ * lamp writes, so that local state derived from those lamps can be discarded.
+ *
+ * @param lampIds IDs of the changed lamps; empty when {@code all} is set
+ * @param all whether every lamp must be treated as changed, e.g. after notifications were missed
+ */
+public record LampsInvalidatedEvent(Set<UUID> lampIds, boolean all) {
+
+  /** Canonical constructor; keeps an immutable copy of the IDs. */
+  public LampsInvalidatedEvent {
+    lampIds = Set.copyOf(lampIds);
+  }
+
+  /**
+   * Event for the given lamps.
+   *
+   * @param lampIds IDs of the changed lamps
+   * @return the event
+   */
+  public static LampsInvalidatedEvent forLamps(final Set<UUID> lampIds) {
+    return new LampsInvalidatedEvent(lampIds, false);
+  }
+
+  /**
+   * Event that invalidates every lamp.
+   *
+   * @return the event
+   */
+  public static LampsInvalidatedEvent everything() {
+    return new LampsInvalidatedEvent(Set.of(), true);
+  }
+}
@@ -0,0 +1,90 @@
+package org.openapitools.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ *
+ * <p>The first caller for a key (the leader) runs the loader; callers arriving while it is running
+ * wait for and share its result, or its exception. Nothing is cached: once the leader finishes, the
+ * next call for the key runs the loader again.
+ *
+ * <p>{@link #forget} detaches an in-flight call from its key, so callers that arrive after a write
+ * start a fresh load instead of joining one that may have read the old state.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public final class SingleFlight<K, V> {
+
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Run the loader for the key, or join a call for the same key that is already running.
+   *
+   * @param key coalescing key
+   * @param loader computes the result; runs on the calling thread of the leader
+   * @return the shared result
+   */
+  public V execute(final K key, final Supplier<V> loader) {
+    final CompletableFuture<V> call = new CompletableFuture<>();
+    final CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+    if (existing != null) {
+      return await(existing);
+    }
+    try {
+      final V result = loader.get();
+      call.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  /**
+   * Stop new callers from joining the in-flight call for the key, if any.
+   *
+   * @param key coalescing key
+   */
+  public void forget(final K key) {
+    inFlight.remove(key);
+  }
+
+  /** Stop new callers from joining any in-flight call. */
+  public void forgetAll() {
+    inFlight.clear();
+  }
+
+  /**
+   * Number of keys with a call in flight.
+   *
+   * @return in-flight key count
+   */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  // Rethrow the leader's own exception so waiting callers see the same failure as the leader.
+  @SuppressWarnings("PMD.PreserveStackTrace")
+  private static <V> V await(final CompletableFuture<V> call) {
+    try {
+      return call.join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package org.openapitools.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.openapitools.model.Lamp;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRows;
+
+/**
+ * A page of the default lamp list written from {@link LampRows} as its rows are read.
+ *
+ * <p>{@link #writeTo} reads the rows as the body is written and encodes each into the generator as
+ * it comes from the store, so no entity, view or model is built and nothing is kept per lamp: the
+ * ID bytes are copied as read, the timestamps are formatted into one buffer for the whole page, and
+ * the names are encoded once for all pages. Nothing is written before the first row has been read,
+ * so a failing read fails the request as any other store failure does, before a status is sent. The
+ * bytes are those Jackson writes for the equivalent {@link ListLamps200Response}, timestamps
+ * included, which Hibernate reads from Postgres in UTC and Jackson formats as {@link
+ * DateTimeFormatter#ISO_OFFSET_DATE_TIME}.
+ *
+ * <p>Anything that reads the page through its getters instead, such as the CBOR converter, gets the
+ * rows read into models on first use, so it serializes as any other page.
+ */
+@SuppressFBWarnings(
+    value = "EQ_DOESNT_OVERRIDE_EQUALS",
+    justification = "Written once as a response body, never compared")
+public final class StreamedLampPage extends ListLamps200Response {
+
+  private static final SerializableString DATA = new SerializedString("data");
+  private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+  private static final SerializableString HAS_MORE = new SerializedString("hasMore");
+  private static final SerializableString TOTAL = new SerializedString("total");
+  private static final SerializableString TOTAL_EXACT = new SerializedString("totalExact");
+  private static final SerializableString ID = new SerializedString("id");
+  private static final SerializableString STATUS = new SerializedString("status");
+  private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+  private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+
+  private final LampRows rows;
+  private final int offset;
+  private final int pageSize;
+  private boolean materialized;
+
+  /* default */ StreamedLampPage(final LampRows rows, final int offset, final int pageSize) {
+    super();
+    this.rows = rows;
+    this.offset = offset;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Read the page and write it as JSON.
+   *
+   * @param gen the generator of the response body
+   * @throws IOException when the body cannot be written
+   */
+  public void writeTo(final JsonGenerator gen) throws IOException {
+    final RowWriter writer = new RowWriter(gen, pageSize);
+    final boolean more = rows.forEachActive(offset, limit(), writer) > pageSize;
+    writer.start();
+    gen.writeEndArray();
+    if (more) {
+      gen.writeFieldName(NEXT_CURSOR);
+      gen.writeString(nextCursor());
+    }
+    gen.writeFieldName(HAS_MORE);
+    gen.writeBoolean(more);
+    if (getTotal() != null) {
+      gen.writeFieldName(TOTAL);
+      gen.writeNumber(getTotal());
+    }
+    if (getTotalExact() != null) {
+      gen.writeFieldName(TOTAL_EXACT);
+      gen.writeBoolean(getTotalExact());
+    }
+    gen.writeEndObject();
+  }
+
+  @Override
+  public List<Lamp> getData() {
+    materialize();
+    return super.getData();
+  }
+
+  @Override
+  public JsonNullable<String> getNextCursor() {
+    materialize();
+    return super.getNextCursor();
+  }
+
+  @Override
+  public Boolean getHasMore() {
+    materialize();
+    return super.getHasMore();
+  }
+
+  private void materialize() {
+    if (materialized) {
+      return;
+    }
+    materialized = true;
+    final List<Lamp> lamps = new ArrayList<>();
+    final boolean more;
+    try {
+      more =
+          rows.forEachActive(
+                  offset,
+                  limit(),
+                  (id, status, createdAtMicros, updatedAtMicros) -> {
+                    if (lamps.size() < pageSize) {
+                      lamps.add(lamp(id, status, createdAtMicros, updatedAtMicros));
+                    }
+                  })
+              > pageSize;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    setData(lamps);
+    setHasMore(more);
+    if (more) {
+      nextCursor(nextCursor());
+    }
+  }
+
+  private int limit() {
+    return pageSize == Integer.MAX_VALUE ? Integer.MAX_VALUE : pageSize + 1;
+  }
+
+  private String nextCursor() {
+    return new LampPageCursor(offset + pageSize, OptionalLong.empty()).token();
+  }
+
+  private static Lamp lamp(
+      final byte[] id,
+      final boolean status,
+      final long createdAtMicros,
+      final long updatedAtMicros) {
+    return new Lamp(
+        UUID.fromString(new String(id, StandardCharsets.US_ASCII)),
+        status,
+        time(createdAtMicros),
+        time(updatedAtMicros));
+  }
+
+  private static OffsetDateTime time(final long micros) {
+    return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+  }
+
+  /**
+   * Writes each row into the generator as it is read, and the start of the page with the first.
+   * Skips the row read to tell whether another page follows.
+   */
+  private static final class RowWriter implements LampRows.RowHandler {
+
+    private final JsonGenerator gen;
+    private final int pageSize;
+    private final byte[] time = new byte[Timestamps.MAX_LENGTH];
+    private int written;
+    private boolean started;
+
+    private RowWriter(final JsonGenerator gen, final int pageSize) {
+      this.gen = gen;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public void row(
+        final byte[] id,
+        final boolean status,
+        final long createdAtMicros,
+        final long updatedAtMicros)
+        throws IOException {
+      if (written == pageSize) {
+        return;
+      }
+      start();
+      gen.writeStartObject();
+      gen.writeFieldName(ID);
+      gen.writeUTF8String(id, 0, id.length);
+      gen.writeFieldName(STATUS);
+      gen.writeBoolean(status);
+      gen.writeFieldName(CREATED_AT);
+      writeTime(createdAtMicros);
+      gen.writeFieldName(UPDATED_AT);
+      writeTime(updatedAtMicros);
+      gen.writeEndObject();
+      written++;
+    }
+
+    private void start() throws IOException {
+      if (started) {
+        return;
+      }
+      started = true;
+      gen.writeStartObject();
+      gen.writeFieldName(DATA);
+      gen.writeStartArray();
+    }
+
+    private void writeTime(final long micros) throws IOException {
+      final int length = Timestamps.format(micros, time);
+      if (length < 0) {
+        gen.writeString(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(time(micros)));
+        return;
+      }
+      gen.writeUTF8String(time, 0, length);
+    }
+  }
+
+  /**
+   * {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} of a UTC time, into a byte buffer: {@code
+   * yyyy-MM-ddTHH:mm:ss}, then the fraction of the second without trailing zeros, if any, then
+   * {@code Z}.
+   */
+  /* default */ static final class Timestamps {
+
+    /* default */ static final int MAX_LENGTH = 27;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int MAX_YEAR = 9_999;
+
+    private Timestamps() {}
+
+    /**
+     * Format a time.
+     *
+     * @param micros microseconds since the epoch
+     * @param into buffer of at least {@link #MAX_LENGTH} bytes
+     * @return the number of bytes written, or -1 for a year outside 0 to 9999, which ISO formats
+     *     with a sign
+     */
+    /* default */ static int format(final long micros, final byte[] into) {
+      final long seconds = Math.floorDiv(micros, MICROS_PER_SECOND);
+      final long days = Math.floorDiv(seconds, SECONDS_PER_DAY);
+      final long date = civil(days);
+      final int year = (int) (date / 10_000);
+      if (days < -719_528 || year > MAX_YEAR) {
+        return -1;
+      }
+      digits(into, 0, year, 4);
+      into[4] = '-';
+      digits(into, 5, (int) (date / 100 % 100), 2);
+      into[7] = '-';
+      digits(into, 8, (int) (date % 100), 2);
+      into[10] = 'T';
+      final int secondOfDay = Math.floorMod(seconds, SECONDS_PER_DAY);
+      digits(into, 11, secondOfDay / 3_600, 2);
+      into[13] = ':';
+      digits(into, 14, secondOfDay / 60 % 60, 2);
+      into[16] = ':';
+      digits(into, 17, secondOfDay % 60, 2);
+      int length = fraction(into, (int) Math.floorMod(micros, MICROS_PER_SECOND));
+      into[length++] = 'Z';
+      return length;
+    }
+
+    /**
+     * The proleptic Gregorian date of a day, as {@code yyyyMMdd} (H. Hinnant's {@code
+     * civil_from_days}).
+     */
+    private static long civil(final long epochDay) {
+      final long shifted = epochDay + 719_468;
+      final long era = Math.floorDiv(shifted, 146_097);
+      final long dayOfEra = shifted - era * 146_097;
+      final long yearOfEra =
+          (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+      final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+      final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+      final long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+      final long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+      final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+      return year * 10_000 + month * 100 + day;
+    }
+
+    /** Write the fraction of the second after {@code ss}, if any; return the length so far. */
+    private static int fraction(final byte[] into, final int micros) {
+      if (micros == 0) {
+        return 19;
+      }
+      into[19] = '.';
+      digits(into, 20, micros, 6);
+      int length = 26;
+      while (into[length - 1] == '0') {
+        length--;
+      }
+      return length;
+    }
+
+    private static void digits(final byte[] into, final int at, final int value, final int width) {
+      int rest = value;
+      for (int i = at + width - 1; i >= at; i--) {
+        into[i] = (byte) ('0' + rest % 10);
+        rest /= 10;
+      }
+    }
+  }
+}
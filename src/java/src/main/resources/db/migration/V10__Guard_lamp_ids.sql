@@ -0,0 +1,57 @@
+-- Keep lamp IDs unique across the partitions of lamps
+-- Version: 10.0.0
+--
+-- Each partition of lamps (migration V5) has its own primary key, so nothing in the table stops an
+-- insert, or a row moved back to lamps_active, from reusing the ID of a lamp in the other
+-- partition. lamp_ids holds every lamp ID under one primary key and is kept by triggers: a row
+-- that enters a partition adds its ID, a row that leaves one removes it. Postgres runs a soft
+-- delete, which moves the row, as a delete and an insert, so its ID is removed and added back in
+-- the same statement. A duplicate fails its statement on lamp_ids_pkey; a concurrent one waits for
+-- the other transaction and fails once it commits. Status updates do not touch lamp_ids.
+--
+-- While an unpartitioned table is still copied online, the triggers go on lamps_partitioned and
+-- become the triggers of lamps when it is renamed at cutover. The old table has its own primary
+-- key until then.
+--
+-- Existing IDs are copied under a lock that blocks lamp writes until the migration commits.
+
+CREATE TABLE IF NOT EXISTS lamp_ids (
+    id UUID PRIMARY KEY
+);
+
+COMMENT ON TABLE lamp_ids IS 'ID of every row of the partitioned lamps table, unique across its partitions';
+
+CREATE OR REPLACE FUNCTION lamp_ids_sync() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM lamp_ids WHERE id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO lamp_ids (id) VALUES (NEW.id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION lamp_ids_clear() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE lamp_ids;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    partitioned REGCLASS := coalesce(to_regclass('lamps_partitioned'), 'lamps'::regclass);
+BEGIN
+    EXECUTE format('LOCK TABLE %s IN SHARE ROW EXCLUSIVE MODE', partitioned);
+    EXECUTE format('INSERT INTO lamp_ids (id) SELECT id FROM %s', partitioned);
+    EXECUTE format(
+        'CREATE TRIGGER lamp_ids_sync AFTER INSERT OR DELETE OR UPDATE OF id ON %s '
+            || 'FOR EACH ROW EXECUTE FUNCTION lamp_ids_sync()',
+        partitioned);
+    EXECUTE format(
+        'CREATE TRIGGER lamp_ids_clear AFTER TRUNCATE ON %s '
+            || 'FOR EACH STATEMENT EXECUTE FUNCTION lamp_ids_clear()',
+        partitioned);
+END $$;
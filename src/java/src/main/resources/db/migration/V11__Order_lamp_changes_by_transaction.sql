@@ -0,0 +1,50 @@
+-- Order lamp changes by the transaction that wrote them for delta sync
+-- Version: 11.0.0
+--
+-- GET /v1/lamps/changes used to read changes by updated_at, which the application sets before the
+-- transaction commits: a write committing later than its updated_at could land behind a sync token
+-- already handed out and never be returned. change_seq holds the ID of the transaction that last
+-- wrote the row, set by a trigger, and sync only reads changes below the xmin of its snapshot:
+-- every transaction with a lower ID has ended, so nothing can still commit behind that bound.
+--
+-- An insert that gives a change_seq keeps it, so that the online copy of migration V5 carries the
+-- change order of the rows it copies over; every other write is stamped with its transaction.
+-- Existing rows get 1, an ID no ordinary transaction has, so they come before every later change;
+-- adding the column with that default and then changing it does not rewrite the table.
+--
+-- On a large unpartitioned table, build the index with CREATE INDEX CONCURRENTLY before migrating
+-- to avoid blocking writes while it is built; IF NOT EXISTS then skips it here. While an online
+-- copy into lamps_partitioned is pending, that table gets the column, trigger and index too.
+
+CREATE OR REPLACE FUNCTION lamps_change_seq() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' OR NEW.change_seq = 0 THEN
+        NEW.change_seq := pg_current_xact_id()::text::bigint;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE lamps ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE lamps ALTER COLUMN change_seq SET DEFAULT 0;
+
+COMMENT ON COLUMN lamps.change_seq IS 'ID of the transaction that last wrote the row, the change order of delta sync';
+
+CREATE TRIGGER lamps_change_seq BEFORE INSERT OR UPDATE ON lamps
+    FOR EACH ROW EXECUTE FUNCTION lamps_change_seq();
+
+CREATE INDEX IF NOT EXISTS idx_lamps_change_seq_id ON lamps (change_seq, id);
+
+DO $$
+BEGIN
+    IF to_regclass('lamps_partitioned') IS NOT NULL THEN
+        ALTER TABLE lamps_partitioned ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT 1;
+        ALTER TABLE lamps_partitioned ALTER COLUMN change_seq SET DEFAULT 0;
+
+        CREATE TRIGGER lamps_change_seq BEFORE INSERT OR UPDATE ON lamps_partitioned
+            FOR EACH ROW EXECUTE FUNCTION lamps_change_seq();
+
+        CREATE INDEX IF NOT EXISTS lamps_partitioned_change_seq_id_idx
+        ON lamps_partitioned (change_seq, id);
+    END IF;
+END $$;
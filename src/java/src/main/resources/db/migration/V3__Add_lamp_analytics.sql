@@ -0,0 +1,27 @@
+-- Precomputed lamp analytics, maintained incrementally by the application
+-- Version: 3.0.0
+
+-- Lamps turned on and off per UTC hour
+CREATE TABLE IF NOT EXISTS lamp_state_changes_hourly (
+    hour_start TIMESTAMP WITH TIME ZONE PRIMARY KEY,
+    turned_on BIGINT NOT NULL DEFAULT 0,
+    turned_off BIGINT NOT NULL DEFAULT 0
+);
+
+COMMENT ON TABLE lamp_state_changes_hourly IS 'Lamp status transitions per UTC hour';
+COMMENT ON COLUMN lamp_state_changes_hourly.hour_start IS 'Start of the UTC hour';
+COMMENT ON COLUMN lamp_state_changes_hourly.turned_on IS 'Lamps created on or switched on during the hour';
+COMMENT ON COLUMN lamp_state_changes_hourly.turned_off IS 'Lamps created off or switched off during the hour';
+
+-- Active lamp counts, a single row
+CREATE TABLE IF NOT EXISTS lamp_status_totals (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    lamps BIGINT NOT NULL DEFAULT 0,
+    lamps_on BIGINT NOT NULL DEFAULT 0,
+    backfilled_at TIMESTAMP WITH TIME ZONE
+);
+
+COMMENT ON TABLE lamp_status_totals IS 'Active lamp counts, kept in step with lamp writes';
+COMMENT ON COLUMN lamp_status_totals.backfilled_at IS 'When the counters were seeded from the lamps table, NULL until then';
+
+INSERT INTO lamp_status_totals (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
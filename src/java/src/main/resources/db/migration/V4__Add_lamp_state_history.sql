@@ -0,0 +1,35 @@
+-- Append-only log of lamp status transitions, range partitioned by month
+-- Version: 4.0.0
+
+CREATE TABLE IF NOT EXISTS lamp_state_history (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    lamp_id UUID NOT NULL,
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    previous_status BOOLEAN,
+    status BOOLEAN,
+    PRIMARY KEY (lamp_id, changed_at, id)
+) PARTITION BY RANGE (changed_at);
+
+COMMENT ON TABLE lamp_state_history IS 'Lamp status transitions; monthly partitions lamp_state_history_pYYYYMM are created and dropped by the application';
+COMMENT ON COLUMN lamp_state_history.lamp_id IS 'Lamp whose status changed';
+COMMENT ON COLUMN lamp_state_history.changed_at IS 'When the transition was written';
+COMMENT ON COLUMN lamp_state_history.previous_status IS 'Status before the transition, NULL for a create';
+COMMENT ON COLUMN lamp_state_history.status IS 'Status after the transition, NULL for a delete';
+
+-- Catches rows outside the monthly partitions, so a missed maintenance run never fails a write
+CREATE TABLE IF NOT EXISTS lamp_state_history_default PARTITION OF lamp_state_history DEFAULT;
+
+-- Current and next month; later ones are created ahead of time by the application
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..1 LOOP
+        month_start := (date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => i))::DATE;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF lamp_state_history FOR VALUES FROM (%L) TO (%L)',
+            'lamp_state_history_p' || to_char(month_start, 'YYYYMM'),
+            month_start::TEXT || ' 00:00:00+00',
+            (month_start + INTERVAL '1 month')::DATE::TEXT || ' 00:00:00+00');
+    END LOOP;
+END $$;
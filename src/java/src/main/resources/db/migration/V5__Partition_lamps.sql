@@ -0,0 +1,75 @@
+-- Partition the lamps table into active and soft-deleted rows
+-- Version: 5.0.0
+--
+-- The partition key is the expression (deleted_at IS NULL), so every query that filters on
+-- deleted_at IS NULL (all entity queries, through @Where) only touches lamps_active, and soft
+-- deletes move rows into lamps_deleted. Each partition has its own primary key on id: Postgres
+-- cannot enforce a primary key across partitions keyed by an expression, and ids are random UUIDs.
+--
+-- Tables of up to 100,000 lamps are copied and swapped right here. Larger ones are copied online
+-- by the application (lamp.partitioning.migrate=true): this migration only creates the new table,
+-- a trigger that mirrors every write on the old table into it, and a progress row.
+
+CREATE TABLE IF NOT EXISTS lamps_partitioned (
+    id UUID NOT NULL DEFAULT GEN_RANDOM_UUID(),
+    is_on BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted_at TIMESTAMP WITH TIME ZONE
+) PARTITION BY LIST ((deleted_at IS NULL));
+
+CREATE TABLE IF NOT EXISTS lamps_active PARTITION OF lamps_partitioned FOR VALUES IN (TRUE);
+CREATE TABLE IF NOT EXISTS lamps_deleted PARTITION OF lamps_partitioned FOR VALUES IN (FALSE);
+
+ALTER TABLE lamps_active ADD CONSTRAINT lamps_active_pkey PRIMARY KEY (id);
+ALTER TABLE lamps_deleted ADD CONSTRAINT lamps_deleted_pkey PRIMARY KEY (id);
+
+-- Only active rows are listed and filtered, so these need no partial predicate any more
+CREATE INDEX IF NOT EXISTS lamps_active_created_at_id_idx ON lamps_active (created_at ASC, id ASC);
+CREATE INDEX IF NOT EXISTS lamps_active_is_on_idx ON lamps_active (is_on);
+CREATE INDEX IF NOT EXISTS lamps_deleted_deleted_at_idx ON lamps_deleted (deleted_at);
+
+COMMENT ON TABLE lamps_partitioned IS 'Stores lamp entities and their current status, partitioned into active and soft-deleted rows';
+COMMENT ON COLUMN lamps_partitioned.id IS 'Unique identifier for the lamp';
+COMMENT ON COLUMN lamps_partitioned.is_on IS 'Current status of the lamp (true = ON, false = OFF)';
+COMMENT ON COLUMN lamps_partitioned.created_at IS 'Timestamp when the lamp was created';
+COMMENT ON COLUMN lamps_partitioned.updated_at IS 'Timestamp when the lamp was last updated (managed by application layer)';
+COMMENT ON COLUMN lamps_partitioned.deleted_at IS 'Timestamp when the lamp was soft deleted, NULL if active';
+
+-- Mirrors writes on the unpartitioned table while it is copied online. Delete and re-insert,
+-- since a soft delete moves the row to the other partition and there is no global unique key.
+CREATE OR REPLACE FUNCTION lamps_partitioning_sync() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM lamps_partitioned WHERE id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO lamps_partitioned (id, is_on, created_at, updated_at, deleted_at)
+        VALUES (NEW.id, NEW.is_on, NEW.created_at, NEW.updated_at, NEW.deleted_at);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    IF (SELECT count(*) FROM (SELECT 1 FROM lamps LIMIT 100001) AS sample) <= 100000 THEN
+        LOCK TABLE lamps IN ACCESS EXCLUSIVE MODE;
+        INSERT INTO lamps_partitioned (id, is_on, created_at, updated_at, deleted_at)
+        SELECT id, is_on, created_at, updated_at, deleted_at FROM lamps;
+        DROP TABLE lamps;
+        ALTER TABLE lamps_partitioned RENAME TO lamps;
+        DROP FUNCTION lamps_partitioning_sync();
+    ELSE
+        CREATE TABLE lamps_partitioning_progress (
+            id SMALLINT PRIMARY KEY CHECK (id = 1),
+            last_id UUID,
+            copied_at TIMESTAMP WITH TIME ZONE
+        );
+        COMMENT ON TABLE lamps_partitioning_progress IS 'Cursor of the online copy of lamps into lamps_partitioned; dropped at cutover';
+        INSERT INTO lamps_partitioning_progress (id) VALUES (1);
+        CREATE TRIGGER lamps_partitioning_sync
+            AFTER INSERT OR UPDATE OR DELETE ON lamps
+            FOR EACH ROW EXECUTE FUNCTION lamps_partitioning_sync();
+    END IF;
+END $$;
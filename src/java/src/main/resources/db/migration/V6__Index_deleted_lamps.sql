@@ -0,0 +1,16 @@
+-- Index soft-deleted lamps for the background purge
+-- Version: 6.0.0
+--
+-- The purge hard deletes lamps soft deleted longer than lamp.purge.retention-days ago, oldest
+-- first. A partitioned lamps table (migration V5) already indexes deleted_at on lamps_deleted; an
+-- unpartitioned one, still being copied online, gets a partial index so each batch does not scan
+-- the whole table.
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'lamps'::regclass) = 'r' THEN
+        CREATE INDEX IF NOT EXISTS idx_lamps_deleted_at
+        ON lamps (deleted_at)
+        WHERE deleted_at IS NOT NULL;
+    END IF;
+END $$;
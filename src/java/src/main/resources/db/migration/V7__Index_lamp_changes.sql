@@ -0,0 +1,20 @@
+-- Index lamps in change order for delta sync
+-- Version: 7.0.0
+--
+-- GET /v1/lamps/changes reads lamps, soft-deleted ones included, after a (updated_at, id) position
+-- in that order, so a sync reads only the rows that changed since the client's token.
+--
+-- On a large unpartitioned table, build the index with CREATE INDEX CONCURRENTLY before migrating
+-- to avoid blocking writes while it is built; IF NOT EXISTS then skips it here. While an online
+-- copy into lamps_partitioned is pending (migration V5), that table gets the index too, so it is
+-- in place once the copy is swapped in.
+
+CREATE INDEX IF NOT EXISTS idx_lamps_updated_at_id ON lamps (updated_at, id);
+
+DO $$
+BEGIN
+    IF to_regclass('lamps_partitioned') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS lamps_partitioned_updated_at_id_idx
+        ON lamps_partitioned (updated_at, id);
+    END IF;
+END $$;
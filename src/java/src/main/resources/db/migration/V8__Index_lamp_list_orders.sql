@@ -0,0 +1,48 @@
+-- Index active lamps for the filters and orders of GET /v1/lamps
+-- Version: 8.0.0
+--
+-- listLamps filters by status and by creation and update time ranges, ordered by created_at or
+-- updated_at, ascending or descending, then by id, and pages by keyset. Every combination is a
+-- range scan, forwards or backwards, of one of these indexes of active lamps:
+--
+--   (created_at, id)         no status filter, creation order  (V2; V5 on lamps_active)
+--   (updated_at, id)         no status filter, update order    (V7; below for unpartitioned lamps)
+--   (is_on, created_at, id)  status filter, creation order     (below)
+--   (is_on, updated_at, id)  status filter, update order       (below)
+--
+-- The status indexes lead with is_on, so they also serve findByStatus; the single-column is_on
+-- indexes of V2 and V5 are dropped rather than maintained on every write for nothing.
+--
+-- lamps_active exists once migration V5 has run, as a partition of lamps or, while an online copy
+-- is pending, of lamps_partitioned; it only holds active rows, so its indexes need no predicate.
+-- An unpartitioned lamps table gets partial indexes instead. On a large unpartitioned table, build
+-- them with CREATE INDEX CONCURRENTLY before migrating to avoid blocking writes; IF NOT EXISTS then
+-- skips them here.
+
+DO $$
+BEGIN
+    IF to_regclass('lamps_active') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS lamps_active_is_on_created_at_id_idx
+        ON lamps_active (is_on, created_at, id);
+
+        CREATE INDEX IF NOT EXISTS lamps_active_is_on_updated_at_id_idx
+        ON lamps_active (is_on, updated_at, id);
+    END IF;
+
+    IF (SELECT relkind FROM pg_class WHERE oid = 'lamps'::regclass) = 'r' THEN
+        CREATE INDEX IF NOT EXISTS idx_lamps_active_is_on_created_at_id
+        ON lamps (is_on, created_at, id)
+        WHERE deleted_at IS NULL;
+
+        CREATE INDEX IF NOT EXISTS idx_lamps_active_is_on_updated_at_id
+        ON lamps (is_on, updated_at, id)
+        WHERE deleted_at IS NULL;
+
+        CREATE INDEX IF NOT EXISTS idx_lamps_active_updated_at_id
+        ON lamps (updated_at, id)
+        WHERE deleted_at IS NULL;
+    END IF;
+END $$;
+
+DROP INDEX IF EXISTS idx_lamps_active_is_on;
+DROP INDEX IF EXISTS lamps_active_is_on_idx;
@@ -0,0 +1,32 @@
+-- Cover the default page of GET /v1/lamps with the creation order index
+-- Version: 9.0.0
+--
+-- The default page reads every column of the active lamps in (created_at, id) order from an offset.
+-- With is_on and updated_at stored in the leaf entries of that index, Postgres answers it with an
+-- index-only scan and visits the heap only for pages not yet all-visible in the visibility map.
+--
+-- On lamps_active the statement still filters on deleted_at IS NULL, which is not an index
+-- predicate there, so deleted_at is included too; it is always NULL in that partition and costs a
+-- bit of the null bitmap. An unpartitioned lamps table gets a partial index instead, which implies
+-- that filter. Both replace the plain (created_at, id) indexes of migrations V2 and V5.
+--
+-- On a large unpartitioned table, build the index with CREATE INDEX CONCURRENTLY before migrating
+-- to avoid blocking writes; IF NOT EXISTS then skips it here.
+
+DO $$
+BEGIN
+    IF to_regclass('lamps_active') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS lamps_active_created_at_id_covering_idx
+        ON lamps_active (created_at, id) INCLUDE (is_on, updated_at, deleted_at);
+
+        DROP INDEX IF EXISTS lamps_active_created_at_id_idx;
+    END IF;
+
+    IF (SELECT relkind FROM pg_class WHERE oid = 'lamps'::regclass) = 'r' THEN
+        CREATE INDEX IF NOT EXISTS idx_lamps_active_created_at_id_covering
+        ON lamps (created_at, id) INCLUDE (is_on, updated_at)
+        WHERE deleted_at IS NULL;
+
+        DROP INDEX IF EXISTS idx_lamps_active_created_at_id;
+    END IF;
+END $$;
@@ -0,0 +1,181 @@
+package org.openapitools.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.controller.LampsController;
+import org.openapitools.model.Lamp;
+import org.openapitools.model.LampCreate;
+import org.openapitools.model.LampUpdate;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/** Tests for CBOR content negotiation on the lamp endpoints. */
+@WebMvcTest(LampsController.class)
+class ContentNegotiationConfigurationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private MappingJackson2CborHttpMessageConverter cborConverter;
+
+  @MockBean private LampService lampService;
+
+  private final CBORMapper cborMapper = new CBORMapper();
+
+  private UUID testLampId;
+  private Lamp testLamp;
+
+  @BeforeEach
+  void setUp() {
+    testLampId = UUID.randomUUID();
+    OffsetDateTime now = OffsetDateTime.parse("2026-01-01T10:00:00Z");
+    testLamp = new Lamp(testLampId, true, now, now);
+  }
+
+  @Test
+  void getLamp_AcceptingCbor_ShouldReturnCbor() throws Exception {
+    // Given
+    when(lampService.findById(testLampId)).thenReturn(Optional.of(testLamp));
+
+    // When
+    byte[] body = perform(get("/v1/lamps/{lampId}", testLampId).accept(MediaType.APPLICATION_CBOR));
+
+    // Then
+    Lamp lamp = cborConverter.getObjectMapper().readValue(body, Lamp.class);
+    assertThat(lamp.getId()).isEqualTo(testLampId);
+    assertThat(lamp.getStatus()).isTrue();
+    assertThat(lamp.getCreatedAt()).isEqualTo(testLamp.getCreatedAt());
+  }
+
+  @Test
+  void getLamp_WithoutAccept_ShouldStillReturnJson() throws Exception {
+    // Given
+    when(lampService.findById(testLampId)).thenReturn(Optional.of(testLamp));
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(get("/v1/lamps/{lampId}", testLampId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Then
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.createdAt").value("2026-01-01T10:00:00Z"));
+  }
+
+  @Test
+  void listLamps_AcceptingCbor_ShouldBeSmallerThanJson() throws Exception {
+    // Given
+    List<Lamp> lamps =
+        List.of(testLamp, new Lamp(UUID.randomUUID(), false), new Lamp(UUID.randomUUID(), true));
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
+        .thenReturn(new LampService.PagedLampsResult(lamps, true, Optional.of("3")));
+
+    // When
+    byte[] cbor = perform(get("/v1/lamps").accept(MediaType.APPLICATION_CBOR));
+    byte[] json = perform(get("/v1/lamps").accept(MediaType.APPLICATION_JSON));
+
+    // Then
+    ListLamps200Response page =
+        cborConverter.getObjectMapper().readValue(cbor, ListLamps200Response.class);
+    assertThat(page.getData()).hasSize(3);
+    assertThat(page.getNextCursor().get()).isEqualTo("3");
+    assertThat(cbor.length).isLessThan(json.length);
+  }
+
+  @Test
+  void createLamp_WithCborBody_ShouldCreateLamp() throws Exception {
+    // Given
+    LampCreate lampCreate = new LampCreate();
+    lampCreate.setStatus(true);
+    when(lampService.create(any(Lamp.class))).thenReturn(testLamp);
+
+    // When
+    byte[] body =
+        perform(
+            post("/v1/lamps")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(lampCreate))
+                .accept(MediaType.APPLICATION_CBOR));
+
+    // Then: UUIDs travel as 16-byte binary strings rather than 36 characters of text
+    assertThat(cborMapper.readTree(body).get("id").isBinary()).isTrue();
+    assertThat(cborConverter.getObjectMapper().readValue(body, Lamp.class).getId())
+        .isEqualTo(testLampId);
+  }
+
+  @Test
+  void updateLamp_WithCborBodyAndJsonResponse_ShouldMixFormats() throws Exception {
+    // Given
+    LampUpdate lampUpdate = new LampUpdate();
+    lampUpdate.setStatus(false);
+    when(lampService.update(any(UUID.class), any(Lamp.class)))
+        .thenReturn(new Lamp(testLampId, false));
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                put("/v1/lamps/{lampId}", testLampId)
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .content(cborMapper.writeValueAsBytes(lampUpdate))
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Then
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.status").value(false));
+  }
+
+  @Test
+  void createLamp_WithUnsupportedBody_ShouldReturn415() throws Exception {
+    // When & Then
+    mockMvc
+        .perform(
+            post("/v1/lamps")
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<lamp/>")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnsupportedMediaType());
+  }
+
+  private byte[] perform(final MockHttpServletRequestBuilder request) throws Exception {
+    MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    MediaType accept = MediaType.parseMediaType(result.getRequest().getHeader("Accept"));
+    return mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(content().contentType(accept))
+        .andReturn()
+        .getResponse()
+        .getContentAsByteArray();
+  }
+}
@@ -0,0 +1,95 @@
+package org.openapitools.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for DatabaseErrorTracker. */
+class DatabaseErrorTrackerTest {
+
+  private final AtomicLong clock = new AtomicLong(1_000);
+
+  private final DatabaseErrorTracker tracker = new DatabaseErrorTracker(10, clock::get);
+
+  @Test
+  void errorsInWindow_WithNoErrors_ShouldBeZero() {
+    assertThat(tracker.errorsInWindow()).isZero();
+  }
+
+  @Test
+  void errorsInWindow_ShouldCountErrorsAcrossBuckets() {
+    tracker.record();
+    tracker.record();
+    clock.addAndGet(3);
+    tracker.record();
+
+    assertThat(tracker.errorsInWindow()).isEqualTo(3);
+  }
+
+  @Test
+  void errorsInWindow_ShouldDropErrorsOlderThanWindow() {
+    tracker.record();
+    clock.addAndGet(5);
+    tracker.record();
+    clock.addAndGet(6);
+
+    assertThat(tracker.errorsInWindow()).isEqualTo(1);
+  }
+
+  @Test
+  void record_ShouldResetReusedBucket() {
+    tracker.record();
+    tracker.record();
+    clock.addAndGet(10);
+    tracker.record();
+
+    assertThat(tracker.errorsInWindow()).isEqualTo(1);
+  }
+
+  @Test
+  void record_FromManyThreadsWhileSecondsRollOver_ShouldKeepEveryError() throws Exception {
+    // Given: a window long enough to hold every second of the run
+    final int threads = 8;
+    final int errorsPerThread = 50_000;
+    final DatabaseErrorTracker longWindow = new DatabaseErrorTracker(20_000, clock::get);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> recorders = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final boolean ticks = t == 0;
+      final Thread recorder =
+          new Thread(
+              () -> {
+                awaitQuietly(start);
+                for (int i = 1; i <= errorsPerThread; i++) {
+                  longWindow.record();
+                  if (ticks && i % 5 == 0) {
+                    clock.incrementAndGet();
+                  }
+                }
+              });
+      recorder.start();
+      recorders.add(recorder);
+    }
+
+    // When
+    start.countDown();
+    for (final Thread recorder : recorders) {
+      recorder.join();
+    }
+
+    // Then
+    assertThat(longWindow.errorsInWindow()).isEqualTo((long) threads * errorsPerThread);
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.openapitools.configuration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import jakarta.servlet.http.HttpServlet;
 import org.junit.jupiter.api.Test;
@@ -13,10 +14,12 @@ class HealthConfigurationTest {
   void healthServletRegistration_ShouldConfigureServletCorrectly() {
     HealthConfiguration config = new HealthConfiguration();
 
-    ServletRegistrationBean<HttpServlet> registration = config.healthServletRegistration();
+    ServletRegistrationBean<HttpServlet> registration =
+        config.healthServletRegistration(mock(HealthSampler.class));
 
     assertThat(registration).isNotNull();
     assertThat(registration.getServletName()).isEqualTo("healthServlet");
-    assertThat(registration.getUrlMappings()).contains("/health");
+    assertThat(registration.getUrlMappings())
+        .containsExactlyInAnyOrder("/health", "/health/live", "/health/ready");
   }
 }
@@ -0,0 +1,157 @@
+package org.openapitools.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/** Unit tests for HealthSampler. */
+class HealthSamplerTest {
+
+  private JitWarmupRunner warmupRunner;
+  private DatabaseErrorTracker errorTracker;
+  private HikariDataSource dataSource;
+  private HikariPoolMXBean pool;
+
+  @BeforeEach
+  void setUp() {
+    warmupRunner = mock(JitWarmupRunner.class);
+    when(warmupRunner.isWarmedUp()).thenReturn(true);
+    errorTracker = new DatabaseErrorTracker(10);
+    dataSource = mock(HikariDataSource.class);
+    pool = mock(HikariPoolMXBean.class);
+    when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+    when(pool.getTotalConnections()).thenReturn(5);
+  }
+
+  private HealthSampler sampler(final DataSource source) {
+    final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    if (source != null) {
+      beanFactory.addBean("dataSource", source);
+    }
+    final ObjectProvider<DataSource> provider = beanFactory.getBeanProvider(DataSource.class);
+    return new HealthSampler(warmupRunner, provider, errorTracker, 1000, 10, 5, 1);
+  }
+
+  @Test
+  void readiness_BeforeFirstSample_ShouldBeWarmingUp() {
+    assertThat(sampler(null).readiness()).isEqualTo(HealthStatus.WARMING_UP);
+  }
+
+  @Test
+  void sample_InMemoryMode_ShouldBeReady() {
+    HealthSampler sampler = sampler(null);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.OK);
+  }
+
+  @Test
+  void sample_WhileWarmingUp_ShouldNotBeReady() {
+    when(warmupRunner.isWarmedUp()).thenReturn(false);
+    HealthSampler sampler = sampler(null);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.WARMING_UP);
+  }
+
+  @Test
+  void sample_WhenThreadsAwaitConnections_ShouldReportPoolSaturated() {
+    when(pool.getThreadsAwaitingConnection()).thenReturn(11);
+    HealthSampler sampler = sampler(dataSource);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.POOL_SATURATED);
+  }
+
+  @Test
+  void sample_WhenPoolHasNoConnections_ShouldReportDatabaseUnreachable() {
+    when(pool.getTotalConnections()).thenReturn(0);
+    HealthSampler sampler = sampler(dataSource);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.DATABASE_UNREACHABLE);
+  }
+
+  @Test
+  void sample_WhenPoolNotStarted_ShouldBeReady() {
+    when(dataSource.getHikariPoolMXBean()).thenReturn(null);
+    HealthSampler sampler = sampler(dataSource);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.OK);
+  }
+
+  @Test
+  void sample_WhenIdleConnectionIsValid_ShouldBeReady() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(pool.getIdleConnections()).thenReturn(2);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.isValid(1)).thenReturn(true);
+    HealthSampler sampler = sampler(dataSource);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.OK);
+  }
+
+  @Test
+  void sample_WhenProbeFails_ShouldReportUnreachableAndRecordError() throws SQLException {
+    when(pool.getIdleConnections()).thenReturn(2);
+    when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+    HealthSampler sampler = sampler(dataSource);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.DATABASE_UNREACHABLE);
+    assertThat(errorTracker.errorsInWindow()).isEqualTo(1);
+  }
+
+  @Test
+  void sample_WhenRecentErrorsExceedThreshold_ShouldReportDatabaseErrors() {
+    for (int i = 0; i < 6; i++) {
+      errorTracker.record();
+    }
+    HealthSampler sampler = sampler(null);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.DATABASE_ERRORS);
+  }
+
+  @Test
+  void sample_WhenEvaluationThrows_ShouldReportDatabaseUnreachable() {
+    when(dataSource.getHikariPoolMXBean()).thenThrow(new IllegalStateException("closed"));
+    HealthSampler sampler = sampler(dataSource);
+
+    sampler.sample();
+
+    assertThat(sampler.readiness()).isEqualTo(HealthStatus.DATABASE_UNREACHABLE);
+  }
+
+  @Test
+  void start_ShouldSampleImmediatelyAndStop() {
+    HealthSampler sampler = sampler(null);
+
+    sampler.start();
+    try {
+      assertThat(sampler.readiness()).isEqualTo(HealthStatus.OK);
+    } finally {
+      sampler.stop();
+    }
+  }
+}
@@ -25,4 +25,55 @@ class HealthServletTest {
     assertThat(response.getCharacterEncoding()).isEqualTo("UTF-8");
     assertThat(response.getContentAsString()).isEqualTo("{\"status\":\"ok\"}");
   }
+
+  @Test
+  void doGet_WhileWarmingUp_ShouldReturnServiceUnavailable() throws Exception {
+    // Given
+    HealthConfiguration.HealthServlet servlet =
+        new HealthConfiguration.HealthServlet(() -> HealthStatus.WARMING_UP);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    servlet.service(request, response);
+
+    // Then
+    assertThat(response.getStatus()).isEqualTo(503);
+    assertThat(response.getContentType()).startsWith("application/json");
+    assertThat(response.getContentAsString()).isEqualTo("{\"status\":\"warming_up\"}");
+  }
+
+  @Test
+  void doGet_Readiness_ShouldReportSampledStatus() throws Exception {
+    // Given
+    HealthConfiguration.HealthServlet servlet =
+        new HealthConfiguration.HealthServlet(() -> HealthStatus.POOL_SATURATED);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health/ready");
+    request.setServletPath("/health/ready");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    servlet.service(request, response);
+
+    // Then
+    assertThat(response.getStatus()).isEqualTo(503);
+    assertThat(response.getContentAsString()).isEqualTo("{\"status\":\"pool_saturated\"}");
+  }
+
+  @Test
+  void doGet_Liveness_ShouldReturnOkEvenWhenNotReady() throws Exception {
+    // Given
+    HealthConfiguration.HealthServlet servlet =
+        new HealthConfiguration.HealthServlet(() -> HealthStatus.DATABASE_UNREACHABLE);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health/live");
+    request.setServletPath("/health/live");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    servlet.service(request, response);
+
+    // Then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsString()).isEqualTo("{\"status\":\"ok\"}");
+  }
 }
@@ -0,0 +1,60 @@
+package org.openapitools.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** Unit tests for JitWarmupRunner; see JitWarmupIntegrationTest for warm-up against a server. */
+class JitWarmupRunnerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void disabledWarmup_ShouldBeReadyImmediately() {
+    JitWarmupRunner runner = new JitWarmupRunner(objectMapper, false, 1000, 1, 1, 5, 1);
+
+    runner.startWarmup(readyWithoutWebServer());
+
+    assertThat(runner.isWarmedUp()).isTrue();
+  }
+
+  @Test
+  void enabledWarmup_ShouldNotBeReadyBeforeRunning() {
+    JitWarmupRunner runner = new JitWarmupRunner(objectMapper, true, 1000, 1, 1, 5, 1);
+
+    assertThat(runner.isWarmedUp()).isFalse();
+  }
+
+  @Test
+  void startWarmup_WithoutAWebServer_ShouldBeReadyWithoutRunning() {
+    JitWarmupRunner runner = new JitWarmupRunner(objectMapper, true, 10_000, 2, 10, 0, 100);
+
+    runner.startWarmup(readyWithoutWebServer());
+
+    assertThat(runner.isWarmedUp()).isTrue();
+  }
+
+  @Test
+  void runWarmup_ShouldStillBecomeReadyWhenTheServerCannotBeReached() {
+    JitWarmupRunner runner = new JitWarmupRunner(objectMapper, true, 10_000, 2, 2, 0, 100);
+
+    runner.runWarmup(URI.create("http://localhost:1"));
+
+    assertThat(runner.isWarmedUp()).isTrue();
+  }
+
+  private static ApplicationReadyEvent readyWithoutWebServer() {
+    return new ApplicationReadyEvent(
+        mock(SpringApplication.class),
+        new String[0],
+        mock(ConfigurableApplicationContext.class),
+        Duration.ZERO);
+  }
+}
@@ -0,0 +1,129 @@
+package org.openapitools.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.openapitools.model.Lamp;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRows;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampPageStream;
+import org.openapitools.service.StreamedLampPage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class StreamedLampPageConverterTest {
+
+  private static final OffsetDateTime AT = OffsetDateTime.parse("2026-01-01T10:00:00.123456Z");
+
+  private final ObjectMapper objectMapper =
+      Jackson2ObjectMapperBuilder.json()
+          .mixIn(Lamp.class, LampJsonMixin.class)
+          .mixIn(ListLamps200Response.class, ListLampsJsonMixin.class)
+          .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+          .modulesToInstall(new JsonNullableModule())
+          .build();
+
+  private final StreamedLampPageConverter converter = new StreamedLampPageConverter(objectMapper);
+
+  private final List<Lamp> lamps =
+      List.of(
+          new Lamp(UUID.randomUUID(), true, AT, AT),
+          new Lamp(UUID.randomUUID(), false, AT.plusNanos(1_000), AT.plusSeconds(59)),
+          new Lamp(UUID.randomUUID(), true, AT.plusDays(400), AT.plusDays(400).withNano(0)));
+
+  @Test
+  void write_ShouldWriteTheBytesJacksonWritesForThePage() throws Exception {
+    // Given
+    final ListLamps200Response page = page(0, 2);
+    page.setTotal(3L);
+    page.setTotalExact(false);
+    final ListLamps200Response expected =
+        new ListLamps200Response()
+            .data(lamps.subList(0, 2))
+            .hasMore(true)
+            .nextCursor("2")
+            .total(3L)
+            .totalExact(false);
+    final MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+    // When
+    converter.write((StreamedLampPage) page, MediaType.APPLICATION_JSON, output);
+
+    // Then
+    assertThat(output.getBodyAsString(StandardCharsets.UTF_8))
+        .isEqualTo(objectMapper.writeValueAsString(expected));
+    assertThat(output.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+  }
+
+  @Test
+  void write_OfTheLastPage_ShouldWriteTheBytesJacksonWritesForIt() throws Exception {
+    // Given
+    final ListLamps200Response expected =
+        new ListLamps200Response().data(lamps.subList(2, 3)).hasMore(false);
+    final MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+    // When
+    converter.write((StreamedLampPage) page(2, 2), MediaType.APPLICATION_JSON, output);
+
+    // Then
+    assertThat(output.getBodyAsBytes()).isEqualTo(objectMapper.writeValueAsBytes(expected));
+  }
+
+  @Test
+  void jackson_ShouldSerializeThePageAsAnyOtherThroughItsGetters() throws Exception {
+    // Given
+    final ListLamps200Response expected =
+        new ListLamps200Response().data(lamps.subList(0, 2)).hasMore(true).nextCursor("2");
+
+    // When
+    final byte[] json = objectMapper.writeValueAsBytes(page(0, 2));
+
+    // Then
+    assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(expected));
+  }
+
+  @Test
+  void converter_ShouldOnlyWriteStreamedPagesAsJson() {
+    assertThat(converter.canWrite(StreamedLampPage.class, MediaType.APPLICATION_JSON)).isTrue();
+    assertThat(converter.canWrite(StreamedLampPage.class, null)).isTrue();
+    assertThat(converter.canWrite(StreamedLampPage.class, MediaType.APPLICATION_CBOR)).isFalse();
+    assertThat(converter.canWrite(ListLamps200Response.class, MediaType.APPLICATION_JSON))
+        .isFalse();
+    assertThat(converter.canRead(StreamedLampPage.class, MediaType.APPLICATION_JSON)).isFalse();
+  }
+
+  private ListLamps200Response page(final int offset, final int pageSize) {
+    final LampRows rows =
+        (from, limit, handler) -> {
+          final int end = Math.min(from + limit, lamps.size());
+          for (final Lamp lamp : lamps.subList(from, end)) {
+            handler.row(
+                lamp.getId().toString().getBytes(StandardCharsets.US_ASCII),
+                lamp.getStatus(),
+                micros(lamp.getCreatedAt()),
+                micros(lamp.getUpdatedAt()));
+          }
+          return end - from;
+        };
+    return new LampPageStream(Optional.of(rows), true, false)
+        .page(new LampPageCursor(offset, OptionalLong.empty()), pageSize)
+        .orElseThrow();
+  }
+
+  private static long micros(final OffsetDateTime time) {
+    return ChronoUnit.MICROS.between(Instant.EPOCH, time.toInstant());
+  }
+}
@@ -1,14 +1,19 @@
 package org.openapitools.controller;
 
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openapitools.configuration.HealthConfiguration.HealthController;
+import org.openapitools.configuration.HealthSampler;
+import org.openapitools.configuration.HealthStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -17,6 +22,13 @@ class HealthControllerTest {
 
   @Autowired private MockMvc mockMvc;
 
+  @MockBean private HealthSampler healthSampler;
+
+  @BeforeEach
+  void setUp() {
+    when(healthSampler.readiness()).thenReturn(HealthStatus.OK);
+  }
+
   @Test
   void health_ShouldReturnOkStatus() throws Exception {
     mockMvc
@@ -34,4 +46,34 @@ class HealthControllerTest {
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
         .andExpect(jsonPath("$.status").value("ok"));
   }
+
+  @Test
+  void health_WhileWarmingUp_ShouldReturnServiceUnavailable() throws Exception {
+    when(healthSampler.readiness()).thenReturn(HealthStatus.WARMING_UP);
+
+    mockMvc
+        .perform(get("/health").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.status").value("warming_up"));
+  }
+
+  @Test
+  void readiness_WhenPoolSaturated_ShouldReturnServiceUnavailable() throws Exception {
+    when(healthSampler.readiness()).thenReturn(HealthStatus.POOL_SATURATED);
+
+    mockMvc
+        .perform(get("/health/ready").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.status").value("pool_saturated"));
+  }
+
+  @Test
+  void liveness_ShouldReturnOkWhenNotReady() throws Exception {
+    when(healthSampler.readiness()).thenReturn(HealthStatus.DATABASE_UNREACHABLE);
+
+    mockMvc
+        .perform(get("/health/live").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("ok"));
+  }
 }
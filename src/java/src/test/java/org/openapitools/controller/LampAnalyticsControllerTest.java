@@ -0,0 +1,102 @@
+package org.openapitools.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openapitools.service.LampAnalytics;
+import org.openapitools.service.LampAnalytics.HourOfDayUsage;
+import org.openapitools.service.LampAnalytics.HourlyStateChanges;
+import org.openapitools.service.LampAnalytics.StatusTotals;
+import org.openapitools.service.LampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(LampAnalyticsController.class)
+class LampAnalyticsControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private LampAnalytics analytics;
+
+  @MockBean private LampService lampService;
+
+  @Test
+  void getStatusTotals_ShouldReturnCounts() throws Exception {
+    // Given
+    when(analytics.statusTotals()).thenReturn(new StatusTotals(3, 2, 1));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/analytics/status"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalLamps").value(3))
+        .andExpect(jsonPath("$.lampsOn").value(2))
+        .andExpect(jsonPath("$.lampsOff").value(1));
+  }
+
+  @Test
+  void getStateChanges_ShouldPassRange() throws Exception {
+    // Given
+    Instant from = Instant.parse("2024-03-01T00:00:00Z");
+    Instant to = Instant.parse("2024-03-02T00:00:00Z");
+    when(analytics.stateChanges(from, to))
+        .thenReturn(
+            List.of(new HourlyStateChanges(OffsetDateTime.parse("2024-03-01T10:00:00Z"), 3, 2, 1)));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/v1/analytics/state-changes")
+                .param("from", "2024-03-01T01:00:00+01:00")
+                .param("to", "2024-03-02T00:00:00Z"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].changes").value(3))
+        .andExpect(jsonPath("$[0].turnedOn").value(2))
+        .andExpect(jsonPath("$[0].turnedOff").value(1));
+  }
+
+  @Test
+  void getUsageByHour_WithoutRange_ShouldDefaultToLastWeek() throws Exception {
+    // Given
+    when(analytics.usageByHourOfDay(any(), any()))
+        .thenReturn(List.of(new HourOfDayUsage(0, 1, 1, 0)));
+
+    // When
+    mockMvc
+        .perform(get("/v1/analytics/usage-by-hour"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].hourOfDay").value(0));
+
+    // Then
+    verify(analytics)
+        .usageByHourOfDay(
+            argThat(from -> from.isBefore(Instant.now().minus(Duration.ofDays(7)).plusSeconds(60))),
+            any());
+  }
+
+  @Test
+  void invalidRange_ShouldReturn400() throws Exception {
+    // Given
+    when(analytics.stateChanges(any(), any())).thenThrow(new IllegalArgumentException("range"));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/analytics/state-changes").param("from", "2024-03-02T00:00:00Z"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(get("/v1/analytics/state-changes").param("from", "yesterday"))
+        .andExpect(status().isBadRequest());
+  }
+}
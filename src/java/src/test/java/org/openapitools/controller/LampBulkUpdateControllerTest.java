@@ -0,0 +1,132 @@
+package org.openapitools.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.service.LampBulkUpdate;
+import org.openapitools.service.LampBulkUpdate.BulkJob;
+import org.openapitools.service.LampBulkUpdate.LampFilter;
+import org.openapitools.service.LampBulkUpdate.State;
+import org.openapitools.service.LampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(LampBulkUpdateController.class)
+class LampBulkUpdateControllerTest {
+
+  private static final UUID JOB = UUID.fromString("01ad9dac-6699-436d-9516-d473a6e62447");
+
+  private static final OffsetDateTime AT = OffsetDateTime.parse("2024-03-01T10:00:00Z");
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private LampBulkUpdate bulkUpdate;
+
+  @MockBean private LampService lampService;
+
+  @Test
+  void updateLampStatus_ShouldRunAndReturnTheFinishedJob() throws Exception {
+    // Given
+    final UUID lampId = UUID.randomUUID();
+    final LampFilter filter =
+        new LampFilter(
+            Optional.of(true), Optional.of(AT), Optional.empty(), Optional.of(List.of(lampId)));
+    when(bulkUpdate.run(filter, false)).thenReturn(job(State.SUCCEEDED, 3));
+
+    // When & Then
+    mockMvc
+        .perform(
+            post("/v1/lamps/bulk-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "{\"status\":false,\"currentStatus\":true,\"createdFrom\":\"2024-03-01T10:00:00Z\","
+                        + "\"ids\":[\""
+                        + lampId
+                        + "\"]}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(JOB.toString()))
+        .andExpect(jsonPath("$.state").value("SUCCEEDED"))
+        .andExpect(jsonPath("$.updated").value(3));
+  }
+
+  @Test
+  void updateLampStatus_WhenTheJobFails_ShouldReturn500WithProgress() throws Exception {
+    // Given
+    when(bulkUpdate.run(LampFilter.ALL, true)).thenReturn(job(State.FAILED, 1_000));
+
+    // When & Then
+    mockMvc
+        .perform(
+            post("/v1/lamps/bulk-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":true}"))
+        .andExpect(status().isInternalServerError())
+        .andExpect(jsonPath("$.updated").value(1_000));
+  }
+
+  @Test
+  void updateLampStatus_Async_ShouldQueueAJobAndPointToIt() throws Exception {
+    // Given
+    when(bulkUpdate.submit(LampFilter.ALL, false)).thenReturn(job(State.QUEUED, 0));
+
+    // When & Then
+    mockMvc
+        .perform(
+            post("/v1/lamps/bulk-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":false,\"async\":true}"))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/v1/lamps/bulk-status/jobs/" + JOB))
+        .andExpect(jsonPath("$.state").value("QUEUED"));
+  }
+
+  @Test
+  void updateLampStatus_WithoutStatus_ShouldReturn400() throws Exception {
+    mockMvc
+        .perform(
+            post("/v1/lamps/bulk-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"currentStatus\":true}"))
+        .andExpect(status().isBadRequest());
+    verify(bulkUpdate, never()).run(any(), anyBoolean());
+  }
+
+  @Test
+  void getBulkUpdateJob_ShouldReturnTheJobOr404() throws Exception {
+    // Given
+    when(bulkUpdate.job(JOB)).thenReturn(Optional.of(job(State.RUNNING, 2_000)));
+    when(bulkUpdate.job(eq(UUID.fromString("00000000-0000-0000-0000-000000000001"))))
+        .thenReturn(Optional.empty());
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/bulk-status/jobs/{jobId}", JOB))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.state").value("RUNNING"))
+        .andExpect(jsonPath("$.updated").value(2_000));
+    mockMvc
+        .perform(get("/v1/lamps/bulk-status/jobs/00000000-0000-0000-0000-000000000001"))
+        .andExpect(status().isNotFound());
+  }
+
+  private static BulkJob job(final State state, final long updated) {
+    return new BulkJob(JOB, state, false, updated, 1, AT, null, null);
+  }
+}
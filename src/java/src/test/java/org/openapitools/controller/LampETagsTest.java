@@ -0,0 +1,101 @@
+package org.openapitools.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.LampField;
+
+/** Unit tests for LampETags. */
+class LampETagsTest {
+
+  private final UUID lampId = UUID.randomUUID();
+
+  private final OffsetDateTime updatedAt = OffsetDateTime.parse("2026-01-01T10:00:00.123456Z");
+
+  @Test
+  void forLamp_ShouldBeStrongAndFollowUpdatesAndStatus() {
+    // Given
+    Lamp lamp = new Lamp(lampId, true, updatedAt, updatedAt);
+    Lamp sameLamp = new Lamp(lampId, true, updatedAt, updatedAt);
+    Lamp updated = new Lamp(lampId, true, updatedAt, updatedAt.plusNanos(1000));
+    Lamp switched = new Lamp(lampId, false, updatedAt, updatedAt);
+
+    // When
+    String tag = LampETags.forLamp(lamp);
+
+    // Then
+    assertThat(tag).startsWith("\"").endsWith("\"").contains(lampId.toString());
+    assertThat(LampETags.forLamp(sameLamp)).isEqualTo(tag);
+    assertThat(LampETags.forLamp(updated)).isNotEqualTo(tag);
+    assertThat(LampETags.forLamp(switched)).isNotEqualTo(tag);
+    assertThat(LampETags.forLamp(new Lamp(lampId, true))).isNotEqualTo(tag);
+  }
+
+  @Test
+  void forPage_WithVersion_ShouldBeWeakAndIncludeInstanceAndBounds() {
+    // When
+    String tag = LampETags.forPage("abc", 7, 25, 50);
+
+    // Then
+    assertThat(tag).isEqualTo("W/\"vabc.7.25.50\"");
+    assertThat(LampETags.forPage("abd", 7, 25, 50)).isNotEqualTo(tag);
+  }
+
+  @Test
+  void forPage_FromContent_ShouldChangeWithAnyLamp() {
+    // Given
+    Lamp first = new Lamp(lampId, true, updatedAt, updatedAt);
+    Lamp second = new Lamp(UUID.randomUUID(), false, updatedAt, updatedAt);
+    Lamp secondUpdated = new Lamp(second.getId(), true, updatedAt, updatedAt.plusSeconds(1));
+
+    // When
+    String tag = LampETags.forPage(List.of(first, second), true, 0, 2);
+
+    // Then
+    assertThat(tag).startsWith("W/\"h");
+    assertThat(LampETags.forPage(List.of(first, second), true, 0, 2)).isEqualTo(tag);
+    assertThat(LampETags.forPage(List.of(first, secondUpdated), true, 0, 2)).isNotEqualTo(tag);
+    assertThat(LampETags.forPage(List.of(first, second), false, 0, 2)).isNotEqualTo(tag);
+    assertThat(LampETags.forPage(List.of(second, first), true, 0, 2)).isNotEqualTo(tag);
+  }
+
+  @Test
+  void projected_ShouldNameTheProjectionUnlessItIsTheWholeLamp() {
+    // Given
+    Lamp lamp = new Lamp(lampId, true, updatedAt, updatedAt);
+    String tag = LampETags.forLamp(lamp);
+    Set<LampField> idAndStatus = EnumSet.of(LampField.ID, LampField.STATUS);
+
+    // When
+    String projected = LampETags.projected(tag, idAndStatus);
+
+    // Then
+    assertThat(LampETags.projected(tag, LampField.ALL)).isEqualTo(tag);
+    assertThat(projected).isEqualTo(tag.substring(0, tag.length() - 1) + ".f3\"");
+    assertThat(LampETags.projected(tag, EnumSet.of(LampField.ID, LampField.UPDATED_AT)))
+        .isNotEqualTo(projected);
+    assertThat(LampETags.projected("W/\"vabc.7.25.50\"", idAndStatus))
+        .isEqualTo("W/\"vabc.7.25.50.f3\"");
+  }
+
+  @Test
+  void counted_ShouldNameTheTotalAndWhetherItIsExact() {
+    // Given
+    String tag = LampETags.forPage("abc", 7, 25, 50);
+
+    // When
+    String counted = LampETags.counted(tag, new ActiveCount(1234, true));
+
+    // Then
+    assertThat(counted).isEqualTo("W/\"vabc.7.25.50.t1234x\"");
+    assertThat(LampETags.counted(tag, new ActiveCount(1234, false))).isNotEqualTo(counted);
+    assertThat(LampETags.counted(tag, new ActiveCount(1235, true))).isNotEqualTo(counted);
+  }
+}
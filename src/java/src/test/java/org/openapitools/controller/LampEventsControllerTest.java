@@ -0,0 +1,69 @@
+package org.openapitools.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.openapitools.service.LampChangeFeed;
+import org.openapitools.service.LampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@WebMvcTest(LampEventsController.class)
+class LampEventsControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private LampChangeFeed changeFeed;
+
+  @MockBean private LampService lampService;
+
+  @Test
+  void streamLampEvents_ShouldOpenEventStream() throws Exception {
+    // Given
+    when(changeFeed.subscribe(any())).thenReturn(Optional.of(new SseEmitter()));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/events").accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted());
+    verify(changeFeed).subscribe(Optional.empty());
+  }
+
+  @Test
+  void streamLampEvents_ShouldPassResumeToken() throws Exception {
+    // Given
+    when(changeFeed.subscribe(any())).thenReturn(Optional.of(new SseEmitter()));
+
+    // When
+    mockMvc.perform(
+        get("/v1/lamps/events")
+            .header("Last-Event-ID", "abc-7")
+            .accept(MediaType.TEXT_EVENT_STREAM));
+
+    // Then
+    verify(changeFeed).subscribe(Optional.of("abc-7"));
+  }
+
+  @Test
+  void streamLampEvents_AtSubscriberLimit_ShouldReturn503() throws Exception {
+    // Given
+    when(changeFeed.subscribe(any())).thenReturn(Optional.empty());
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/events").accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "5"));
+  }
+}
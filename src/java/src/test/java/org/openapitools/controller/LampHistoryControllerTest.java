@@ -0,0 +1,82 @@
+package org.openapitools.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampStateHistory;
+import org.openapitools.service.LampStateHistory.LampStateChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(LampHistoryController.class)
+class LampHistoryControllerTest {
+
+  private static final UUID LAMP = UUID.fromString("01ad9dac-6699-436d-9516-d473a6e62447");
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private LampStateHistory history;
+
+  @MockBean private LampService lampService;
+
+  @Test
+  void getLampHistory_ShouldPassRangeAndLimit() throws Exception {
+    // Given
+    when(history.history(
+            LAMP, Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-02T00:00:00Z"), 5))
+        .thenReturn(
+            List.of(
+                new LampStateChange(OffsetDateTime.parse("2024-03-01T10:00:00Z"), false, true)));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/v1/lamps/{lampId}/history", LAMP)
+                .param("from", "2024-03-01T00:00:00Z")
+                .param("to", "2024-03-02T00:00:00Z")
+                .param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].previousStatus").value(false))
+        .andExpect(jsonPath("$[0].status").value(true));
+  }
+
+  @Test
+  void getLampHistory_WithoutParameters_ShouldUseDefaults() throws Exception {
+    // Given
+    when(history.history(eq(LAMP), any(), any(), eq(100))).thenReturn(List.of());
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/{lampId}/history", LAMP))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$").isEmpty());
+  }
+
+  @Test
+  void getLampHistory_WithInvalidParameters_ShouldReturn400() throws Exception {
+    // Given
+    when(history.history(eq(LAMP), any(), any(), anyInt()))
+        .thenThrow(new IllegalArgumentException("limit"));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/{lampId}/history", LAMP).param("limit", "0"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(get("/v1/lamps/{lampId}/history", "not-a-uuid"))
+        .andExpect(status().isBadRequest());
+  }
+}
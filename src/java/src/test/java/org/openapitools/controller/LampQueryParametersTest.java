@@ -0,0 +1,38 @@
+package org.openapitools.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.ListSort;
+
+/** Unit tests for LampQueryParameters. */
+class LampQueryParametersTest {
+
+  @Test
+  void sort_ShouldNameEachOrder() {
+    // When & Then
+    assertThat(LampQueryParameters.sort("createdAt")).isEqualTo(ListSort.CREATED_AT);
+    assertThat(LampQueryParameters.sort("-createdAt")).isEqualTo(ListSort.CREATED_AT_DESC);
+    assertThat(LampQueryParameters.sort("updatedAt")).isEqualTo(ListSort.UPDATED_AT);
+    assertThat(LampQueryParameters.sort("-updatedAt")).isEqualTo(ListSort.UPDATED_AT_DESC);
+    assertThatThrownBy(() -> LampQueryParameters.sort("status"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid query parameter 'sort'");
+  }
+
+  @Test
+  void fields_ShouldParseTheApiNamesAndAlwaysIncludeTheId() {
+    // When & Then
+    assertThat(LampQueryParameters.fields(List.of("updatedAt", " status")))
+        .containsExactly(LampField.ID, LampField.STATUS, LampField.UPDATED_AT);
+    assertThat(LampQueryParameters.fields(List.of("createdAt", "id")))
+        .containsExactly(LampField.ID, LampField.CREATED_AT);
+    assertThat(LampQueryParameters.fields(List.of())).containsExactly(LampField.ID);
+    assertThatThrownBy(() -> LampQueryParameters.fields(List.of("deletedAt")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid query parameter 'fields'");
+  }
+}
@@ -0,0 +1,89 @@
+package org.openapitools.controller;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampSync;
+import org.openapitools.service.LampSync.LampChange;
+import org.openapitools.service.LampSync.LampChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(LampSyncController.class)
+class LampSyncControllerTest {
+
+  private static final UUID LAMP = UUID.fromString("01ad9dac-6699-436d-9516-d473a6e62447");
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private LampSync sync;
+
+  @MockBean private LampService lampService;
+
+  @Test
+  void getLampChanges_ShouldPassTokenAndLimit() throws Exception {
+    // Given
+    final OffsetDateTime at = OffsetDateTime.parse("2024-03-01T10:00:00Z");
+    when(sync.changesSince(Optional.of("abc"), 5))
+        .thenReturn(
+            Optional.of(
+                new LampChanges(List.of(new LampChange(LAMP, true, at, at, true)), "def", true)));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/changes").param("syncToken", "abc").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes[0].id").value(LAMP.toString()))
+        .andExpect(jsonPath("$.changes[0].deleted").value(true))
+        .andExpect(jsonPath("$.syncToken").value("def"))
+        .andExpect(jsonPath("$.hasMore").value(true));
+  }
+
+  @Test
+  void getLampChanges_WithoutParameters_ShouldStartAFullSync() throws Exception {
+    // Given
+    when(sync.changesSince(Optional.empty(), 100))
+        .thenReturn(Optional.of(new LampChanges(List.of(), "abc", false)));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/changes"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes").isEmpty());
+  }
+
+  @Test
+  void getLampChanges_WithExpiredToken_ShouldReturn410() throws Exception {
+    // Given
+    when(sync.changesSince(Optional.of("old"), 100)).thenReturn(Optional.empty());
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/changes").param("syncToken", "old"))
+        .andExpect(status().isGone());
+  }
+
+  @Test
+  void getLampChanges_WithInvalidParameters_ShouldReturn400() throws Exception {
+    // Given
+    when(sync.changesSince(eq(Optional.of("bad")), anyInt()))
+        .thenThrow(new IllegalArgumentException("token"));
+
+    // When & Then
+    mockMvc
+        .perform(get("/v1/lamps/changes").param("syncToken", "bad"))
+        .andExpect(status().isBadRequest());
+  }
+}
@@ -1,40 +1,77 @@
 package org.openapitools.controller;
 
+import static org.hamcrest.Matchers.endsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openapitools.exception.LampNotFoundException;
 import org.openapitools.model.Lamp;
+import org.openapitools.model.LampBatchGetRequest;
 import org.openapitools.model.LampCreate;
 import org.openapitools.model.LampUpdate;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.openapitools.repository.LampRows;
+import org.openapitools.service.LampCollectionVersion;
+import org.openapitools.service.LampCounts;
+import org.openapitools.service.LampKeysetCursor;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampPageStream;
 import org.openapitools.service.LampService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 @WebMvcTest(LampsController.class)
 class LampsControllerTest {
 
+  private static final OffsetDateTime AT = OffsetDateTime.parse("2024-03-01T10:00:00Z");
+
   @Autowired private MockMvc mockMvc;
 
   @MockBean private LampService lampService;
 
+  @MockBean private LampCollectionVersion collectionVersion;
+
+  @MockBean private LampCounts lampCounts;
+
+  @MockBean private LampPageStream pageStream;
+
   @Autowired private ObjectMapper objectMapper;
 
+  @Autowired private MappingJackson2CborHttpMessageConverter cborConverter;
+
   private UUID testLampId;
   private Lamp testLamp;
 
@@ -49,7 +86,7 @@ class LampsControllerTest {
     // Given
     final Lamp secondLamp = new Lamp(UUID.randomUUID(), false);
     final List<Lamp> lamps = List.of(testLamp, secondLamp);
-    when(lampService.findAllActivePage(anyInt(), anyInt()))
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
         .thenReturn(new LampService.PagedLampsResult(lamps, true, Optional.of("2")));
 
     // When & Then
@@ -68,13 +105,13 @@ class LampsControllerTest {
         .andExpect(jsonPath("$.data[0].status").value(true))
         .andExpect(jsonPath("$.hasMore").value(true))
         .andExpect(jsonPath("$.nextCursor").value("2"));
-    verify(lampService).findAllActivePage(0, 2);
+    verify(lampService).findAllActivePage(LampPageCursor.FIRST, 2);
   }
 
   @Test
   void listLamps_TerminalPage_ShouldOmitNextCursor() throws Exception {
     // Given
-    when(lampService.findAllActivePage(anyInt(), anyInt()))
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
         .thenReturn(new LampService.PagedLampsResult(List.of(testLamp), false, Optional.empty()));
 
     // When & Then
@@ -91,13 +128,13 @@ class LampsControllerTest {
         .andExpect(jsonPath("$.data[0].id").value(testLampId.toString()))
         .andExpect(jsonPath("$.hasMore").value(false))
         .andExpect(jsonPath("$.nextCursor").doesNotExist());
-    verify(lampService).findAllActivePage(4, 2);
+    verify(lampService).findAllActivePage(new LampPageCursor(4, OptionalLong.empty()), 2);
   }
 
   @Test
   void listLamps_InvalidCursor_ShouldFallbackToFirstPage() throws Exception {
     // Given
-    when(lampService.findAllActivePage(anyInt(), anyInt()))
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
         .thenReturn(new LampService.PagedLampsResult(List.of(testLamp), false, Optional.empty()));
 
     // When & Then
@@ -108,7 +145,92 @@ class LampsControllerTest {
             .andReturn();
 
     mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
-    verify(lampService).findAllActivePage(0, 2);
+    verify(lampService).findAllActivePage(LampPageCursor.FIRST, 2);
+  }
+
+  @Test
+  void listLamps_WithFiltersOrSort_ShouldPageByKeyset() throws Exception {
+    // Given
+    final LampKeysetCursor cursor =
+        new LampKeysetCursor(
+            ListSort.UPDATED_AT_DESC, new SortPosition(AT.plusDays(1), UUID.randomUUID()));
+    final ListFilter filter =
+        new ListFilter(
+            Optional.of(true),
+            Optional.of(AT),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+    when(lampService.findActivePage(filter, ListSort.UPDATED_AT_DESC, Optional.of(cursor), 10))
+        .thenReturn(new LampService.PagedLampsResult(List.of(testLamp), true, Optional.of("next")));
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/lamps")
+                    .param("status", "true")
+                    .param("createdFrom", "2024-03-01T10:00:00Z")
+                    .param("sort", "-updatedAt")
+                    .param("cursor", cursor.token())
+                    .param("pageSize", "10"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andExpect(jsonPath("$.data[0].id").value(testLampId.toString()))
+        .andExpect(jsonPath("$.nextCursor").value("next"));
+    verify(collectionVersion, never()).current();
+    verify(lampService, never()).findAllActivePage(any(LampPageCursor.class), anyInt());
+  }
+
+  @Test
+  void listLamps_SortOnly_WithOffsetCursor_ShouldStartAtTheFirstPage() throws Exception {
+    // Given
+    when(lampService.findActivePage(
+            ListFilter.NONE, ListSort.CREATED_AT_DESC, Optional.empty(), 25))
+        .thenReturn(new LampService.PagedLampsResult(List.of(), false, Optional.empty()));
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(get("/v1/lamps").param("sort", "-createdAt").param("cursor", "25"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.hasMore").value(false));
+  }
+
+  @Test
+  void listLamps_WithInvalidSortOrEmptyRange_ShouldReturn400() throws Exception {
+    for (final String[] param :
+        List.of(
+            new String[] {"sort", "status"}, new String[] {"updatedTo", "2024-03-01T10:00:00Z"})) {
+      MvcResult result =
+          mockMvc
+              .perform(
+                  get("/v1/lamps")
+                      .param("updatedFrom", "2024-03-01T10:00:00Z")
+                      .param(param[0], param[1]))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+
+      mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    }
+    verify(lampService, never()).findActivePage(any(), any(), any(), anyInt());
+  }
+
+  @Test
+  void listLamps_WithMalformedTime_ShouldReturn400() throws Exception {
+    mockMvc
+        .perform(get("/v1/lamps").param("createdFrom", "yesterday"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
@@ -131,6 +253,125 @@ class LampsControllerTest {
         .andExpect(jsonPath("$.status").value(true));
   }
 
+  @Test
+  void getLamp_WithFields_ShouldLeaveTheOtherFieldsOutAndTagTheProjection() throws Exception {
+    // Given
+    final Set<LampField> idAndStatus = EnumSet.of(LampField.ID, LampField.STATUS);
+    final Lamp projected = new Lamp().id(testLampId).status(true);
+    when(lampService.findById(testLampId, idAndStatus)).thenReturn(Optional.of(projected));
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(get("/v1/lamps/{lampId}", testLampId).param("fields", "id,status"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"id\":\"" + testLampId + "\",\"status\":true}", true))
+        .andExpect(
+            header()
+                .string(
+                    HttpHeaders.ETAG,
+                    LampETags.projected(LampETags.forLamp(projected), idAndStatus)));
+    verify(lampService, never()).findById(testLampId);
+  }
+
+  @Test
+  void listLamps_WithFields_ShouldProjectEitherListing() throws Exception {
+    // Given
+    final Set<LampField> status = EnumSet.of(LampField.ID, LampField.STATUS);
+    final LampService.PagedLampsResult page =
+        new LampService.PagedLampsResult(
+            List.of(new Lamp().id(testLampId).status(true)), false, Optional.empty());
+    when(lampService.findAllActivePage(LampPageCursor.FIRST, 25, status)).thenReturn(page);
+    when(lampService.findActivePage(
+            ListFilter.NONE, ListSort.UPDATED_AT, Optional.empty(), 25, status))
+        .thenReturn(page);
+
+    // When & Then
+    for (final String sort : List.of("createdAt", "updatedAt")) {
+      MvcResult result =
+          mockMvc
+              .perform(get("/v1/lamps").param("sort", sort).param("fields", "status"))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+
+      mockMvc
+          .perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.data[0].status").value(true))
+          .andExpect(jsonPath("$.data[0].createdAt").doesNotExist())
+          .andExpect(jsonPath("$.data[0].updatedAt").doesNotExist())
+          .andExpect(header().string(HttpHeaders.ETAG, endsWith(".f3\"")));
+    }
+  }
+
+  @Test
+  void listLamps_WithIncludeTotal_ShouldReturnTheTotalAndTagIt() throws Exception {
+    // Given
+    final ListFilter on =
+        new ListFilter(
+            Optional.of(true),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+    final LampService.PagedLampsResult page =
+        new LampService.PagedLampsResult(List.of(testLamp), true, Optional.of("1"));
+    when(lampService.findAllActivePage(LampPageCursor.FIRST, 25)).thenReturn(page);
+    when(lampService.findActivePage(on, ListSort.CREATED_AT, Optional.empty(), 25))
+        .thenReturn(page);
+    when(lampCounts.total(ListFilter.NONE)).thenReturn(new ActiveCount(3, true));
+    when(lampCounts.total(on)).thenReturn(new ActiveCount(48_213, false));
+
+    // When & Then
+    mockMvc
+        .perform(asyncDispatch(listStarted(get("/v1/lamps").param("includeTotal", "true"))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(3))
+        .andExpect(jsonPath("$.totalExact").value(true))
+        .andExpect(header().string(HttpHeaders.ETAG, endsWith(".t3x\"")));
+    mockMvc
+        .perform(
+            asyncDispatch(
+                listStarted(
+                    get("/v1/lamps").param("status", "true").param("includeTotal", "true"))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(48_213))
+        .andExpect(jsonPath("$.totalExact").value(false))
+        .andExpect(header().string(HttpHeaders.ETAG, endsWith(".t48213e\"")));
+  }
+
+  @Test
+  void listLamps_WithoutIncludeTotal_ShouldNeitherCountNorSendATotal() throws Exception {
+    // Given
+    when(lampService.findAllActivePage(LampPageCursor.FIRST, 25))
+        .thenReturn(new LampService.PagedLampsResult(List.of(testLamp), false, Optional.empty()));
+
+    // When & Then
+    mockMvc
+        .perform(asyncDispatch(listStarted(get("/v1/lamps"))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").doesNotExist())
+        .andExpect(jsonPath("$.totalExact").doesNotExist());
+    verify(lampCounts, never()).total(any());
+  }
+
+  @Test
+  void getLamp_WithUnknownField_ShouldReturn400() throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(get("/v1/lamps/{lampId}", testLampId).param("fields", "id,colour"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    verify(lampService, never()).findById(any(), any());
+  }
+
   @Test
   void getLamp_WithNonExistentId_ShouldReturn404() throws Exception {
     // Given
@@ -187,6 +428,71 @@ class LampsControllerTest {
         .andExpect(status().isBadRequest());
   }
 
+  @Test
+  void batchGetLamps_ShouldReturnFoundLampsAndMissingIds() throws Exception {
+    // Given
+    final UUID missingId = UUID.randomUUID();
+    when(lampService.findByIds(List.of(testLampId, missingId)))
+        .thenReturn(new LampService.LampBatch(List.of(testLamp), List.of(missingId)));
+    final LampBatchGetRequest batchRequest =
+        new LampBatchGetRequest(List.of(testLampId.toString(), missingId.toString()));
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/v1/lamps/batch-get")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(batchRequest))
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[0].id").value(testLampId.toString()))
+        .andExpect(jsonPath("$.missing[0]").value(missingId.toString()));
+  }
+
+  @Test
+  void batchGetLamps_WithInvalidUuid_ShouldReturn400() throws Exception {
+    MvcResult result =
+        mockMvc
+            .perform(
+                post("/v1/lamps/batch-get")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"ids\":[\"not-a-uuid\"]}")
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    verify(lampService, never()).findByIds(any());
+  }
+
+  @Test
+  void batchGetLamps_WithoutIdsOrTooMany_ShouldReturn400() throws Exception {
+    final List<String> tooMany =
+        Stream.generate(() -> UUID.randomUUID().toString()).limit(501).toList();
+
+    mockMvc
+        .perform(
+            post("/v1/lamps/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[]}")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            post("/v1/lamps/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LampBatchGetRequest(tooMany)))
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+    verify(lampService, never()).findByIds(any());
+  }
+
   @Test
   void updateLamp_WithValidData_ShouldUpdateLamp() throws Exception {
     // Given
@@ -306,4 +612,216 @@ class LampsControllerTest {
 
     mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
   }
+
+  @Test
+  void getLamp_WithMatchingIfNoneMatch_ShouldReturn304WithoutBody() throws Exception {
+    // Given
+    when(lampService.findById(testLampId)).thenReturn(Optional.of(testLamp));
+    String eTag = LampETags.forLamp(testLamp);
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/lamps/{lampId}", testLampId)
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().bytes(new byte[0]));
+  }
+
+  @Test
+  void listLamps_KnownVersionAndMatchingTag_ShouldNotReadRepository() throws Exception {
+    // Given
+    when(collectionVersion.current()).thenReturn(OptionalLong.of(3));
+    when(collectionVersion.instanceId()).thenReturn("i");
+    String eTag = LampETags.forPage("i", 3, 0, 25);
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/lamps")
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    verify(lampService, never()).findAllActivePage(any(LampPageCursor.class), anyInt());
+  }
+
+  @Test
+  void listLamps_KnownVersionAndStaleTag_ShouldReturnPageWithCurrentTag() throws Exception {
+    // Given
+    when(collectionVersion.current()).thenReturn(OptionalLong.of(4));
+    when(collectionVersion.instanceId()).thenReturn("i");
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
+        .thenReturn(new LampService.PagedLampsResult(List.of(testLamp), false, Optional.empty()));
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/lamps")
+                    .header(HttpHeaders.IF_NONE_MATCH, LampETags.forPage("i", 3, 0, 25))
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, LampETags.forPage("i", 4, 0, 25)))
+        .andExpect(jsonPath("$.data[0].id").value(testLampId.toString()));
+  }
+
+  @Test
+  void listLamps_UnknownVersion_ShouldRevalidateFromPageContent() throws Exception {
+    // Given
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
+        .thenReturn(new LampService.PagedLampsResult(List.of(testLamp), false, Optional.empty()));
+    String eTag = LampETags.forPage(List.of(testLamp), false, 0, 25);
+
+    // When & Then
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/v1/lamps")
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().bytes(new byte[0]));
+  }
+
+  @Test
+  void listLamps_KnownVersionAndStreamedPages_ShouldWriteTheRowsAsJacksonWritesThePage()
+      throws Exception {
+    // Given
+    final List<Lamp> lamps = streamedLamps();
+    when(collectionVersion.current()).thenReturn(OptionalLong.of(4));
+    when(collectionVersion.instanceId()).thenReturn("i");
+    when(lampCounts.total(ListFilter.NONE)).thenReturn(new ActiveCount(3, true));
+    when(pageStream.page(any(LampPageCursor.class), anyInt()))
+        .thenAnswer(
+            invocation ->
+                new LampPageStream(Optional.of(rows(lamps)), true, false)
+                    .page(invocation.getArgument(0), invocation.getArgument(1)));
+    final ListLamps200Response expected =
+        new ListLamps200Response()
+            .data(lamps.subList(0, 2))
+            .hasMore(true)
+            .nextCursor("2")
+            .total(3L)
+            .totalExact(true);
+
+    // When & Then
+    mockMvc
+        .perform(
+            asyncDispatch(
+                listStarted(
+                    get("/v1/lamps")
+                        .param("pageSize", "2")
+                        .param("includeTotal", "true")
+                        .accept(MediaType.APPLICATION_JSON))))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(
+            header()
+                .string(
+                    HttpHeaders.ETAG,
+                    LampETags.counted(LampETags.forPage("i", 4, 0, 2), new ActiveCount(3, true))))
+        .andExpect(content().bytes(objectMapper.writeValueAsBytes(expected)));
+    verify(lampService, never()).findAllActivePage(any(LampPageCursor.class), anyInt());
+  }
+
+  @Test
+  void listLamps_StreamedPageAsCbor_ShouldBeSerializedAsAnyOtherPage() throws Exception {
+    // Given
+    final List<Lamp> lamps = streamedLamps();
+    when(collectionVersion.current()).thenReturn(OptionalLong.of(4));
+    when(collectionVersion.instanceId()).thenReturn("i");
+    when(pageStream.page(any(LampPageCursor.class), anyInt()))
+        .thenAnswer(
+            invocation ->
+                new LampPageStream(Optional.of(rows(lamps)), true, false)
+                    .page(invocation.getArgument(0), invocation.getArgument(1)));
+    final ListLamps200Response expected =
+        new ListLamps200Response().data(lamps.subList(2, 3)).hasMore(false);
+
+    // When & Then
+    mockMvc
+        .perform(
+            asyncDispatch(
+                listStarted(
+                    get("/v1/lamps")
+                        .param("cursor", "2")
+                        .param("pageSize", "2")
+                        .accept(MediaType.APPLICATION_CBOR))))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(content().bytes(cborConverter.getObjectMapper().writeValueAsBytes(expected)));
+  }
+
+  @Test
+  void listLamps_StreamedPageFailingToRead_ShouldReturnServiceUnavailable() throws Exception {
+    // Given
+    when(collectionVersion.current()).thenReturn(OptionalLong.of(4));
+    when(collectionVersion.instanceId()).thenReturn("i");
+    final LampRows failing =
+        (offset, limit, handler) -> {
+          throw new DataAccessResourceFailureException("down");
+        };
+    when(pageStream.page(any(LampPageCursor.class), anyInt()))
+        .thenAnswer(
+            invocation ->
+                new LampPageStream(Optional.of(failing), true, false)
+                    .page(invocation.getArgument(0), invocation.getArgument(1)));
+
+    // When & Then
+    mockMvc
+        .perform(asyncDispatch(listStarted(get("/v1/lamps").accept(MediaType.APPLICATION_JSON))))
+        .andExpect(status().isServiceUnavailable());
+  }
+
+  private static List<Lamp> streamedLamps() {
+    final OffsetDateTime at = OffsetDateTime.parse("2026-01-01T10:00:00.123456Z");
+    return List.of(
+        new Lamp(UUID.randomUUID(), true, at, at),
+        new Lamp(UUID.randomUUID(), false, at.plusSeconds(1), at.plusSeconds(1).withNano(0)),
+        new Lamp(UUID.randomUUID(), true, at.plusSeconds(2), at.plusSeconds(2).withNano(5_000)));
+  }
+
+  private static LampRows rows(final List<Lamp> lamps) {
+    return (offset, limit, handler) -> {
+      final int end = Math.min(offset + limit, lamps.size());
+      for (final Lamp lamp : lamps.subList(offset, end)) {
+        handler.row(
+            lamp.getId().toString().getBytes(StandardCharsets.US_ASCII),
+            lamp.getStatus(),
+            ChronoUnit.MICROS.between(Instant.EPOCH, lamp.getCreatedAt().toInstant()),
+            ChronoUnit.MICROS.between(Instant.EPOCH, lamp.getUpdatedAt().toInstant()));
+      }
+      return end - offset;
+    };
+  }
+
+  private MvcResult listStarted(final MockHttpServletRequestBuilder list) throws Exception {
+    return mockMvc.perform(list).andExpect(request().asyncStarted()).andReturn();
+  }
 }
@@ -2,16 +2,37 @@ package org.openapitools.exception;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
+import org.openapitools.configuration.DatabaseErrorTracker;
 import org.openapitools.model.Error;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.CannotSerializeTransactionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 /** Direct unit tests for GlobalExceptionHandler methods not easily triggered via MockMvc. */
 class GlobalExceptionHandlerUnitTest {
 
-  private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+  private final DatabaseErrorTracker tracker = new DatabaseErrorTracker(10);
+
+  private final GlobalExceptionHandler handler = new GlobalExceptionHandler(providerOf(tracker));
+
+  private static ObjectProvider<DatabaseErrorTracker> providerOf(
+      final DatabaseErrorTracker tracker) {
+    final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("databaseErrorTracker", tracker);
+    return beanFactory.getBeanProvider(DatabaseErrorTracker.class);
+  }
 
   @Test
   void handleNullPointerException_ShouldReturnBadRequest() {
@@ -44,4 +65,76 @@ class GlobalExceptionHandlerUnitTest {
     assertThat(response.getBody()).isNotNull();
     assertThat(response.getBody().getError()).isEqualTo("INVALID_ARGUMENT");
   }
+
+  @Test
+  void handleDatabaseException_ShouldReturnServiceUnavailableAndRecordError() {
+    DataAccessResourceFailureException ex = new DataAccessResourceFailureException("db down");
+
+    ResponseEntity<Error> response = handler.handleDatabaseException(ex);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(response.getBody()).isNotNull();
+    assertThat(response.getBody().getError()).isEqualTo("SERVICE_UNAVAILABLE");
+    assertThat(tracker.errorsInWindow()).isEqualTo(1);
+  }
+
+  @Test
+  void handleDatabaseException_PoolTimeout_ShouldReturnServiceUnavailable() {
+    CannotCreateTransactionException ex = new CannotCreateTransactionException("pool timeout");
+
+    ResponseEntity<Error> response = handler.handleDatabaseException(ex);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(tracker.errorsInWindow()).isEqualTo(1);
+  }
+
+  @Test
+  void handleDatabaseException_QueryTimeout_ShouldRecordError() {
+    QueryTimeoutException ex = new QueryTimeoutException("statement timeout");
+
+    ResponseEntity<Error> response = handler.handleDatabaseException(ex);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(tracker.errorsInWindow()).isEqualTo(1);
+  }
+
+  @Test
+  void handleDatabaseException_NotAnOutage_ShouldNotRecordError() {
+    InvalidDataAccessResourceUsageException ex =
+        new InvalidDataAccessResourceUsageException("bad statement");
+
+    ResponseEntity<Error> response = handler.handleDatabaseException(ex);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(tracker.errorsInWindow()).isZero();
+  }
+
+  @Test
+  void handleConflictException_ShouldReturnConflictWithoutRecordingError() {
+    ResponseEntity<Error> integrity =
+        handler.handleConflictException(new DataIntegrityViolationException("duplicate key"));
+    ResponseEntity<Error> optimistic =
+        handler.handleConflictException(new OptimisticLockingFailureException("stale version"));
+    ResponseEntity<Error> serialization =
+        handler.handleConflictException(
+            new CannotSerializeTransactionException("could not serialize access"));
+
+    assertThat(List.of(integrity, optimistic, serialization))
+        .allSatisfy(
+            response -> {
+              assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+              assertThat(response.getBody()).isNotNull();
+              assertThat(response.getBody().getError()).isEqualTo("CONFLICT");
+            });
+    assertThat(tracker.errorsInWindow()).isZero();
+  }
+
+  @Test
+  void handleEmptyResultException_ShouldReturnNotFoundWithoutRecordingError() {
+    ResponseEntity<Void> response =
+        handler.handleEmptyResultException(new EmptyResultDataAccessException(1));
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    assertThat(tracker.errorsInWindow()).isZero();
+  }
 }
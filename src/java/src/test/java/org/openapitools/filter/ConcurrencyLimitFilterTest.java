@@ -0,0 +1,139 @@
+package org.openapitools.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** Unit tests for ConcurrencyLimitFilter. */
+class ConcurrencyLimitFilterTest {
+
+  private static ConcurrencyLimitFilter filter(final boolean enabled, final int limit) {
+    return new ConcurrencyLimitFilter(enabled, limit, limit, limit, limit, limit, 2.0, 3);
+  }
+
+  @Test
+  void admittedRequest_ShouldPassThroughAndReleasePermit() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(true, 1);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/lamps");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    // When
+    filter.doFilter(request, response, chain);
+
+    // Then
+    assertThat(chain.getRequest()).isSameAs(request);
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(filter.limitFor(LampOperation.LIST).getInFlight()).isZero();
+  }
+
+  @Test
+  void requestOverLimit_ShouldBeRejectedWithRetryAfter() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(true, 1);
+    filter.limitFor(LampOperation.LIST).tryAcquire();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/lamps");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    // When
+    filter.doFilter(request, response, chain);
+
+    // Then
+    assertThat(chain.getRequest()).isNull();
+    assertThat(response.getStatus()).isEqualTo(503);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+    assertThat(response.getContentType()).startsWith("application/json");
+    assertThat(response.getContentAsString()).isEqualTo("{\"error\":\"SERVICE_UNAVAILABLE\"}");
+  }
+
+  @Test
+  void saturatedOperation_ShouldNotStarveOtherOperations() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(true, 1);
+    filter.limitFor(LampOperation.LIST).tryAcquire();
+    MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/v1/lamps/abc");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    // When
+    filter.doFilter(request, response, chain);
+
+    // Then
+    assertThat(chain.getRequest()).isSameAs(request);
+    assertThat(response.getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void asyncRequest_ShouldHoldPermitUntilComplete() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(true, 1);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/lamps/abc");
+    request.setAsyncSupported(true);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    FilterChain chain = (req, res) -> req.startAsync();
+
+    // When
+    filter.doFilter(request, response, chain);
+
+    // Then
+    GradientConcurrencyLimit limit = filter.limitFor(LampOperation.READ);
+    assertThat(limit.getInFlight()).isEqualTo(1);
+    request.getAsyncContext().complete();
+    assertThat(limit.getInFlight()).isZero();
+  }
+
+  @Test
+  void nonLampRequest_ShouldNotBeLimited() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(true, 1);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    // When
+    filter.doFilter(request, response, chain);
+
+    // Then
+    assertThat(chain.getRequest()).isSameAs(request);
+    assertThat(filter.limitFor(LampOperation.LIST).getInFlight()).isZero();
+  }
+
+  @Test
+  void disabledFilter_ShouldAdmitEverything() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(false, 1);
+    filter.limitFor(LampOperation.LIST).tryAcquire();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/lamps");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    // When
+    filter.doFilter(request, response, chain);
+
+    // Then
+    assertThat(chain.getRequest()).isSameAs(request);
+    assertThat(response.getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void contextPath_ShouldBeStrippedBeforeClassification() throws Exception {
+    // Given
+    ConcurrencyLimitFilter filter = filter(true, 1);
+    filter.limitFor(LampOperation.LIST).tryAcquire();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/lamps");
+    request.setContextPath("/api");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    filter.doFilter(request, response, new MockFilterChain());
+
+    // Then
+    assertThat(response.getStatus()).isEqualTo(503);
+  }
+}
@@ -0,0 +1,124 @@
+package org.openapitools.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for GradientConcurrencyLimit. */
+class GradientConcurrencyLimitTest {
+
+  private static final long BASE_RTT = 1_000_000L;
+
+  @Test
+  void tryAcquire_ShouldAdmitUpToLimit() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, 2.0);
+
+    // When & Then
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isFalse();
+    assertThat(limit.getInFlight()).isEqualTo(2);
+  }
+
+  @Test
+  void release_ShouldFreePermit() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(1, 1, 10, 2.0);
+    limit.tryAcquire();
+
+    // When
+    limit.release(BASE_RTT, false);
+
+    // Then
+    assertThat(limit.getInFlight()).isZero();
+    assertThat(limit.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void constructor_ShouldClampInitialLimit() {
+    assertThat(new GradientConcurrencyLimit(500, 4, 50, 2.0).getLimit()).isEqualTo(50);
+    assertThat(new GradientConcurrencyLimit(1, 4, 50, 2.0).getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void saturatedWithStableLatency_ShouldGrowLimit() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 2.0);
+
+    // When
+    runWindows(limit, 5, BASE_RTT, false);
+
+    // Then
+    assertThat(limit.getLimit()).isGreaterThan(10);
+  }
+
+  @Test
+  void growingLatency_ShouldShrinkLimit() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(40, 1, 100, 2.0);
+    runWindows(limit, 1, BASE_RTT, false);
+    final int before = limit.getLimit();
+
+    // When
+    runWindows(limit, 10, BASE_RTT * 10, false);
+
+    // Then
+    assertThat(limit.getLimit()).isLessThan(before);
+  }
+
+  @Test
+  void drops_ShouldBackOff() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 1, 100, 2.0);
+
+    // When
+    runWindows(limit, 3, BASE_RTT, true);
+
+    // Then
+    assertThat(limit.getLimit()).isLessThan(50);
+  }
+
+  @Test
+  void backOff_ShouldNotGoBelowMinimum() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 8, 100, 2.0);
+
+    // When
+    runWindows(limit, 20, BASE_RTT, true);
+
+    // Then
+    assertThat(limit.getLimit()).isEqualTo(8);
+  }
+
+  @Test
+  void applicationLimited_ShouldNotGrowLimit() {
+    // Given
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 1, 100, 2.0);
+
+    // When: requests arrive one at a time, far below the limit
+    for (int i = 0; i < 200; i++) {
+      limit.tryAcquire();
+      limit.release(BASE_RTT, false);
+    }
+
+    // Then
+    assertThat(limit.getLimit()).isEqualTo(50);
+  }
+
+  /** Fill the current limit, then release every permit with the given RTT, repeatedly. */
+  private static void runWindows(
+      final GradientConcurrencyLimit limit,
+      final int rounds,
+      final long rttNanos,
+      final boolean dropped) {
+    for (int round = 0; round < rounds; round++) {
+      while (limit.tryAcquire()) {
+        // fill up to the current limit
+      }
+      while (limit.getInFlight() > 0) {
+        limit.release(rttNanos, dropped);
+      }
+    }
+  }
+}
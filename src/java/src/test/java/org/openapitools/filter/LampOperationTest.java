@@ -0,0 +1,46 @@
+package org.openapitools.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for LampOperation. */
+class LampOperationTest {
+
+  @Test
+  void classify_CollectionGet_ShouldBeList() {
+    assertThat(LampOperation.classify("GET", "/v1/lamps")).contains(LampOperation.LIST);
+    assertThat(LampOperation.classify("GET", "/v1/lamps/")).contains(LampOperation.LIST);
+    assertThat(LampOperation.classify("GET", "/v1/lamps/changes")).contains(LampOperation.LIST);
+    assertThat(LampOperation.classify("POST", "/v1/lamps/batch-get")).contains(LampOperation.LIST);
+  }
+
+  @Test
+  void classify_ItemGet_ShouldBeRead() {
+    assertThat(LampOperation.classify("GET", "/v1/lamps/abc")).contains(LampOperation.READ);
+  }
+
+  @Test
+  void classify_Mutations_ShouldBeWrite() {
+    assertThat(LampOperation.classify("POST", "/v1/lamps")).contains(LampOperation.WRITE);
+    assertThat(LampOperation.classify("PUT", "/v1/lamps/abc")).contains(LampOperation.WRITE);
+    assertThat(LampOperation.classify("DELETE", "/v1/lamps/abc")).contains(LampOperation.WRITE);
+    assertThat(LampOperation.classify("POST", "/v1/lamps/bulk-status"))
+        .contains(LampOperation.WRITE);
+  }
+
+  @Test
+  void classify_OtherRequests_ShouldBeEmpty() {
+    assertThat(LampOperation.classify("GET", "/health")).isEmpty();
+    assertThat(LampOperation.classify("GET", "/v1/lampshades")).isEmpty();
+    assertThat(LampOperation.classify("GET", "/v1/lamps/abc/history")).isEmpty();
+    assertThat(LampOperation.classify("GET", "/v1/lamps/events")).isEmpty();
+    assertThat(LampOperation.classify("POST", "/v1/lamps/abc")).isEmpty();
+    assertThat(LampOperation.classify("POST", "/v1/lamps/changes")).isEmpty();
+    assertThat(LampOperation.classify("GET", "/v1/lamps/batch-get")).isEmpty();
+    assertThat(LampOperation.classify("GET", "/v1/lamps/bulk-status")).isEmpty();
+    assertThat(LampOperation.classify("GET", "/v1/lamps/bulk-status/jobs/abc")).isEmpty();
+    assertThat(LampOperation.classify("DELETE", "/v1/lamps")).isEmpty();
+    assertThat(LampOperation.classify("OPTIONS", "/v1/lamps")).isEmpty();
+  }
+}
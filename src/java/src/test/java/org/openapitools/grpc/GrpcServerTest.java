@@ -0,0 +1,148 @@
+package org.openapitools.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.configuration.DatabaseErrorTracker;
+import org.openapitools.filter.ConcurrencyLimitFilter;
+import org.openapitools.filter.GradientConcurrencyLimit;
+import org.openapitools.filter.LampOperation;
+import org.openapitools.grpc.proto.LampProto;
+import org.openapitools.grpc.proto.LampServiceGrpc;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampWriteCoalescer;
+import org.springframework.beans.factory.ObjectProvider;
+
+/** Tests for GrpcServer over a real HTTP/2 connection. */
+@ExtendWith(MockitoExtension.class)
+class GrpcServerTest {
+
+  @Mock private LampService lampService;
+
+  @Mock private LampWriteCoalescer writeCoalescer;
+
+  @Mock private ObjectProvider<DatabaseErrorTracker> databaseErrorTracker;
+
+  private final ConcurrencyLimitFilter limits =
+      new ConcurrencyLimitFilter(true, 1, 1, 1, 1, 1, 2.0, 1);
+
+  private GrpcServer server;
+
+  private ManagedChannel channel;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (channel != null) {
+      channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  @Test
+  void unaryAndStreamingCalls_ShouldBeServed() throws Exception {
+    // Given
+    UUID lampId = UUID.randomUUID();
+    Lamp lamp = new Lamp(lampId, true);
+    when(lampService.findById(lampId)).thenReturn(Optional.of(lamp));
+    when(lampService.findAllActivePage(LampPageCursor.FIRST, 100))
+        .thenReturn(new LampService.PagedLampsResult(List.of(lamp), false, Optional.empty()));
+    LampServiceGrpc.LampServiceBlockingStub stub = startAndConnect();
+
+    // When
+    LampProto.Lamp fetched =
+        stub.getLamp(LampProto.GetLampRequest.newBuilder().setId(lampId.toString()).build());
+    List<LampProto.Lamp> streamed = new ArrayList<>();
+    stub.streamLamps(LampProto.ListLampsRequest.getDefaultInstance())
+        .forEachRemaining(streamed::add);
+
+    // Then
+    assertThat(fetched.getId()).isEqualTo(lampId.toString());
+    assertThat(streamed).extracting(LampProto.Lamp::getId).containsExactly(lampId.toString());
+  }
+
+  @Test
+  void errors_ShouldArriveAsStatusCodes() throws Exception {
+    // Given
+    LampServiceGrpc.LampServiceBlockingStub stub = startAndConnect();
+
+    // When & Then
+    assertThatThrownBy(
+            () -> stub.getLamp(LampProto.GetLampRequest.newBuilder().setId("nope").build()))
+        .isInstanceOf(StatusRuntimeException.class)
+        .extracting(e -> Status.fromThrowable(e).getCode())
+        .isEqualTo(Status.Code.INVALID_ARGUMENT);
+  }
+
+  @Test
+  void callsAtTheLimit_ShouldBeUnavailableUntilAPermitIsFree() throws Exception {
+    // Given
+    UUID lampId = UUID.randomUUID();
+    when(lampService.findById(lampId)).thenReturn(Optional.of(new Lamp(lampId, true)));
+    LampServiceGrpc.LampServiceBlockingStub stub = startAndConnect();
+    LampProto.GetLampRequest request =
+        LampProto.GetLampRequest.newBuilder().setId(lampId.toString()).build();
+    GradientConcurrencyLimit reads = limits.limitFor(LampOperation.READ);
+    reads.tryAcquire();
+
+    // When & Then
+    assertThatThrownBy(() -> stub.getLamp(request))
+        .isInstanceOf(StatusRuntimeException.class)
+        .extracting(e -> Status.fromThrowable(e).getCode())
+        .isEqualTo(Status.Code.UNAVAILABLE);
+    reads.release(0, false);
+    assertThat(stub.getLamp(request).getId()).isEqualTo(lampId.toString());
+    assertThat(reads.getInFlight()).isZero();
+  }
+
+  @Test
+  void disabled_ShouldNotBindPort() throws Exception {
+    // Given
+    server = new GrpcServer(List.of(), List.of(), false, 0, 1000);
+
+    // When
+    server.start();
+
+    // Then
+    assertThat(server.getPort()).isEqualTo(-1);
+  }
+
+  private LampServiceGrpc.LampServiceBlockingStub startAndConnect() throws Exception {
+    server =
+        new GrpcServer(
+            List.of(
+                new LampGrpcService(
+                    lampService,
+                    writeCoalescer,
+                    databaseErrorTracker,
+                    new GrpcConcurrencyLimiter(limits))),
+            List.of(new GrpcConcurrencyLimiter(limits)),
+            true,
+            0,
+            1000);
+    server.start();
+    channel =
+        Grpc.newChannelBuilder("localhost:" + server.getPort(), InsecureChannelCredentials.create())
+            .build();
+    return LampServiceGrpc.newBlockingStub(channel).withDeadlineAfter(5, TimeUnit.SECONDS);
+  }
+}
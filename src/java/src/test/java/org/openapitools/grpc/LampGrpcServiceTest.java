@@ -0,0 +1,375 @@
+package org.openapitools.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.configuration.DatabaseErrorTracker;
+import org.openapitools.exception.LampNotFoundException;
+import org.openapitools.filter.ConcurrencyLimitFilter;
+import org.openapitools.filter.LampOperation;
+import org.openapitools.grpc.proto.LampProto;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampWriteCoalescer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/** Unit tests for LampGrpcService. */
+@ExtendWith(MockitoExtension.class)
+class LampGrpcServiceTest {
+
+  @Mock private LampService lampService;
+
+  @Mock private LampWriteCoalescer writeCoalescer;
+
+  @Mock private ObjectProvider<DatabaseErrorTracker> databaseErrorTracker;
+
+  private final ConcurrencyLimitFilter limits =
+      new ConcurrencyLimitFilter(true, 1, 1, 1, 1, 1, 2.0, 1);
+
+  private LampGrpcService service;
+
+  private UUID lampId;
+
+  private Lamp lamp;
+
+  @BeforeEach
+  void setUp() {
+    service =
+        new LampGrpcService(
+            lampService, writeCoalescer, databaseErrorTracker, new GrpcConcurrencyLimiter(limits));
+    lampId = UUID.randomUUID();
+    OffsetDateTime now = OffsetDateTime.parse("2026-01-01T10:00:00Z");
+    lamp = new Lamp(lampId, true, now, now);
+  }
+
+  @Test
+  void createLamp_ShouldReturnCreatedLamp() {
+    // Given
+    when(lampService.create(any(Lamp.class))).thenReturn(lamp);
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.createLamp(LampProto.CreateLampRequest.newBuilder().setStatus(true).build(), observer);
+
+    // Then
+    assertThat(observer.single().getId()).isEqualTo(lampId.toString());
+    assertThat(observer.single().getStatus()).isTrue();
+    assertThat(observer.single().getCreatedAt()).isEqualTo("2026-01-01T10:00Z");
+    assertThat(observer.completed).isTrue();
+  }
+
+  @Test
+  void getLamp_Unknown_ShouldBeNotFound() {
+    // Given
+    when(lampService.findById(lampId)).thenReturn(Optional.empty());
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.getLamp(getRequest(lampId.toString()), observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.NOT_FOUND);
+  }
+
+  @Test
+  void getLamp_MalformedId_ShouldBeInvalidArgument() {
+    // Given
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.getLamp(getRequest("not-a-uuid"), observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+    verifyNoInteractions(lampService);
+  }
+
+  @Test
+  void listLamps_ShouldReturnPageAndNextToken() {
+    // Given
+    when(lampService.findAllActivePage(new LampPageCursor(25, OptionalLong.empty()), 25))
+        .thenReturn(new LampService.PagedLampsResult(List.of(lamp), true, Optional.of("50")));
+    RecordingObserver<LampProto.ListLampsResponse> observer = new RecordingObserver<>();
+
+    // When: page_size 0 falls back to the REST default
+    service.listLamps(LampProto.ListLampsRequest.newBuilder().setPageToken("25").build(), observer);
+
+    // Then
+    assertThat(observer.single().getLampsList()).hasSize(1);
+    assertThat(observer.single().getNextPageToken()).isEqualTo("50");
+  }
+
+  @Test
+  void listLamps_InvalidPageSizeOrToken_ShouldBeInvalidArgument() {
+    // Given
+    RecordingObserver<LampProto.ListLampsResponse> tooLarge = new RecordingObserver<>();
+    RecordingObserver<LampProto.ListLampsResponse> badToken = new RecordingObserver<>();
+
+    // When
+    service.listLamps(LampProto.ListLampsRequest.newBuilder().setPageSize(101).build(), tooLarge);
+    service.listLamps(
+        LampProto.ListLampsRequest.newBuilder().setPageToken("abc").build(), badToken);
+
+    // Then
+    assertThat(tooLarge.status()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+    assertThat(badToken.status()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+  }
+
+  @Test
+  void updateLamp_ShouldGoThroughWriteCoalescer() {
+    // Given
+    when(writeCoalescer.update(eq(lampId), any(Lamp.class))).thenReturn(lamp);
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.updateLamp(
+        LampProto.UpdateLampRequest.newBuilder().setId(lampId.toString()).setStatus(true).build(),
+        observer);
+
+    // Then
+    assertThat(observer.single().getId()).isEqualTo(lampId.toString());
+  }
+
+  @Test
+  void updateLamp_WithoutStatus_ShouldBeInvalidArgument() {
+    // Given
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.updateLamp(
+        LampProto.UpdateLampRequest.newBuilder().setId(lampId.toString()).build(), observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+    verifyNoInteractions(writeCoalescer);
+  }
+
+  @Test
+  void deleteLamp_ShouldReportSuccess() {
+    // Given
+    RecordingObserver<LampProto.DeleteLampResponse> observer = new RecordingObserver<>();
+
+    // When
+    service.deleteLamp(
+        LampProto.DeleteLampRequest.newBuilder().setId(lampId.toString()).build(), observer);
+
+    // Then
+    verify(lampService).delete(lampId);
+    assertThat(observer.single().getSuccess()).isTrue();
+  }
+
+  @Test
+  void deleteLamp_Unknown_ShouldBeNotFound() {
+    // Given
+    doThrow(new LampNotFoundException(lampId)).when(lampService).delete(lampId);
+    RecordingObserver<LampProto.DeleteLampResponse> observer = new RecordingObserver<>();
+
+    // When
+    service.deleteLamp(
+        LampProto.DeleteLampRequest.newBuilder().setId(lampId.toString()).build(), observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.NOT_FOUND);
+  }
+
+  @Test
+  void databaseFailure_ShouldBeUnavailableAndRecorded() {
+    // Given
+    when(lampService.findById(lampId)).thenThrow(new DataAccessResourceFailureException("down"));
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.getLamp(getRequest(lampId.toString()), observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.UNAVAILABLE);
+    verify(databaseErrorTracker).ifAvailable(any());
+  }
+
+  @Test
+  void conflictingWrite_ShouldBeAbortedAndNotRecorded() {
+    // Given
+    when(writeCoalescer.update(eq(lampId), any(Lamp.class)))
+        .thenThrow(new OptimisticLockingFailureException("stale version"));
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.updateLamp(
+        LampProto.UpdateLampRequest.newBuilder().setId(lampId.toString()).setStatus(true).build(),
+        observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.ABORTED);
+    verifyNoInteractions(databaseErrorTracker);
+  }
+
+  @Test
+  void unexpectedFailure_ShouldBeInternal() {
+    // Given
+    when(lampService.findById(lampId)).thenThrow(new IllegalStateException("bug"));
+    RecordingObserver<LampProto.Lamp> observer = new RecordingObserver<>();
+
+    // When
+    service.getLamp(getRequest(lampId.toString()), observer);
+
+    // Then
+    assertThat(observer.status()).isEqualTo(Status.Code.INTERNAL);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamLamps_ShouldSendEveryPage() {
+    // Given
+    Lamp second = new Lamp(UUID.randomUUID(), false);
+    when(lampService.findAllActivePage(LampPageCursor.FIRST, 100))
+        .thenReturn(new LampService.PagedLampsResult(List.of(lamp), true, Optional.of("100")));
+    when(lampService.findAllActivePage(new LampPageCursor(100, OptionalLong.empty()), 100))
+        .thenReturn(new LampService.PagedLampsResult(List.of(second), false, Optional.empty()));
+    ServerCallStreamObserver<LampProto.Lamp> call = mock(ServerCallStreamObserver.class);
+    when(call.isReady()).thenReturn(true);
+
+    // When
+    startStream(call).run();
+
+    // Then
+    verify(call).onNext(LampGrpcService.toProto(lamp));
+    verify(call).onNext(LampGrpcService.toProto(second));
+    verify(call).onCompleted();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamLamps_NotReady_ShouldWaitBeforeReadingTheNextPage() {
+    // Given
+    Lamp second = new Lamp(UUID.randomUUID(), false);
+    when(lampService.findAllActivePage(LampPageCursor.FIRST, 100))
+        .thenReturn(new LampService.PagedLampsResult(List.of(lamp), true, Optional.of("100")));
+    ServerCallStreamObserver<LampProto.Lamp> call = mock(ServerCallStreamObserver.class);
+    when(call.isReady()).thenReturn(true, true, false);
+    Runnable onReady = startStream(call);
+
+    // When
+    onReady.run();
+
+    // Then
+    verify(call).onNext(LampGrpcService.toProto(lamp));
+    verify(lampService, never())
+        .findAllActivePage(new LampPageCursor(100, OptionalLong.empty()), 100);
+
+    // When
+    when(lampService.findAllActivePage(new LampPageCursor(100, OptionalLong.empty()), 100))
+        .thenReturn(new LampService.PagedLampsResult(List.of(second), false, Optional.empty()));
+    when(call.isReady()).thenReturn(true);
+    onReady.run();
+
+    // Then
+    verify(call).onNext(LampGrpcService.toProto(second));
+    verify(call).onCompleted();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamLamps_Cancelled_ShouldStopReading() {
+    // Given
+    ServerCallStreamObserver<LampProto.Lamp> call = mock(ServerCallStreamObserver.class);
+    Runnable onReady = startStream(call);
+    ArgumentCaptor<Runnable> onCancel = ArgumentCaptor.forClass(Runnable.class);
+    verify(call).setOnCancelHandler(onCancel.capture());
+
+    // When
+    onCancel.getValue().run();
+    onReady.run();
+
+    // Then
+    verifyNoInteractions(lampService);
+    verify(call, never()).onCompleted();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamLamps_AtTheListLimit_ShouldBeUnavailable() {
+    // Given
+    ServerCallStreamObserver<LampProto.Lamp> call = mock(ServerCallStreamObserver.class);
+    when(call.isReady()).thenReturn(true);
+    limits.limitFor(LampOperation.LIST).tryAcquire();
+
+    // When
+    startStream(call).run();
+
+    // Then
+    ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+    verify(call).onError(error.capture());
+    assertThat(Status.fromThrowable(error.getValue()).getCode()).isEqualTo(Status.Code.UNAVAILABLE);
+    verifyNoInteractions(lampService);
+  }
+
+  private Runnable startStream(final ServerCallStreamObserver<LampProto.Lamp> call) {
+    service.streamLamps(LampProto.ListLampsRequest.getDefaultInstance(), call);
+    ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+    verify(call).setOnReadyHandler(onReady.capture());
+    return onReady.getValue();
+  }
+
+  private static LampProto.GetLampRequest getRequest(final String id) {
+    return LampProto.GetLampRequest.newBuilder().setId(id).build();
+  }
+
+  /** Collects what the service sends. */
+  private static final class RecordingObserver<T> implements StreamObserver<T> {
+
+    private final List<T> values = new ArrayList<>();
+    private Throwable error;
+    private boolean completed;
+
+    @Override
+    public void onNext(final T value) {
+      values.add(value);
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+      error = t;
+    }
+
+    @Override
+    public void onCompleted() {
+      completed = true;
+    }
+
+    T single() {
+      assertThat(error).isNull();
+      assertThat(values).hasSize(1);
+      return values.get(0);
+    }
+
+    Status.Code status() {
+      assertThat(values).isEmpty();
+      return Status.fromThrowable(error).getCode();
+    }
+  }
+}
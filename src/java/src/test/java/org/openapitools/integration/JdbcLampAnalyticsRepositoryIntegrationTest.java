@@ -0,0 +1,167 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.JdbcLampAnalyticsRepository;
+import org.openapitools.repository.LampAnalyticsRepository.HourBucket;
+import org.openapitools.repository.LampAnalyticsRepository.Totals;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Integration test for JdbcLampAnalyticsRepository against the V3 analytics tables. */
+@Testcontainers
+class JdbcLampAnalyticsRepositoryIntegrationTest {
+
+  private static final Instant HOUR = Instant.parse("2024-03-01T10:00:00Z");
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private DriverManagerDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private JdbcLampAnalyticsRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    repository = new JdbcLampAnalyticsRepository(dataSource);
+  }
+
+  @Test
+  void apply_ShouldAddToExistingCounters() {
+    // When
+    repository.apply(2, 1, List.of(new HourBucket(HOUR, 1, 1)));
+    repository.apply(-1, -1, List.of(new HourBucket(HOUR, 0, 1)));
+
+    // Then
+    assertThat(repository.totals()).isEqualTo(new Totals(1, 0));
+    assertThat(repository.hours(HOUR, HOUR.plusSeconds(3600)))
+        .containsExactly(new HourBucket(HOUR, 1, 2));
+    assertThat(repository.hours(HOUR.plusSeconds(3600), HOUR.plusSeconds(7200))).isEmpty();
+  }
+
+  @Test
+  void backfill_ShouldSeedOnceFromActiveLamps() {
+    // Given
+    insertLamp(true, "2024-03-01T10:15:00Z", false);
+    insertLamp(false, "2024-03-01T10:45:00Z", false);
+    insertLamp(true, "2024-03-01T12:05:00Z", false);
+    insertLamp(true, "2024-03-01T12:10:00Z", true);
+
+    final boolean seededBefore = repository.seeded();
+
+    // When
+    boolean first = repository.backfill(false);
+    boolean second = repository.backfill(false);
+
+    // Then
+    assertThat(seededBefore).isFalse();
+    assertThat(repository.seeded()).isTrue();
+    assertThat(first).isTrue();
+    assertThat(second).isFalse();
+    assertThat(repository.totals()).isEqualTo(new Totals(3, 2));
+    assertThat(repository.hours(HOUR, HOUR.plusSeconds(4 * 3600)))
+        .containsExactly(
+            new HourBucket(HOUR, 1, 1), new HourBucket(HOUR.plusSeconds(2 * 3600), 1, 0));
+  }
+
+  @Test
+  void backfill_WithResyncTotals_ShouldOnlyRecountTotals() {
+    // Given
+    repository.backfill(false);
+    repository.apply(5, 5, List.of(new HourBucket(HOUR, 5, 0)));
+    insertLamp(true, "2024-03-01T10:15:00Z", false);
+
+    // When
+    boolean resynced = repository.backfill(true);
+
+    // Then
+    assertThat(resynced).isTrue();
+    assertThat(repository.totals()).isEqualTo(new Totals(1, 1));
+    assertThat(repository.hours(HOUR, HOUR.plusSeconds(3600)))
+        .containsExactly(new HourBucket(HOUR, 5, 0));
+  }
+
+  @Test
+  void backfill_ShouldWaitForTheDeltasOfARunningWriteAndCountItsLamp() throws Exception {
+    // Given: a write that has added its lamp and its deltas but not committed yet
+    repository.backfill(false);
+    TransactionTemplate write = new TransactionTemplate(new JdbcTransactionManager(dataSource));
+    CountDownLatch applied = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    CompletableFuture<Void> writing =
+        CompletableFuture.runAsync(
+            () ->
+                write.executeWithoutResult(
+                    status -> {
+                      insertLamp(true, "2024-03-01T10:15:00Z", false);
+                      repository.apply(1, 1, List.of(new HourBucket(HOUR, 1, 0)));
+                      applied.countDown();
+                      awaitQuietly(commit);
+                    }));
+    applied.await();
+
+    // When: the totals are recounted meanwhile
+    CompletableFuture<Boolean> resyncing =
+        CompletableFuture.supplyAsync(() -> repository.backfill(true));
+    await().atMost(Duration.ofSeconds(10)).until(() -> waitingForLocks() > 0);
+    commit.countDown();
+    writing.get(10, TimeUnit.SECONDS);
+
+    // Then: the lamp is counted once
+    assertThat(resyncing.get(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(repository.totals()).isEqualTo(new Totals(1, 1));
+  }
+
+  private int waitingForLocks() {
+    return jdbcTemplate.queryForObject(
+        "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class);
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void insertLamp(final boolean on, final String updatedAt, final boolean deleted) {
+    jdbcTemplate.update(
+        "INSERT INTO lamps (is_on, updated_at, deleted_at) "
+            + "VALUES (?, ?::timestamptz, CASE WHEN ? THEN now() END)",
+        on,
+        updatedAt,
+        deleted);
+  }
+}
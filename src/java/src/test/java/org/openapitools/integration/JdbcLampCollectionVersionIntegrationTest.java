@@ -0,0 +1,84 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.JdbcLampCollectionVersion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration test for JdbcLampCollectionVersion: two instances on one database report the same
+ * version, and it moves when a write commits.
+ */
+@Testcontainers
+class JdbcLampCollectionVersionIntegrationTest {
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private DriverManagerDataSource dataSource;
+  private JdbcLampCollectionVersion instanceA;
+  private JdbcLampCollectionVersion instanceB;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration")
+        .cleanDisabled(false)
+        .load()
+        .migrate();
+    instanceA = new JdbcLampCollectionVersion(dataSource);
+    instanceB = new JdbcLampCollectionVersion(dataSource);
+  }
+
+  @Test
+  void withoutWrites_ShouldBeTheSameOnEveryInstance() {
+    // When
+    long tagged = instanceA.current();
+
+    // Then
+    assertThat(instanceB.current()).isEqualTo(tagged);
+    assertThat(instanceA.current()).isEqualTo(tagged);
+  }
+
+  @Test
+  void write_ShouldMoveTheVersionOnEveryInstanceWhenItCommits() throws Exception {
+    // Given: a page tagged on instance A
+    long tagged = instanceA.current();
+
+    try (Connection writer = dataSource.getConnection();
+        Statement statement = writer.createStatement()) {
+      // When: a write is in flight
+      writer.setAutoCommit(false);
+      statement.executeUpdate("INSERT INTO lamps (is_on) VALUES (TRUE)");
+      long inFlight = instanceB.current();
+
+      // And: it commits
+      writer.commit();
+      long committed = instanceB.current();
+
+      // Then: no tag from before the commit matches after it, on either instance
+      assertThat(committed).isNotEqualTo(tagged).isNotEqualTo(inFlight);
+      assertThat(instanceA.current()).isEqualTo(committed);
+    }
+    assertThat(
+            new JdbcTemplate(dataSource).queryForObject("SELECT count(*) FROM lamps", Long.class))
+        .isPositive();
+  }
+}
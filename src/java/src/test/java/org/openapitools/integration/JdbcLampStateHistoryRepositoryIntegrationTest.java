@@ -0,0 +1,151 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.JdbcLampStateHistoryRepository;
+import org.openapitools.repository.LampStateHistoryRepository.LampTransition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Integration test for JdbcLampStateHistoryRepository and its monthly partitions. */
+@Testcontainers
+class JdbcLampStateHistoryRepositoryIntegrationTest {
+
+  private static final UUID LAMP = UUID.randomUUID();
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private DriverManagerDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private JdbcLampStateHistoryRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    repository = new JdbcLampStateHistoryRepository(dataSource);
+  }
+
+  @Test
+  void migration_ShouldCreateCurrentAndNextMonth() {
+    // When & Then
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    assertThat(repository.isAvailable()).isTrue();
+    assertThat(partitions()).contains(partition(current), partition(current.plusMonths(1)));
+  }
+
+  @Test
+  void appendAndFind_ShouldRoundTripInRange() {
+    // Given
+    Instant now = Instant.now();
+    LampTransition created = new LampTransition(LAMP, now.minusSeconds(60), null, false);
+    LampTransition switched = new LampTransition(LAMP, now, false, true);
+
+    // When
+    repository.append(List.of(created, switched));
+
+    // Then
+    assertThat(repository.findByLamp(LAMP, now.minusSeconds(3600), now.plusSeconds(1), 10))
+        .extracting(LampTransition::previousStatus, LampTransition::status)
+        .containsExactly(tuple(null, false), tuple(false, true));
+    assertThat(repository.findByLamp(LAMP, now.minusSeconds(3600), now, 10)).hasSize(1);
+  }
+
+  @Test
+  void append_ShouldRollBackWithTheTransaction() {
+    // Given
+    TransactionTemplate transaction =
+        new TransactionTemplate(new JdbcTransactionManager(dataSource));
+
+    // When
+    transaction.executeWithoutResult(
+        status -> {
+          repository.append(List.of(new LampTransition(LAMP, Instant.now(), null, true)));
+          status.setRollbackOnly();
+        });
+
+    // Then
+    assertThat(repository.findByLamp(LAMP, Instant.EPOCH, Instant.now().plusSeconds(1), 10))
+        .isEmpty();
+  }
+
+  @Test
+  void maintain_ShouldCreateAheadAndDropExpiredPartitions() {
+    // Given
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    repository.maintain(current.minusMonths(3), 0, 0);
+    assertThat(partitions()).contains(partition(current.minusMonths(3)));
+
+    // When
+    repository.maintain(current, 3, 2);
+
+    // Then
+    assertThat(partitions())
+        .contains(partition(current.plusMonths(3)), "lamp_state_history_default")
+        .doesNotContain(partition(current.minusMonths(3)));
+  }
+
+  @Test
+  void maintain_ShouldDeleteExpiredRowsFromTheDefaultPartition() {
+    // Given
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    Instant expired = current.minusMonths(5).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    Instant ahead = current.plusMonths(6).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    repository.append(
+        List.of(
+            new LampTransition(LAMP, expired, null, true),
+            new LampTransition(LAMP, ahead, true, false)));
+
+    // When
+    repository.maintain(current, 1, 2);
+
+    // Then
+    assertThat(repository.findByLamp(LAMP, Instant.EPOCH, ahead.plusSeconds(1), 10))
+        .extracting(LampTransition::changedAt)
+        .containsExactly(ahead);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM lamp_state_history_default", Long.class))
+        .isEqualTo(1);
+  }
+
+  private List<String> partitions() {
+    return jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'lamp_state_history'::regclass",
+        String.class);
+  }
+
+  private static String partition(final YearMonth month) {
+    return String.format("lamp_state_history_p%04d%02d", month.getYear(), month.getMonthValue());
+  }
+}
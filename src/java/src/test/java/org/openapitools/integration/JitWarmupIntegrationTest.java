@@ -0,0 +1,50 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openapitools.configuration.JitWarmupRunner;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/** JIT warm-up against the running server, in memory mode. */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+      "lamp.warmup.enabled=false",
+      "lamp.warmup.max-rounds=2",
+      "lamp.warmup.iterations-per-round=20",
+      "lamp.warmup.settle-rounds=100",
+      "logging.level.org.openapitools=INFO",
+      "logging.level.org.springframework.web=INFO"
+    })
+class JitWarmupIntegrationTest {
+
+  @Autowired private JitWarmupRunner warmupRunner;
+
+  @Autowired private LampService lampService;
+
+  @LocalServerPort private int port;
+
+  @Test
+  void warmup_ShouldReadTheLampsButNeverWriteOne() {
+    // Given: lamps to list and get
+    for (int i = 0; i < 3; i++) {
+      lampService.create(new Lamp().status(i % 2 == 0));
+    }
+    List<Lamp> before = lampService.findAllActive();
+
+    // When
+    warmupRunner.runWarmup(URI.create("http://localhost:" + port));
+
+    // Then: the same lamps, unchanged, and no others
+    assertThat(lampService.findAllActive()).containsExactlyInAnyOrderElementsOf(before);
+    assertThat(lampService.findAll(0, Integer.MAX_VALUE)).hasSameSizeAs(before);
+  }
+}
@@ -3,14 +3,24 @@ package org.openapitools.integration;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.Statement;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openapitools.config.JpaConfig;
 import org.openapitools.entity.LampEntity;
 import org.openapitools.repository.JpaLampRepository;
+import org.openapitools.repository.LampListSql;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.ChangePosition;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.StatusUpdate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
@@ -19,9 +29,12 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -30,14 +43,15 @@ import org.testcontainers.junit.jupiter.Testcontainers;
  * Integration test for JpaLampRepository with PostgreSQL using Testcontainers. This test verifies
  * that the repository works correctly with a real PostgreSQL database instance.
  *
- * <p>This test explicitly imports DataSource and JPA auto-configuration and enables JPA
- * repositories since they are excluded by default in the main application.
+ * <p>This test explicitly imports DataSource and JPA auto-configuration since they are excluded by
+ * default in the main application. Its context is JpaConfig alone rather than the application,
+ * whose component scan would pull in every other bean.
  */
 @DataJpaTest
 @Testcontainers
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@EnableJpaRepositories(basePackages = "org.openapitools.repository")
 @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ContextConfiguration(classes = JpaConfig.class)
 class JpaLampRepositoryIntegrationTest {
 
   @Container
@@ -59,13 +73,16 @@ class JpaLampRepositoryIntegrationTest {
 
   @Autowired private EntityManager entityManager;
 
+  @Autowired private DataSource dataSource;
+
   private JpaRepository<LampEntity, UUID> jpaRepo;
 
   @BeforeEach
   void setUp() {
     // Cast once to avoid repetition in tests
     jpaRepo = (JpaRepository<LampEntity, UUID>) repository;
-    jpaRepo.deleteAll();
+    // In SQL, since JPA does not see the soft-deleted lamps left by tests that commit
+    new JdbcTemplate(dataSource).update("DELETE FROM lamps");
   }
 
   @Test
@@ -75,16 +92,16 @@ class JpaLampRepositoryIntegrationTest {
     final LampEntity lamp = new LampEntity(lampId, true);
 
     // Act
-    jpaRepo.save(lamp);
+    final LampEntity saved = jpaRepo.save(lamp);
     jpaRepo.flush(); // Force immediate database sync
 
     // Retrieve from database to get timestamps set by database
-    final Optional<LampEntity> retrieved = jpaRepo.findById(lampId);
+    final Optional<LampEntity> retrieved = jpaRepo.findById(saved.getId());
 
-    // Assert
+    // Assert: the ID is generated, whatever the entity was constructed with
     assertThat(retrieved).isPresent();
     final LampEntity savedLamp = retrieved.get();
-    assertThat(savedLamp.getId()).isEqualTo(lampId);
+    assertThat(savedLamp.getId()).isNotNull().isNotEqualTo(lampId);
     assertThat(savedLamp.getStatus()).isTrue();
     assertThat(savedLamp.getCreatedAt()).as("createdAt should be set by database").isNotNull();
     assertThat(savedLamp.getUpdatedAt()).as("updatedAt should be set by database").isNotNull();
@@ -169,10 +186,9 @@ class JpaLampRepositoryIntegrationTest {
   @Test
   void shouldFilterSoftDeletedFromFindAll() {
     // Arrange
-    final LampEntity activeLamp = new LampEntity(UUID.randomUUID(), true);
+    final LampEntity activeLamp = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
     final LampEntity deletedLamp = new LampEntity(UUID.randomUUID(), false);
 
-    jpaRepo.save(activeLamp);
     final LampEntity saved = jpaRepo.save(deletedLamp);
     saved.setDeletedAt(OffsetDateTime.now());
     jpaRepo.save(saved);
@@ -208,13 +224,9 @@ class JpaLampRepositoryIntegrationTest {
   @Test
   void shouldFindAllActive() {
     // Arrange
-    final LampEntity lamp1 = new LampEntity(UUID.randomUUID(), true);
-    final LampEntity lamp2 = new LampEntity(UUID.randomUUID(), false);
-    final LampEntity lamp3 = new LampEntity(UUID.randomUUID(), true);
-
-    jpaRepo.save(lamp1);
-    jpaRepo.save(lamp2);
-    final LampEntity saved = jpaRepo.save(lamp3);
+    final LampEntity lamp1 = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    final LampEntity lamp2 = jpaRepo.save(new LampEntity(UUID.randomUUID(), false));
+    final LampEntity saved = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
 
     // Soft delete lamp3
     saved.setDeletedAt(OffsetDateTime.now());
@@ -236,8 +248,7 @@ class JpaLampRepositoryIntegrationTest {
     // Arrange
     jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
     jpaRepo.save(new LampEntity(UUID.randomUUID(), false));
-    final LampEntity deletedLamp = new LampEntity(UUID.randomUUID(), true);
-    jpaRepo.save(deletedLamp);
+    final LampEntity deletedLamp = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
 
     // Soft delete one lamp
     deletedLamp.setDeletedAt(OffsetDateTime.now());
@@ -251,15 +262,39 @@ class JpaLampRepositoryIntegrationTest {
     assertThat(activeCount).isEqualTo(2);
   }
 
+  @Test
+  void shouldCountAFilterExactlyUpToTheLimitAndEstimateBeyondIt() {
+    // Arrange
+    for (int i = 0; i < 5; i++) {
+      jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    }
+    jpaRepo.save(new LampEntity(UUID.randomUUID(), false));
+    jpaRepo.flush();
+    final ListFilter on =
+        new ListFilter(
+            Optional.of(true),
+            Optional.of(OffsetDateTime.now().minusDays(1)),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+
+    // Act
+    final ActiveCount exact = repository.countActive(on, 5);
+    final ActiveCount estimated = repository.countActive(on, 2);
+
+    // Assert: the estimate comes from the planner, but is never below what was counted
+    assertThat(exact).isEqualTo(new ActiveCount(5, true));
+    assertThat(estimated.exact()).isFalse();
+    assertThat(estimated.count()).isGreaterThanOrEqualTo(3);
+  }
+
   @Test
   void shouldFindAllActiveOrderedByCreatedAt() {
     // Arrange - create lamps with slight delay to ensure different timestamps
-    final LampEntity lamp1 = new LampEntity(UUID.randomUUID(), true);
-    jpaRepo.save(lamp1);
+    final LampEntity lamp1 = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
     jpaRepo.flush();
 
-    final LampEntity lamp2 = new LampEntity(UUID.randomUUID(), false);
-    jpaRepo.save(lamp2);
+    final LampEntity lamp2 = jpaRepo.save(new LampEntity(UUID.randomUUID(), false));
     jpaRepo.flush();
 
     // Act
@@ -272,6 +307,28 @@ class JpaLampRepositoryIntegrationTest {
     assertThat(activeLamps.get(0).getCreatedAt()).isBefore(activeLamps.get(1).getCreatedAt());
   }
 
+  @Test
+  void shouldFindActiveLampsByIdsInOneQuery() {
+    // Arrange
+    final LampEntity lamp1 = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    final LampEntity lamp2 = jpaRepo.save(new LampEntity(UUID.randomUUID(), false));
+    final LampEntity deleted = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    deleted.setDeletedAt(OffsetDateTime.now());
+    jpaRepo.save(deleted);
+    jpaRepo.flush();
+
+    // Act
+    final List<LampEntity> found =
+        repository.findActiveByIds(
+            LampListSql.idArray(
+                List.of(lamp1.getId(), lamp2.getId(), deleted.getId(), UUID.randomUUID())));
+
+    // Assert
+    assertThat(found)
+        .extracting(LampEntity::getId)
+        .containsExactlyInAnyOrder(lamp1.getId(), lamp2.getId());
+  }
+
   @Test
   void shouldFindActiveWindowWithoutDeletedLamps() {
     // Arrange
@@ -295,4 +352,182 @@ class JpaLampRepositoryIntegrationTest {
     assertThat(window).hasSize(3);
     assertThat(window).allMatch(lamp -> lamp.getDeletedAt() == null);
   }
+
+  @Test
+  void shouldPurgeOnlyLampsDeletedBeforeTheCutoff() {
+    // Arrange
+    final OffsetDateTime now = OffsetDateTime.now();
+    final LampEntity expired = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    final LampEntity recent = jpaRepo.save(new LampEntity(UUID.randomUUID(), false));
+    final LampEntity active = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    expired.setDeletedAt(now.minusDays(40));
+    recent.setDeletedAt(now.minusDays(1));
+    jpaRepo.save(expired);
+    jpaRepo.save(recent);
+    jpaRepo.flush();
+    entityManager.clear();
+
+    // Act
+    final int purged = repository.purgeDeletedBefore(now.minusDays(30), 10);
+
+    // Assert
+    assertThat(purged).isEqualTo(1);
+    assertThat(storedIds())
+        .contains(recent.getId(), active.getId())
+        .doesNotContain(expired.getId());
+  }
+
+  @Test
+  void shouldPurgeAtMostTheLimit() {
+    // Arrange
+    final OffsetDateTime deletedAt = OffsetDateTime.now().minusDays(40);
+    for (int i = 0; i < 5; i++) {
+      final LampEntity lamp = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+      lamp.setDeletedAt(deletedAt.plusMinutes(i));
+      jpaRepo.save(lamp);
+    }
+    jpaRepo.flush();
+    entityManager.clear();
+
+    // Act
+    final int first = repository.purgeDeletedBefore(OffsetDateTime.now(), 3);
+    final int second = repository.purgeDeletedBefore(OffsetDateTime.now(), 3);
+
+    // Assert
+    assertThat(first).isEqualTo(3);
+    assertThat(second).isEqualTo(2);
+    assertThat(storedIds()).isEmpty();
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void shouldFindChangesInCommitOrderIncludingTombstones() {
+    // Arrange: three writes, each committed on its own
+    final LampEntity first = jpaRepo.saveAndFlush(new LampEntity(UUID.randomUUID(), true));
+    final LampEntity second = jpaRepo.saveAndFlush(new LampEntity(UUID.randomUUID(), false));
+    first.setDeletedAt(OffsetDateTime.now());
+    jpaRepo.saveAndFlush(first);
+    final long horizon = repository.findChangeHorizon();
+
+    // Act
+    final List<LampEntity> all =
+        repository.findChangedAfter(
+            ChangePosition.START.changeSeq(), ChangePosition.START.id(), horizon, 10);
+    final LampEntity last = all.get(0);
+    final List<LampEntity> rest =
+        repository.findChangedAfter(last.getChangeSeq(), last.getId(), horizon, 10);
+
+    // Assert
+    assertThat(all).extracting(LampEntity::getId).containsExactly(second.getId(), first.getId());
+    assertThat(all.get(1).getDeletedAt()).isNotNull();
+    assertThat(all.get(1).getChangeSeq()).isGreaterThan(all.get(0).getChangeSeq());
+    assertThat(rest).extracting(LampEntity::getId).containsExactly(first.getId());
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void shouldHoldTheHorizonBelowAWriteUntilItCommits() throws Exception {
+    // Arrange: a write that started first but commits last
+    final UUID slow = UUID.randomUUID();
+    try (Connection writer = dataSource.getConnection();
+        Statement statement = writer.createStatement()) {
+      writer.setAutoCommit(false);
+      statement.executeUpdate("INSERT INTO lamps (id, is_on) VALUES ('" + slow + "', TRUE)");
+      final LampEntity quick = jpaRepo.saveAndFlush(new LampEntity(UUID.randomUUID(), true));
+
+      // Act: a client catches up while the slow write is in flight
+      final long horizon = repository.findChangeHorizon();
+      final List<LampEntity> inFlight =
+          repository.findChangedAfter(
+              ChangePosition.START.changeSeq(), ChangePosition.START.id(), horizon, 10);
+      writer.commit();
+      final List<LampEntity> committed =
+          repository.findChangedAfter(horizon, new UUID(0, 0), repository.findChangeHorizon(), 10);
+
+      // Assert: neither write is behind the position handed out, and both are returned after it
+      assertThat(inFlight).isEmpty();
+      assertThat(committed).extracting(LampEntity::getId).containsExactly(slow, quick.getId());
+    }
+  }
+
+  @Test
+  void shouldUpdateStatusInUnsignedIdChunksWithOneStatement() {
+    // Arrange: IDs whose signed and unsigned orders differ, inserted as is since JPA generates IDs
+    final UUID low = new UUID(1, 0);
+    final UUID high = new UUID(-1, 0);
+    final UUID alreadyOff = new UUID(2, 0);
+    insertLamp(high, true, false);
+    insertLamp(low, true, false);
+    insertLamp(alreadyOff, false, false);
+    insertLamp(new UUID(3, 0), true, true);
+    entityManager.clear();
+    final OffsetDateTime at = OffsetDateTime.parse("2024-03-01T10:00:00Z");
+    final OffsetDateTime from = OffsetDateTime.parse("2000-01-01T00:00:00Z");
+    final OffsetDateTime to = OffsetDateTime.now().plusDays(1);
+
+    // Act
+    final List<LampEntity> first =
+        repository.updateStatus(new StatusUpdate(false, from, to, Set.of()), new UUID(0, 0), at, 1);
+    final List<LampEntity> rest =
+        repository.updateStatus(new StatusUpdate(false, from, to, Set.of()), low, at, 10);
+    final List<LampEntity> byIds =
+        repository.updateStatus(
+            new StatusUpdate(true, from, to, Set.of(high)), new UUID(0, 0), at, 10);
+    entityManager.clear();
+
+    // Assert
+    assertThat(first).extracting(LampEntity::getId).containsExactly(low);
+    assertThat(first.get(0).getStatus()).isFalse();
+    assertThat(first.get(0).getUpdatedAt()).isAtSameInstantAs(at);
+    assertThat(rest).extracting(LampEntity::getId).containsExactly(high);
+    assertThat(byIds).extracting(LampEntity::getId).containsExactly(high);
+    assertThat(jpaRepo.findById(low).orElseThrow().getStatus()).isFalse();
+    assertThat(jpaRepo.findById(high).orElseThrow().getStatus()).isTrue();
+    assertThat(jpaRepo.findById(alreadyOff).orElseThrow().getUpdatedAt()).isAfter(at);
+  }
+
+  @Test
+  void updateStatus_ShouldLeaveNoStaleCopyOfAChangedLampInThePersistenceContext() {
+    // Arrange: the lamp is read, and so managed, before the statement changes its row
+    final LampEntity lamp = jpaRepo.save(new LampEntity(UUID.randomUUID(), true));
+    jpaRepo.flush();
+    final LampEntity managed = jpaRepo.findById(lamp.getId()).orElseThrow();
+    final OffsetDateTime at = OffsetDateTime.parse("2024-03-01T10:00:00Z");
+
+    // Act
+    final List<LampEntity> changed =
+        repository.updateStatus(
+            new StatusUpdate(
+                false,
+                StatusUpdate.ANY_CREATED_FROM,
+                StatusUpdate.ANY_CREATED_TO,
+                Set.of(lamp.getId())),
+            new UUID(0, 0),
+            at,
+            10);
+
+    // Assert
+    assertThat(changed).singleElement().isNotSameAs(managed);
+    assertThat(changed.get(0).getStatus()).isFalse();
+    assertThat(changed.get(0).getUpdatedAt()).isAtSameInstantAs(at);
+    assertThat(changed.get(0).getCreatedAt()).isNotNull();
+    assertThat(entityManager.contains(managed)).isFalse();
+    assertThat(entityManager.contains(changed.get(0))).isFalse();
+    assertThat(jpaRepo.findById(lamp.getId()).orElseThrow().getStatus()).isFalse();
+  }
+
+  private void insertLamp(final UUID id, final boolean on, final boolean deleted) {
+    entityManager
+        .createNativeQuery(
+            "INSERT INTO lamps (id, is_on, deleted_at) VALUES (?1, ?2, CASE WHEN ?3 THEN now() END)")
+        .setParameter(1, id)
+        .setParameter(2, on)
+        .setParameter(3, deleted)
+        .executeUpdate();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<UUID> storedIds() {
+    return entityManager.createNativeQuery("SELECT id FROM lamps", UUID.class).getResultList();
+  }
 }
@@ -0,0 +1,119 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampAnalytics;
+import org.openapitools.service.LampAnalytics.StatusTotals;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampStateHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Lamp analytics kept in the lamp writes' transactions, against PostgreSQL. */
+@SpringBootTest(properties = {"lamp.warmup.enabled=false", "lamp.analytics.backfill.enabled=false"})
+@Testcontainers
+class LampAnalyticsIntegrationTest {
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(final DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    registry.add("spring.flyway.enabled", () -> "true");
+  }
+
+  @Autowired private LampService lampService;
+
+  @Autowired private LampAnalytics analytics;
+
+  @Autowired private LampStateHistory history;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private DataSource dataSource;
+
+  @Test
+  void writes_ShouldMoveTheTotalsWithTheLamps() {
+    // Given
+    StatusTotals before = analytics.statusTotals();
+
+    // When
+    Lamp first = lampService.create(new Lamp().status(true));
+    lampService.create(new Lamp().status(true));
+    lampService.create(new Lamp().status(false));
+    lampService.update(first.getId(), new Lamp().status(false));
+    lampService.delete(first.getId());
+
+    // Then
+    StatusTotals after = analytics.statusTotals();
+    assertThat(after.totalLamps() - before.totalLamps()).isEqualTo(2);
+    assertThat(after.lampsOn() - before.lampsOn()).isEqualTo(1);
+    assertThat(after.totalLamps()).isEqualTo(activeLamps());
+  }
+
+  @Test
+  void rolledBackWrite_ShouldLeaveTheTotalsAlone() {
+    // Given
+    StatusTotals before = analytics.statusTotals();
+
+    // When
+    UUID created =
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status -> {
+                  Lamp lamp = lampService.create(new Lamp().status(true));
+                  status.setRollbackOnly();
+                  return lamp.getId();
+                });
+
+    // Then
+    assertThat(lampService.findById(created)).isEmpty();
+    assertThat(analytics.statusTotals()).isEqualTo(before);
+    assertThat(analytics.statusTotals().totalLamps()).isEqualTo(activeLamps());
+  }
+
+  @Test
+  void history_ShouldBeStampedWithTheLampsUpdatedAt() {
+    // Given
+    Lamp lamp = lampService.create(new Lamp().status(false));
+
+    // When
+    Lamp updated = lampService.update(lamp.getId(), new Lamp().status(true));
+
+    // Then
+    OffsetDateTime stored =
+        new JdbcTemplate(dataSource)
+            .queryForObject(
+                "SELECT updated_at FROM lamps WHERE id = ?", OffsetDateTime.class, lamp.getId());
+    assertThat(updated.getUpdatedAt()).isAtSameInstantAs(stored);
+    assertThat(history.history(lamp.getId(), Instant.EPOCH, Instant.now().plusSeconds(1), 10))
+        .extracting(change -> change.changedAt().toInstant())
+        .containsExactly(lamp.getUpdatedAt().toInstant(), stored.toInstant());
+  }
+
+  private long activeLamps() {
+    return new JdbcTemplate(dataSource)
+        .queryForObject("SELECT count(*) FROM lamps WHERE deleted_at IS NULL", Long.class);
+  }
+}
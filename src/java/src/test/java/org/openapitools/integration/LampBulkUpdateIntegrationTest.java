@@ -0,0 +1,119 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampAnalytics;
+import org.openapitools.service.LampBulkUpdate.BulkJob;
+import org.openapitools.service.LampBulkUpdate.State;
+import org.openapitools.service.LampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * {@code POST /v1/lamps/bulk-status} against PostgreSQL: the chunked set-based update of the
+ * matching lamps, and the caches and counters it keeps in step.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"lamp.warmup.enabled=false", "lamp.bulk.chunk-size=2"})
+@Testcontainers
+class LampBulkUpdateIntegrationTest {
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(final DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    registry.add("spring.flyway.enabled", () -> "true");
+  }
+
+  @LocalServerPort private int port;
+
+  @Autowired private LampService lampService;
+
+  @Autowired private LampAnalytics analytics;
+
+  @Autowired private DataSource dataSource;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void bulkStatus_ShouldTurnOffEveryActiveLampThatIsOn() throws Exception {
+    // Given: five lamps on, one off and one on but deleted
+    final List<UUID> on = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      on.add(lampService.create(new Lamp().status(true)).getId());
+    }
+    final UUID off = lampService.create(new Lamp().status(false)).getId();
+    final UUID deleted = lampService.create(new Lamp().status(true)).getId();
+    lampService.delete(deleted);
+    assertThat(lampService.findById(on.get(0))).get().extracting(Lamp::getStatus).isEqualTo(true);
+
+    // When
+    final HttpResponse<String> response =
+        send(
+            HttpRequest.newBuilder(uri("/v1/lamps/bulk-status"))
+                .header("Content-Type", "application/json")
+                .POST(
+                    HttpRequest.BodyPublishers.ofString(
+                        "{\"status\":false,\"currentStatus\":true}")));
+
+    // Then
+    assertThat(response.statusCode()).isEqualTo(200);
+    final BulkJob job = objectMapper.readValue(response.body(), BulkJob.class);
+    assertThat(job.state()).isEqualTo(State.SUCCEEDED);
+    assertThat(job.updated()).isEqualTo(5);
+    assertThat(job.chunks()).isEqualTo(3);
+    final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM lamps WHERE deleted_at IS NULL AND is_on", Long.class))
+        .isZero();
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT is_on FROM lamps WHERE id = ?", Boolean.class, deleted))
+        .isTrue();
+    for (final UUID id : on) {
+      final HttpResponse<String> lamp = send(HttpRequest.newBuilder(uri("/v1/lamps/" + id)).GET());
+      assertThat(objectMapper.readValue(lamp.body(), Lamp.class).getStatus()).isFalse();
+    }
+    assertThat(lampService.findById(off)).get().extracting(Lamp::getStatus).isEqualTo(false);
+    assertThat(analytics.statusTotals().lampsOn()).isZero();
+  }
+
+  private URI uri(final String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private static HttpResponse<String> send(final HttpRequest.Builder request) throws Exception {
+    return HttpClient.newHttpClient()
+        .send(
+            request.header("Accept", "application/json").build(),
+            HttpResponse.BodyHandlers.ofString());
+  }
+}
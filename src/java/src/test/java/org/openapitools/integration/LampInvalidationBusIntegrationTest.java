@@ -0,0 +1,166 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.OpenApiGeneratorApplication;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampInvalidationBus;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampsInvalidatedEvent;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration test for LampInvalidationBus: two application instances share one PostgreSQL
+ * database, and writes through one must invalidate the other via LISTEN/NOTIFY.
+ */
+@Testcontainers
+class LampInvalidationBusIntegrationTest {
+
+  private static final String LISTENER_QUERY = "LISTEN " + LampInvalidationBus.CHANNEL;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private final List<LampsInvalidatedEvent> receivedByFirst = new CopyOnWriteArrayList<>();
+  private final List<LampsInvalidatedEvent> receivedBySecond = new CopyOnWriteArrayList<>();
+
+  private ConfigurableApplicationContext first;
+  private ConfigurableApplicationContext second;
+
+  @BeforeEach
+  void setUp() {
+    first = instance(receivedByFirst);
+    second = instance(receivedBySecond);
+    await().atMost(Duration.ofSeconds(10)).until(() -> listenerCount() == 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    first.close();
+    second.close();
+  }
+
+  @Test
+  void writesOnOneInstance_ShouldInvalidateTheOther() {
+    // Given
+    LampService lamps = first.getBean(LampService.class);
+
+    // When
+    Lamp created = lamps.create(new Lamp(UUID.randomUUID(), true));
+    lamps.update(created.getId(), new Lamp(created.getId(), false));
+    lamps.delete(created.getId());
+
+    // Then
+    await().atMost(Duration.ofSeconds(10)).until(() -> invalidated(receivedBySecond).size() >= 1);
+    assertThat(invalidated(receivedBySecond)).containsExactly(created.getId());
+    assertThat(receivedByFirst).isEmpty();
+  }
+
+  @Test
+  void burstOfWrites_ShouldBeBatchedIntoFewerNotifications() {
+    // Given
+    LampService lamps = first.getBean(LampService.class);
+    List<UUID> ids = new ArrayList<>();
+
+    // When
+    for (int i = 0; i < 200; i++) {
+      ids.add(lamps.create(new Lamp(UUID.randomUUID(), i % 2 == 0)).getId());
+    }
+
+    // Then
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .until(() -> invalidated(receivedBySecond).containsAll(ids));
+    assertThat(receivedBySecond).hasSizeLessThan(ids.size());
+  }
+
+  @Test
+  void listenerDisconnect_ShouldReconnectAndInvalidateEverything() throws SQLException {
+    // Given
+    LampService lamps = first.getBean(LampService.class);
+
+    // When
+    terminateListeners();
+
+    // Then
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .until(() -> receivedBySecond.contains(LampsInvalidatedEvent.everything()));
+    await().atMost(Duration.ofSeconds(10)).until(() -> listenerCount() == 2);
+    Lamp created = lamps.create(new Lamp(UUID.randomUUID(), true));
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .until(() -> invalidated(receivedBySecond).contains(created.getId()));
+  }
+
+  private static ConfigurableApplicationContext instance(
+      final List<LampsInvalidatedEvent> received) {
+    return new SpringApplicationBuilder(OpenApiGeneratorApplication.class)
+        .listeners(ApplicationListener.<LampsInvalidatedEvent>forPayload(received::add))
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "spring.flyway.enabled=true",
+            "server.port=0",
+            "lamp.warmup.enabled=false",
+            "lamp.invalidation.flush-delay-ms=50",
+            "lamp.invalidation.retry-delay-ms=100")
+        .run();
+  }
+
+  private static Set<UUID> invalidated(final List<LampsInvalidatedEvent> events) {
+    return events.stream().flatMap(event -> event.lampIds().stream()).collect(Collectors.toSet());
+  }
+
+  private static int listenerCount() throws SQLException {
+    try (Connection connection = admin();
+        Statement statement = connection.createStatement();
+        ResultSet result =
+            statement.executeQuery(
+                "SELECT count(*) FROM pg_stat_activity WHERE query = '" + LISTENER_QUERY + "'")) {
+      result.next();
+      return result.getInt(1);
+    }
+  }
+
+  private static void terminateListeners() throws SQLException {
+    try (Connection connection = admin();
+        Statement statement = connection.createStatement()) {
+      statement.execute(
+          "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = '"
+              + LISTENER_QUERY
+              + "'");
+    }
+  }
+
+  private static Connection admin() throws SQLException {
+    return DriverManager.getConnection(
+        postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+  }
+}
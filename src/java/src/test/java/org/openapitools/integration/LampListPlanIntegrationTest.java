@@ -0,0 +1,233 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.JdbcLampRows;
+import org.openapitools.repository.LampListSql;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Plan assertions for the filtered lists of migration V8: every combination of status filter, time
+ * range bounds, sort order and keyset position is served by an index, on a partitioned lamps table
+ * as well as on an unpartitioned one whose online copy is pending. The default page of whole lamps
+ * is an index-only scan of the covering index of migration V9, and {@link JdbcLampRows} reads its
+ * rows with their times to the microsecond.
+ *
+ * <p>Sequential scans are disabled for the session, so the planner only falls back to one when no
+ * index can serve the statement; on a test table of a few thousand rows it would otherwise rightly
+ * prefer reading a few pages to any index.
+ */
+@Testcontainers
+class LampListPlanIntegrationTest {
+
+  // One more than migration V5 copies inline.
+  private static final int LARGE_TABLE = 100_001;
+
+  private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+  private static final String RELKIND =
+      "SELECT relkind::text FROM pg_class WHERE relname = 'lamps'";
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new SingleConnectionDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    flyway(MigrationVersion.LATEST).clean();
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  void partitionedTable_ShouldServeEveryCombinationFromAnIndex() {
+    // Given
+    flyway(MigrationVersion.LATEST).migrate();
+    insertLamps(10_000);
+
+    // When & Then
+    assertThat(jdbcTemplate.queryForObject(RELKIND, String.class)).isEqualTo("p");
+    assertNoSequentialScans();
+    assertIndexOnlyWindow();
+  }
+
+  @Test
+  void unpartitionedTable_ShouldServeEveryCombinationFromAnIndex() {
+    // Given: too large for V5 to copy inline, so lamps stays a plain table
+    flyway(MigrationVersion.fromVersion("4")).migrate();
+    insertLamps(LARGE_TABLE);
+    flyway(MigrationVersion.LATEST).migrate();
+
+    // When & Then
+    assertThat(jdbcTemplate.queryForObject(RELKIND, String.class)).isEqualTo("r");
+    assertNoSequentialScans();
+    assertIndexOnlyWindow();
+  }
+
+  @Test
+  void defaultWindowRows_ShouldHoldTheExactTimesOfTheLamps() throws Exception {
+    // Given: a thousand lamps, one of them from before the epoch
+    flyway(MigrationVersion.LATEST).migrate();
+    insertLamps(1_000);
+    jdbcTemplate.update(
+        "INSERT INTO lamps (is_on, created_at, updated_at) VALUES "
+            + "(true, '1969-12-31 23:59:58.000001+00', '1969-12-31 23:59:59.999999+00')");
+    final List<String> expected =
+        jdbcTemplate.query(
+            "SELECT id::text, created_at, updated_at FROM lamps WHERE deleted_at IS NULL"
+                + " ORDER BY created_at, id LIMIT 200 OFFSET 0",
+            (rs, row) ->
+                rs.getString(1)
+                    + " "
+                    + micros(rs.getObject(2, OffsetDateTime.class))
+                    + " "
+                    + micros(rs.getObject(3, OffsetDateTime.class)));
+    final List<String> rows = new ArrayList<>();
+
+    // When
+    final int count =
+        new JdbcLampRows(dataSource)
+            .forEachActive(
+                0,
+                200,
+                (id, status, createdAtMicros, updatedAtMicros) ->
+                    rows.add(
+                        new String(id, StandardCharsets.US_ASCII)
+                            + " "
+                            + createdAtMicros
+                            + " "
+                            + updatedAtMicros));
+
+    // Then
+    assertThat(count).isEqualTo(200);
+    assertThat(rows).isEqualTo(expected);
+    assertThat(rows.get(0)).endsWith(" -1999999 -1");
+  }
+
+  private static long micros(final OffsetDateTime time) {
+    return ChronoUnit.MICROS.between(Instant.EPOCH, time.toInstant());
+  }
+
+  private void assertNoSequentialScans() {
+    jdbcTemplate.execute("ANALYZE lamps");
+    jdbcTemplate.execute("SET enable_seqscan = off");
+    final NamedParameterJdbcTemplate explain = new NamedParameterJdbcTemplate(jdbcTemplate);
+    final SortPosition middle = new SortPosition(NOW.minusDays(3), UUID.randomUUID());
+    int statements = 0;
+    for (final ListFilter filter : filters()) {
+      for (final ListSort sort : ListSort.values()) {
+        for (final Optional<SortPosition> after :
+            List.of(Optional.<SortPosition>empty(), Optional.of(middle))) {
+          final LampListSql statement = LampListSql.forPage(filter, sort, after, 26);
+          final String plan =
+              String.join(
+                  "\n",
+                  explain.queryForList(
+                      "EXPLAIN " + statement.sql(), statement.parameters(), String.class));
+          assertThat(plan).as(statement.sql()).contains("Index").doesNotContain("Seq Scan");
+          statements++;
+        }
+      }
+    }
+    assertThat(statements).isEqualTo(256);
+  }
+
+  /**
+   * The window of whole lamps reads every column from the index: no heap fetches once vacuum has
+   * marked the pages all-visible.
+   */
+  private void assertIndexOnlyWindow() {
+    jdbcTemplate.execute("VACUUM ANALYZE lamps");
+    final LampListSql statement = LampListSql.forWindow(PageRequest.of(40, 25), LampField.ALL);
+    final String plan =
+        String.join(
+            "\n",
+            new NamedParameterJdbcTemplate(jdbcTemplate)
+                .queryForList(
+                    "EXPLAIN (ANALYZE, COSTS OFF) " + statement.sql(),
+                    statement.parameters(),
+                    String.class));
+    assertThat(plan)
+        .as(statement.sql())
+        .contains("Index Only Scan using")
+        .contains("Heap Fetches: 0")
+        .doesNotContain("Seq Scan");
+  }
+
+  /** With and without a status, and each bound of both ranges present or absent. */
+  private static List<ListFilter> filters() {
+    final List<ListFilter> filters = new ArrayList<>();
+    for (int bounds = 0; bounds < 16; bounds++) {
+      for (final Optional<Boolean> status : List.of(Optional.<Boolean>empty(), Optional.of(true))) {
+        filters.add(
+            new ListFilter(
+                status,
+                bound(bounds, 1, NOW.minusDays(7)),
+                bound(bounds, 2, NOW.minusDays(1)),
+                bound(bounds, 4, NOW.minusDays(6)),
+                bound(bounds, 8, NOW)));
+      }
+    }
+    return filters;
+  }
+
+  private static Optional<OffsetDateTime> bound(
+      final int bounds, final int bit, final OffsetDateTime at) {
+    return (bounds & bit) == 0 ? Optional.empty() : Optional.of(at);
+  }
+
+  /** Lamps created over ten days, updated up to a day later, alternately on and off. */
+  private void insertLamps(final int lamps) {
+    jdbcTemplate.update(
+        "INSERT INTO lamps (is_on, created_at, updated_at) "
+            + "SELECT i % 2 = 0, now() - make_interval(secs => i * 864000.0 / ?), "
+            + "now() - make_interval(secs => i * 864000.0 / ?) + make_interval(mins => i % 1440) "
+            + "FROM generate_series(1, ?) AS i",
+        lamps, lamps, lamps);
+  }
+
+  private Flyway flyway(final MigrationVersion target) {
+    return Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration")
+        .cleanDisabled(false)
+        .target(target)
+        .load();
+  }
+}
@@ -0,0 +1,254 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.service.LampTablePartitioning;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration test for the partitioned lamps table of migration V5: the inline migration of small
+ * tables, the online copy and cutover of large ones, partition pruning of entity queries and the ID
+ * uniqueness across partitions of migration V10.
+ */
+@Testcontainers
+class LampTablePartitioningIntegrationTest {
+
+  // One more than the migration copies inline.
+  private static final int LARGE_TABLE = 100_001;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  private DriverManagerDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    flyway(MigrationVersion.LATEST).clean();
+  }
+
+  @Test
+  void smallTable_ShouldBePartitionedByTheMigration() {
+    // Given
+    flyway(MigrationVersion.fromVersion("4")).migrate();
+    insertLamps(10, 3);
+
+    // When
+    flyway(MigrationVersion.LATEST).migrate();
+
+    // Then
+    assertThat(relkind("lamps")).isEqualTo("p");
+    assertThat(count("lamps_active")).isEqualTo(7);
+    assertThat(count("lamps_deleted")).isEqualTo(3);
+  }
+
+  @Test
+  void largeTable_ShouldBeCopiedOnlineAndSwapped() {
+    // Given
+    flyway(MigrationVersion.fromVersion("4")).migrate();
+    insertLamps(LARGE_TABLE, 1_000);
+    flyway(MigrationVersion.LATEST).migrate();
+    assertThat(relkind("lamps")).isEqualTo("r");
+    LampTablePartitioning partitioning =
+        new LampTablePartitioning(dataSource, true, true, 20_000, 0, "5s");
+
+    // When: writes land before, inside and after the copied range
+    assertThat(partitioning.copyBatch()).isEqualTo(20_000);
+    UUID first = firstId();
+    UUID last = lastId();
+    jdbcTemplate.update("UPDATE lamps SET is_on = NOT is_on WHERE id = ?", first);
+    jdbcTemplate.update("UPDATE lamps SET deleted_at = now() WHERE id = ?", last);
+    jdbcTemplate.update("INSERT INTO lamps (is_on) VALUES (TRUE)");
+    boolean partitioned = partitioning.run();
+
+    // Then
+    assertThat(partitioned).isTrue();
+    assertThat(partitioning.isPending()).isFalse();
+    assertThat(relkind("lamps")).isEqualTo("p");
+    assertThat(count("lamps")).isEqualTo(count("lamps_unpartitioned"));
+    assertThat(count("lamps_deleted")).isEqualTo(1_001);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM lamps_unpartitioned o JOIN lamps n USING (id) "
+                    + "WHERE o.is_on = n.is_on AND o.deleted_at IS NOT DISTINCT FROM n.deleted_at "
+                    + "AND o.change_seq = n.change_seq",
+                Long.class))
+        .isEqualTo(count("lamps_unpartitioned"));
+    assertThat(count("lamp_ids")).isEqualTo(count("lamps"));
+    assertThatThrownBy(
+            () -> jdbcTemplate.update("INSERT INTO lamps (id, is_on) VALUES (?, TRUE)", last))
+        .isInstanceOf(DuplicateKeyException.class);
+  }
+
+  @Test
+  void idsOfLampsInEitherPartition_ShouldNotBeReused() {
+    // Given
+    flyway(MigrationVersion.LATEST).migrate();
+    insertLamps(2, 1);
+    UUID deleted =
+        jdbcTemplate.queryForObject(
+            "SELECT id FROM lamps WHERE deleted_at IS NOT NULL", UUID.class);
+    UUID active =
+        jdbcTemplate.queryForObject("SELECT id FROM lamps WHERE deleted_at IS NULL", UUID.class);
+
+    // When: a deleted lamp moves back and forth, then its ID is inserted as a new lamp
+    jdbcTemplate.update("UPDATE lamps SET deleted_at = NULL WHERE id = ?", deleted);
+    jdbcTemplate.update("UPDATE lamps SET deleted_at = now() WHERE id = ?", deleted);
+
+    // Then
+    assertThatThrownBy(
+            () -> jdbcTemplate.update("INSERT INTO lamps (id, is_on) VALUES (?, TRUE)", deleted))
+        .isInstanceOf(DuplicateKeyException.class);
+    assertThatThrownBy(
+            () ->
+                jdbcTemplate.update(
+                    "INSERT INTO lamps (id, is_on, deleted_at) VALUES (?, TRUE, now())", active))
+        .isInstanceOf(DuplicateKeyException.class);
+    assertThat(count("lamp_ids")).isEqualTo(2);
+    jdbcTemplate.update("DELETE FROM lamps WHERE id = ?", deleted);
+    assertThat(count("lamp_ids")).isEqualTo(1);
+  }
+
+  @Test
+  void activeLampQueries_ShouldOnlyScanTheActivePartition() {
+    // Given
+    flyway(MigrationVersion.LATEST).migrate();
+    insertLamps(100, 10);
+    jdbcTemplate.execute("ANALYZE lamps");
+
+    // When
+    List<String> get =
+        explain(
+            "SELECT * FROM lamps l WHERE l.id = '"
+                + UUID.randomUUID()
+                + "' AND (l.deleted_at IS NULL)");
+    List<String> page =
+        explain(
+            "SELECT * FROM lamps l WHERE (l.deleted_at IS NULL) AND l.deleted_at IS NULL "
+                + "ORDER BY l.created_at, l.id OFFSET 25 LIMIT 26");
+    List<String> count = explain("SELECT count(l.id) FROM lamps l WHERE l.deleted_at IS NULL");
+
+    // Then
+    for (List<String> plan : List.of(get, page, count)) {
+      assertThat(String.join("\n", plan)).contains("lamps_active").doesNotContain("lamps_deleted");
+    }
+  }
+
+  /**
+   * The race {@code LampService} runs a write again for: an update waiting on a soft delete that
+   * moves the row to the other partition fails with a serialization failure once the delete
+   * commits, where on one table it would go on to update the row.
+   */
+  @Test
+  void updateWaitingOnASoftDelete_ShouldFailAsASerializationFailure() throws Exception {
+    // Given: a soft delete of a lamp, not committed yet
+    flyway(MigrationVersion.LATEST).migrate();
+    insertLamps(1, 0);
+    final UUID id = firstId();
+    final ExecutorService updater = Executors.newSingleThreadExecutor();
+    try (Connection deleting = dataSource.getConnection();
+        Connection updating = dataSource.getConnection()) {
+      deleting.setAutoCommit(false);
+      try (PreparedStatement delete =
+          deleting.prepareStatement("UPDATE lamps SET deleted_at = now() WHERE id = ?")) {
+        delete.setObject(1, id);
+        delete.executeUpdate();
+      }
+
+      // When: an update of the lamp waits for the delete, which then commits
+      final Future<Integer> update =
+          updater.submit(
+              () -> {
+                try (PreparedStatement statement =
+                    updating.prepareStatement("UPDATE lamps SET is_on = NOT is_on WHERE id = ?")) {
+                  statement.setObject(1, id);
+                  return statement.executeUpdate();
+                }
+              });
+      await()
+          .atMost(Duration.ofSeconds(10))
+          .until(
+              () ->
+                  jdbcTemplate.queryForObject(
+                          "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'",
+                          Long.class)
+                      > 0);
+      deleting.commit();
+
+      // Then
+      assertThatThrownBy(update::get)
+          .cause()
+          .isInstanceOfSatisfying(
+              SQLException.class, e -> assertThat(e.getSQLState()).isEqualTo("40001"));
+    } finally {
+      updater.shutdownNow();
+    }
+    assertThat(count("lamps_deleted")).isEqualTo(1);
+  }
+
+  private Flyway flyway(final MigrationVersion target) {
+    return Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration")
+        .cleanDisabled(false)
+        .target(target)
+        .load();
+  }
+
+  private void insertLamps(final int lamps, final int deleted) {
+    jdbcTemplate.update(
+        "INSERT INTO lamps (is_on, deleted_at) "
+            + "SELECT i % 2 = 0, CASE WHEN i <= ? THEN now() END FROM generate_series(1, ?) AS i",
+        deleted, lamps);
+  }
+
+  private List<String> explain(final String sql) {
+    return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+  }
+
+  private String relkind(final String table) {
+    return jdbcTemplate.queryForObject(
+        "SELECT relkind::text FROM pg_class WHERE relname = ?", String.class, table);
+  }
+
+  private long count(final String table) {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+  }
+
+  private UUID firstId() {
+    return jdbcTemplate.queryForObject("SELECT min(id::text)::uuid FROM lamps", UUID.class);
+  }
+
+  private UUID lastId() {
+    return jdbcTemplate.queryForObject(
+        "SELECT max(id::text)::uuid FROM lamps WHERE deleted_at IS NULL", UUID.class);
+  }
+}
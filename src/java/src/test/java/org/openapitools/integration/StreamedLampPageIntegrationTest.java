@@ -0,0 +1,100 @@
+package org.openapitools.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampPageStream;
+import org.openapitools.service.LampService;
+import org.openapitools.service.StreamedLampPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Pages of {@code GET /v1/lamps} streamed from the rows of PostgreSQL are the bytes Jackson writes
+ * for the same page read through {@link LampService}.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"lamp.warmup.enabled=false", "lamp.list.streaming.enabled=true"})
+@Testcontainers
+class StreamedLampPageIntegrationTest {
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_test")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(final DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    registry.add("spring.flyway.enabled", () -> "true");
+  }
+
+  @LocalServerPort private int port;
+
+  @Autowired private LampService lampService;
+
+  @Autowired private LampPageStream pageStream;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void streamedPages_ShouldBeTheBytesOfThePagesThroughModels() throws Exception {
+    // Given
+    for (int i = 0; i < 30; i++) {
+      lampService.create(new Lamp().status(i % 3 == 0));
+    }
+    final LampPageCursor second = new LampPageCursor(25, OptionalLong.empty());
+
+    // When
+    final String first = get("/v1/lamps?pageSize=25");
+    final String last = get("/v1/lamps?pageSize=25&cursor=25");
+
+    // Then
+    assertThat(pageStream.page(LampPageCursor.FIRST, 25))
+        .containsInstanceOf(StreamedLampPage.class);
+    assertThat(first).isEqualTo(throughModels(LampPageCursor.FIRST));
+    assertThat(last).isEqualTo(throughModels(second));
+    assertThat(objectMapper.readValue(first, ListLamps200Response.class).getData()).hasSize(25);
+  }
+
+  private String throughModels(final LampPageCursor cursor) throws Exception {
+    final LampService.PagedLampsResult page = lampService.findAllActivePage(cursor, 25);
+    final ListLamps200Response response = new ListLamps200Response();
+    response.setData(page.data());
+    response.setHasMore(page.hasMore());
+    page.nextCursor().ifPresent(response::nextCursor);
+    return objectMapper.writeValueAsString(response);
+  }
+
+  private String get(final String path) throws Exception {
+    final HttpResponse<String> response =
+        HttpClient.newHttpClient()
+            .send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Accept", "application/json")
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+    assertThat(response.statusCode()).isEqualTo(200);
+    return response.body();
+  }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openapitools.entity.LampEntity;
 import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.LampView;
 
 class LampMapperTest {
 
@@ -43,6 +44,22 @@ class LampMapperTest {
     assertThat(result).isNull();
   }
 
+  @Test
+  void toPartialModel_ShouldLeaveTheFieldsOutsideTheViewNull() {
+    // Given
+    LampView view = new LampView(testId, false, null, null);
+
+    // When
+    Lamp result = lampMapper.toPartialModel(view);
+
+    // Then
+    assertThat(result.getId()).isEqualTo(testId);
+    assertThat(result.getStatus()).isFalse();
+    assertThat(result.getCreatedAt()).isNull();
+    assertThat(result.getUpdatedAt()).isNull();
+    assertThat(lampMapper.toPartialModel(null)).isNull();
+  }
+
   @Test
   void toEntity_WithValidModel_ShouldReturnEntity() {
     // Given
@@ -0,0 +1,174 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.controller.LampsController;
+import org.openapitools.model.Lamp;
+import org.openapitools.model.LampCreate;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Bytes on the wire and server CPU per request for JSON and CBOR bodies.
+ *
+ * <p>Requests run through the full MVC stack against a mocked {@link LampService}, so the
+ * difference between the formats is the message conversion; logging is turned down so it does not
+ * dominate. CPU is the request thread's CPU time, which covers the whole request because the
+ * controller completes its futures on that thread. Run with {@code mvn test -P performance-tests
+ * -Dtest=ContentNegotiationPerformanceTest}.
+ */
+@WebMvcTest(
+    controllers = LampsController.class,
+    properties = {
+      "logging.level.org.springframework.web=WARN",
+      "logging.level.org.openapitools=WARN",
+      "logging.level.org.openapitools.performance=INFO"
+    })
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class ContentNegotiationPerformanceTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(ContentNegotiationPerformanceTest.class);
+
+  private static final int PAGE_SIZE = 100;
+
+  private static final int WARMUP_REQUESTS = 3_000;
+
+  private static final int MEASURED_REQUESTS = 10_000;
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private MappingJackson2CborHttpMessageConverter cborConverter;
+
+  @MockBean private LampService lampService;
+
+  @BeforeEach
+  void setUp() {
+    final OffsetDateTime now = OffsetDateTime.parse("2026-01-01T10:00:00Z");
+    final List<Lamp> lamps = new ArrayList<>();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      lamps.add(new Lamp(UUID.randomUUID(), i % 2 == 0, now, now));
+    }
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
+        .thenReturn(new LampService.PagedLampsResult(lamps, true, Optional.of("100")));
+    when(lampService.create(any(Lamp.class))).thenReturn(lamps.get(0));
+  }
+
+  @Test
+  void listLamps_CborVersusJson() throws Exception {
+    // Given
+    final Supplier<MockHttpServletRequestBuilder> page =
+        () -> get("/v1/lamps").param("pageSize", String.valueOf(PAGE_SIZE));
+
+    // When
+    final Measurement json =
+        measure(() -> page.get().accept(MediaType.APPLICATION_JSON), MediaType.APPLICATION_JSON);
+    final Measurement cbor =
+        measure(() -> page.get().accept(MediaType.APPLICATION_CBOR), MediaType.APPLICATION_CBOR);
+
+    // Then
+    report("GET /v1/lamps?pageSize=" + PAGE_SIZE, json, cbor);
+    assertThat(cbor.responseBytes()).isLessThan(json.responseBytes());
+  }
+
+  @Test
+  void createLamp_CborVersusJson() throws Exception {
+    // Given
+    final LampCreate lampCreate = new LampCreate();
+    lampCreate.setStatus(true);
+    final byte[] jsonBody = objectMapper.writeValueAsBytes(lampCreate);
+    final byte[] cborBody = cborConverter.getObjectMapper().writeValueAsBytes(lampCreate);
+
+    // When
+    final Measurement json =
+        measure(
+            () ->
+                post("/v1/lamps")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(jsonBody)
+                    .accept(MediaType.APPLICATION_JSON),
+            MediaType.APPLICATION_JSON);
+    final Measurement cbor =
+        measure(
+            () ->
+                post("/v1/lamps")
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .content(cborBody)
+                    .accept(MediaType.APPLICATION_CBOR),
+            MediaType.APPLICATION_CBOR);
+
+    // Then
+    report(
+        "POST /v1/lamps (request " + jsonBody.length + " vs " + cborBody.length + " B)",
+        json,
+        cbor);
+    assertThat(cbor.responseBytes()).isLessThan(json.responseBytes());
+  }
+
+  private Measurement measure(
+      final Supplier<MockHttpServletRequestBuilder> request, final MediaType expected)
+      throws Exception {
+    int bytes = 0;
+    for (int i = 0; i < WARMUP_REQUESTS; i++) {
+      bytes = perform(request.get(), expected);
+    }
+    final long start = THREADS.getCurrentThreadCpuTime();
+    for (int i = 0; i < MEASURED_REQUESTS; i++) {
+      perform(request.get(), expected);
+    }
+    final long cpuNanos = THREADS.getCurrentThreadCpuTime() - start;
+    return new Measurement(bytes, cpuNanos / (double) MEASURED_REQUESTS / 1_000);
+  }
+
+  private int perform(final MockHttpServletRequestBuilder request, final MediaType expected)
+      throws Exception {
+    final MvcResult started = mockMvc.perform(request).andReturn();
+    final MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+    assertThat(result.getResponse().getContentType()).isEqualTo(expected.toString());
+    return result.getResponse().getContentAsByteArray().length;
+  }
+
+  private static void report(final String label, final Measurement json, final Measurement cbor) {
+    logger.info(
+        "{}: JSON {} B, {} us CPU/request; CBOR {} B, {} us CPU/request ({}% bytes, {}% CPU)",
+        label,
+        json.responseBytes(),
+        String.format("%.1f", json.cpuMicros()),
+        cbor.responseBytes(),
+        String.format("%.1f", cbor.cpuMicros()),
+        Math.round(100.0 * cbor.responseBytes() / json.responseBytes()),
+        Math.round(100.0 * cbor.cpuMicros() / json.cpuMicros()));
+  }
+
+  private record Measurement(int responseBytes, double cpuMicros) {}
+}
@@ -0,0 +1,149 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.OpenApiGeneratorApplication;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Multi-get against a fan-out of single reads: wall time for a client to fetch {@value #BATCH}
+ * lamps over HTTP against PostgreSQL, with one {@code POST /v1/lamps/batch-get} or with {@value
+ * #BATCH} sequential {@code GET /v1/lamps/{id}}. Requires Docker; run with {@code mvn test -P
+ * performance-tests -Dtest=LampBatchGetPerformanceTest}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class LampBatchGetPerformanceTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampBatchGetPerformanceTest.class);
+
+  private static final int BATCH = 200;
+
+  private static final int WARMUP_ROUNDS = 50;
+
+  private static final int MEASURED_ROUNDS = 200;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_perf")
+          .withUsername("test")
+          .withPassword("test");
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  void batchGet_AgainstSingleGets() throws Exception {
+    try (ConfigurableApplicationContext context = instance()) {
+      // Given
+      final LampService lamps = context.getBean(LampService.class);
+      final List<UUID> ids = new ArrayList<>();
+      for (int i = 0; i < BATCH; i++) {
+        ids.add(lamps.create(new Lamp(UUID.randomUUID(), i % 2 == 0)).getId());
+      }
+      final URI base =
+          URI.create(
+              "http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+      // When: alternate rounds so drift in the container does not favour one side
+      final long[] fanOut = new long[MEASURED_ROUNDS];
+      final long[] batch = new long[MEASURED_ROUNDS];
+      for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+        final long fanOutNanos = singleGets(base, ids);
+        final long batchNanos = batchGet(base, ids);
+        if (round >= WARMUP_ROUNDS) {
+          fanOut[round - WARMUP_ROUNDS] = fanOutNanos;
+          batch[round - WARMUP_ROUNDS] = batchNanos;
+        }
+      }
+
+      // Then
+      report(BATCH + " single GETs", fanOut);
+      report("one batch-get", batch);
+      assertThat(percentile(batch, 0.5)).isPositive();
+    }
+  }
+
+  private long singleGets(final URI base, final List<UUID> ids)
+      throws IOException, InterruptedException {
+    final long start = System.nanoTime();
+    for (final UUID id : ids) {
+      send(HttpRequest.newBuilder(base.resolve("/v1/lamps/" + id)).GET().build());
+    }
+    return System.nanoTime() - start;
+  }
+
+  private long batchGet(final URI base, final List<UUID> ids)
+      throws IOException, InterruptedException {
+    final String body =
+        ids.stream()
+            .map(id -> "\"" + id + "\"")
+            .collect(Collectors.joining(",", "{\"ids\":[", "]}"));
+    final long start = System.nanoTime();
+    send(
+        HttpRequest.newBuilder(base.resolve("/v1/lamps/batch-get"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build());
+    return System.nanoTime() - start;
+  }
+
+  private void send(final HttpRequest request) throws IOException, InterruptedException {
+    final HttpResponse<String> response =
+        client.send(request, HttpResponse.BodyHandlers.ofString());
+    assertThat(response.statusCode()).isEqualTo(200);
+  }
+
+  private static ConfigurableApplicationContext instance() {
+    return new SpringApplicationBuilder(OpenApiGeneratorApplication.class)
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "spring.flyway.enabled=true",
+            "server.port=0",
+            "lamp.warmup.enabled=false",
+            "lamp.grpc.enabled=false",
+            "logging.level.org.openapitools=WARN",
+            "logging.level.org.hibernate=WARN")
+        .run();
+  }
+
+  private static void report(final String label, final long[] samples) {
+    if (logger.isInfoEnabled()) {
+      logger.info(
+          "Fetching {} lamps, {}: p50 {} us, p99 {} us, mean {} us",
+          BATCH,
+          label,
+          percentile(samples, 0.5) / 1_000,
+          percentile(samples, 0.99) / 1_000,
+          Arrays.stream(samples).sum() / samples.length / 1_000);
+    }
+  }
+
+  private static long percentile(final long[] samples, final double quantile) {
+    final long[] sorted = samples.clone();
+    Arrays.sort(sorted);
+    return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))];
+  }
+}
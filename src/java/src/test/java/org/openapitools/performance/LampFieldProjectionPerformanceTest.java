@@ -0,0 +1,160 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.controller.LampsController;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Bytes on the wire and server CPU per request for whole lamps and for the {@code id,status}
+ * projection pollers ask for.
+ *
+ * <p>Requests run through the full MVC stack against a mocked {@link LampService}, so the
+ * difference is the serialization of the two timestamps; the narrower database read of a projection
+ * is not part of it. CPU is the request thread's CPU time, as in {@link
+ * ContentNegotiationPerformanceTest}. Run with {@code mvn test -P performance-tests
+ * -Dtest=LampFieldProjectionPerformanceTest}.
+ */
+@WebMvcTest(
+    controllers = LampsController.class,
+    properties = {
+      "logging.level.org.springframework.web=WARN",
+      "logging.level.org.openapitools=WARN",
+      "logging.level.org.openapitools.performance=INFO"
+    })
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class LampFieldProjectionPerformanceTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(LampFieldProjectionPerformanceTest.class);
+
+  private static final int PAGE_SIZE = 100;
+
+  private static final int WARMUP_REQUESTS = 3_000;
+
+  private static final int MEASURED_REQUESTS = 10_000;
+
+  private static final Set<LampField> ID_AND_STATUS = EnumSet.of(LampField.ID, LampField.STATUS);
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private LampService lampService;
+
+  private UUID lampId;
+
+  @BeforeEach
+  void setUp() {
+    final OffsetDateTime now = OffsetDateTime.parse("2026-01-01T10:00:00.123456Z");
+    final List<Lamp> lamps = new ArrayList<>();
+    final List<Lamp> projected = new ArrayList<>();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      final UUID id = UUID.randomUUID();
+      lamps.add(new Lamp(id, i % 2 == 0, now, now));
+      projected.add(new Lamp().id(id).status(i % 2 == 0));
+    }
+    lampId = lamps.get(0).getId();
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt()))
+        .thenReturn(new LampService.PagedLampsResult(lamps, true, Optional.of("100")));
+    when(lampService.findAllActivePage(any(LampPageCursor.class), anyInt(), eq(ID_AND_STATUS)))
+        .thenReturn(new LampService.PagedLampsResult(projected, true, Optional.of("100")));
+    when(lampService.findById(lampId)).thenReturn(Optional.of(lamps.get(0)));
+    when(lampService.findById(lampId, ID_AND_STATUS)).thenReturn(Optional.of(projected.get(0)));
+  }
+
+  @Test
+  void listLamps_ProjectedVersusWhole() throws Exception {
+    // Given
+    final Supplier<MockHttpServletRequestBuilder> page =
+        () -> get("/v1/lamps").param("pageSize", String.valueOf(PAGE_SIZE));
+
+    // When
+    final Measurement whole = measure(page);
+    final Measurement projected = measure(() -> page.get().param("fields", "id,status"));
+
+    // Then
+    report("GET /v1/lamps?pageSize=" + PAGE_SIZE, whole, projected);
+    assertThat(projected.responseBytes()).isLessThan(whole.responseBytes());
+  }
+
+  @Test
+  void getLamp_ProjectedVersusWhole() throws Exception {
+    // Given
+    final Supplier<MockHttpServletRequestBuilder> lamp = () -> get("/v1/lamps/{id}", lampId);
+
+    // When
+    final Measurement whole = measure(lamp);
+    final Measurement projected = measure(() -> lamp.get().param("fields", "id,status"));
+
+    // Then
+    report("GET /v1/lamps/{id}", whole, projected);
+    assertThat(projected.responseBytes()).isLessThan(whole.responseBytes());
+  }
+
+  private Measurement measure(final Supplier<MockHttpServletRequestBuilder> request)
+      throws Exception {
+    int bytes = 0;
+    for (int i = 0; i < WARMUP_REQUESTS; i++) {
+      bytes = perform(request.get());
+    }
+    final long start = THREADS.getCurrentThreadCpuTime();
+    for (int i = 0; i < MEASURED_REQUESTS; i++) {
+      perform(request.get());
+    }
+    final long cpuNanos = THREADS.getCurrentThreadCpuTime() - start;
+    return new Measurement(bytes, cpuNanos / (double) MEASURED_REQUESTS / 1_000);
+  }
+
+  private int perform(final MockHttpServletRequestBuilder request) throws Exception {
+    final MvcResult started = mockMvc.perform(request).andReturn();
+    final MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+    assertThat(result.getResponse().getStatus()).isEqualTo(200);
+    return result.getResponse().getContentAsByteArray().length;
+  }
+
+  private static void report(
+      final String label, final Measurement whole, final Measurement projected) {
+    logger.info(
+        "{}: whole {} B, {} us CPU/request; id,status {} B, {} us CPU/request ({}% bytes, {}%"
+            + " CPU)",
+        label,
+        whole.responseBytes(),
+        String.format("%.1f", whole.cpuMicros()),
+        projected.responseBytes(),
+        String.format("%.1f", projected.cpuMicros()),
+        Math.round(100.0 * projected.responseBytes() / whole.responseBytes()),
+        Math.round(100.0 * projected.cpuMicros() / whole.cpuMicros()));
+  }
+
+  private record Measurement(int responseBytes, double cpuMicros) {}
+}
@@ -0,0 +1,132 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.mapper.LampMapper;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.repository.impl.InMemoryLampRepository;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampPagePrefetch;
+import org.openapitools.service.LampService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Wall time of a client walking the whole fleet page by page through {@link
+ * LampService#findAllActivePage}, with and without {@link LampPagePrefetch}. Pages are read by
+ * offset from an in-memory store that waits {@code -Dlamp.traversal.round-trip-us} (default 1000)
+ * per page read, standing in for the database round trip; the client spends {@code
+ * -Dlamp.traversal.think-us} (default 1000) on each page before asking for the next. Run with
+ * {@code mvn test -P performance-tests -Dtest=LampPagePrefetchPerformanceTest}.
+ */
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class LampPagePrefetchPerformanceTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(LampPagePrefetchPerformanceTest.class);
+
+  private static final int FLEET = 20_000;
+
+  private static final int PAGE_SIZE = 100;
+
+  private static final long ROUND_TRIP_NANOS =
+      Long.getLong("lamp.traversal.round-trip-us", 1_000L) * 1_000;
+
+  private static final long THINK_NANOS = Long.getLong("lamp.traversal.think-us", 1_000L) * 1_000;
+
+  private static final int WARMUP_WALKS = 5;
+
+  private static final int MEASURED_WALKS = 10;
+
+  @Test
+  void fullFleetTraversal_WithAndWithoutPrefetch() {
+    // Given
+    final LampRepository repository = remote(new InMemoryLampRepository());
+    for (int i = 0; i < FLEET; i++) {
+      repository.save(new LampEntity(UUID.randomUUID(), i % 2 == 0));
+    }
+    final LampPagePrefetch prefetch = new LampPagePrefetch(true, 2_000, 16);
+    final LampService plain =
+        new LampService(
+            repository,
+            new LampMapper(),
+            event -> {},
+            new LampPagePrefetch(false, 0, 1),
+            Optional.empty());
+    final LampService prefetching =
+        new LampService(repository, new LampMapper(), event -> {}, prefetch, Optional.empty());
+
+    try {
+      // When: alternate walks so drift does not favour one side
+      long plainNanos = 0;
+      long prefetchingNanos = 0;
+      for (int walk = 0; walk < WARMUP_WALKS + MEASURED_WALKS; walk++) {
+        final long plainWalk = walk(plain);
+        prefetch.forgetAll();
+        final long prefetchingWalk = walk(prefetching);
+        if (walk >= WARMUP_WALKS) {
+          plainNanos += plainWalk;
+          prefetchingNanos += prefetchingWalk;
+        }
+      }
+
+      // Then
+      logger.info(
+          "Walking {} lamps in pages of {} (round trip {} us, think time {} us): "
+              + "without prefetch {} ms, with prefetch {} ms",
+          FLEET,
+          PAGE_SIZE,
+          ROUND_TRIP_NANOS / 1_000,
+          THINK_NANOS / 1_000,
+          plainNanos / MEASURED_WALKS / 1_000_000,
+          prefetchingNanos / MEASURED_WALKS / 1_000_000);
+      assertThat(prefetchingNanos).isLessThan(plainNanos);
+    } finally {
+      prefetch.stop();
+    }
+  }
+
+  private static long walk(final LampService service) {
+    final long start = System.nanoTime();
+    Optional<LampPageCursor> cursor = Optional.of(LampPageCursor.FIRST);
+    int lamps = 0;
+    while (cursor.isPresent()) {
+      final LampService.PagedLampsResult page = service.findAllActivePage(cursor.get(), PAGE_SIZE);
+      lamps += page.data().size();
+      cursor = page.nextCursor().flatMap(LampPageCursor::parse);
+      LockSupport.parkNanos(THINK_NANOS);
+    }
+    assertThat(lamps).isEqualTo(FLEET);
+    return System.nanoTime() - start;
+  }
+
+  /** The store without snapshots, paying a round trip for every page. */
+  private static LampRepository remote(final InMemoryLampRepository store) {
+    final LampRepository repository = spy(store);
+    doReturn(Optional.empty())
+        .when(repository)
+        .findActiveInSnapshot(any(OptionalLong.class), anyInt(), anyInt());
+    doAnswer(
+            invocation -> {
+              LockSupport.parkNanos(ROUND_TRIP_NANOS);
+              return invocation.callRealMethod();
+            })
+        .when(repository)
+        .findActiveViews(any(Pageable.class), any(Set.class));
+    return repository;
+  }
+}
@@ -0,0 +1,138 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.OpenApiGeneratorApplication;
+import org.openapitools.mapper.LampMapper;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.repository.LampRepository.LampField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Rows per second of the default lamp page read as managed entities, mapped with {@link
+ * LampMapper#toModel}, and read as {@link LampRepository.LampView}s from the covering index of
+ * migration V9. Both run in a read-only transaction, as {@code LampService} does. The table size
+ * defaults to a million active lamps and is set with {@code -Dlamp.page.rows}. Requires Docker; run
+ * with {@code mvn test -P performance-tests -Dtest=LampPageReadPerformanceTest}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class LampPageReadPerformanceTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(LampPageReadPerformanceTest.class);
+
+  private static final long ROWS = Long.getLong("lamp.page.rows", 1_000_000L);
+
+  private static final int PAGE_SIZE = 100;
+
+  private static final int MAX_PAGE = 2_000;
+
+  private static final int WARMUP_READS = 2_000;
+
+  private static final int MEASURED_READS = 10_000;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_perf")
+          .withUsername("test")
+          .withPassword("test")
+          .withCommand("postgres", "-c", "shared_buffers=512MB");
+
+  @Test
+  void defaultPage_EntitiesVersusViews() {
+    // Given
+    final DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+    jdbcTemplate.update(
+        "INSERT INTO lamps (is_on, created_at) "
+            + "SELECT i % 2 = 0, now() - i * interval '1 second' FROM generate_series(1, ?) AS i",
+        ROWS);
+    jdbcTemplate.execute("VACUUM ANALYZE lamps");
+
+    try (ConfigurableApplicationContext context = instance()) {
+      final LampRepository repository = context.getBean(LampRepository.class);
+      final LampMapper mapper = context.getBean(LampMapper.class);
+      final TransactionTemplate readOnly =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      readOnly.setReadOnly(true);
+
+      // When
+      final double entities =
+          rowsPerSecond(
+              readOnly,
+              page ->
+                  repository.findAllActive(window(page)).stream().map(mapper::toModel).toList());
+      final double views =
+          rowsPerSecond(
+              readOnly,
+              page ->
+                  repository.findActiveViews(window(page), LampField.ALL).stream()
+                      .map(mapper::toPartialModel)
+                      .toList());
+
+      // Then
+      logger.info(
+          "Pages of {} lamps: entities {} rows/s, views {} rows/s",
+          PAGE_SIZE,
+          Math.round(entities),
+          Math.round(views));
+      assertThat(views).isPositive();
+    }
+  }
+
+  private static double rowsPerSecond(
+      final TransactionTemplate readOnly, final IntFunction<List<Lamp>> read) {
+    for (int i = 0; i < WARMUP_READS; i++) {
+      final int page = i % MAX_PAGE;
+      readOnly.execute(status -> read.apply(page));
+    }
+    long rows = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_READS; i++) {
+      final int page = i % MAX_PAGE;
+      rows += readOnly.execute(status -> read.apply(page)).size();
+    }
+    return rows * 1e9 / (System.nanoTime() - start);
+  }
+
+  private static PageRequest window(final int page) {
+    return PageRequest.of(page, PAGE_SIZE);
+  }
+
+  private static ConfigurableApplicationContext instance() {
+    return new SpringApplicationBuilder(OpenApiGeneratorApplication.class)
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "spring.flyway.enabled=true",
+            "server.port=0",
+            "lamp.warmup.enabled=false",
+            "lamp.grpc.enabled=false",
+            "lamp.analytics.backfill.enabled=false",
+            "logging.level.org.openapitools=WARN",
+            "logging.level.org.hibernate=WARN")
+        .run();
+  }
+}
@@ -0,0 +1,119 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.OpenApiGeneratorApplication;
+import org.openapitools.model.Lamp;
+import org.openapitools.service.LampService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Write-path cost of the lamp state history: latency of {@link LampService#update} toggling lamps
+ * against PostgreSQL, with and without recording transitions. Each update flips the status, so
+ * every write with recording on also appends one history row in its transaction. Requires Docker;
+ * run with {@code mvn test -P performance-tests -Dtest=LampStateHistoryPerformanceTest}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class LampStateHistoryPerformanceTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(LampStateHistoryPerformanceTest.class);
+
+  private static final int LAMPS = 100;
+
+  private static final int WARMUP_UPDATES = 5_000;
+
+  private static final int MEASURED_UPDATES = 20_000;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_perf")
+          .withUsername("test")
+          .withPassword("test");
+
+  @Test
+  void update_WithAndWithoutHistory() {
+    // Given & When: alternate runs so drift in the container does not favour one side
+    final long[] without = new long[MEASURED_UPDATES * 2];
+    final long[] with = new long[MEASURED_UPDATES * 2];
+    for (int round = 0; round < 2; round++) {
+      measure(false, without, round * MEASURED_UPDATES);
+      measure(true, with, round * MEASURED_UPDATES);
+    }
+
+    // Then
+    report("history off", without);
+    report("history on", with);
+    assertThat(percentile(with, 0.5)).isPositive();
+  }
+
+  private static void measure(final boolean history, final long[] samples, final int offset) {
+    try (ConfigurableApplicationContext context = instance(history)) {
+      final LampService lamps = context.getBean(LampService.class);
+      final List<UUID> ids = new ArrayList<>();
+      for (int i = 0; i < LAMPS; i++) {
+        ids.add(lamps.create(new Lamp(UUID.randomUUID(), false)).getId());
+      }
+      for (int i = 0; i < WARMUP_UPDATES; i++) {
+        toggle(lamps, ids, i);
+      }
+      for (int i = 0; i < MEASURED_UPDATES; i++) {
+        final long start = System.nanoTime();
+        toggle(lamps, ids, WARMUP_UPDATES + i);
+        samples[offset + i] = System.nanoTime() - start;
+      }
+    }
+  }
+
+  private static void toggle(final LampService lamps, final List<UUID> ids, final int i) {
+    final UUID id = ids.get(i % ids.size());
+    lamps.update(id, new Lamp(id, (i / ids.size()) % 2 == 0));
+  }
+
+  private static ConfigurableApplicationContext instance(final boolean history) {
+    return new SpringApplicationBuilder(OpenApiGeneratorApplication.class)
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "spring.flyway.enabled=true",
+            "server.port=0",
+            "lamp.warmup.enabled=false",
+            "lamp.grpc.enabled=false",
+            "lamp.history.enabled=" + history,
+            "logging.level.org.openapitools=WARN",
+            "logging.level.org.hibernate=WARN")
+        .run();
+  }
+
+  private static void report(final String label, final long[] samples) {
+    if (logger.isInfoEnabled()) {
+      logger.info(
+          "LampService.update, {}: p50 {} us, p99 {} us, mean {} us",
+          label,
+          percentile(samples, 0.5) / 1_000,
+          percentile(samples, 0.99) / 1_000,
+          Arrays.stream(samples).sum() / samples.length / 1_000);
+    }
+  }
+
+  private static long percentile(final long[] samples, final double quantile) {
+    final long[] sorted = samples.clone();
+    Arrays.sort(sorted);
+    return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))];
+  }
+}
@@ -0,0 +1,159 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.OpenApiGeneratorApplication;
+import org.openapitools.service.LampService;
+import org.openapitools.service.LampTablePartitioning;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Get and list latency of {@link LampService} on a large lamps table, before and after migration V5
+ * partitions it, with a fifth of the lamps soft deleted. The table size defaults to 50 million rows
+ * and is set with {@code -Dlamp.partitioning.rows}; filling it takes a while. Requires Docker; run
+ * with {@code mvn test -P performance-tests -Dtest=LampTablePartitioningPerformanceTest}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class LampTablePartitioningPerformanceTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(LampTablePartitioningPerformanceTest.class);
+
+  private static final long ROWS = Long.getLong("lamp.partitioning.rows", 50_000_000L);
+
+  private static final int SAMPLE_IDS = 10_000;
+
+  private static final int WARMUP_READS = 2_000;
+
+  private static final int MEASURED_READS = 10_000;
+
+  private static final int PAGE_SIZE = 25;
+
+  private static final int MAX_PAGE = 400;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16.1-alpine")
+          .withDatabaseName("lampcontrol_perf")
+          .withUsername("test")
+          .withPassword("test")
+          .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_wal_size=8GB");
+
+  @Test
+  void getAndList_BeforeAndAfterPartitioning() {
+    // Given
+    final DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    flyway(dataSource, MigrationVersion.fromVersion("4")).migrate();
+    jdbcTemplate.update(
+        "INSERT INTO lamps (is_on, created_at, deleted_at) "
+            + "SELECT i % 2 = 0, now() - i * interval '1 second', "
+            + "CASE WHEN i % 5 = 0 THEN now() END FROM generate_series(1, ?) AS i",
+        ROWS);
+    jdbcTemplate.execute("VACUUM ANALYZE lamps");
+    final List<UUID> ids =
+        jdbcTemplate.queryForList(
+            "SELECT id FROM lamps TABLESAMPLE SYSTEM (1) WHERE deleted_at IS NULL LIMIT ?",
+            UUID.class,
+            SAMPLE_IDS);
+
+    // When
+    final long[][] before = measure(ids, "4");
+    flyway(dataSource, MigrationVersion.LATEST).migrate();
+    assertThat(new LampTablePartitioning(dataSource, true, true, 50_000, 0, "30s").run()).isTrue();
+    jdbcTemplate.execute("VACUUM ANALYZE lamps");
+    final long[][] after = measure(ids, "latest");
+
+    // Then
+    report("get, unpartitioned", before[0]);
+    report("get, partitioned", after[0]);
+    report("list, unpartitioned", before[1]);
+    report("list, partitioned", after[1]);
+    assertThat(percentile(after[0], 0.5)).isPositive();
+  }
+
+  private static long[][] measure(final List<UUID> ids, final String flywayTarget) {
+    try (ConfigurableApplicationContext context = instance(flywayTarget)) {
+      final LampService lamps = context.getBean(LampService.class);
+      final IntConsumer get = i -> lamps.findById(ids.get(i % ids.size()));
+      final IntConsumer list = i -> lamps.findAllActivePage(i % MAX_PAGE * PAGE_SIZE, PAGE_SIZE);
+      return new long[][] {time(get), time(list)};
+    }
+  }
+
+  private static long[] time(final IntConsumer read) {
+    for (int i = 0; i < WARMUP_READS; i++) {
+      read.accept(i);
+    }
+    final long[] samples = new long[MEASURED_READS];
+    for (int i = 0; i < MEASURED_READS; i++) {
+      final long start = System.nanoTime();
+      read.accept(WARMUP_READS + i);
+      samples[i] = System.nanoTime() - start;
+    }
+    return samples;
+  }
+
+  private static Flyway flyway(
+      final DriverManagerDataSource dataSource, final MigrationVersion target) {
+    return Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration")
+        .target(target)
+        .load();
+  }
+
+  private static ConfigurableApplicationContext instance(final String flywayTarget) {
+    return new SpringApplicationBuilder(OpenApiGeneratorApplication.class)
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl(),
+            "spring.datasource.username=" + postgres.getUsername(),
+            "spring.datasource.password=" + postgres.getPassword(),
+            "spring.flyway.enabled=true",
+            "spring.flyway.target=" + flywayTarget,
+            "server.port=0",
+            "lamp.warmup.enabled=false",
+            "lamp.grpc.enabled=false",
+            "lamp.analytics.backfill.enabled=false",
+            "logging.level.org.openapitools=WARN",
+            "logging.level.org.hibernate=WARN")
+        .run();
+  }
+
+  private static void report(final String label, final long[] samples) {
+    if (logger.isInfoEnabled()) {
+      logger.info(
+          "LampService at {} rows, {}: p50 {} us, p99 {} us, mean {} us",
+          ROWS,
+          label,
+          percentile(samples, 0.5) / 1_000,
+          percentile(samples, 0.99) / 1_000,
+          Arrays.stream(samples).sum() / samples.length / 1_000);
+    }
+  }
+
+  private static long percentile(final long[] samples, final double quantile) {
+    final long[] sorted = samples.clone();
+    Arrays.sort(sorted);
+    return sorted[(int) Math.min(sorted.length - 1, Math.round(quantile * sorted.length))];
+  }
+}
@@ -0,0 +1,222 @@
+package org.openapitools.performance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openapitools.OpenApiGeneratorApplication;
+import org.openapitools.configuration.StreamedLampPageConverter;
+import org.openapitools.mapper.LampMapper;
+import org.openapitools.model.Lamp;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRepository.LampView;
+import org.openapitools.repository.LampRows;
+import org.openapitools.service.LampPageCursor;
+import org.openapitools.service.LampPageStream;
+import org.openapitools.service.StreamedLampPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+/**
+ * Heap allocated per page of {@code GET /v1/lamps} when the rows are written through models, as
+ * {@code LampService} does, and when they are streamed by {@link StreamedLampPage}.
+ *
+ * <p>Both paths start from the same column values, as a {@link LampRows} over arrays built up
+ * front, so the driver's own allocation is left out of both. The model path builds what the service
+ * builds from them, a {@link LampView} and a {@link Lamp} per row and the page around them, and
+ * writes it with the application's {@code ObjectMapper}; the streamed path writes the page with the
+ * application's {@link StreamedLampPageConverter}. Both write into a discarding stream. Allocation
+ * is that of the calling thread, from {@link com.sun.management.ThreadMXBean}; the difference
+ * between pages of {@value #LARGE_PAGE} and {@value #SMALL_PAGE} lamps, over the difference in
+ * lamps, is the allocation per row. Run with {@code mvn test -P performance-tests
+ * -Dtest=StreamedLampPagePerformanceTest}.
+ */
+@EnabledIfSystemProperty(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class StreamedLampPagePerformanceTest {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(StreamedLampPagePerformanceTest.class);
+
+  private static final int SMALL_PAGE = 100;
+
+  private static final int LARGE_PAGE = 1_000;
+
+  private static final int WARMUP_PAGES = 20_000;
+
+  private static final int MEASURED_PAGES = 2_000;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final OffsetDateTime START =
+      OffsetDateTime.of(2026, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+  private final Rows rows = new Rows(LARGE_PAGE + 1);
+
+  @Test
+  void pages_ThroughModelsAndStreamed() throws Exception {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(OpenApiGeneratorApplication.class)
+            .properties(
+                "server.port=0",
+                "lamp.warmup.enabled=false",
+                "lamp.grpc.enabled=false",
+                "logging.level.org.openapitools=WARN",
+                "logging.level.org.springframework=WARN")
+            .run()) {
+      // Given
+      final ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+      final StreamedLampPageConverter converter = context.getBean(StreamedLampPageConverter.class);
+      final LampMapper lampMapper = context.getBean(LampMapper.class);
+      final LampPageStream pageStream = new LampPageStream(Optional.of(rows), true, false);
+      final Path models = pageSize -> writeModels(objectMapper, lampMapper, pageSize);
+      final Path streamed = pageSize -> writeStreamed(converter, pageStream, pageSize);
+      for (int i = 0; i < WARMUP_PAGES; i++) {
+        models.write(i % 2 == 0 ? SMALL_PAGE : LARGE_PAGE);
+        streamed.write(i % 2 == 0 ? SMALL_PAGE : LARGE_PAGE);
+      }
+
+      // When
+      final double[] modelBytes = {measure(models, SMALL_PAGE), measure(models, LARGE_PAGE)};
+      final double[] streamedBytes = {measure(streamed, SMALL_PAGE), measure(streamed, LARGE_PAGE)};
+
+      // Then
+      final double modelPerRow = (modelBytes[1] - modelBytes[0]) / (LARGE_PAGE - SMALL_PAGE);
+      final double streamedPerRow =
+          (streamedBytes[1] - streamedBytes[0]) / (LARGE_PAGE - SMALL_PAGE);
+      logger.info(
+          "Through models: {} B/page of {}, {} B/page of {}, {} B/row;"
+              + " streamed: {} B/page of {}, {} B/page of {}, {} B/row",
+          format(modelBytes[0]),
+          SMALL_PAGE,
+          format(modelBytes[1]),
+          LARGE_PAGE,
+          format(modelPerRow),
+          format(streamedBytes[0]),
+          SMALL_PAGE,
+          format(streamedBytes[1]),
+          LARGE_PAGE,
+          format(streamedPerRow));
+      assertThat(streamedPerRow).isLessThan(modelPerRow / 4);
+    }
+  }
+
+  private void writeModels(
+      final ObjectMapper objectMapper, final LampMapper lampMapper, final int pageSize)
+      throws Exception {
+    final List<LampView> views = new ArrayList<>();
+    rows.forEachActive(
+        0,
+        pageSize + 1,
+        (id, status, createdAtMicros, updatedAtMicros) ->
+            views.add(
+                new LampView(
+                    UUID.fromString(new String(id, StandardCharsets.US_ASCII)),
+                    status,
+                    time(createdAtMicros),
+                    time(updatedAtMicros))));
+    final List<Lamp> lamps = views.stream().map(lampMapper::toPartialModel).toList();
+    final boolean hasMore = lamps.size() > pageSize;
+    final ListLamps200Response page =
+        new ListLamps200Response(hasMore ? lamps.subList(0, pageSize) : lamps, hasMore);
+    if (hasMore) {
+      page.nextCursor(new LampPageCursor(pageSize, OptionalLong.empty()).token());
+    }
+    objectMapper.writeValue(OutputStream.nullOutputStream(), page);
+  }
+
+  private static void writeStreamed(
+      final StreamedLampPageConverter converter,
+      final LampPageStream pageStream,
+      final int pageSize)
+      throws Exception {
+    final StreamedLampPage page =
+        (StreamedLampPage) pageStream.page(LampPageCursor.FIRST, pageSize).orElseThrow();
+    converter.write(page, MediaType.APPLICATION_JSON, new DiscardingMessage());
+  }
+
+  private static double measure(final Path path, final int pageSize) throws Exception {
+    final long thread = Thread.currentThread().threadId();
+    final long start = THREADS.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < MEASURED_PAGES; i++) {
+      path.write(pageSize);
+    }
+    return (double) (THREADS.getThreadAllocatedBytes(thread) - start) / MEASURED_PAGES;
+  }
+
+  private static OffsetDateTime time(final long micros) {
+    return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+  }
+
+  private static String format(final double value) {
+    return String.format("%.1f", value);
+  }
+
+  /** Writes a page of a size. */
+  @FunctionalInterface
+  private interface Path {
+    void write(int pageSize) throws Exception;
+  }
+
+  /** Column values of lamps, as the driver hands them to {@link LampRows}. */
+  private static final class Rows implements LampRows {
+
+    private final byte[][] ids;
+    private final long[] times;
+
+    private Rows(final int lamps) {
+      ids = new byte[lamps][];
+      times = new long[lamps];
+      final long start = ChronoUnit.MICROS.between(Instant.EPOCH, START.toInstant());
+      for (int i = 0; i < lamps; i++) {
+        ids[i] = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+        times[i] = start + i * 1_234_567L;
+      }
+    }
+
+    @Override
+    public int forEachActive(final int offset, final int limit, final RowHandler handler)
+        throws IOException {
+      final int end = Math.min(offset + limit, ids.length);
+      for (int i = offset; i < end; i++) {
+        handler.row(ids[i], i % 2 == 0, times[i], times[i] + 1_000);
+      }
+      return end - offset;
+    }
+  }
+
+  /** A response whose body is thrown away. */
+  private static final class DiscardingMessage implements HttpOutputMessage {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    @Override
+    public OutputStream getBody() {
+      return OutputStream.nullOutputStream();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
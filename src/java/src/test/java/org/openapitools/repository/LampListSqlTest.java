@@ -0,0 +1,182 @@
+package org.openapitools.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.springframework.data.domain.PageRequest;
+
+class LampListSqlTest {
+
+  private static final OffsetDateTime FROM = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+  private static final OffsetDateTime TO = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+
+  @Test
+  void forPage_WithoutCriteria_ShouldOnlyOrderAndLimit() {
+    // When
+    final LampListSql statement =
+        LampListSql.forPage(ListFilter.NONE, ListSort.CREATED_AT, Optional.empty(), 26);
+
+    // Then
+    assertThat(statement.sql())
+        .isEqualTo(
+            "SELECT * FROM lamps WHERE deleted_at IS NULL ORDER BY created_at, id LIMIT :limit");
+    assertThat(statement.parameters()).isEqualTo(Map.of("limit", 26));
+  }
+
+  @Test
+  void forPage_ShouldAddOnlyTheGivenPredicatesAndTheKeysetPosition() {
+    // Given
+    final ListFilter filter =
+        new ListFilter(
+            Optional.of(false),
+            Optional.of(FROM),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.of(TO));
+    final SortPosition after = new SortPosition(FROM, UUID.randomUUID());
+
+    // When
+    final LampListSql statement =
+        LampListSql.forPage(filter, ListSort.UPDATED_AT_DESC, Optional.of(after), 11);
+
+    // Then
+    assertThat(statement.sql())
+        .isEqualTo(
+            "SELECT * FROM lamps WHERE deleted_at IS NULL AND is_on = :status"
+                + " AND created_at >= :createdFrom AND updated_at < :updatedTo"
+                + " AND (updated_at, id) < (:afterKey, :afterId)"
+                + " ORDER BY updated_at DESC, id DESC LIMIT :limit");
+    assertThat(statement.parameters())
+        .isEqualTo(
+            Map.of(
+                "status",
+                false,
+                "createdFrom",
+                FROM,
+                "updatedTo",
+                TO,
+                "afterKey",
+                after.key(),
+                "afterId",
+                after.id(),
+                "limit",
+                11));
+  }
+
+  @Test
+  void listFilter_WithAnEmptyRange_ShouldBeRejected() {
+    assertThatThrownBy(
+            () ->
+                new ListFilter(
+                    Optional.empty(),
+                    Optional.of(TO),
+                    Optional.of(FROM),
+                    Optional.empty(),
+                    Optional.empty()))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () ->
+                new ListFilter(
+                    Optional.empty(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Optional.of(FROM),
+                    Optional.of(FROM)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void projections_ShouldSelectOnlyTheColumnsOfTheirFields() {
+    // Given
+    final Set<LampField> fields = EnumSet.of(LampField.ID, LampField.STATUS);
+    final UUID lampId = UUID.randomUUID();
+
+    // When
+    final LampListSql page =
+        LampListSql.forPage(ListFilter.NONE, ListSort.UPDATED_AT, Optional.empty(), 26, fields);
+    final LampListSql window = LampListSql.forWindow(PageRequest.of(2, 25), fields);
+    final LampListSql lamp = LampListSql.forLamp(lampId, fields);
+
+    // Then
+    assertThat(page.sql())
+        .isEqualTo(
+            "SELECT id, is_on FROM lamps WHERE deleted_at IS NULL"
+                + " ORDER BY updated_at, id LIMIT :limit");
+    assertThat(window.sql())
+        .isEqualTo(
+            "SELECT id, is_on FROM lamps WHERE deleted_at IS NULL"
+                + " ORDER BY created_at, id LIMIT :limit OFFSET :offset");
+    assertThat(window.parameters()).isEqualTo(Map.of("limit", 25, "offset", 50L));
+    assertThat(lamp.sql())
+        .isEqualTo("SELECT id, is_on FROM lamps WHERE id = :id AND deleted_at IS NULL");
+    assertThat(lamp.parameters()).isEqualTo(Map.of("id", lampId));
+  }
+
+  @Test
+  void counts_ShouldStopAtTheLimitOrOnlyPlanTheStatement() {
+    // Given
+    final ListFilter filter =
+        new ListFilter(
+            Optional.of(true),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.of(FROM),
+            Optional.empty());
+
+    // When
+    final LampListSql count = LampListSql.forCount(filter, 101);
+    final LampListSql estimate = LampListSql.forEstimate(filter);
+
+    // Then
+    assertThat(count.sql())
+        .isEqualTo(
+            "SELECT count(*) FROM (SELECT 1 FROM lamps WHERE deleted_at IS NULL"
+                + " AND is_on = :status AND updated_at >= :updatedFrom LIMIT :limit) AS matching");
+    assertThat(count.parameters())
+        .isEqualTo(Map.of("status", true, "updatedFrom", FROM, "limit", 101));
+    assertThat(estimate.sql())
+        .isEqualTo(
+            "EXPLAIN SELECT 1 FROM lamps WHERE deleted_at IS NULL"
+                + " AND is_on = :status AND updated_at >= :updatedFrom");
+    assertThat(estimate.parameters()).isEqualTo(Map.of("status", true, "updatedFrom", FROM));
+  }
+
+  @Test
+  void estimatedRows_ShouldReadTheFirstLineOfThePlan() {
+    // When & Then
+    assertThat(
+            LampListSql.estimatedRows(
+                List.of(
+                    "Index Only Scan using lamps_active_is_on_updated_at_id_idx on lamps_active"
+                        + " lamps  (cost=0.42..1234.56 rows=48213 width=4)",
+                    "  Index Cond: ((is_on = true) AND (updated_at >= $2))")))
+        .isEqualTo(48_213);
+    assertThat(LampListSql.estimatedRows(List.of())).isZero();
+    assertThat(LampListSql.estimatedRows(List.of("Result"))).isZero();
+  }
+
+  @Test
+  void idArray_ShouldBeThePostgresArrayLiteralOfTheIds() {
+    // Given
+    final UUID first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    final UUID second = UUID.fromString("ffffffff-0000-0000-0000-000000000002");
+
+    // When & Then
+    assertThat(LampListSql.idArray(List.of(first, second)))
+        .isEqualTo("{00000000-0000-0000-0000-000000000001,ffffffff-0000-0000-0000-000000000002}");
+    assertThat(LampListSql.idArray(List.of())).isEqualTo("{}");
+  }
+}
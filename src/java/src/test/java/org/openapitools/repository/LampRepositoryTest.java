@@ -3,12 +3,16 @@ package org.openapitools.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.OffsetDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.LampView;
 import org.openapitools.repository.impl.InMemoryLampRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -299,6 +303,22 @@ class LampRepositoryTest {
     assertThat(activeLamps).allMatch(lamp -> lamp.getDeletedAt() == null);
   }
 
+  @Test
+  void findActiveByIds_ShouldReturnOnlyExistingActiveLamps() {
+    // Given
+    final LampEntity active = lampRepository.save(new LampEntity(true));
+    final LampEntity deleted = lampRepository.save(new LampEntity(false));
+    deleted.setDeletedAt(OffsetDateTime.now());
+    lampRepository.save(deleted);
+
+    // When
+    final List<LampEntity> found =
+        lampRepository.findActiveByIds(List.of(active.getId(), deleted.getId(), UUID.randomUUID()));
+
+    // Then
+    assertThat(found).extracting(LampEntity::getId).containsExactly(active.getId());
+  }
+
   @Test
   void findAllActive_ShouldReturnSortedByCreatedAt() {
     // Given
@@ -380,6 +400,36 @@ class LampRepositoryTest {
     assertThat(lampRepository.countActive()).isZero();
   }
 
+  @Test
+  void countActive_WithAFilter_ShouldCountExactlyEvenBeyondTheLimit() {
+    // Given
+    final OffsetDateTime baseTime = OffsetDateTime.now();
+    for (int hours = 1; hours <= 3; hours++) {
+      final LampEntity lamp = new LampEntity(hours != 2);
+      lamp.setCreatedAt(baseTime.minusHours(hours));
+      lampRepository.save(lamp);
+    }
+    final LampEntity deleted = new LampEntity(true);
+    deleted.setCreatedAt(baseTime.minusHours(1));
+    deleted.setDeletedAt(baseTime);
+    lampRepository.save(deleted);
+    final Optional<OffsetDateTime> from = Optional.of(baseTime.minusMinutes(150));
+
+    // When & Then
+    assertThat(
+            lampRepository.countActive(
+                new LampRepository.ListFilter(
+                    Optional.empty(), from, Optional.empty(), Optional.empty(), Optional.empty()),
+                1))
+        .isEqualTo(new LampRepository.ActiveCount(2, true));
+    assertThat(
+            lampRepository.countActive(
+                new LampRepository.ListFilter(
+                    Optional.of(true), from, Optional.empty(), Optional.empty(), Optional.empty()),
+                1))
+        .isEqualTo(new LampRepository.ActiveCount(1, true));
+  }
+
   @Test
   void findAllPaged_ShouldReturnCorrectPage() {
     // Given
@@ -454,4 +504,98 @@ class LampRepositoryTest {
         .extracting(LampEntity::getId)
         .containsExactly(firstByIdAtSameTime.getId(), secondByIdAtSameTime.getId(), latest.getId());
   }
+
+  @Test
+  void purgeDeletedBefore_ShouldRemoveOnlyLampsDeletedBeforeTheCutoff() {
+    // Given
+    final OffsetDateTime now = OffsetDateTime.now();
+    final LampEntity expired = lampRepository.save(deleted(now.minusDays(40)));
+    final LampEntity recent = lampRepository.save(deleted(now.minusDays(1)));
+    final LampEntity active = lampRepository.save(new LampEntity(true));
+
+    // When
+    final int purged = lampRepository.purgeDeletedBefore(now.minusDays(30), 10);
+
+    // Then
+    assertThat(purged).isEqualTo(1);
+    assertThat(lampRepository.findById(expired.getId())).isEmpty();
+    assertThat(lampRepository.findById(recent.getId())).isPresent();
+    assertThat(lampRepository.findById(active.getId())).isPresent();
+  }
+
+  @Test
+  void purgeDeletedBefore_ShouldRemoveAtMostTheLimit() {
+    // Given
+    final OffsetDateTime deletedAt = OffsetDateTime.now().minusDays(40);
+    for (int i = 0; i < 5; i++) {
+      lampRepository.save(deleted(deletedAt));
+    }
+
+    // When
+    final int first = lampRepository.purgeDeletedBefore(OffsetDateTime.now(), 3);
+    final int second = lampRepository.purgeDeletedBefore(OffsetDateTime.now(), 3);
+
+    // Then
+    assertThat(first).isEqualTo(3);
+    assertThat(second).isEqualTo(2);
+    assertThat(lampRepository.count()).isZero();
+  }
+
+  @Test
+  void findActiveViews_ShouldKeepOnlyTheSelectedFieldsOfActiveLamps() {
+    // Given
+    final Set<LampField> idAndStatus = EnumSet.of(LampField.ID, LampField.STATUS);
+    final LampEntity active = lampRepository.save(new LampEntity(true));
+    final LampEntity gone = lampRepository.save(deleted(OffsetDateTime.now()));
+
+    // When
+    final Optional<LampView> view = lampRepository.findActiveView(active.getId(), idAndStatus);
+    final List<LampView> window =
+        lampRepository.findActiveViews(PageRequest.of(0, 10), idAndStatus);
+    final List<LampView> page =
+        lampRepository.findActiveViews(
+            LampRepository.ListFilter.NONE,
+            LampRepository.ListSort.UPDATED_AT,
+            Optional.empty(),
+            10,
+            LampRepository.ListSort.UPDATED_AT.withKey(idAndStatus));
+
+    // Then
+    assertThat(view).contains(new LampView(active.getId(), true, null, null));
+    assertThat(lampRepository.findActiveView(gone.getId(), idAndStatus)).isEmpty();
+    assertThat(window).containsExactly(new LampView(active.getId(), true, null, null));
+    assertThat(page)
+        .containsExactly(new LampView(active.getId(), true, null, active.getUpdatedAt()));
+  }
+
+  @Test
+  void lampField_ShouldSelectTheColumnsOfTheFieldsInDeclarationOrder() {
+    // Given
+    final Set<LampField> fields = EnumSet.of(LampField.UPDATED_AT, LampField.STATUS, LampField.ID);
+
+    // When & Then
+    assertThat(LampField.columns(fields)).isEqualTo("id, is_on, updated_at");
+    assertThat(LampField.mask(fields)).isEqualTo(0b1011);
+  }
+
+  @Test
+  void lampView_ShouldReadRowsInTheOrderOfTheSelectedColumns() {
+    // Given
+    final UUID lampId = UUID.randomUUID();
+    final OffsetDateTime at = OffsetDateTime.now();
+    final Set<LampField> fields = EnumSet.of(LampField.ID, LampField.UPDATED_AT);
+
+    // When
+    final LampView view = LampView.fromRow(fields, lampId, at);
+
+    // Then
+    assertThat(view).isEqualTo(new LampView(lampId, null, null, at));
+    assertThat(new LampView(lampId, true, at, at).only(fields)).isEqualTo(view);
+  }
+
+  private static LampEntity deleted(final OffsetDateTime deletedAt) {
+    final LampEntity lamp = new LampEntity(true);
+    lamp.setDeletedAt(deletedAt);
+    return lamp;
+  }
 }
@@ -0,0 +1,38 @@
+package org.openapitools.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ChangeSequenceTest {
+
+  @Test
+  void horizon_ShouldStayAtTheOldestNumberInFlight() {
+    // Given
+    final ChangeSequence sequence = new ChangeSequence();
+    final long first = sequence.begin();
+    final long second = sequence.begin();
+
+    // When
+    sequence.end(second);
+    final long whileFirstInFlight = sequence.horizon();
+    sequence.end(first);
+
+    // Then
+    assertThat(second).isGreaterThan(first);
+    assertThat(whileFirstInFlight).isEqualTo(first);
+    assertThat(sequence.horizon()).isEqualTo(second + 1);
+  }
+
+  @Test
+  void horizon_WithNothingInFlight_ShouldBeTheNextNumber() {
+    // Given
+    final ChangeSequence sequence = new ChangeSequence();
+
+    // When
+    final long horizon = sequence.horizon();
+
+    // Then
+    assertThat(sequence.begin()).isEqualTo(horizon);
+  }
+}
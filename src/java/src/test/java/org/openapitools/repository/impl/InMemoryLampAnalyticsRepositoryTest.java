@@ -0,0 +1,42 @@
+package org.openapitools.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.LampAnalyticsRepository.HourBucket;
+import org.openapitools.repository.LampAnalyticsRepository.Totals;
+
+/** Unit tests for InMemoryLampAnalyticsRepository. */
+class InMemoryLampAnalyticsRepositoryTest {
+
+  private static final Instant HOUR = Instant.parse("2024-03-01T10:00:00Z");
+
+  private final InMemoryLampAnalyticsRepository repository = new InMemoryLampAnalyticsRepository();
+
+  @Test
+  void apply_ShouldAddToExistingCounters() {
+    // When
+    repository.apply(2, 1, List.of(new HourBucket(HOUR, 1, 1)));
+    repository.apply(-1, -1, List.of(new HourBucket(HOUR, 0, 1)));
+
+    // Then
+    assertThat(repository.totals()).isEqualTo(new Totals(1, 0));
+    assertThat(repository.hours(HOUR, HOUR.plusSeconds(3600)))
+        .containsExactly(new HourBucket(HOUR, 1, 2));
+  }
+
+  @Test
+  void hours_ShouldReturnHalfOpenRangeInOrder() {
+    // Given
+    Instant later = HOUR.plusSeconds(3600);
+    repository.apply(0, 0, List.of(new HourBucket(later, 1, 0), new HourBucket(HOUR, 0, 1)));
+
+    // When & Then
+    assertThat(repository.hours(HOUR, later.plusSeconds(3600)))
+        .extracting(HourBucket::start)
+        .containsExactly(HOUR, later);
+    assertThat(repository.hours(HOUR, later)).extracting(HourBucket::start).containsExactly(HOUR);
+  }
+}
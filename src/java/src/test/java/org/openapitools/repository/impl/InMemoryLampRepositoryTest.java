@@ -0,0 +1,423 @@
+package org.openapitools.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.ActiveWindow;
+import org.openapitools.repository.LampRepository.ChangePosition;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+import org.openapitools.repository.LampRepository.StatusUpdate;
+
+/**
+ * Tests of the snapshot pagination, change order, filtered lists and bulk updates of
+ * InMemoryLampRepository.
+ */
+class InMemoryLampRepositoryTest {
+
+  private static final long TTL_MS = 1_000;
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  private InMemoryLampRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository = new InMemoryLampRepository(TTL_MS, 2, nanoTime::get);
+  }
+
+  @Test
+  void traversal_ShouldSeeThePinnedStateDespiteConcurrentWrites() {
+    // Given
+    final List<UUID> initial = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      initial.add(repository.save(new LampEntity(true)).getId());
+    }
+    final ActiveWindow first =
+        repository.findActiveInSnapshot(OptionalLong.empty(), 0, 2).orElseThrow();
+
+    // When: delete a lamp already read and create another before the next pages
+    repository.deleteById(first.lamps().get(0).getId());
+    repository.save(new LampEntity(false));
+    final ActiveWindow second =
+        repository.findActiveInSnapshot(OptionalLong.of(first.snapshot()), 2, 2).orElseThrow();
+    final ActiveWindow third =
+        repository.findActiveInSnapshot(OptionalLong.of(first.snapshot()), 4, 2).orElseThrow();
+
+    // Then
+    assertThat(second.snapshot()).isEqualTo(first.snapshot());
+    final List<UUID> seen = new ArrayList<>();
+    for (final ActiveWindow window : List.of(first, second, third)) {
+      window.lamps().forEach(lamp -> seen.add(lamp.getId()));
+    }
+    assertThat(seen).containsExactlyInAnyOrderElementsOf(initial);
+    assertThat(repository.countActive()).isEqualTo(6);
+  }
+
+  @Test
+  void window_ShouldNotExposeIndexedLamps() {
+    // Given
+    final LampEntity saved = repository.save(new LampEntity(true));
+    final ActiveWindow window =
+        repository.findActiveInSnapshot(OptionalLong.empty(), 0, 1).orElseThrow();
+
+    // When
+    window.lamps().get(0).setStatus(false);
+    saved.setStatus(false);
+
+    // Then
+    assertThat(
+            repository
+                .findActiveInSnapshot(OptionalLong.of(window.snapshot()), 0, 1)
+                .orElseThrow()
+                .lamps())
+        .extracting(LampEntity::getStatus)
+        .containsExactly(true);
+  }
+
+  @Test
+  void expiredSnapshot_ShouldBeReplacedByTheCurrentState() {
+    // Given
+    repository.save(new LampEntity(true));
+    final long pinned =
+        repository.findActiveInSnapshot(OptionalLong.empty(), 0, 1).orElseThrow().snapshot();
+    repository.save(new LampEntity(true));
+
+    // When
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MS + 1));
+    final ActiveWindow window =
+        repository.findActiveInSnapshot(OptionalLong.of(pinned), 0, 10).orElseThrow();
+
+    // Then
+    assertThat(window.snapshot()).isGreaterThan(pinned);
+    assertThat(window.lamps()).hasSize(2);
+  }
+
+  @Test
+  void readingASnapshot_ShouldKeepItAlive() {
+    // Given
+    repository.save(new LampEntity(true));
+    final long pinned =
+        repository.findActiveInSnapshot(OptionalLong.empty(), 0, 1).orElseThrow().snapshot();
+
+    // When
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MS / 2 + 1));
+    repository.findActiveInSnapshot(OptionalLong.of(pinned), 0, 1);
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MS / 2 + 1));
+    repository.save(new LampEntity(true));
+
+    // Then
+    assertThat(
+            repository
+                .findActiveInSnapshot(OptionalLong.of(pinned), 0, 10)
+                .orElseThrow()
+                .snapshot())
+        .isEqualTo(pinned);
+  }
+
+  @Test
+  void tooManySnapshots_ShouldReclaimTheOldest() {
+    // Given: max two snapshots
+    final List<Long> pins = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      repository.save(new LampEntity(true));
+      pins.add(
+          repository.findActiveInSnapshot(OptionalLong.empty(), 0, 1).orElseThrow().snapshot());
+    }
+
+    // When
+    final ActiveWindow oldest =
+        repository.findActiveInSnapshot(OptionalLong.of(pins.get(0)), 0, 10).orElseThrow();
+    final ActiveWindow newest =
+        repository.findActiveInSnapshot(OptionalLong.of(pins.get(2)), 0, 10).orElseThrow();
+
+    // Then
+    assertThat(oldest.snapshot()).isEqualTo(pins.get(2));
+    assertThat(newest.snapshot()).isEqualTo(pins.get(2));
+  }
+
+  @Test
+  void softDeleteAndHardDelete_ShouldLeaveTheActiveIndex() {
+    // Given
+    final LampEntity softDeleted = repository.save(new LampEntity(true));
+    final LampEntity hardDeleted = repository.save(new LampEntity(true));
+    final LampEntity kept = repository.save(new LampEntity(true));
+
+    // When
+    softDeleted.setDeletedAt(java.time.OffsetDateTime.now());
+    repository.save(softDeleted);
+    repository.deleteById(hardDeleted.getId());
+
+    // Then
+    assertThat(repository.countActive()).isEqualTo(1);
+    assertThat(repository.findAllActive())
+        .extracting(LampEntity::getId)
+        .containsExactly(kept.getId());
+  }
+
+  @Test
+  void changes_ShouldFollowWritesInChangeOrderWithTombstones() {
+    // Given
+    final LampEntity updated = repository.save(new LampEntity(true));
+    final LampEntity softDeleted = repository.save(new LampEntity(true));
+    final LampEntity hardDeleted = repository.save(new LampEntity(true));
+    updated.setStatus(false);
+    repository.save(updated);
+    softDeleted.setDeletedAt(OffsetDateTime.now());
+    repository.save(softDeleted);
+    repository.deleteById(hardDeleted.getId());
+
+    // When
+    final List<LampEntity> changes =
+        repository.findChangedAfter(ChangePosition.START, repository.changeHorizon(), 10);
+
+    // Then
+    assertThat(changes)
+        .extracting(LampEntity::getId)
+        .containsExactly(updated.getId(), softDeleted.getId());
+    assertThat(changes).isSortedAccordingTo(Comparator.comparingLong(LampEntity::getChangeSeq));
+    assertThat(changes)
+        .filteredOn(lamp -> lamp.getId().equals(softDeleted.getId()))
+        .allMatch(lamp -> lamp.getDeletedAt() != null);
+    assertThat(changes)
+        .filteredOn(lamp -> lamp.getId().equals(updated.getId()))
+        .allMatch(lamp -> !lamp.getStatus());
+  }
+
+  @Test
+  void changeHorizon_ShouldBePastEveryFinishedWrite() {
+    // Given
+    final long start = repository.changeHorizon();
+
+    // When
+    final LampEntity lamp = repository.save(new LampEntity(true));
+
+    // Then
+    assertThat(lamp.getChangeSeq()).isGreaterThanOrEqualTo(start);
+    assertThat(repository.changeHorizon()).isGreaterThan(lamp.getChangeSeq());
+  }
+
+  @Test
+  void changes_ShouldContinueAfterAPositionAndStopAtTheBound() {
+    // Given
+    repository.save(new LampEntity(true));
+    repository.save(new LampEntity(false));
+    final long horizon = repository.changeHorizon();
+    final List<LampEntity> all = repository.findChangedAfter(ChangePosition.START, horizon, 10);
+
+    // When
+    final List<LampEntity> rest =
+        repository.findChangedAfter(ChangePosition.from(all.get(0)), horizon, 10);
+    final List<LampEntity> first = repository.findChangedAfter(ChangePosition.START, horizon, 1);
+    final List<LampEntity> bounded =
+        repository.findChangedAfter(ChangePosition.START, all.get(0).getChangeSeq(), 10);
+
+    // Then
+    assertThat(rest).extracting(LampEntity::getId).containsExactly(all.get(1).getId());
+    assertThat(first).extracting(LampEntity::getId).containsExactly(all.get(0).getId());
+    assertThat(bounded).isEmpty();
+  }
+
+  @Test
+  void changes_ShouldOrderIdsAsUnsignedWithinOneChangeSeq() {
+    // Given: an ID whose most significant bit is set, negative as a signed long
+    final LampEntity lamp =
+        repository.save(
+            new LampEntity(UUID.fromString("90000000-0000-4000-8000-000000000000"), true));
+    final long before = repository.changeHorizon();
+
+    // When
+    final List<LampEntity> afterLower =
+        repository.findChangedAfter(
+            new ChangePosition(
+                lamp.getChangeSeq(), UUID.fromString("10000000-0000-4000-8000-000000000000")),
+            before,
+            10);
+    final List<LampEntity> afterHigher =
+        repository.findChangedAfter(
+            new ChangePosition(
+                lamp.getChangeSeq(), UUID.fromString("a0000000-0000-4000-8000-000000000000")),
+            before,
+            10);
+
+    // Then
+    assertThat(afterLower).extracting(LampEntity::getId).containsExactly(lamp.getId());
+    assertThat(afterHigher).isEmpty();
+  }
+
+  @Test
+  void purge_ShouldRemoveTheTombstoneFromTheChanges() {
+    // Given
+    final LampEntity lamp = repository.save(new LampEntity(true));
+    lamp.setDeletedAt(OffsetDateTime.now().minusDays(40));
+    repository.save(lamp);
+
+    // When
+    repository.purgeDeletedBefore(OffsetDateTime.now().minusDays(30), 10);
+
+    // Then
+    assertThat(repository.findChangedAfter(ChangePosition.START, repository.changeHorizon(), 10))
+        .isEmpty();
+  }
+
+  @Test
+  void updateStatus_ShouldChangeMatchingLampsInUnsignedIdChunks() {
+    // Given: IDs whose signed and unsigned orders differ
+    final UUID low = new UUID(1, 0);
+    final UUID high = new UUID(-1, 0);
+    final UUID alreadyOff = new UUID(2, 0);
+    repository.save(new LampEntity(high, true));
+    repository.save(new LampEntity(low, true));
+    repository.save(new LampEntity(alreadyOff, false));
+    final UUID deleted = repository.save(new LampEntity(new UUID(3, 0), true)).getId();
+    softDelete(deleted);
+    final OffsetDateTime at = OffsetDateTime.parse("2024-03-01T10:00:00Z");
+    final StatusUpdate off = update(false, Set.of());
+    final ChangePosition beforeUpdate =
+        new ChangePosition(repository.changeHorizon(), new UUID(0, 0));
+
+    // When
+    final List<LampEntity> first = repository.updateStatus(off, new UUID(0, 0), at, 1);
+    final List<LampEntity> second = repository.updateStatus(off, low, at, 1);
+    final List<LampEntity> third = repository.updateStatus(off, high, at, 1);
+
+    // Then
+    assertThat(first).extracting(LampEntity::getId).containsExactly(low);
+    assertThat(second).extracting(LampEntity::getId).containsExactly(high);
+    assertThat(third).isEmpty();
+    assertThat(repository.findById(high).orElseThrow().getStatus()).isFalse();
+    assertThat(repository.findById(high).orElseThrow().getUpdatedAt()).isEqualTo(at);
+    assertThat(repository.findById(deleted).orElseThrow().getStatus()).isTrue();
+    assertThat(repository.findById(alreadyOff).orElseThrow().getUpdatedAt()).isNotEqualTo(at);
+    assertThat(repository.findAllActive()).allMatch(lamp -> !lamp.getStatus());
+    // Changed after every earlier write, although their update time is older
+    assertThat(repository.findChangedAfter(beforeUpdate, repository.changeHorizon(), 10))
+        .extracting(LampEntity::getId)
+        .containsExactly(low, high);
+  }
+
+  @Test
+  void updateStatus_ShouldApplyTheCreationWindowAndIds() {
+    // Given
+    final LampEntity old = new LampEntity(UUID.randomUUID(), true);
+    old.setCreatedAt(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+    repository.save(old);
+    final UUID recent = repository.save(new LampEntity(true)).getId();
+    final UUID other = repository.save(new LampEntity(true)).getId();
+    final OffsetDateTime at = OffsetDateTime.now();
+    final StatusUpdate recentOnes =
+        new StatusUpdate(
+            false, OffsetDateTime.parse("2024-02-01T00:00:00Z"), at.plusDays(1), Set.of(recent));
+
+    // When
+    final List<LampEntity> changed = repository.updateStatus(recentOnes, new UUID(0, 0), at, 10);
+
+    // Then
+    assertThat(changed).extracting(LampEntity::getId).containsExactly(recent);
+    assertThat(repository.findById(old.getId()).orElseThrow().getStatus()).isTrue();
+    assertThat(repository.findById(other).orElseThrow().getStatus()).isTrue();
+  }
+
+  @Test
+  void findActive_ShouldPageByKeysetThroughTheMatchingLamps() {
+    // Given: lamps created a day apart, alternately on and off, one of them deleted
+    final OffsetDateTime start = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+    final List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      final LampEntity lamp = new LampEntity(UUID.randomUUID(), i % 2 == 0);
+      lamp.setCreatedAt(start.plusDays(i));
+      ids.add(repository.save(lamp).getId());
+    }
+    softDelete(ids.get(4));
+    final ListFilter onSinceDayOne =
+        new ListFilter(
+            Optional.of(true),
+            Optional.of(start.plusDays(1)),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+
+    // When
+    final List<LampEntity> first =
+        repository.findActive(onSinceDayOne, ListSort.CREATED_AT_DESC, Optional.empty(), 1);
+    final List<LampEntity> second =
+        repository.findActive(
+            onSinceDayOne,
+            ListSort.CREATED_AT_DESC,
+            Optional.of(SortPosition.from(ListSort.CREATED_AT_DESC, first.get(0))),
+            1);
+    final List<LampEntity> ascending =
+        repository.findActive(ListFilter.NONE, ListSort.CREATED_AT, Optional.empty(), 10);
+
+    // Then
+    assertThat(first).extracting(LampEntity::getId).containsExactly(ids.get(2));
+    assertThat(second).isEmpty();
+    assertThat(ascending)
+        .extracting(LampEntity::getId)
+        .containsExactly(ids.get(0), ids.get(1), ids.get(2), ids.get(3), ids.get(5));
+  }
+
+  @Test
+  void findActive_ShouldFollowUpdatesAndFilterByTheOtherColumn() {
+    // Given
+    final LampEntity old = new LampEntity(UUID.randomUUID(), false);
+    old.setCreatedAt(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+    final UUID oldId = repository.save(old).getId();
+    final UUID recent = repository.save(new LampEntity(false)).getId();
+    repository.updateStatus(
+        update(true, Set.of(oldId)), new UUID(0, 0), OffsetDateTime.now().plusDays(1), 10);
+    final ListFilter createdThisYear =
+        new ListFilter(
+            Optional.empty(),
+            Optional.of(OffsetDateTime.now().minusDays(1)),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+
+    // When
+    final List<LampEntity> recentlyUpdated =
+        repository.findActive(ListFilter.NONE, ListSort.UPDATED_AT_DESC, Optional.empty(), 10);
+    final List<LampEntity> on =
+        repository.findActive(
+            new ListFilter(
+                Optional.of(true),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty()),
+            ListSort.UPDATED_AT,
+            Optional.empty(),
+            10);
+    final List<LampEntity> createdRecently =
+        repository.findActive(createdThisYear, ListSort.UPDATED_AT, Optional.empty(), 10);
+
+    // Then
+    assertThat(recentlyUpdated).extracting(LampEntity::getId).containsExactly(oldId, recent);
+    assertThat(on).extracting(LampEntity::getId).containsExactly(oldId);
+    assertThat(createdRecently).extracting(LampEntity::getId).containsExactly(recent);
+  }
+
+  private static StatusUpdate update(final boolean status, final Set<UUID> ids) {
+    return new StatusUpdate(
+        status, StatusUpdate.ANY_CREATED_FROM, StatusUpdate.ANY_CREATED_TO, ids);
+  }
+
+  private void softDelete(final UUID lampId) {
+    final LampEntity lamp = repository.findById(lampId).orElseThrow();
+    lamp.setDeletedAt(OffsetDateTime.now());
+    repository.save(lamp);
+  }
+}
@@ -0,0 +1,55 @@
+package org.openapitools.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.LampStateHistoryRepository.LampTransition;
+
+/** Unit tests for InMemoryLampStateHistoryRepository. */
+class InMemoryLampStateHistoryRepositoryTest {
+
+  private static final UUID LAMP = UUID.randomUUID();
+
+  private final InMemoryLampStateHistoryRepository repository =
+      new InMemoryLampStateHistoryRepository();
+
+  @Test
+  void findByLamp_ShouldApplyRangeAndLimit() {
+    // Given
+    LampTransition first = transition("2024-03-01T10:00:00Z");
+    LampTransition second = transition("2024-03-01T11:00:00Z");
+    LampTransition third = transition("2024-03-01T12:00:00Z");
+    repository.append(List.of(first, second, third));
+    repository.append(
+        List.of(new LampTransition(UUID.randomUUID(), first.changedAt(), null, true)));
+
+    // When & Then
+    assertThat(repository.findByLamp(LAMP, first.changedAt(), third.changedAt(), 10))
+        .containsExactly(first, second);
+    assertThat(repository.findByLamp(LAMP, first.changedAt(), Instant.MAX, 1))
+        .containsExactly(first);
+    assertThat(repository.findByLamp(UUID.randomUUID(), Instant.MIN, Instant.MAX, 10)).isEmpty();
+  }
+
+  @Test
+  void maintain_ShouldDropExpiredMonths() {
+    // Given
+    LampTransition expired = transition("2024-01-31T23:59:59Z");
+    LampTransition kept = transition("2024-02-01T00:00:00Z");
+    repository.append(List.of(expired, kept));
+
+    // When
+    repository.maintain(YearMonth.of(2024, 3), 2, 1);
+
+    // Then
+    assertThat(repository.findByLamp(LAMP, Instant.EPOCH, Instant.MAX, 10)).containsExactly(kept);
+  }
+
+  private static LampTransition transition(final String changedAt) {
+    return new LampTransition(LAMP, Instant.parse(changedAt), false, true);
+  }
+}
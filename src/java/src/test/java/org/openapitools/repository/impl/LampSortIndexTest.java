@@ -0,0 +1,106 @@
+package org.openapitools.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.SortPosition;
+
+class LampSortIndexTest {
+
+  private static final OffsetDateTime BASE = OffsetDateTime.parse("2024-03-01T12:00:00Z");
+
+  private final LampSortIndex index = new LampSortIndex(LampEntity::getCreatedAt);
+
+  private LampEntity early;
+  private LampEntity tiedLow;
+  private LampEntity tiedHigh;
+  private LampEntity late;
+
+  @BeforeEach
+  void setUp() {
+    early = lamp(0, "00000000-0000-0000-0000-000000000009", false);
+    tiedLow = lamp(1, "00000000-0000-0000-0000-000000000001", true);
+    // Above tiedLow as unsigned, below it as signed halves
+    tiedHigh = lamp(1, "80000000-0000-0000-0000-000000000000", false);
+    late = lamp(2, "00000000-0000-0000-0000-000000000000", true);
+    index.add(late);
+    index.add(tiedHigh);
+    index.add(early);
+    index.add(tiedLow);
+  }
+
+  @Test
+  void range_ShouldReadInTimestampThenUnsignedIdOrder() {
+    // When & Then
+    assertThat(all(false)).containsExactly(early, tiedLow, tiedHigh, late);
+    assertThat(all(true)).containsExactly(late, tiedHigh, tiedLow, early);
+    assertThat(
+            index.range(
+                Optional.of(true), Optional.empty(), Optional.empty(), Optional.empty(), false))
+        .containsExactly(tiedLow, late);
+  }
+
+  @Test
+  void range_ShouldApplyHalfOpenBoundsAndTheKeysetPosition() {
+    // Given
+    final Optional<OffsetDateTime> from = Optional.of(BASE.plusMinutes(1));
+    final Optional<OffsetDateTime> to = Optional.of(BASE.plusMinutes(2));
+    final Optional<SortPosition> afterTiedLow =
+        Optional.of(new SortPosition(tiedLow.getCreatedAt(), tiedLow.getId()));
+    final Optional<SortPosition> beforeEverything =
+        Optional.of(new SortPosition(BASE.minusDays(1), early.getId()));
+
+    // When & Then
+    assertThat(index.range(Optional.empty(), from, to, Optional.empty(), false))
+        .containsExactly(tiedLow, tiedHigh);
+    assertThat(index.range(Optional.empty(), from, Optional.empty(), afterTiedLow, false))
+        .containsExactly(tiedHigh, late);
+    assertThat(index.range(Optional.empty(), Optional.empty(), to, afterTiedLow, true))
+        .containsExactly(early);
+    assertThat(index.range(Optional.empty(), from, to, beforeEverything, false))
+        .containsExactly(tiedLow, tiedHigh);
+    assertThat(index.range(Optional.empty(), from, to, beforeEverything, true)).isEmpty();
+  }
+
+  @Test
+  void remove_ShouldFindTheEntryEvenIfTheLampChangedSinceItWasAdded() {
+    // Given
+    tiedLow.setStatus(false);
+
+    // When
+    index.remove(tiedLow.getId());
+    index.remove(UUID.randomUUID());
+
+    // Then
+    assertThat(all(false)).containsExactly(early, tiedHigh, late);
+    assertThat(
+            index.range(
+                Optional.of(true), Optional.empty(), Optional.empty(), Optional.empty(), false))
+        .containsExactly(late);
+  }
+
+  @Test
+  void clear_ShouldEmptyTheIndex() {
+    // When
+    index.clear();
+
+    // Then
+    assertThat(all(false)).isEmpty();
+  }
+
+  private Iterable<LampEntity> all(final boolean descending) {
+    return index.range(
+        Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), descending);
+  }
+
+  private static LampEntity lamp(final int minutes, final String id, final boolean status) {
+    final LampEntity lamp = new LampEntity(UUID.fromString(id), status);
+    lamp.setCreatedAt(BASE.plusMinutes(minutes));
+    return lamp;
+  }
+}
@@ -0,0 +1,100 @@
+package org.openapitools.repository.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.entity.LampEntity;
+
+class PersistentLampIndexTest {
+
+  private static final OffsetDateTime BASE = OffsetDateTime.parse("2024-03-01T12:00:00Z");
+
+  @Test
+  void window_ShouldReturnLampsInCreationThenIdOrder() {
+    // Given
+    final LampEntity second = lamp(1, "00000000-0000-0000-0000-000000000002");
+    final LampEntity first = lamp(1, "00000000-0000-0000-0000-000000000001");
+    final LampEntity last = lamp(2, "00000000-0000-0000-0000-000000000000");
+    final LampEntity earliest = lamp(0, "00000000-0000-0000-0000-000000000009");
+
+    // When
+    final PersistentLampIndex index =
+        PersistentLampIndex.EMPTY.with(second).with(last).with(first).with(earliest);
+
+    // Then
+    assertThat(index.size()).isEqualTo(4);
+    assertThat(index.window(0, 10)).containsExactly(earliest, first, second, last);
+    assertThat(index.window(1, 2)).containsExactly(first, second);
+    assertThat(index.window(3, 2)).containsExactly(last);
+    assertThat(index.window(4, 2)).isEmpty();
+    assertThat(index.window(9, 2)).isEmpty();
+  }
+
+  @Test
+  void updates_ShouldLeaveEarlierVersionsUnchanged() {
+    // Given
+    final LampEntity kept = lamp(0, UUID.randomUUID().toString());
+    final LampEntity removed = lamp(1, UUID.randomUUID().toString());
+    final PersistentLampIndex before = PersistentLampIndex.EMPTY.with(kept).with(removed);
+
+    // When
+    final PersistentLampIndex after =
+        before.without(removed).with(lamp(2, UUID.randomUUID().toString()));
+
+    // Then
+    assertThat(before.window(0, 10)).containsExactly(kept, removed);
+    assertThat(after.size()).isEqualTo(2);
+    assertThat(after.window(0, 10)).contains(kept).doesNotContain(removed);
+  }
+
+  @Test
+  void without_UnknownLamp_ShouldReturnTheSameIndex() {
+    // Given
+    final PersistentLampIndex index =
+        PersistentLampIndex.EMPTY.with(lamp(0, UUID.randomUUID().toString()));
+
+    // When
+    final PersistentLampIndex same = index.without(lamp(5, UUID.randomUUID().toString()));
+
+    // Then
+    assertThat(same).isSameAs(index);
+  }
+
+  @Test
+  void randomUpdates_ShouldMatchASortedList() {
+    // Given
+    final Random random = new Random(42);
+    final List<LampEntity> expected = new ArrayList<>();
+    PersistentLampIndex index = PersistentLampIndex.EMPTY;
+
+    // When
+    for (int i = 0; i < 2_000; i++) {
+      if (!expected.isEmpty() && random.nextInt(3) == 0) {
+        final LampEntity lamp = expected.remove(random.nextInt(expected.size()));
+        index = index.without(lamp);
+      } else {
+        final LampEntity lamp = lamp(random.nextInt(100), UUID.randomUUID().toString());
+        expected.add(lamp);
+        index = index.with(lamp);
+      }
+    }
+
+    // Then
+    expected.sort(Comparator.comparing(LampEntity::getCreatedAt).thenComparing(LampEntity::getId));
+    assertThat(index.size()).isEqualTo(expected.size());
+    assertThat(index.window(0, Integer.MAX_VALUE)).containsExactlyElementsOf(expected);
+    assertThat(index.window(100, 25)).containsExactlyElementsOf(expected.subList(100, 125));
+  }
+
+  private static LampEntity lamp(final int minutes, final String id) {
+    final LampEntity lamp = new LampEntity(UUID.fromString(id), true);
+    lamp.setCreatedAt(BASE.plusMinutes(minutes));
+    return lamp;
+  }
+}
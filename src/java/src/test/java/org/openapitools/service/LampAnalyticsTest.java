@@ -0,0 +1,164 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampAnalyticsRepository;
+import org.openapitools.repository.LampAnalyticsRepository.HourBucket;
+import org.openapitools.repository.impl.InMemoryLampAnalyticsRepository;
+import org.openapitools.service.LampAnalytics.HourOfDayUsage;
+import org.openapitools.service.LampAnalytics.HourlyStateChanges;
+import org.openapitools.service.LampAnalytics.StatusTotals;
+import org.openapitools.service.LampChangedEvent.Type;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/** Unit tests for LampAnalytics. */
+class LampAnalyticsTest {
+
+  private static final OffsetDateTime TEN = OffsetDateTime.parse("2024-03-01T10:15:00Z");
+
+  private static final OffsetDateTime ELEVEN = OffsetDateTime.parse("2024-03-01T12:40:00+01:00");
+
+  private final InMemoryLampAnalyticsRepository repository = new InMemoryLampAnalyticsRepository();
+
+  private LampAnalytics analytics = new LampAnalytics(repository, 72);
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void writes_ShouldMaintainTotals() {
+    // Given
+    UUID first = UUID.randomUUID();
+
+    // When
+    analytics.onLampChanged(event(Type.CREATED, first, true, null, TEN));
+    analytics.onLampChanged(event(Type.CREATED, UUID.randomUUID(), false, null, TEN));
+    analytics.onLampChanged(event(Type.CREATED, UUID.randomUUID(), true, null, TEN));
+    analytics.onLampChanged(event(Type.UPDATED, first, false, true, TEN));
+    analytics.onLampChanged(event(Type.DELETED, first, false, false, TEN));
+
+    // Then
+    assertThat(analytics.statusTotals()).isEqualTo(new StatusTotals(2, 1, 1));
+  }
+
+  @Test
+  void updates_ShouldOnlyCountStatusFlips() {
+    // Given
+    UUID id = UUID.randomUUID();
+
+    // When
+    analytics.onLampChanged(event(Type.CREATED, id, false, null, TEN));
+    analytics.onLampChanged(event(Type.UPDATED, id, true, false, TEN));
+    analytics.onLampChanged(event(Type.UPDATED, id, true, true, TEN));
+    analytics.onLampChanged(event(Type.UPDATED, id, false, null, TEN));
+    analytics.onLampChanged(event(Type.UPDATED, id, false, true, ELEVEN));
+
+    // Then
+    assertThat(analytics.stateChanges(TEN.toInstant(), ELEVEN.toInstant()))
+        .containsExactly(
+            new HourlyStateChanges(hour("2024-03-01T10:00:00Z"), 2, 1, 1),
+            new HourlyStateChanges(hour("2024-03-01T11:00:00Z"), 1, 0, 1));
+    assertThat(analytics.statusTotals()).isEqualTo(new StatusTotals(1, 0, 1));
+  }
+
+  @Test
+  void usageByHourOfDay_ShouldSumAcrossDays() {
+    // Given
+    analytics.onLampChanged(event(Type.CREATED, UUID.randomUUID(), true, null, TEN));
+    analytics.onLampChanged(event(Type.CREATED, UUID.randomUUID(), false, null, TEN.plusDays(1)));
+
+    // When
+    var usage = analytics.usageByHourOfDay(TEN.toInstant(), TEN.plusDays(2).toInstant());
+
+    // Then
+    assertThat(usage).hasSize(24);
+    assertThat(usage.get(10)).isEqualTo(new HourOfDayUsage(10, 2, 1, 1));
+    assertThat(usage.get(11)).isEqualTo(new HourOfDayUsage(11, 0, 0, 0));
+  }
+
+  @Test
+  void invalidRange_ShouldBeRejected() {
+    // Given
+    Instant from = TEN.toInstant();
+
+    // When & Then
+    assertThatThrownBy(() -> analytics.stateChanges(from, from.minusSeconds(3600)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> analytics.usageByHourOfDay(from, from.plusSeconds(72 * 3600)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void changesInTransaction_ShouldBeAppliedTogetherBeforeCommit() {
+    // Given
+    LampAnalyticsRepository counters = mock(LampAnalyticsRepository.class);
+    analytics = new LampAnalytics(counters, 72);
+    UUID id = UUID.randomUUID();
+    TransactionSynchronizationManager.initSynchronization();
+
+    // When
+    analytics.onLampChanged(event(Type.CREATED, id, true, null, TEN));
+    analytics.onLampChanged(event(Type.CREATED, UUID.randomUUID(), false, null, TEN));
+    analytics.onLampChanged(event(Type.UPDATED, id, false, true, ELEVEN));
+    verifyNoInteractions(counters);
+    TransactionSynchronizationUtils.triggerBeforeCommit(false);
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+        TransactionSynchronization.STATUS_COMMITTED);
+
+    // Then
+    verify(counters)
+        .apply(
+            2,
+            0,
+            List.of(
+                new HourBucket(hour("2024-03-01T10:00:00Z").toInstant(), 1, 1),
+                new HourBucket(hour("2024-03-01T11:00:00Z").toInstant(), 0, 1)));
+    assertThat(TransactionSynchronizationManager.getResource(analytics)).isNull();
+  }
+
+  @Test
+  void rolledBackChanges_ShouldNeverBeApplied() {
+    // Given
+    TransactionSynchronizationManager.initSynchronization();
+    analytics.onLampChanged(event(Type.CREATED, UUID.randomUUID(), true, null, TEN));
+
+    // When
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+        TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    // Then
+    assertThat(analytics.statusTotals()).isEqualTo(new StatusTotals(0, 0, 0));
+    assertThat(TransactionSynchronizationManager.getResource(analytics)).isNull();
+  }
+
+  private static LampChangedEvent event(
+      final Type type,
+      final UUID id,
+      final boolean status,
+      final Boolean previousStatus,
+      final OffsetDateTime updatedAt) {
+    return LampChangedEvent.from(type, new Lamp(id, status, updatedAt, updatedAt), previousStatus);
+  }
+
+  private static OffsetDateTime hour(final String instant) {
+    return OffsetDateTime.parse(instant).withOffsetSameInstant(ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,199 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRepository.StatusUpdate;
+import org.openapitools.service.LampBulkUpdate.BulkJob;
+import org.openapitools.service.LampBulkUpdate.LampFilter;
+import org.openapitools.service.LampBulkUpdate.State;
+import org.springframework.dao.QueryTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class LampBulkUpdateTest {
+
+  private static final UUID FIRST_ID = new UUID(0, 0);
+
+  private static final StatusUpdate ALL_OFF =
+      new StatusUpdate(false, StatusUpdate.ANY_CREATED_FROM, StatusUpdate.ANY_CREATED_TO, Set.of());
+
+  @Mock private LampService lampService;
+
+  private LampBulkUpdate bulkUpdate;
+
+  @BeforeEach
+  void setUp() {
+    bulkUpdate = new LampBulkUpdate(lampService, Executors.newSingleThreadExecutor(), 2, 0, 3, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    bulkUpdate.stop();
+  }
+
+  @Test
+  void run_ShouldContinueAfterTheLastLampOfEachFullChunk() {
+    // Given
+    final Lamp first = lamp(1);
+    final Lamp second = lamp(2);
+    when(lampService.updateStatus(ALL_OFF, FIRST_ID, 2)).thenReturn(List.of(first, second));
+    when(lampService.updateStatus(ALL_OFF, second.getId(), 2)).thenReturn(List.of(lamp(3)));
+
+    // When
+    final BulkJob job = bulkUpdate.run(LampFilter.ALL, false);
+
+    // Then
+    assertThat(job.state()).isEqualTo(State.SUCCEEDED);
+    assertThat(job.updated()).isEqualTo(3);
+    assertThat(job.chunks()).isEqualTo(2);
+    assertThat(job.finishedAt()).isNotNull();
+    assertThat(bulkUpdate.job(job.id())).contains(job);
+  }
+
+  @Test
+  void run_ShouldPassTheFilterOn() {
+    // Given
+    final OffsetDateTime from = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+    final UUID lampId = UUID.randomUUID();
+    final LampFilter filter =
+        new LampFilter(
+            Optional.of(false), Optional.of(from), Optional.empty(), Optional.of(List.of(lampId)));
+    when(lampService.updateStatus(any(), eq(FIRST_ID), anyInt())).thenReturn(List.of());
+
+    // When
+    bulkUpdate.run(filter, true);
+
+    // Then
+    verify(lampService)
+        .updateStatus(
+            new StatusUpdate(true, from, StatusUpdate.ANY_CREATED_TO, Set.of(lampId)), FIRST_ID, 2);
+  }
+
+  @Test
+  void run_WithAFilterNoLampCanMatch_ShouldSucceedWithoutUpdating() {
+    // Given
+    final LampFilter alreadyOff =
+        new LampFilter(Optional.of(false), Optional.empty(), Optional.empty(), Optional.empty());
+    final LampFilter noIds =
+        new LampFilter(
+            Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(List.of()));
+
+    // When
+    final BulkJob first = bulkUpdate.run(alreadyOff, false);
+    final BulkJob second = bulkUpdate.run(noIds, false);
+
+    // Then
+    assertThat(first.state()).isEqualTo(State.SUCCEEDED);
+    assertThat(second.updated()).isZero();
+    verify(lampService, never()).updateStatus(any(), any(), anyInt());
+  }
+
+  @Test
+  void run_WhenAChunkFails_ShouldKeepTheCountOfCommittedChunks() {
+    // Given
+    final Lamp second = lamp(2);
+    when(lampService.updateStatus(ALL_OFF, FIRST_ID, 2)).thenReturn(List.of(lamp(1), second));
+    when(lampService.updateStatus(ALL_OFF, second.getId(), 2))
+        .thenThrow(new QueryTimeoutException("timeout"));
+
+    // When
+    final BulkJob job = bulkUpdate.run(LampFilter.ALL, false);
+
+    // Then
+    assertThat(job.state()).isEqualTo(State.FAILED);
+    assertThat(job.updated()).isEqualTo(2);
+    assertThat(job.error()).isEqualTo("timeout");
+  }
+
+  @Test
+  void submit_ShouldRunInTheBackgroundAndReportProgress() {
+    // Given
+    when(lampService.updateStatus(ALL_OFF, FIRST_ID, 2)).thenReturn(List.of(lamp(1)));
+
+    // When
+    final BulkJob submitted = bulkUpdate.submit(LampFilter.ALL, false);
+
+    // Then
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(() -> bulkUpdate.job(submitted.id()).orElseThrow().state() == State.SUCCEEDED);
+    assertThat(bulkUpdate.job(submitted.id()).orElseThrow().updated()).isEqualTo(1);
+  }
+
+  @Test
+  void submit_AfterStop_ShouldFailTheJob() {
+    // Given
+    bulkUpdate.stop();
+
+    // When
+    final BulkJob job = bulkUpdate.submit(LampFilter.ALL, false);
+
+    // Then
+    assertThat(job.state()).isEqualTo(State.FAILED);
+  }
+
+  @Test
+  void jobs_ShouldOnlyKeepTheNewest() {
+    // Given
+    final LampFilter none =
+        new LampFilter(Optional.of(true), Optional.empty(), Optional.empty(), Optional.empty());
+    final BulkJob oldest = bulkUpdate.run(none, true);
+
+    // When
+    final BulkJob newer = bulkUpdate.run(none, true);
+    final BulkJob newest = bulkUpdate.run(none, true);
+
+    // Then
+    assertThat(bulkUpdate.job(oldest.id())).isEmpty();
+    assertThat(bulkUpdate.job(newer.id())).isPresent();
+    assertThat(bulkUpdate.job(newest.id())).isPresent();
+  }
+
+  @Test
+  void invalidFilter_ShouldBeRejected() {
+    // Given
+    final OffsetDateTime at = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+    final LampFilter emptyWindow =
+        new LampFilter(Optional.empty(), Optional.of(at), Optional.of(at), Optional.empty());
+    final LampFilter tooManyIds =
+        new LampFilter(
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.of(
+                List.of(
+                    UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())));
+
+    // When & Then
+    assertThatThrownBy(() -> bulkUpdate.run(emptyWindow, false))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> bulkUpdate.submit(tooManyIds, false))
+        .isInstanceOf(IllegalArgumentException.class);
+    verify(lampService, never()).updateStatus(any(), any(), anyInt());
+  }
+
+  private static Lamp lamp(final long id) {
+    return new Lamp(new UUID(0, id), false);
+  }
+}
@@ -0,0 +1,226 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/** Unit tests for LampChangeFeed. */
+class LampChangeFeedTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+  private LampChangeFeed feed;
+
+  @AfterEach
+  void tearDown() {
+    if (feed != null) {
+      feed.shutdown();
+    }
+  }
+
+  @Test
+  void publishedChange_ShouldReachSubscriber() {
+    // Given
+    feed = feed(10, 16, 16, this::recordingEmitter);
+    feed.subscribe(Optional.empty());
+    UUID id = UUID.randomUUID();
+
+    // When
+    feed.onLampChanged(LampChangedEvent.from(LampChangedEvent.Type.UPDATED, new Lamp(id, true)));
+
+    // Then
+    RecordingEmitter emitter = emitters.get(0);
+    await().atMost(Duration.ofSeconds(5)).until(() -> emitter.eventCount() == 1);
+    assertThat(emitter.text()).contains("event:updated").contains("id:").contains(id.toString());
+  }
+
+  @Test
+  void resumeToken_ShouldReplayMissedEvents() {
+    // Given
+    feed = feed(10, 16, 16, this::recordingEmitter);
+    feed.subscribe(Optional.empty());
+    publish(3);
+    RecordingEmitter first = emitters.get(0);
+    await().atMost(Duration.ofSeconds(5)).until(() -> first.eventCount() == 3);
+    String firstEventId = first.eventIds().get(0);
+
+    // When
+    feed.subscribe(Optional.of(firstEventId));
+
+    // Then
+    RecordingEmitter resumed = emitters.get(1);
+    await().atMost(Duration.ofSeconds(5)).until(() -> resumed.eventCount() == 2);
+    assertThat(resumed.eventIds()).containsExactlyElementsOf(first.eventIds().subList(1, 3));
+  }
+
+  @Test
+  void unknownOrExpiredResumeToken_ShouldSendReset() {
+    // Given
+    feed = feed(10, 16, 2, this::recordingEmitter);
+    feed.subscribe(Optional.empty());
+    publish(5);
+    RecordingEmitter first = emitters.get(0);
+    await().atMost(Duration.ofSeconds(5)).until(() -> first.eventCount() == 5);
+
+    // When
+    feed.subscribe(Optional.of(first.eventIds().get(0)));
+    feed.subscribe(Optional.of("another-instance-42"));
+
+    // Then
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(
+            () ->
+                emitters.get(1).text().contains("event:reset")
+                    && emitters.get(2).text().contains("event:reset"));
+  }
+
+  @Test
+  void slowSubscriber_ShouldBeEvictedWithoutBlockingPublisher() throws Exception {
+    // Given
+    CountDownLatch unblock = new CountDownLatch(1);
+    feed = feed(10, 2, 1, () -> new BlockingEmitter(unblock));
+    feed.subscribe(Optional.empty());
+
+    // When: the subscriber is stuck on its first send while more events arrive
+    long start = System.nanoTime();
+    publish(10);
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // Then
+    assertThat(elapsedMs).isLessThan(1000);
+    assertThat(feed.subscriberCount()).isZero();
+    unblock.countDown();
+  }
+
+  @Test
+  void subscriberLimit_ShouldRejectNewSubscribers() {
+    // Given
+    feed = feed(1, 16, 16, this::recordingEmitter);
+
+    // When & Then
+    assertThat(feed.subscribe(Optional.empty())).isPresent();
+    assertThat(feed.subscribe(Optional.empty())).isEmpty();
+  }
+
+  @Test
+  void thousandsOfSubscribers_ShouldAllReceiveEveryEventWithFastPublish() {
+    // Given
+    int subscriberCount = 2000;
+    int eventCount = 20;
+    feed = feed(subscriberCount, 64, 64, this::recordingEmitter);
+    for (int i = 0; i < subscriberCount; i++) {
+      feed.subscribe(Optional.empty());
+    }
+
+    // When
+    List<Long> publishNanos = new ArrayList<>();
+    for (int i = 0; i < eventCount; i++) {
+      long start = System.nanoTime();
+      feed.onLampChanged(
+          LampChangedEvent.from(
+              LampChangedEvent.Type.UPDATED, new Lamp(UUID.randomUUID(), i % 2 == 0)));
+      publishNanos.add(System.nanoTime() - start);
+    }
+
+    // Then
+    await()
+        .atMost(Duration.ofSeconds(30))
+        .until(() -> emitters.stream().allMatch(e -> e.eventCount() == eventCount));
+    assertThat(feed.subscriberCount()).isEqualTo(subscriberCount);
+    long worstMs = TimeUnit.NANOSECONDS.toMillis(publishNanos.stream().max(Long::compare).get());
+    assertThat(worstMs).isLessThan(500);
+  }
+
+  private LampChangeFeed feed(
+      final int maxSubscribers,
+      final int bufferSize,
+      final int replaySize,
+      final Supplier<SseEmitter> factory) {
+    return new LampChangeFeed(
+        objectMapper, factory, maxSubscribers, bufferSize, replaySize, 60_000);
+  }
+
+  private SseEmitter recordingEmitter() {
+    RecordingEmitter emitter = new RecordingEmitter();
+    emitters.add(emitter);
+    return emitter;
+  }
+
+  private void publish(final int count) {
+    for (int i = 0; i < count; i++) {
+      feed.onLampChanged(
+          LampChangedEvent.from(LampChangedEvent.Type.CREATED, new Lamp(UUID.randomUUID(), true)));
+    }
+  }
+
+  /** Records what would be written to the response. */
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public void send(final SseEventBuilder builder) throws IOException {
+      StringBuilder event = new StringBuilder();
+      builder.build().forEach(part -> event.append(part.getData()));
+      synchronized (text) {
+        text.append(event);
+      }
+    }
+
+    String text() {
+      synchronized (text) {
+        return text.toString();
+      }
+    }
+
+    long eventCount() {
+      return text().lines().filter(line -> line.startsWith("data:")).count();
+    }
+
+    List<String> eventIds() {
+      return text()
+          .lines()
+          .filter(line -> line.startsWith("id:"))
+          .map(line -> line.substring(3))
+          .toList();
+    }
+  }
+
+  /** A client that stops reading: every send blocks. */
+  private static class BlockingEmitter extends SseEmitter {
+
+    private final CountDownLatch unblock;
+
+    BlockingEmitter(final CountDownLatch unblock) {
+      this.unblock = unblock;
+    }
+
+    @Override
+    public void send(final SseEventBuilder builder) throws IOException {
+      try {
+        unblock.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
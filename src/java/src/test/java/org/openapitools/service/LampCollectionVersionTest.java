@@ -0,0 +1,71 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.JdbcLampCollectionVersion;
+
+/** Unit tests for LampCollectionVersion. */
+@ExtendWith(MockitoExtension.class)
+class LampCollectionVersionTest {
+
+  @Mock private JdbcLampCollectionVersion database;
+
+  @Test
+  void writes_ShouldMoveTheVersion() {
+    // Given: in-memory mode
+    LampCollectionVersion version = new LampCollectionVersion(Optional.empty(), true);
+    long initial = version.current().getAsLong();
+    LampChangedEvent event =
+        LampChangedEvent.from(LampChangedEvent.Type.UPDATED, new Lamp(UUID.randomUUID(), true));
+
+    // When
+    version.onLampChanged(event);
+    long published = version.current().getAsLong();
+    version.onLampCommitted(event);
+
+    // Then
+    assertThat(published).isGreaterThan(initial);
+    assertThat(version.current().getAsLong()).isGreaterThan(published);
+  }
+
+  @Test
+  void withADatabase_ShouldReportItsVersionUnderOneIdForEveryInstance() {
+    // Given
+    when(database.current()).thenReturn(41L, 42L);
+    LampCollectionVersion first = new LampCollectionVersion(Optional.of(database), true);
+    LampCollectionVersion second = new LampCollectionVersion(Optional.of(database), true);
+
+    // When & Then
+    assertThat(first.current()).hasValue(41);
+    assertThat(second.current()).hasValue(42);
+    assertThat(first.instanceId()).isEqualTo(second.instanceId());
+  }
+
+  @Test
+  void inMemory_ShouldKeepVersionsOfDifferentProcessesApart() {
+    // When & Then
+    assertThat(new LampCollectionVersion(Optional.empty(), true).instanceId())
+        .isNotEqualTo(new LampCollectionVersion(Optional.empty(), true).instanceId());
+  }
+
+  @Test
+  void untrusted_ShouldNeverReportVersion() {
+    // Given
+    LampCollectionVersion version = new LampCollectionVersion(Optional.of(database), false);
+
+    // When & Then
+    assertThat(version.current()).isEmpty();
+    assertThat(version.instanceId()).isNotBlank();
+    verify(database, never()).current();
+  }
+}
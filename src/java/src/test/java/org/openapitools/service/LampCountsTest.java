@@ -0,0 +1,144 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampAnalyticsRepository;
+import org.openapitools.repository.LampAnalyticsRepository.Totals;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.repository.LampRepository.ActiveCount;
+import org.openapitools.repository.LampRepository.ListFilter;
+import org.openapitools.repository.impl.InMemoryLampAnalyticsRepository;
+import org.openapitools.service.LampChangedEvent.Type;
+
+@ExtendWith(MockitoExtension.class)
+class LampCountsTest {
+
+  private static final OffsetDateTime NOW = OffsetDateTime.parse("2024-03-01T10:15:00Z");
+
+  private static final ListFilter ON = filter(Optional.of(true), Optional.empty());
+
+  private static final ListFilter LAST_DAY =
+      filter(Optional.empty(), Optional.of(NOW.minusDays(1)));
+
+  @Mock private LampRepository repository;
+
+  private final LampAnalytics analytics =
+      new LampAnalytics(new InMemoryLampAnalyticsRepository(), 72);
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  void total_WithoutATimeRange_ShouldReadTheCountersAsExact() {
+    // Given
+    create(true);
+    create(true);
+    create(false);
+    final LampCounts counts = counts(0);
+
+    // When & Then
+    assertThat(counts.total(ListFilter.NONE)).isEqualTo(new ActiveCount(3, true));
+    assertThat(counts.total(ON)).isEqualTo(new ActiveCount(2, true));
+    assertThat(counts.total(filter(Optional.of(false), Optional.empty())))
+        .isEqualTo(new ActiveCount(1, true));
+    verify(repository, never()).countActive();
+    verify(repository, never()).countActive(any(ListFilter.class), anyInt());
+  }
+
+  @Test
+  void total_BeforeTheCountersAreSeeded_ShouldAskTheRepository() {
+    // Given
+    final LampAnalyticsRepository unseeded = mock(LampAnalyticsRepository.class);
+    when(unseeded.seeded()).thenReturn(false, true);
+    when(unseeded.totals()).thenReturn(new Totals(9, 4));
+    when(repository.countActive(ON, 100)).thenReturn(new ActiveCount(4, true));
+    final LampCounts counts =
+        new LampCounts(repository, new LampAnalytics(unseeded, 72), nanoTime::get, 0, 100, 2);
+
+    // When & Then
+    assertThat(counts.total(ON)).isEqualTo(new ActiveCount(4, true));
+    assertThat(counts.total(ON)).isEqualTo(new ActiveCount(4, true));
+    assertThat(counts.total(ON)).isEqualTo(new ActiveCount(4, true));
+    verify(repository, times(1)).countActive(ON, 100);
+    verify(unseeded, times(2)).seeded();
+  }
+
+  @Test
+  void total_WithATimeRange_ShouldAskTheRepositoryUpToTheExactLimit() {
+    // Given
+    when(repository.countActive(LAST_DAY, 100)).thenReturn(new ActiveCount(5_000, false));
+
+    // When & Then
+    assertThat(counts(0).total(LAST_DAY)).isEqualTo(new ActiveCount(5_000, false));
+  }
+
+  @Test
+  void total_ShouldBeReusedUntilItIsStale() {
+    // Given
+    when(repository.countActive(LAST_DAY, 100))
+        .thenReturn(new ActiveCount(7, true), new ActiveCount(8, true));
+    final LampCounts counts = counts(1_000);
+    create(true);
+
+    // When
+    final ActiveCount first = counts.total(LAST_DAY);
+    final ActiveCount all = counts.total(ListFilter.NONE);
+    create(true);
+    nanoTime.addAndGet(999_000_000);
+    final ActiveCount cached = counts.total(LAST_DAY);
+    final ActiveCount allCached = counts.total(ListFilter.NONE);
+    nanoTime.addAndGet(1_000_000);
+    final ActiveCount fresh = counts.total(LAST_DAY);
+
+    // Then
+    assertThat(first).isEqualTo(cached).isEqualTo(new ActiveCount(7, true));
+    assertThat(all).isEqualTo(allCached).isEqualTo(new ActiveCount(1, true));
+    assertThat(fresh).isEqualTo(new ActiveCount(8, true));
+    assertThat(counts.total(ListFilter.NONE)).isEqualTo(new ActiveCount(2, true));
+    verify(repository, times(2)).countActive(LAST_DAY, 100);
+  }
+
+  @Test
+  void total_WithoutStaleness_ShouldCountEveryTime() {
+    // Given
+    when(repository.countActive(LAST_DAY, 100)).thenReturn(new ActiveCount(7, true));
+    final LampCounts counts = counts(0);
+
+    // When
+    counts.total(LAST_DAY);
+    counts.total(LAST_DAY);
+
+    // Then
+    verify(repository, times(2)).countActive(LAST_DAY, 100);
+  }
+
+  private LampCounts counts(final long maxStalenessMs) {
+    return new LampCounts(repository, analytics, nanoTime::get, maxStalenessMs, 100, 2);
+  }
+
+  private void create(final boolean status) {
+    analytics.onLampChanged(
+        LampChangedEvent.from(Type.CREATED, new Lamp(UUID.randomUUID(), status, NOW, NOW), null));
+  }
+
+  private static ListFilter filter(
+      final Optional<Boolean> status, final Optional<OffsetDateTime> updatedFrom) {
+    return new ListFilter(
+        status, Optional.empty(), Optional.empty(), updatedFrom, Optional.empty());
+  }
+}
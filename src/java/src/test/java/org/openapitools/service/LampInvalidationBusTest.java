@@ -0,0 +1,280 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.config.UnpooledConnections;
+import org.openapitools.model.Lamp;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.ApplicationEventPublisher;
+
+/** Unit tests for LampInvalidationBus. */
+@ExtendWith(MockitoExtension.class)
+class LampInvalidationBusTest {
+
+  @Mock private DataSource dataSource;
+
+  @Mock private UnpooledConnections listenerConnections;
+
+  @Mock private Connection connection;
+
+  @Mock private PreparedStatement statement;
+
+  @Mock private Statement listenStatement;
+
+  @Mock private PGConnection pgConnection;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Test
+  void burstOfWrites_ShouldBeSentAsOneNotification() throws Exception {
+    // Given
+    LampInvalidationBus bus = bus(true, 1000);
+    givenDatabase();
+    List<UUID> ids = randomIds(50);
+
+    // When
+    ids.forEach(id -> changed(bus, id));
+    bus.flush();
+
+    // Then
+    ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+    verify(statement).setString(1, LampInvalidationBus.CHANNEL);
+    verify(statement).setString(eq(2), payload.capture());
+    verify(statement, times(1)).execute();
+    assertThat(idsIn(payload.getValue())).containsExactlyInAnyOrderElementsOf(ids);
+  }
+
+  @Test
+  void payloads_ShouldStayWithinPostgresLimit() {
+    // Given
+    LampInvalidationBus bus = bus(true, 1000);
+    List<UUID> ids = randomIds(1000);
+
+    // When
+    List<String> payloads = bus.payloads(ids);
+
+    // Then
+    assertThat(payloads).hasSizeGreaterThan(1);
+    assertThat(payloads)
+        .allSatisfy(p -> assertThat(p.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000));
+    assertThat(payloads.stream().flatMap(p -> idsIn(p).stream()))
+        .containsExactlyInAnyOrderElementsOf(ids);
+  }
+
+  @Test
+  void failedNotify_ShouldBeRetriedAsInvalidateAll() throws Exception {
+    // Given
+    LampInvalidationBus bus = bus(true, 1000);
+    changed(bus, UUID.randomUUID());
+    when(dataSource.getConnection()).thenThrow(new SQLException("down"));
+    bus.flush();
+    givenDatabase();
+
+    // When
+    bus.flush();
+
+    // Then
+    verify(statement).setString(eq(2), endsWith("|*"));
+  }
+
+  @Test
+  void tooManyPendingIds_ShouldCollapseToInvalidateAll() throws Exception {
+    // Given
+    LampInvalidationBus bus = bus(true, 2);
+    givenDatabase();
+
+    // When
+    randomIds(5).forEach(id -> changed(bus, id));
+    bus.flush();
+
+    // Then
+    verify(statement).setString(eq(2), endsWith("|*"));
+    verify(statement, times(1)).execute();
+  }
+
+  @Test
+  void disabled_ShouldNotNotify() throws Exception {
+    // Given
+    LampInvalidationBus bus = bus(false, 1000);
+
+    // When
+    changed(bus, UUID.randomUUID());
+    bus.flush();
+
+    // Then
+    verify(dataSource, never()).getConnection();
+  }
+
+  @Test
+  void dispatch_FromOtherInstance_ShouldPublishChangedIds() {
+    // Given
+    LampInvalidationBus bus = bus(true, 1000);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    // When
+    bus.dispatch("other-node|" + first + "," + second);
+
+    // Then
+    verify(eventPublisher).publishEvent(LampsInvalidatedEvent.forLamps(Set.of(first, second)));
+  }
+
+  @Test
+  void dispatch_WildcardOrMalformed_ShouldInvalidateEverything() {
+    // Given
+    LampInvalidationBus bus = bus(true, 1000);
+
+    // When
+    bus.dispatch("other-node|" + LampInvalidationBus.ALL);
+    bus.dispatch("other-node|not-a-uuid");
+
+    // Then
+    verify(eventPublisher, times(2)).publishEvent(LampsInvalidatedEvent.everything());
+  }
+
+  @Test
+  void dispatch_OwnNotification_ShouldBeIgnored() {
+    // Given
+    LampInvalidationBus bus = bus(true, 1000);
+    String own = bus.payloads(List.of(UUID.randomUUID())).get(0);
+
+    // When
+    bus.dispatch(own);
+    bus.dispatch("no separator");
+
+    // Then
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void listener_ShouldDispatchAndInvalidateEverythingAfterReconnect() throws Exception {
+    // Given: one notification, then the connection is terminated
+    UUID id = UUID.randomUUID();
+    PGNotification notification = mock(PGNotification.class);
+    when(notification.getParameter()).thenReturn("other-node|" + id);
+    givenListenerConnection();
+    when(pgConnection.getNotifications(anyInt()))
+        .thenReturn(new PGNotification[] {notification})
+        .thenThrow(new SQLException("terminated"))
+        .thenReturn(null);
+    LampInvalidationBus bus = listeningBus(60_000);
+
+    // When
+    bus.start();
+
+    // Then
+    verify(eventPublisher, timeout(5000)).publishEvent(LampsInvalidatedEvent.forLamps(Set.of(id)));
+    verify(eventPublisher, timeout(5000)).publishEvent(LampsInvalidatedEvent.everything());
+    await().atMost(Duration.ofSeconds(5)).until(bus::isListening);
+    bus.stop();
+    assertThat(bus.isListening()).isFalse();
+  }
+
+  @Test
+  void listener_ShouldReconnectWhenKeepaliveFails() throws Exception {
+    // Given: a quiet channel on a connection that has silently died
+    givenListenerConnection();
+    when(pgConnection.getNotifications(anyInt())).thenReturn(null);
+    when(connection.isValid(anyInt())).thenReturn(false).thenReturn(true);
+    LampInvalidationBus bus = listeningBus(0);
+
+    // When
+    bus.start();
+
+    // Then
+    verify(eventPublisher, timeout(5000)).publishEvent(LampsInvalidatedEvent.everything());
+    verify(listenerConnections, atLeast(2)).open();
+    bus.stop();
+  }
+
+  @Test
+  void listener_ShouldUseItsOwnConnectionAndUnlistenBeforeClosingIt() throws Exception {
+    // Given
+    givenListenerConnection();
+    when(pgConnection.getNotifications(anyInt())).thenReturn(null);
+    LampInvalidationBus bus = listeningBus(60_000);
+    bus.start();
+    await().atMost(Duration.ofSeconds(5)).until(bus::isListening);
+
+    // When
+    bus.stop();
+
+    // Then
+    InOrder listener = inOrder(listenStatement, connection);
+    listener.verify(listenStatement).execute("LISTEN " + LampInvalidationBus.CHANNEL);
+    listener.verify(listenStatement, timeout(5000)).execute("UNLISTEN *");
+    listener.verify(connection, timeout(5000)).close();
+    verifyNoInteractions(dataSource);
+  }
+
+  private LampInvalidationBus bus(final boolean enabled, final int maxPending) {
+    return new LampInvalidationBus(
+        dataSource, listenerConnections, eventPublisher, enabled, 0, maxPending, 1000, 1000);
+  }
+
+  private LampInvalidationBus listeningBus(final long keepaliveMs) {
+    return new LampInvalidationBus(
+        dataSource, listenerConnections, eventPublisher, true, 0, 1000, keepaliveMs, 1);
+  }
+
+  private void givenListenerConnection() throws SQLException {
+    doReturn(connection).when(listenerConnections).open();
+    when(connection.createStatement()).thenReturn(listenStatement);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+  }
+
+  private void givenDatabase() throws SQLException {
+    doReturn(connection).when(dataSource).getConnection();
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+  }
+
+  private static void changed(final LampInvalidationBus bus, final UUID id) {
+    bus.onLampChanged(LampChangedEvent.from(LampChangedEvent.Type.UPDATED, new Lamp(id, true)));
+  }
+
+  private static List<UUID> randomIds(final int count) {
+    List<UUID> ids = new ArrayList<>();
+    IntStream.range(0, count).forEach(i -> ids.add(UUID.randomUUID()));
+    return ids;
+  }
+
+  private static List<UUID> idsIn(final String payload) {
+    String body = payload.substring(payload.indexOf('|') + 1);
+    return Arrays.stream(body.split(",")).map(UUID::fromString).toList();
+  }
+}
@@ -0,0 +1,44 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.openapitools.repository.LampRepository.ListSort;
+import org.openapitools.repository.LampRepository.SortPosition;
+
+class LampKeysetCursorTest {
+
+  @Test
+  void token_ShouldRoundTripAtFullPrecision() {
+    // Given
+    final LampKeysetCursor cursor =
+        new LampKeysetCursor(
+            ListSort.CREATED_AT_DESC,
+            new SortPosition(
+                OffsetDateTime.parse("2024-03-01T10:00:00.123456789Z"), UUID.randomUUID()));
+
+    // When
+    final String token = cursor.token();
+
+    // Then
+    assertThat(token).matches("[A-Za-z0-9_-]+");
+    assertThat(LampKeysetCursor.parse(token)).contains(cursor);
+  }
+
+  @Test
+  void parse_MalformedOrOffsetToken_ShouldBeEmpty() {
+    assertThat(LampKeysetCursor.parse("25")).isEmpty();
+    assertThat(LampKeysetCursor.parse("not base64!")).isEmpty();
+    assertThat(LampKeysetCursor.parse(encode("createdAt.1.0"))).isEmpty();
+    assertThat(LampKeysetCursor.parse(encode("status.1.0." + UUID.randomUUID()))).isEmpty();
+    assertThat(LampKeysetCursor.parse(encode("createdAt.x.0." + UUID.randomUUID()))).isEmpty();
+  }
+
+  private static String encode(final String token) {
+    return Base64.getUrlEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,30 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+
+class LampPageCursorTest {
+
+  @Test
+  void parse_ShouldReadOffsetAndSnapshot() {
+    assertThat(LampPageCursor.parse("25")).contains(new LampPageCursor(25, OptionalLong.empty()));
+    assertThat(LampPageCursor.parse("25.7")).contains(new LampPageCursor(25, OptionalLong.of(7)));
+    assertThat(LampPageCursor.parse(" ")).contains(LampPageCursor.FIRST);
+  }
+
+  @Test
+  void parse_MalformedOrNegative_ShouldBeEmpty() {
+    assertThat(LampPageCursor.parse("abc")).isEmpty();
+    assertThat(LampPageCursor.parse("25.")).isEmpty();
+    assertThat(LampPageCursor.parse("25.x")).isEmpty();
+    assertThat(LampPageCursor.parse("-1")).isEmpty();
+  }
+
+  @Test
+  void token_ShouldRoundTrip() {
+    assertThat(new LampPageCursor(50, OptionalLong.of(3)).token()).isEqualTo("50.3");
+    assertThat(new LampPageCursor(50, OptionalLong.empty()).token()).isEqualTo("50");
+  }
+}
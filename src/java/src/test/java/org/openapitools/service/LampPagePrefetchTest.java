@@ -0,0 +1,172 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository.LampField;
+import org.openapitools.repository.LampRepository.LampView;
+
+class LampPagePrefetchTest {
+
+  private static final LampPagePrefetch.PageKey PAGE =
+      new LampPagePrefetch.PageKey(100, 101, LampField.ALL);
+
+  private static final List<LampView> LAMPS =
+      List.of(LampView.from(new LampEntity(UUID.randomUUID(), true), LampField.ALL));
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  private final AtomicInteger reads = new AtomicInteger();
+
+  @AfterEach
+  void stopExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void prefetched_ShouldServeThePageReadAheadOnce() {
+    // Given
+    final LampPagePrefetch prefetch = prefetch(true, 2);
+
+    // When
+    prefetch.prefetch(PAGE, this::read);
+    prefetch.prefetch(PAGE, this::read);
+
+    // Then
+    assertThat(prefetch.prefetched(PAGE)).contains(LAMPS);
+    assertThat(prefetch.prefetched(PAGE)).isEmpty();
+    assertThat(prefetch.prefetched(new LampPagePrefetch.PageKey(0, 101, LampField.ALL))).isEmpty();
+    assertThat(reads).hasValue(1);
+  }
+
+  @Test
+  void prefetched_AfterTheTtl_ShouldBeEmptyAndReadAgain() {
+    // Given
+    final LampPagePrefetch prefetch = prefetch(true, 2);
+    prefetch.prefetch(PAGE, this::read);
+
+    // When
+    nanoTime.addAndGet(1_000_000_000);
+
+    // Then
+    assertThat(prefetch.prefetched(PAGE)).isEmpty();
+    prefetch.prefetch(PAGE, this::read);
+    assertThat(prefetch.prefetched(PAGE)).contains(LAMPS);
+    assertThat(reads).hasValue(2);
+  }
+
+  @Test
+  void forgetAll_ShouldDropPagesStillBeingRead() throws Exception {
+    // Given
+    final LampPagePrefetch prefetch = prefetch(true, 2);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    prefetch.prefetch(
+        PAGE,
+        () -> {
+          started.countDown();
+          awaitLatch(release);
+          return read();
+        });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    prefetch.forgetAll();
+    release.countDown();
+
+    // Then
+    assertThat(prefetch.prefetched(PAGE)).isEmpty();
+  }
+
+  @Test
+  void prefetched_WhenTheReadFailed_ShouldBeEmpty() {
+    // Given
+    final LampPagePrefetch prefetch = prefetch(true, 2);
+
+    // When
+    prefetch.prefetch(
+        PAGE,
+        () -> {
+          throw new IllegalStateException("connection refused");
+        });
+
+    // Then
+    assertThat(prefetch.prefetched(PAGE)).isEmpty();
+    prefetch.prefetch(PAGE, this::read);
+    assertThat(prefetch.prefetched(PAGE)).contains(LAMPS);
+  }
+
+  @Test
+  void prefetch_WhenFull_ShouldSkipPagesUntilOthersAreTakenOrExpire() {
+    // Given
+    final LampPagePrefetch prefetch = prefetch(true, 1);
+    final LampPagePrefetch.PageKey next = PAGE.next().orElseThrow();
+    final LampPagePrefetch.PageKey last = next.next().orElseThrow();
+    prefetch.prefetch(PAGE, this::read);
+
+    // When
+    prefetch.prefetch(next, this::read);
+    final boolean skipped = prefetch.prefetched(next).isEmpty();
+    nanoTime.addAndGet(1_000_000_000);
+    prefetch.prefetch(next, this::read);
+    final boolean readAfterExpiry = prefetch.prefetched(next).isPresent();
+    prefetch.prefetch(last, this::read);
+
+    // Then
+    assertThat(skipped).isTrue();
+    assertThat(readAfterExpiry).isTrue();
+    assertThat(prefetch.prefetched(last)).contains(LAMPS);
+    assertThat(reads).hasValue(3);
+  }
+
+  @Test
+  void prefetch_WhenDisabled_ShouldNotRead() {
+    // Given
+    final LampPagePrefetch prefetch = prefetch(false, 2);
+
+    // When
+    prefetch.prefetch(PAGE, this::read);
+
+    // Then
+    assertThat(prefetch.prefetched(PAGE)).isEmpty();
+    assertThat(reads).hasValue(0);
+  }
+
+  @Test
+  void next_ShouldStartAfterThePageUnlessItCannot() {
+    assertThat(PAGE.next()).contains(new LampPagePrefetch.PageKey(200, 101, LampField.ALL));
+    assertThat(new LampPagePrefetch.PageKey(Integer.MAX_VALUE - 50, 101, LampField.ALL).next())
+        .isEmpty();
+    assertThat(new LampPagePrefetch.PageKey(0, 1, LampField.ALL).next()).isEmpty();
+  }
+
+  private LampPagePrefetch prefetch(final boolean enabled, final int maxPages) {
+    return new LampPagePrefetch(enabled, executor, nanoTime::get, 1_000, maxPages);
+  }
+
+  private List<LampView> read() {
+    reads.incrementAndGet();
+    return LAMPS;
+  }
+
+  private static void awaitLatch(final CountDownLatch latch) {
+    try {
+      assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
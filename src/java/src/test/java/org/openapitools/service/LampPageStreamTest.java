@@ -0,0 +1,68 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.ListLamps200Response;
+import org.openapitools.repository.LampRows;
+
+class LampPageStreamTest {
+
+  private final AtomicInteger offset = new AtomicInteger(-1);
+
+  private final AtomicInteger limit = new AtomicInteger(-1);
+
+  private final LampRows rows =
+      (from, max, handler) -> {
+        offset.set(from);
+        limit.set(max);
+        return 0;
+      };
+
+  @Test
+  void page_ShouldBeReadWhenItIsUsedNotBefore() {
+    // Given
+    final LampPageStream stream = new LampPageStream(Optional.of(rows), true, false);
+
+    // When
+    final Optional<ListLamps200Response> page =
+        stream.page(new LampPageCursor(50, OptionalLong.empty()), 25);
+
+    // Then
+    assertThat(page).containsInstanceOf(StreamedLampPage.class);
+    assertThat(limit).hasValue(-1);
+    assertThat(page.orElseThrow().getHasMore()).isFalse();
+    assertThat(offset).hasValue(50);
+    assertThat(limit).hasValue(26);
+  }
+
+  @Test
+  void page_WithANonPositiveSize_ShouldUseTheDefaultSize() {
+    // Given
+    final LampPageStream stream = new LampPageStream(Optional.of(rows), true, false);
+
+    // When
+    stream.page(LampPageCursor.FIRST, 0).orElseThrow().getData();
+
+    // Then
+    assertThat(limit).hasValue(26);
+  }
+
+  @Test
+  void page_ShouldBeEmptyWhenPagesAreNotStreamedOrNotForTheCursor() {
+    // Given
+    final LampPageCursor snapshot = new LampPageCursor(0, OptionalLong.of(7));
+
+    // When & Then
+    assertThat(new LampPageStream(Optional.empty(), true, false).page(LampPageCursor.FIRST, 25))
+        .isEmpty();
+    assertThat(new LampPageStream(Optional.of(rows), false, false).page(LampPageCursor.FIRST, 25))
+        .isEmpty();
+    assertThat(new LampPageStream(Optional.of(rows), true, true).page(LampPageCursor.FIRST, 25))
+        .isEmpty();
+    assertThat(new LampPageStream(Optional.of(rows), true, false).page(snapshot, 25)).isEmpty();
+  }
+}
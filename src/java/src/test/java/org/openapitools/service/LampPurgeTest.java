@@ -0,0 +1,123 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.repository.LampRepository;
+import org.springframework.dao.QueryTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class LampPurgeTest {
+
+  private static final Instant NOW = Instant.parse("2024-03-31T12:00:00Z");
+
+  private static final OffsetDateTime CUTOFF =
+      Instant.parse("2024-03-01T12:00:00Z").atOffset(ZoneOffset.UTC);
+
+  @Mock private LampRepository repository;
+
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void purge_ShouldRemoveLampsDeletedBeforeTheRetention() {
+    // Given
+    when(repository.purgeDeletedBefore(CUTOFF, 100)).thenReturn(7);
+
+    // When
+    final int purged = purge(100, 1_000).purge();
+
+    // Then
+    assertThat(purged).isEqualTo(7);
+    assertThat(meterRegistry.get("lamp.purge.deleted").counter().count()).isEqualTo(7);
+    assertThat(meterRegistry.get("lamp.purge.last.success").gauge().value())
+        .isEqualTo(NOW.getEpochSecond());
+    assertThat(meterRegistry.get("lamp.purge.runs").tag("outcome", "success").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void purge_ShouldWorkInBatchesUntilTheBacklogIsGone() {
+    // Given
+    when(repository.purgeDeletedBefore(CUTOFF, 100)).thenReturn(100, 100, 30);
+
+    // When
+    final int purged = purge(100, 1_000).purge();
+
+    // Then
+    assertThat(purged).isEqualTo(230);
+    verify(repository, times(3)).purgeDeletedBefore(CUTOFF, 100);
+  }
+
+  @Test
+  void purge_ShouldStopAtMaxPerRun() {
+    // Given
+    when(repository.purgeDeletedBefore(eq(CUTOFF), anyInt()))
+        .thenAnswer(invocation -> invocation.getArgument(1));
+
+    // When
+    final int purged = purge(100, 250).purge();
+
+    // Then
+    assertThat(purged).isEqualTo(250);
+    verify(repository, times(2)).purgeDeletedBefore(CUTOFF, 100);
+    verify(repository).purgeDeletedBefore(CUTOFF, 50);
+  }
+
+  @Test
+  void purge_DatabaseError_ShouldRecordAFailedRun() {
+    // Given
+    when(repository.purgeDeletedBefore(CUTOFF, 100))
+        .thenReturn(100)
+        .thenThrow(new QueryTimeoutException("timeout"));
+
+    // When
+    final int purged = purge(100, 1_000).purge();
+
+    // Then
+    assertThat(purged).isEqualTo(100);
+    assertThat(meterRegistry.get("lamp.purge.deleted").counter().count()).isEqualTo(100);
+    assertThat(meterRegistry.get("lamp.purge.last.success").gauge().value()).isZero();
+    assertThat(meterRegistry.get("lamp.purge.runs").tag("outcome", "failure").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void start_Disabled_ShouldNotSchedule() {
+    // Given
+    final LampPurge purge =
+        new LampPurge(repository, meterRegistry, NOW::toEpochMilli, false, 30, 100, 1_000, 0, 1);
+
+    // When
+    purge.start();
+    purge.stop();
+
+    // Then
+    verify(repository, never()).purgeDeletedBefore(any(), anyInt());
+  }
+
+  private LampPurge purge(final int batchSize, final int maxPerRun) {
+    return new LampPurge(
+        repository, meterRegistry, NOW::toEpochMilli, true, 30, batchSize, maxPerRun, 0, 60_000);
+  }
+}
@@ -2,16 +2,27 @@ package org.openapitools.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openapitools.entity.LampEntity;
@@ -19,10 +30,15 @@ import org.openapitools.exception.LampNotFoundException;
 import org.openapitools.mapper.LampMapper;
 import org.openapitools.model.Lamp;
 import org.openapitools.repository.LampRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 /**
  * Unit tests for LampService. These tests use mocked dependencies to test the service layer in
@@ -31,11 +47,18 @@ import org.springframework.data.domain.Sort;
 @ExtendWith(MockitoExtension.class)
 class LampServiceTest {
 
+  private static final Set<LampRepository.LampField> ID_AND_STATUS =
+      EnumSet.of(LampRepository.LampField.ID, LampRepository.LampField.STATUS);
+
   @Mock private LampRepository repository;
 
   @Mock private LampMapper mapper;
 
-  @InjectMocks private LampService service;
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Mock private LampPagePrefetch pagePrefetch;
+
+  private LampService service;
 
   private UUID testId;
   private LampEntity testEntity;
@@ -43,6 +66,7 @@ class LampServiceTest {
 
   @BeforeEach
   void setUp() {
+    service = new LampService(repository, mapper, eventPublisher, pagePrefetch, Optional.empty());
     testId = UUID.randomUUID();
     testEntity = new LampEntity(testId, true);
     testLamp = new Lamp();
@@ -70,6 +94,8 @@ class LampServiceTest {
     verify(repository).save(testEntity);
     verify(mapper).toEntity(input);
     verify(mapper).toModel(testEntity);
+    verify(eventPublisher)
+        .publishEvent(LampChangedEvent.from(LampChangedEvent.Type.CREATED, testLamp));
   }
 
   @Test
@@ -103,6 +129,53 @@ class LampServiceTest {
     verify(mapper, never()).toModel(any());
   }
 
+  @Test
+  void shouldFindByIdsInRequestOrderAndReportMissing() {
+    // Arrange
+    final UUID otherId = UUID.randomUUID();
+    final LampEntity otherEntity = new LampEntity(otherId, false);
+    final Lamp otherLamp = new Lamp(otherId, false);
+    final UUID missingId = UUID.randomUUID();
+    when(repository.findActiveByIds(Set.of(otherId, missingId, testId)))
+        .thenReturn(List.of(testEntity, otherEntity));
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+    when(mapper.toModel(otherEntity)).thenReturn(otherLamp);
+
+    // Act
+    final LampService.LampBatch result =
+        service.findByIds(List.of(otherId, missingId, testId, otherId));
+
+    // Assert
+    assertThat(result.lamps()).containsExactly(otherLamp, testLamp);
+    assertThat(result.missing()).containsExactly(missingId);
+    verify(repository).findActiveByIds(any());
+  }
+
+  @Test
+  void shouldUpdateStatusOfAChunkAndPublishAnEventPerLamp() {
+    // Arrange
+    final LampRepository.StatusUpdate off =
+        new LampRepository.StatusUpdate(
+            false,
+            LampRepository.StatusUpdate.ANY_CREATED_FROM,
+            LampRepository.StatusUpdate.ANY_CREATED_TO,
+            Set.of());
+    final UUID after = new UUID(0, 0);
+    testEntity.setStatus(false);
+    testLamp.setStatus(false);
+    when(repository.updateStatus(eq(off), eq(after), any(), eq(100)))
+        .thenReturn(List.of(testEntity));
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+
+    // Act
+    final List<Lamp> result = service.updateStatus(off, after, 100);
+
+    // Assert
+    assertThat(result).containsExactly(testLamp);
+    verify(eventPublisher)
+        .publishEvent(LampChangedEvent.from(LampChangedEvent.Type.UPDATED, testLamp, true));
+  }
+
   @Test
   void shouldFindAllWithPagination() {
     // Arrange
@@ -146,10 +219,12 @@ class LampServiceTest {
 
     final UUID thirdId = UUID.randomUUID();
     final LampEntity thirdEntity = new LampEntity(thirdId, true);
-    when(repository.findAllActive(any(Pageable.class)))
-        .thenReturn(List.of(testEntity, secondEntity, thirdEntity));
-    when(mapper.toModel(testEntity)).thenReturn(testLamp);
-    when(mapper.toModel(secondEntity)).thenReturn(secondLamp);
+    final LampRepository.LampView view = view(testEntity);
+    final LampRepository.LampView secondView = view(secondEntity);
+    when(repository.findActiveViews(any(Pageable.class), eq(LampRepository.LampField.ALL)))
+        .thenReturn(List.of(view, secondView, view(thirdEntity)));
+    when(mapper.toPartialModel(view)).thenReturn(testLamp);
+    when(mapper.toPartialModel(secondView)).thenReturn(secondLamp);
 
     // Act
     final LampService.PagedLampsResult result = service.findAllActivePage(2, 2);
@@ -158,9 +233,10 @@ class LampServiceTest {
     assertThat(result.data()).hasSize(2);
     assertThat(result.hasMore()).isTrue();
     assertThat(result.nextCursor()).contains("4");
+    verify(repository, never()).findAllActive(any(Pageable.class));
 
     final var pageableCaptor = org.mockito.ArgumentCaptor.forClass(Pageable.class);
-    verify(repository).findAllActive(pageableCaptor.capture());
+    verify(repository).findActiveViews(pageableCaptor.capture(), eq(LampRepository.LampField.ALL));
     final Pageable captured = pageableCaptor.getValue();
     assertThat(captured.getOffset()).isEqualTo(2);
     assertThat(captured.getPageSize()).isEqualTo(3);
@@ -168,11 +244,35 @@ class LampServiceTest {
         .isEqualTo(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id")));
   }
 
+  @Test
+  void shouldFindActivePageInRepositorySnapshotAndCarryItInTheCursor() {
+    // Arrange
+    final LampEntity secondEntity = new LampEntity(UUID.randomUUID(), false);
+    final LampEntity thirdEntity = new LampEntity(UUID.randomUUID(), true);
+    when(repository.findActiveInSnapshot(OptionalLong.of(7), 2, 3))
+        .thenReturn(
+            Optional.of(
+                new LampRepository.ActiveWindow(
+                    7, List.of(testEntity, secondEntity, thirdEntity))));
+    when(mapper.toModel(any(LampEntity.class))).thenReturn(testLamp);
+
+    // Act
+    final LampService.PagedLampsResult result =
+        service.findAllActivePage(new LampPageCursor(2, OptionalLong.of(7)), 2);
+
+    // Assert
+    assertThat(result.data()).hasSize(2);
+    assertThat(result.nextCursor()).contains("4.7");
+    verify(repository, never()).findAllActive(any(Pageable.class));
+  }
+
   @Test
   void shouldFindActivePageTerminalWithoutNextCursor() {
     // Arrange
-    when(repository.findAllActive(any(Pageable.class))).thenReturn(List.of(testEntity));
-    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+    final LampRepository.LampView view = view(testEntity);
+    when(repository.findActiveViews(any(Pageable.class), eq(LampRepository.LampField.ALL)))
+        .thenReturn(List.of(view));
+    when(mapper.toPartialModel(view)).thenReturn(testLamp);
 
     // Act
     final LampService.PagedLampsResult result = service.findAllActivePage(4, 2);
@@ -181,19 +281,228 @@ class LampServiceTest {
     assertThat(result.data()).hasSize(1);
     assertThat(result.hasMore()).isFalse();
     assertThat(result.nextCursor()).isEmpty();
+    verify(pagePrefetch, never()).prefetch(any(), any());
+  }
+
+  @Test
+  void shouldServeAPrefetchedPageAndReadTheNextOneAhead() {
+    // Arrange
+    final LampRepository.LampView view = view(testEntity);
+    when(pagePrefetch.prefetched(new LampPagePrefetch.PageKey(2, 3, LampRepository.LampField.ALL)))
+        .thenReturn(Optional.of(List.of(view, view, view)));
+    when(mapper.toPartialModel(view)).thenReturn(testLamp);
+    when(repository.findActiveViews(any(Pageable.class), eq(LampRepository.LampField.ALL)))
+        .thenReturn(List.of(view));
+
+    // Act
+    final LampService.PagedLampsResult result = service.findAllActivePage(2, 2);
+
+    // Assert
+    assertThat(result.data()).hasSize(2);
+    assertThat(result.nextCursor()).contains("4");
+    verify(repository, never()).findActiveViews(any(Pageable.class), any());
+
+    @SuppressWarnings("unchecked")
+    final org.mockito.ArgumentCaptor<java.util.function.Supplier<List<LampRepository.LampView>>>
+        loader = org.mockito.ArgumentCaptor.forClass(java.util.function.Supplier.class);
+    verify(pagePrefetch)
+        .prefetch(
+            eq(new LampPagePrefetch.PageKey(4, 3, LampRepository.LampField.ALL)), loader.capture());
+    assertThat(loader.getValue().get()).containsExactly(view);
+    final var pageableCaptor = org.mockito.ArgumentCaptor.forClass(Pageable.class);
+    verify(repository).findActiveViews(pageableCaptor.capture(), eq(LampRepository.LampField.ALL));
+    assertThat(pageableCaptor.getValue().getOffset()).isEqualTo(4);
+    assertThat(pageableCaptor.getValue().getPageSize()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldDropPrefetchedPagesOnInvalidation() {
+    // Act
+    service.onLampsInvalidated(LampsInvalidatedEvent.forLamps(Set.of(testId)));
+    service.onLampsInvalidated(LampsInvalidatedEvent.everything());
+
+    // Assert
+    verify(pagePrefetch, times(2)).forgetAll();
+  }
+
+  @Test
+  void shouldFindFilteredPageByKeysetAndPointPastItsLastLamp() {
+    // Arrange
+    final LampRepository.ListFilter onlyOn =
+        new LampRepository.ListFilter(
+            Optional.of(true),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+    final LampRepository.SortPosition after =
+        new LampRepository.SortPosition(OffsetDateTime.parse("2024-01-01T00:00:00Z"), testId);
+    final LampEntity last = new LampEntity(UUID.randomUUID(), true);
+    last.setUpdatedAt(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
+    when(repository.findActive(
+            onlyOn, LampRepository.ListSort.UPDATED_AT_DESC, Optional.of(after), 3))
+        .thenReturn(List.of(testEntity, last, new LampEntity(UUID.randomUUID(), true)));
+    when(mapper.toModel(any(LampEntity.class))).thenReturn(testLamp);
+
+    // Act
+    final LampService.PagedLampsResult result =
+        service.findActivePage(
+            onlyOn,
+            LampRepository.ListSort.UPDATED_AT_DESC,
+            Optional.of(new LampKeysetCursor(LampRepository.ListSort.UPDATED_AT_DESC, after)),
+            2);
+
+    // Assert
+    assertThat(result.data()).hasSize(2);
+    assertThat(result.hasMore()).isTrue();
+    assertThat(result.nextCursor().flatMap(LampKeysetCursor::parse))
+        .contains(
+            new LampKeysetCursor(
+                LampRepository.ListSort.UPDATED_AT_DESC,
+                LampRepository.SortPosition.from(LampRepository.ListSort.UPDATED_AT_DESC, last)));
+  }
+
+  @Test
+  void shouldStartOverWhenTheCursorIsOfAnotherOrder() {
+    // Arrange
+    final LampKeysetCursor createdOrder =
+        new LampKeysetCursor(
+            LampRepository.ListSort.CREATED_AT,
+            new LampRepository.SortPosition(OffsetDateTime.now(), testId));
+    when(repository.findActive(
+            LampRepository.ListFilter.NONE,
+            LampRepository.ListSort.CREATED_AT_DESC,
+            Optional.empty(),
+            26))
+        .thenReturn(List.of());
+
+    // Act
+    final LampService.PagedLampsResult result =
+        service.findActivePage(
+            LampRepository.ListFilter.NONE,
+            LampRepository.ListSort.CREATED_AT_DESC,
+            Optional.of(createdOrder),
+            0);
+
+    // Assert
+    assertThat(result.data()).isEmpty();
+    assertThat(result.hasMore()).isFalse();
+    assertThat(result.nextCursor()).isEmpty();
+  }
+
+  @Test
+  void shouldFindByIdReadingOnlyTheColumnsOfAProjection() {
+    // Arrange
+    final Set<LampRepository.LampField> fields = ID_AND_STATUS;
+    final LampRepository.LampView view = new LampRepository.LampView(testId, true, null, null);
+    when(repository.findActiveView(testId, fields)).thenReturn(Optional.of(view));
+    when(mapper.toPartialModel(view)).thenReturn(testLamp);
+
+    // Act
+    final Optional<Lamp> result = service.findById(testId, fields);
+
+    // Assert
+    assertThat(result).contains(testLamp);
+    verify(repository, never()).findById(any());
+  }
+
+  @Test
+  void shouldFindByIdAsAWholeLampWithEveryField() {
+    // Arrange
+    when(repository.findById(testId)).thenReturn(Optional.of(testEntity));
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+
+    // Act
+    final Optional<Lamp> result = service.findById(testId, LampRepository.LampField.ALL);
+
+    // Assert
+    assertThat(result).contains(testLamp);
+    verify(repository, never()).findActiveView(any(), any());
+  }
+
+  @Test
+  void shouldFindProjectedActivePageWithoutSnapshotsFromTheNarrowRead() {
+    // Arrange
+    final LampRepository.LampView view = new LampRepository.LampView(testId, true, null, null);
+    when(repository.findActiveViews(any(Pageable.class), eq(ID_AND_STATUS)))
+        .thenReturn(List.of(view, view, view));
+    when(mapper.toPartialModel(view)).thenReturn(testLamp);
+
+    // Act
+    final LampService.PagedLampsResult result =
+        service.findAllActivePage(LampPageCursor.FIRST, 2, ID_AND_STATUS);
+
+    // Assert
+    assertThat(result.data()).containsExactly(testLamp, testLamp);
+    assertThat(result.nextCursor()).contains("2");
+    verify(repository, never()).findAllActive(any(Pageable.class));
+  }
+
+  @Test
+  void shouldProjectTheLampsOfASnapshotPage() {
+    // Arrange
+    when(repository.findActiveInSnapshot(OptionalLong.empty(), 0, 3))
+        .thenReturn(Optional.of(new LampRepository.ActiveWindow(7, List.of(testEntity))));
+    when(mapper.toPartialModel(new LampRepository.LampView(testId, true, null, null)))
+        .thenReturn(testLamp);
+
+    // Act
+    final LampService.PagedLampsResult result =
+        service.findAllActivePage(LampPageCursor.FIRST, 2, ID_AND_STATUS);
+
+    // Assert
+    assertThat(result.data()).containsExactly(testLamp);
+    assertThat(result.hasMore()).isFalse();
+  }
+
+  @Test
+  void shouldReadTheSortKeyOfAProjectedPageForTheCursorButNotReturnIt() {
+    // Arrange
+    final OffsetDateTime updatedAt = OffsetDateTime.parse("2024-01-02T00:00:00Z");
+    final LampRepository.LampView first =
+        new LampRepository.LampView(testId, true, null, updatedAt);
+    final LampRepository.LampView second =
+        new LampRepository.LampView(UUID.randomUUID(), false, null, updatedAt.plusSeconds(1));
+    when(repository.findActiveViews(
+            LampRepository.ListFilter.NONE,
+            LampRepository.ListSort.UPDATED_AT,
+            Optional.empty(),
+            2,
+            LampRepository.ListSort.UPDATED_AT.withKey(ID_AND_STATUS)))
+        .thenReturn(List.of(first, second));
+    when(mapper.toPartialModel(new LampRepository.LampView(testId, true, null, null)))
+        .thenReturn(testLamp);
+
+    // Act
+    final LampService.PagedLampsResult result =
+        service.findActivePage(
+            LampRepository.ListFilter.NONE,
+            LampRepository.ListSort.UPDATED_AT,
+            Optional.empty(),
+            1,
+            ID_AND_STATUS);
+
+    // Assert
+    assertThat(result.data()).containsExactly(testLamp);
+    assertThat(result.nextCursor().flatMap(LampKeysetCursor::parse))
+        .contains(
+            new LampKeysetCursor(
+                LampRepository.ListSort.UPDATED_AT,
+                new LampRepository.SortPosition(updatedAt, testId)));
   }
 
   @Test
   void shouldFallbackToDefaultPageSizeWhenInvalidPageSizeProvided() {
     // Arrange
-    when(repository.findAllActive(any(Pageable.class))).thenReturn(List.of());
+    when(repository.findActiveViews(any(Pageable.class), eq(LampRepository.LampField.ALL)))
+        .thenReturn(List.of());
 
     // Act
     service.findAllActivePage(0, 0);
 
     // Assert
     final var pageableCaptor = org.mockito.ArgumentCaptor.forClass(Pageable.class);
-    verify(repository).findAllActive(pageableCaptor.capture());
+    verify(repository).findActiveViews(pageableCaptor.capture(), eq(LampRepository.LampField.ALL));
     assertThat(pageableCaptor.getValue().getPageSize()).isEqualTo(26);
   }
 
@@ -250,6 +559,8 @@ class LampServiceTest {
     assertThat(result.getStatus()).isFalse();
     verify(repository).findById(testId);
     verify(repository).save(any(LampEntity.class));
+    verify(eventPublisher)
+        .publishEvent(LampChangedEvent.from(LampChangedEvent.Type.UPDATED, updatedLamp, true));
   }
 
   @Test
@@ -266,6 +577,7 @@ class LampServiceTest {
         .isInstanceOf(LampNotFoundException.class);
     verify(repository).findById(nonExistentId);
     verify(repository, never()).save(any());
+    verifyNoInteractions(eventPublisher);
   }
 
   @Test
@@ -273,6 +585,7 @@ class LampServiceTest {
     // Arrange
     when(repository.findById(testId)).thenReturn(Optional.of(testEntity));
     when(repository.save(testEntity)).thenReturn(testEntity);
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
 
     // Act
     service.delete(testId);
@@ -280,6 +593,8 @@ class LampServiceTest {
     // Assert
     verify(repository).findById(testId);
     verify(repository).save(any(LampEntity.class));
+    verify(eventPublisher)
+        .publishEvent(LampChangedEvent.from(LampChangedEvent.Type.DELETED, testLamp, true));
   }
 
   @Test
@@ -294,4 +609,215 @@ class LampServiceTest {
     verify(repository).findById(nonExistentId);
     verify(repository, never()).save(any());
   }
+
+  @Test
+  void update_LosingARaceWithASoftDelete_ShouldRunAgainInANewTransaction() {
+    // Arrange: the delete moved the row to lamps_deleted after the first read
+    final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    when(transactionManager.getTransaction(any())).thenAnswer(i -> new SimpleTransactionStatus());
+    service =
+        new LampService(
+            repository, mapper, eventPublisher, pagePrefetch, Optional.of(transactionManager));
+    final Lamp updateData = new Lamp();
+    updateData.setStatus(false);
+    when(repository.findById(testId)).thenReturn(Optional.of(testEntity), Optional.empty());
+    when(repository.save(testEntity)).thenThrow(movedToAnotherPartition());
+
+    // Act & Assert
+    assertThatThrownBy(() -> service.update(testId, updateData))
+        .isInstanceOf(LampNotFoundException.class);
+    verify(repository, times(2)).findById(testId);
+    verify(transactionManager, times(2)).rollback(any());
+    verify(transactionManager, never()).commit(any());
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void delete_LosingARaceWithAnotherWrite_ShouldSucceedWhenRunAgain() {
+    // Arrange
+    when(repository.findById(testId)).thenReturn(Optional.of(testEntity));
+    when(repository.save(testEntity)).thenThrow(movedToAnotherPartition()).thenReturn(testEntity);
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+
+    // Act
+    service.delete(testId);
+
+    // Assert
+    verify(repository, times(2)).save(testEntity);
+    verify(eventPublisher)
+        .publishEvent(LampChangedEvent.from(LampChangedEvent.Type.DELETED, testLamp, true));
+  }
+
+  @Test
+  void update_KeepingOnLosingTheRace_ShouldFailAfterThreeAttempts() {
+    // Arrange
+    final Lamp updateData = new Lamp();
+    updateData.setStatus(false);
+    final CannotAcquireLockException moved = movedToAnotherPartition();
+    when(repository.findById(testId)).thenReturn(Optional.of(testEntity));
+    when(repository.save(testEntity)).thenThrow(moved);
+
+    // Act & Assert
+    assertThatThrownBy(() -> service.update(testId, updateData)).isSameAs(moved);
+    verify(repository, times(3)).save(testEntity);
+  }
+
+  @Test
+  void update_FailingOtherwise_ShouldNotRunAgain() {
+    // Arrange
+    final Lamp updateData = new Lamp();
+    updateData.setStatus(false);
+    when(repository.findById(testId)).thenReturn(Optional.of(testEntity));
+    when(repository.save(testEntity)).thenThrow(new DataAccessResourceFailureException("down"));
+
+    // Act & Assert
+    assertThatThrownBy(() -> service.update(testId, updateData))
+        .isInstanceOf(DataAccessResourceFailureException.class);
+    verify(repository).save(testEntity);
+  }
+
+  private static CannotAcquireLockException movedToAnotherPartition() {
+    return new CannotAcquireLockException(
+        "could not execute statement",
+        new SQLException(
+            "ERROR: tuple to be locked was already moved to another partition due to concurrent"
+                + " update",
+            "40001"));
+  }
+
+  @Test
+  void shouldCoalesceConcurrentReadsOfSkewedKeys() throws Exception {
+    // Arrange: 24 callers hit one hot lamp and 8 a cold one while the repository is slow
+    final UUID coldId = UUID.randomUUID();
+    final LampEntity coldEntity = new LampEntity(coldId, false);
+    final CountDownLatch release = new CountDownLatch(1);
+    when(repository.findById(testId))
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return Optional.of(testEntity);
+            });
+    when(repository.findById(coldId))
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return Optional.of(coldEntity);
+            });
+    when(mapper.toModel(any(LampEntity.class))).thenReturn(testLamp);
+
+    final List<Thread> callers = new ArrayList<>();
+    final AtomicInteger found = new AtomicInteger();
+    for (int i = 0; i < 32; i++) {
+      final UUID id = i % 4 == 0 ? coldId : testId;
+      final Thread caller =
+          new Thread(
+              () -> {
+                if (service.findById(id).isPresent()) {
+                  found.incrementAndGet();
+                }
+              });
+      caller.start();
+      callers.add(caller);
+    }
+
+    // Act
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(
+            () ->
+                callers.stream()
+                    .allMatch(
+                        t ->
+                            t.getState() == Thread.State.WAITING
+                                || t.getState() == Thread.State.TIMED_WAITING));
+    release.countDown();
+    for (final Thread caller : callers) {
+      caller.join(5_000);
+    }
+
+    // Assert: 32 reads, 2 repository calls
+    assertThat(found).hasValue(32);
+    verify(repository, times(1)).findById(testId);
+    verify(repository, times(1)).findById(coldId);
+    verify(mapper, times(32)).toModel(any(LampEntity.class));
+  }
+
+  @Test
+  void shouldNotJoinInFlightReadAfterWrite() throws Exception {
+    // Arrange: the first read blocks in the repository
+    final CountDownLatch readStarted = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger reads = new AtomicInteger();
+    when(repository.findById(testId))
+        .thenAnswer(
+            invocation -> {
+              if (reads.incrementAndGet() == 1) {
+                readStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+              }
+              return Optional.of(testEntity);
+            });
+    when(repository.save(testEntity)).thenReturn(testEntity);
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+    final Thread staleReader = new Thread(() -> service.findById(testId));
+    staleReader.start();
+    assertThat(readStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // Act
+    service.update(testId, new Lamp(testId, false));
+    final Optional<Lamp> fresh = service.findById(testId);
+    release.countDown();
+    staleReader.join(5_000);
+
+    // Assert: the stale read, the update's lookup and a fresh read
+    assertThat(fresh).isPresent();
+    assertThat(reads).hasValue(3);
+  }
+
+  @Test
+  void shouldNotJoinInFlightReadAfterRemoteInvalidation() throws Exception {
+    assertInvalidationDetachesInFlightRead(
+        () -> service.onLampsInvalidated(LampsInvalidatedEvent.forLamps(Set.of(testId))));
+  }
+
+  @Test
+  void shouldNotJoinInFlightReadAfterInvalidateAll() throws Exception {
+    assertInvalidationDetachesInFlightRead(
+        () -> service.onLampsInvalidated(LampsInvalidatedEvent.everything()));
+  }
+
+  private void assertInvalidationDetachesInFlightRead(final Runnable invalidation)
+      throws Exception {
+    // Arrange: the first read blocks in the repository
+    final CountDownLatch readStarted = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger reads = new AtomicInteger();
+    when(repository.findById(testId))
+        .thenAnswer(
+            invocation -> {
+              if (reads.incrementAndGet() == 1) {
+                readStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+              }
+              return Optional.of(testEntity);
+            });
+    when(mapper.toModel(testEntity)).thenReturn(testLamp);
+    final Thread staleReader = new Thread(() -> service.findById(testId));
+    staleReader.start();
+    assertThat(readStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // Act
+    invalidation.run();
+    final Optional<Lamp> fresh = service.findById(testId);
+    release.countDown();
+    staleReader.join(5_000);
+
+    // Assert: the stale read and a fresh read
+    assertThat(fresh).isPresent();
+    assertThat(reads).hasValue(2);
+  }
+
+  private static LampRepository.LampView view(final LampEntity entity) {
+    return LampRepository.LampView.from(entity, LampRepository.LampField.ALL);
+  }
 }
@@ -0,0 +1,158 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampStateHistoryRepository;
+import org.openapitools.repository.impl.InMemoryLampStateHistoryRepository;
+import org.openapitools.service.LampChangedEvent.Type;
+import org.openapitools.service.LampStateHistory.LampStateChange;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/** Unit tests for LampStateHistory. */
+@ExtendWith(MockitoExtension.class)
+class LampStateHistoryTest {
+
+  private static final Instant EPOCH = Instant.EPOCH;
+
+  @Mock private LampStateHistoryRepository mockRepository;
+
+  private final InMemoryLampStateHistoryRepository repository =
+      new InMemoryLampStateHistoryRepository();
+
+  private LampStateHistory history = newHistory(repository);
+
+  @AfterEach
+  void tearDown() {
+    history.stop();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void transitions_ShouldBeRecordedInOrder() {
+    // Given
+    UUID id = UUID.randomUUID();
+
+    // When
+    history.onLampChanged(event(Type.CREATED, id, false, null));
+    history.onLampChanged(event(Type.UPDATED, id, true, false));
+    history.onLampChanged(event(Type.UPDATED, id, true, true));
+    history.onLampChanged(event(Type.DELETED, id, true, true));
+
+    // Then
+    assertThat(history.history(id, EPOCH, Instant.now().plusSeconds(1), 10))
+        .extracting(LampStateChange::previousStatus, LampStateChange::status)
+        .containsExactly(tuple(null, false), tuple(false, true), tuple(true, null));
+  }
+
+  @Test
+  void transitionsInTransaction_ShouldBeAppendedBeforeCommit() {
+    // Given
+    UUID id = UUID.randomUUID();
+    TransactionSynchronizationManager.initSynchronization();
+
+    // When
+    history.onLampChanged(event(Type.CREATED, id, true, null));
+    history.onLampChanged(event(Type.UPDATED, id, false, true));
+    List<LampStateChange> beforeCommit = history.history(id, EPOCH, Instant.now(), 10);
+    TransactionSynchronizationUtils.triggerBeforeCommit(false);
+    TransactionSynchronizationUtils.triggerAfterCompletion(0);
+
+    // Then
+    assertThat(beforeCommit).isEmpty();
+    assertThat(history.history(id, EPOCH, Instant.now().plusSeconds(1), 10)).hasSize(2);
+    assertThat(TransactionSynchronizationManager.getResource(history)).isNull();
+  }
+
+  @Test
+  void transition_ShouldBeStampedWithTheLampsUpdatedAt() {
+    // Given
+    UUID id = UUID.randomUUID();
+    OffsetDateTime updatedAt = OffsetDateTime.parse("2026-01-02T03:04:05.678Z");
+
+    // When
+    history.onLampChanged(
+        LampChangedEvent.from(Type.UPDATED, new Lamp(id, true, updatedAt, updatedAt), false));
+
+    // Then
+    assertThat(history.history(id, EPOCH, Instant.now(), 10))
+        .extracting(LampStateChange::changedAt)
+        .containsExactly(updatedAt);
+  }
+
+  @Test
+  void invalidQueries_ShouldBeRejected() {
+    // Given
+    UUID id = UUID.randomUUID();
+    Instant now = Instant.now();
+
+    // When & Then
+    assertThatThrownBy(() -> history.history(id, now, now, 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> history.history(id, EPOCH, now, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> history.history(id, EPOCH, now, 1001))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void missingTable_ShouldDisableRecording() {
+    // Given
+    when(mockRepository.isAvailable()).thenThrow(new DataAccessResourceFailureException("down"));
+    history = newHistory(mockRepository);
+
+    // When
+    history.onLampChanged(event(Type.CREATED, UUID.randomUUID(), true, null));
+
+    // Then
+    verify(mockRepository, never()).append(any());
+  }
+
+  @Test
+  void maintenanceFailure_ShouldBeContained() {
+    // Given
+    doThrow(new DataAccessResourceFailureException("down"))
+        .when(mockRepository)
+        .maintain(any(), anyInt(), anyInt());
+    LampStateHistory unstarted = new LampStateHistory(mockRepository, true, 2, 12, 3_600_000, 1000);
+
+    // When
+    unstarted.maintain();
+
+    // Then
+    verify(mockRepository).maintain(any(), eq(2), eq(12));
+  }
+
+  private static LampStateHistory newHistory(final LampStateHistoryRepository repository) {
+    LampStateHistory history = new LampStateHistory(repository, true, 2, 12, 3_600_000, 1000);
+    history.start();
+    return history;
+  }
+
+  private static LampChangedEvent event(
+      final Type type, final UUID id, final boolean status, final Boolean previousStatus) {
+    return LampChangedEvent.from(type, new Lamp(id, status), previousStatus);
+  }
+}
@@ -0,0 +1,232 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.entity.LampEntity;
+import org.openapitools.repository.LampRepository;
+import org.openapitools.repository.LampRepository.ChangePosition;
+import org.openapitools.service.LampSync.LampChange;
+import org.openapitools.service.LampSync.LampChanges;
+
+@ExtendWith(MockitoExtension.class)
+class LampSyncTest {
+
+  private static final Instant NOW = Instant.parse("2024-03-31T12:00:00Z");
+
+  private static final OffsetDateTime UPDATED =
+      Instant.parse("2024-03-31T11:00:00Z").atOffset(ZoneOffset.UTC);
+
+  private static final long HORIZON = 100;
+
+  private static final ChangePosition CAUGHT_UP = new ChangePosition(HORIZON, new UUID(0, 0));
+
+  @Mock private LampRepository repository;
+
+  private final AtomicLong epochMillis = new AtomicLong(NOW.toEpochMilli());
+
+  private long nextChangeSeq = 10;
+
+  @Test
+  void firstSync_ShouldReturnEveryChangeAndMoveTheTokenToTheHorizon() {
+    // Given
+    final LampEntity on = lamp(true, null);
+    final LampEntity deleted = lamp(false, UPDATED);
+    when(repository.changeHorizon()).thenReturn(HORIZON);
+    when(repository.findChangedAfter(ChangePosition.START, HORIZON, 3))
+        .thenReturn(List.of(on, deleted));
+    when(repository.findChangedAfter(CAUGHT_UP, HORIZON, 3)).thenReturn(List.of());
+    final LampSync sync = sync(true);
+
+    // When
+    final LampChanges first = sync.changesSince(Optional.empty(), 2).orElseThrow();
+    final LampChanges next = sync.changesSince(Optional.of(first.syncToken()), 2).orElseThrow();
+
+    // Then
+    assertThat(first.hasMore()).isFalse();
+    assertThat(first.changes())
+        .containsExactly(
+            new LampChange(on.getId(), true, on.getCreatedAt(), on.getUpdatedAt(), false),
+            new LampChange(
+                deleted.getId(), false, deleted.getCreatedAt(), deleted.getUpdatedAt(), true));
+    assertThat(next.changes()).isEmpty();
+    assertThat(next.syncToken()).isEqualTo(first.syncToken());
+  }
+
+  @Test
+  void fullPage_ShouldContinueAfterTheLastChangeReturned() {
+    // Given
+    final LampEntity first = lamp(true, null);
+    final LampEntity second = lamp(true, null);
+    when(repository.changeHorizon()).thenReturn(HORIZON);
+    when(repository.findChangedAfter(ChangePosition.START, HORIZON, 3))
+        .thenReturn(List.of(first, second, lamp(false, null)));
+    when(repository.findChangedAfter(ChangePosition.from(second), HORIZON, 3))
+        .thenReturn(List.of());
+    final LampSync sync = sync(true);
+
+    // When
+    final LampChanges page = sync.changesSince(Optional.empty(), 2).orElseThrow();
+    sync.changesSince(Optional.of(page.syncToken()), 2);
+
+    // Then
+    assertThat(page.hasMore()).isTrue();
+    assertThat(page.changes())
+        .extracting(LampChange::id)
+        .containsExactly(first.getId(), second.getId());
+    verify(repository).findChangedAfter(ChangePosition.from(second), HORIZON, 3);
+  }
+
+  @Test
+  void writeCommittedAfterATokenWasHandedOut_ShouldStillBeReturned() {
+    // Given: a client caught up while a write with an earlier update time was still running
+    when(repository.changeHorizon()).thenReturn(HORIZON, HORIZON + 5);
+    when(repository.findChangedAfter(ChangePosition.START, HORIZON, 11)).thenReturn(List.of());
+    final LampEntity slow = lamp(true, null);
+    slow.setChangeSeq(HORIZON);
+    slow.setUpdatedAt(UPDATED.minusHours(1));
+    when(repository.findChangedAfter(CAUGHT_UP, HORIZON + 5, 11)).thenReturn(List.of(slow));
+    final LampSync sync = sync(true);
+    final String token = sync.changesSince(Optional.empty(), 10).orElseThrow().syncToken();
+
+    // When
+    final LampChanges changes = sync.changesSince(Optional.of(token), 10).orElseThrow();
+
+    // Then
+    assertThat(changes.changes()).extracting(LampChange::id).containsExactly(slow.getId());
+  }
+
+  @Test
+  void horizonNotPastTheToken_ShouldNotMoveItBack() {
+    // Given
+    when(repository.changeHorizon()).thenReturn(HORIZON, HORIZON - 10);
+    when(repository.findChangedAfter(any(), anyLong(), anyInt())).thenReturn(List.of());
+    final LampSync sync = sync(true);
+    final String token = sync.changesSince(Optional.empty(), 10).orElseThrow().syncToken();
+
+    // When
+    sync.changesSince(Optional.of(token), 10).orElseThrow();
+
+    // Then
+    verify(repository).findChangedAfter(CAUGHT_UP, HORIZON - 10, 11);
+  }
+
+  @Test
+  void tokenNotCaughtUpWithinTheTombstoneRetention_ShouldBeRejected() {
+    // Given: a client that stopped in the middle of its first sync
+    when(repository.changeHorizon()).thenReturn(HORIZON);
+    when(repository.findChangedAfter(any(), anyLong(), anyInt()))
+        .thenReturn(List.of(lamp(true, null), lamp(true, null)));
+    final LampSync sync = sync(true);
+    final String token = sync.changesSince(Optional.empty(), 1).orElseThrow().syncToken();
+    epochMillis.set(NOW.plus(Duration.ofDays(20)).toEpochMilli());
+    final String page = sync.changesSince(Optional.of(token), 1).orElseThrow().syncToken();
+    epochMillis.set(NOW.plus(Duration.ofDays(31)).toEpochMilli());
+
+    // When
+    final Optional<LampChanges> changes = sync.changesSince(Optional.of(page), 1);
+
+    // Then: the page read on day 20 did not renew the token
+    assertThat(changes).isEmpty();
+  }
+
+  @Test
+  void oldToken_WithoutPurge_ShouldStillBeAccepted() {
+    // Given
+    when(repository.findChangedAfter(any(), anyLong(), anyInt())).thenReturn(List.of());
+    final LampSync sync = sync(false);
+    final String token = sync.changesSince(Optional.empty(), 10).orElseThrow().syncToken();
+    epochMillis.set(NOW.plus(Duration.ofDays(365)).toEpochMilli());
+
+    // When
+    final Optional<LampChanges> changes = sync.changesSince(Optional.of(token), 10);
+
+    // Then
+    assertThat(changes).isPresent();
+  }
+
+  @Test
+  void tokenByUpdateTime_ShouldResumeFromTheStartUntilItExpires() {
+    // Given: a token from before change sequences, of an hour ago and of 31 days ago
+    when(repository.changeHorizon()).thenReturn(HORIZON);
+    when(repository.findChangedAfter(any(), anyLong(), anyInt())).thenReturn(List.of());
+    final LampSync sync = sync(true);
+    final UUID lampId = UUID.randomUUID();
+    final String recent = legacyToken(NOW.minus(Duration.ofHours(1)), lampId);
+    final String expired = legacyToken(NOW.minus(Duration.ofDays(31)), lampId);
+
+    // When
+    final Optional<LampChanges> resumed = sync.changesSince(Optional.of(recent), 10);
+    final Optional<LampChanges> rejected = sync.changesSince(Optional.of(expired), 10);
+
+    // Then
+    assertThat(resumed).isPresent();
+    verify(repository).findChangedAfter(ChangePosition.START, HORIZON, 11);
+    assertThat(rejected).isEmpty();
+  }
+
+  @Test
+  void malformedTokenOrLimit_ShouldBeRejected() {
+    // Given
+    final LampSync sync = sync(true);
+
+    // When & Then
+    assertThatThrownBy(() -> sync.changesSince(Optional.of("not a token!"), 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> sync.changesSince(Optional.of("bm90LWEtdG9rZW4"), 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> sync.changesSince(Optional.of(encode("2.1.not-a-uuid.0")), 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () -> sync.changesSince(Optional.of(encode("3.1." + new UUID(0, 0) + ".0")), 10))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> sync.changesSince(Optional.empty(), 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> sync.changesSince(Optional.empty(), 1001))
+        .isInstanceOf(IllegalArgumentException.class);
+    verify(repository, never()).findChangedAfter(any(), anyLong(), anyInt());
+  }
+
+  private LampSync sync(final boolean tombstonesPurged) {
+    return new LampSync(repository, epochMillis::get, 1_000, tombstonesPurged, 30);
+  }
+
+  private LampEntity lamp(final boolean status, final OffsetDateTime deletedAt) {
+    final LampEntity lamp = new LampEntity(UUID.randomUUID(), status);
+    lamp.setCreatedAt(UPDATED.minusDays(1));
+    lamp.setUpdatedAt(UPDATED);
+    lamp.setDeletedAt(deletedAt);
+    lamp.setChangeSeq(nextChangeSeq++);
+    return lamp;
+  }
+
+  private static String legacyToken(final Instant updatedAt, final UUID lampId) {
+    return encode(updatedAt.getEpochSecond() + "." + updatedAt.getNano() + "." + lampId);
+  }
+
+  private static String encode(final String token) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+  }
+}
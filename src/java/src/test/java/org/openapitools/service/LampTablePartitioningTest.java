@@ -0,0 +1,208 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for LampTablePartitioning against a mocked JdbcTemplate; the SQL itself is covered by
+ * LampTablePartitioningIntegrationTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class LampTablePartitioningTest {
+
+  private static final String PENDING =
+      "SELECT to_regclass('lamps_partitioning_progress') IS NOT NULL";
+  private static final String CURSOR = "SELECT last_id FROM lamps_partitioning_progress";
+  private static final String COPIED = "SELECT copied_at IS NOT NULL";
+
+  @Mock private JdbcTemplate jdbcTemplate;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private LampTablePartitioning partitioning;
+
+  @BeforeEach
+  void setUp() {
+    partitioning = partitioning(true, 2);
+  }
+
+  @Test
+  void notOptedIn_ShouldNotTouchTheDatabase() {
+    // Given
+    final DataSource dataSource = mock(DataSource.class);
+
+    // When
+    new LampTablePartitioning(dataSource, false, true, 5000, 50, "5s").onApplicationReady();
+
+    // Then
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void databaseDown_ShouldStopWithoutThrowing() throws SQLException {
+    // Given
+    final DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenThrow(new SQLException("down"));
+
+    // When
+    final boolean partitioned =
+        new LampTablePartitioning(dataSource, true, true, 5000, 0, "5s").run();
+
+    // Then
+    assertThat(partitioned).isFalse();
+  }
+
+  @Test
+  void run_AlreadyPartitioned_ShouldDoNothing() {
+    // Given
+    when(jdbcTemplate.queryForObject(PENDING, Boolean.class)).thenReturn(false);
+
+    // When
+    final boolean partitioned = partitioning.run();
+
+    // Then
+    assertThat(partitioned).isTrue();
+    verify(jdbcTemplate, never()).queryForObject(startsWith(CURSOR), eq(UUID.class));
+  }
+
+  @Test
+  void copyBatch_ShouldCopyTheNextIdsAndAdvanceTheCursor() {
+    // Given
+    final UUID after = UUID.randomUUID();
+    final UUID first = UUID.randomUUID();
+    final UUID last = UUID.randomUUID();
+    when(jdbcTemplate.queryForObject(startsWith(CURSOR), eq(UUID.class))).thenReturn(after);
+    when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any()))
+        .thenReturn(List.of(first, last));
+
+    // When
+    final int copied = partitioning.copyBatch();
+
+    // Then
+    assertThat(copied).isEqualTo(2);
+    verify(jdbcTemplate).queryForList(anyString(), eq(UUID.class), eq(after), eq(after), eq(2));
+    verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+    verify(jdbcTemplate)
+        .update("UPDATE lamps_partitioning_progress SET last_id = ? WHERE id = 1", last);
+  }
+
+  @Test
+  void copyBatch_AtTheEnd_ShouldMarkTheCopyDone() {
+    // Given
+    when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any()))
+        .thenReturn(List.of());
+
+    // When
+    final int copied = partitioning.copyBatch();
+
+    // Then
+    assertThat(copied).isZero();
+    verify(jdbcTemplate).update(startsWith("UPDATE lamps_partitioning_progress SET copied_at"));
+    verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+  }
+
+  @Test
+  void run_ShouldCopyUntilDoneThenSwap() {
+    // Given
+    when(jdbcTemplate.queryForObject(PENDING, Boolean.class)).thenReturn(true);
+    when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any()))
+        .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()), List.of());
+    lenient()
+        .when(jdbcTemplate.queryForObject(startsWith(COPIED), eq(Boolean.class)))
+        .thenReturn(true);
+
+    // When
+    final boolean partitioned = partitioning.run();
+
+    // Then
+    assertThat(partitioned).isTrue();
+    verify(jdbcTemplate).execute("LOCK TABLE lamps IN ACCESS EXCLUSIVE MODE");
+    verify(jdbcTemplate).execute("ALTER TABLE lamps_partitioned RENAME TO lamps");
+    verify(jdbcTemplate).execute("DROP TABLE lamps_partitioning_progress");
+  }
+
+  @Test
+  void run_WithoutCutover_ShouldCopyButNotSwap() {
+    // Given
+    partitioning = partitioning(false, 2);
+    when(jdbcTemplate.queryForObject(PENDING, Boolean.class)).thenReturn(true);
+    when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any()))
+        .thenReturn(List.of());
+
+    // When
+    final boolean partitioned = partitioning.run();
+
+    // Then
+    assertThat(partitioned).isFalse();
+    verify(jdbcTemplate, never()).execute("LOCK TABLE lamps IN ACCESS EXCLUSIVE MODE");
+  }
+
+  @Test
+  void swap_CopyNotFinished_ShouldLeaveTheTablesAlone() {
+    // Given
+    lenient()
+        .when(jdbcTemplate.queryForObject(startsWith(COPIED), eq(Boolean.class)))
+        .thenReturn(false);
+
+    // When
+    final boolean swapped = partitioning.swap();
+
+    // Then
+    assertThat(swapped).isFalse();
+    verify(jdbcTemplate, never()).execute("ALTER TABLE lamps RENAME TO lamps_unpartitioned");
+  }
+
+  @Test
+  void run_LockTimeout_ShouldGiveUpUntilTheNextStart() {
+    // Given
+    when(jdbcTemplate.queryForObject(PENDING, Boolean.class)).thenReturn(true);
+    when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(), any(), any()))
+        .thenReturn(List.of());
+    doThrow(new CannotAcquireLockException("lock timeout"))
+        .when(jdbcTemplate)
+        .execute("LOCK TABLE lamps IN ACCESS EXCLUSIVE MODE");
+
+    // When
+    final boolean partitioned = partitioning.run();
+
+    // Then
+    assertThat(partitioned).isFalse();
+    verify(jdbcTemplate)
+        .queryForObject("SELECT set_config('lock_timeout', ?, true)", String.class, "5s");
+  }
+
+  private LampTablePartitioning partitioning(final boolean cutover, final int batchSize) {
+    return new LampTablePartitioning(
+        jdbcTemplate,
+        new TransactionTemplate(transactionManager),
+        true,
+        cutover,
+        batchSize,
+        0,
+        "5s");
+  }
+}
@@ -0,0 +1,182 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.exception.LampNotFoundException;
+import org.openapitools.model.Lamp;
+
+/** Unit tests for LampWriteCoalescer. */
+@ExtendWith(MockitoExtension.class)
+class LampWriteCoalescerTest {
+
+  private static final long WINDOW_MS = 500;
+
+  @Mock private LampService lampService;
+
+  private UUID lampId;
+
+  @BeforeEach
+  void setUp() {
+    lampId = UUID.randomUUID();
+  }
+
+  @Test
+  void disabled_ShouldDelegateEachUpdate() {
+    // Given
+    LampWriteCoalescer coalescer = new LampWriteCoalescer(lampService, false, WINDOW_MS);
+    Lamp persisted = new Lamp(lampId, true);
+    when(lampService.update(eq(lampId), any(Lamp.class))).thenReturn(persisted);
+
+    // When
+    coalescer.update(lampId, new Lamp(lampId, true));
+    Lamp result = coalescer.update(lampId, new Lamp(lampId, true));
+
+    // Then
+    assertThat(result).isSameAs(persisted);
+    verify(lampService, times(2)).update(eq(lampId), any(Lamp.class));
+  }
+
+  @Test
+  void enabled_SingleUpdate_ShouldPersistItsStatus() {
+    // Given
+    LampWriteCoalescer coalescer = new LampWriteCoalescer(lampService, true, 0);
+    Lamp persisted = new Lamp(lampId, false);
+    when(lampService.update(eq(lampId), any(Lamp.class))).thenReturn(persisted);
+
+    // When
+    Lamp result = coalescer.update(lampId, new Lamp(lampId, false));
+
+    // Then
+    assertThat(result).isSameAs(persisted);
+    verify(lampService).update(eq(lampId), argThat(lamp -> !lamp.getStatus()));
+  }
+
+  @Test
+  void enabled_HotKeyToggles_ShouldMergeIntoOneLastWriterWinsWrite() throws Exception {
+    // Given
+    LampWriteCoalescer coalescer = new LampWriteCoalescer(lampService, true, WINDOW_MS);
+    Lamp persisted = new Lamp(lampId, false);
+    when(lampService.update(eq(lampId), any(Lamp.class))).thenReturn(persisted);
+
+    // When: on, off, on, off within one window
+    CompletableFuture<Lamp> first = updateAsync(coalescer, true);
+    CompletableFuture<Lamp> second = updateAsync(coalescer, false);
+    CompletableFuture<Lamp> third = updateAsync(coalescer, true);
+    CompletableFuture<Lamp> last = updateAsync(coalescer, false);
+
+    // Then
+    for (CompletableFuture<Lamp> result : new CompletableFuture[] {first, second, third, last}) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(persisted);
+    }
+    verify(lampService, times(1)).update(eq(lampId), any(Lamp.class));
+    verify(lampService).update(eq(lampId), argThat(lamp -> !lamp.getStatus()));
+  }
+
+  @Test
+  void enabled_FailedMergedWrite_ShouldFailEveryCaller() throws Exception {
+    // Given
+    LampWriteCoalescer coalescer = new LampWriteCoalescer(lampService, true, WINDOW_MS);
+    when(lampService.update(eq(lampId), any(Lamp.class)))
+        .thenThrow(new LampNotFoundException(lampId));
+
+    // When
+    CompletableFuture<Lamp> leader = updateAsync(coalescer, true);
+    CompletableFuture<Lamp> follower = updateAsync(coalescer, false);
+
+    // Then
+    for (CompletableFuture<Lamp> result : new CompletableFuture[] {leader, follower}) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(LampNotFoundException.class);
+    }
+    verify(lampService, times(1)).update(eq(lampId), any(Lamp.class));
+  }
+
+  @Test
+  void enabled_UpdatesInSeparateWindows_ShouldEachBePersisted() {
+    // Given
+    LampWriteCoalescer coalescer = new LampWriteCoalescer(lampService, true, 0);
+    when(lampService.update(eq(lampId), any(Lamp.class))).thenReturn(new Lamp(lampId, true));
+
+    // When
+    coalescer.update(lampId, new Lamp(lampId, true));
+    coalescer.update(lampId, new Lamp(lampId, false));
+
+    // Then
+    verify(lampService, times(2)).update(eq(lampId), any(Lamp.class));
+  }
+
+  @Test
+  void enabled_UpdateWhileTheWriteBeforeIsRunning_ShouldBePersistedAfterIt() throws Exception {
+    // Given: the write of the first window blocks until released
+    LampWriteCoalescer coalescer = new LampWriteCoalescer(lampService, true, 0);
+    CountDownLatch release = new CountDownLatch(1);
+    when(lampService.update(eq(lampId), any(Lamp.class)))
+        .thenAnswer(
+            invocation -> {
+              Lamp lamp = invocation.getArgument(1);
+              if (lamp.getStatus()) {
+                release.await();
+              }
+              return new Lamp(lampId, lamp.getStatus());
+            });
+    CompletableFuture<Lamp> older = updateAsync(coalescer, true);
+
+    // When
+    CompletableFuture<Lamp> newer = updateAsync(coalescer, false);
+
+    // Then: the newer window waits for the older write, and commits last
+    verify(lampService, times(1)).update(eq(lampId), any(Lamp.class));
+    release.countDown();
+    assertThat(older.get(5, TimeUnit.SECONDS).getStatus()).isTrue();
+    assertThat(newer.get(5, TimeUnit.SECONDS).getStatus()).isFalse();
+    InOrder writes = inOrder(lampService);
+    writes.verify(lampService).update(eq(lampId), argThat(Lamp::getStatus));
+    writes.verify(lampService).update(eq(lampId), argThat(lamp -> !lamp.getStatus()));
+  }
+
+  /** Start an update on its own thread and wait until it is parked in the batch. */
+  private CompletableFuture<Lamp> updateAsync(
+      final LampWriteCoalescer coalescer, final boolean status) {
+    CompletableFuture<Lamp> result = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                result.complete(coalescer.update(lampId, new Lamp(lampId, status)));
+              } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+              }
+            });
+    thread.start();
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .pollInterval(Duration.ofMillis(5))
+        .until(
+            () ->
+                thread.getState() == Thread.State.WAITING
+                    || thread.getState() == Thread.State.TIMED_WAITING);
+    return result;
+  }
+}
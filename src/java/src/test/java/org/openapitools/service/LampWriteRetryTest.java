@@ -0,0 +1,65 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.exception.LockAcquisitionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.orm.jpa.JpaSystemException;
+
+class LampWriteRetryTest {
+
+  private static final SQLException MOVED =
+      new SQLException(
+          "ERROR: tuple to be updated was already moved to another partition due to concurrent"
+              + " update",
+          "40001");
+
+  @Test
+  void isSerializationFailure_ShouldFindTheSqlStateAmongTheCauses() {
+    // When & Then
+    assertThat(
+            LampWriteRetry.isSerializationFailure(
+                new JpaSystemException(
+                    new LockAcquisitionException("could not execute statement", MOVED))))
+        .isTrue();
+    assertThat(
+            LampWriteRetry.isSerializationFailure(
+                new DataAccessResourceFailureException("down", new SQLException("gone", "08006"))))
+        .isFalse();
+    assertThat(LampWriteRetry.isSerializationFailure(new IllegalStateException())).isFalse();
+  }
+
+  @Test
+  void run_ShouldRunAgainOnlyWhatLostTheRace() {
+    // Given
+    final LampWriteRetry retry = new LampWriteRetry(Optional.empty());
+    final AtomicInteger attempts = new AtomicInteger();
+
+    // When
+    final int result =
+        retry.run(
+            () -> {
+              if (attempts.incrementAndGet() == 1) {
+                throw new JpaSystemException(new LockAcquisitionException("moved", MOVED));
+              }
+              return attempts.get();
+            });
+
+    // Then
+    assertThat(result).isEqualTo(2);
+    assertThatThrownBy(
+            () ->
+                retry.run(
+                    () -> {
+                      attempts.incrementAndGet();
+                      throw new IllegalStateException("no");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(attempts).hasValue(3);
+  }
+}
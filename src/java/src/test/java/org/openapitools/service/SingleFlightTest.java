@@ -0,0 +1,166 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for SingleFlight. */
+class SingleFlightTest {
+
+  @Test
+  void concurrentCallsForSameKey_ShouldShareOneExecution() throws Exception {
+    // Given
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    AtomicInteger executions = new AtomicInteger();
+    CountDownLatch leaderStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Integer> leader =
+        runAsync(
+            () ->
+                flight.execute(
+                    "lamp",
+                    () -> {
+                      leaderStarted.countDown();
+                      awaitLatch(release);
+                      return executions.incrementAndGet();
+                    }));
+    assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    List<Thread> followers = new ArrayList<>();
+    List<CompletableFuture<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      CompletableFuture<Integer> result = new CompletableFuture<>();
+      Thread thread =
+          new Thread(() -> result.complete(flight.execute("lamp", executions::incrementAndGet)));
+      thread.start();
+      followers.add(thread);
+      results.add(result);
+    }
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(() -> followers.stream().allMatch(t -> t.getState() == Thread.State.WAITING));
+    release.countDown();
+
+    // Then
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    for (CompletableFuture<Integer> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+    assertThat(executions).hasValue(1);
+    assertThat(flight.inFlightCount()).isZero();
+  }
+
+  @Test
+  void sequentialCalls_ShouldNotCacheResults() {
+    // Given
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    AtomicInteger executions = new AtomicInteger();
+
+    // When
+    flight.execute("lamp", executions::incrementAndGet);
+    int second = flight.execute("lamp", executions::incrementAndGet);
+
+    // Then
+    assertThat(second).isEqualTo(2);
+  }
+
+  @Test
+  void failingExecution_ShouldPropagateAndAllowRetry() {
+    // Given
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+    // When & Then
+    assertThatThrownBy(
+            () ->
+                flight.execute(
+                    "lamp",
+                    () -> {
+                      throw new IllegalStateException("boom");
+                    }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("boom");
+    assertThat(flight.inFlightCount()).isZero();
+    assertThat(flight.execute("lamp", () -> 7)).isEqualTo(7);
+  }
+
+  @Test
+  void forget_ShouldMakeNewCallersStartFreshExecution() throws Exception {
+    // Given
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    CountDownLatch leaderStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Integer> stale =
+        runAsync(
+            () ->
+                flight.execute(
+                    "lamp",
+                    () -> {
+                      leaderStarted.countDown();
+                      awaitLatch(release);
+                      return 1;
+                    }));
+    assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    flight.forget("lamp");
+    int fresh = flight.execute("lamp", () -> 2);
+    release.countDown();
+
+    // Then
+    assertThat(fresh).isEqualTo(2);
+    assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+  }
+
+  @Test
+  void forgetAll_ShouldDetachEveryKey() throws Exception {
+    // Given
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    CountDownLatch leaderStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Integer> stale =
+        runAsync(
+            () ->
+                flight.execute(
+                    "page",
+                    () -> {
+                      leaderStarted.countDown();
+                      awaitLatch(release);
+                      return 1;
+                    }));
+    assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    flight.forgetAll();
+
+    // Then
+    assertThat(flight.inFlightCount()).isZero();
+    release.countDown();
+    assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+  }
+
+  private static CompletableFuture<Integer> runAsync(final Supplier<Integer> call) {
+    CompletableFuture<Integer> result = new CompletableFuture<>();
+    new Thread(() -> result.complete(call.get())).start();
+    return result;
+  }
+
+  private static void awaitLatch(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package org.openapitools.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.openapitools.model.Lamp;
+import org.openapitools.repository.LampRows;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class StreamedLampPageTest {
+
+  private static final OffsetDateTime AT = OffsetDateTime.parse("2026-01-01T10:00:00.123456Z");
+
+  private final Lamp first =
+      new Lamp(UUID.fromString("00000000-0000-0000-0000-000000000001"), true, AT, AT);
+
+  private final Lamp second =
+      new Lamp(
+          UUID.fromString("00000000-0000-0000-0000-000000000002"),
+          false,
+          AT.plusSeconds(1),
+          AT.plusSeconds(1).withNano(0));
+
+  private final Lamp third =
+      new Lamp(
+          UUID.fromString("00000000-0000-0000-0000-000000000003"),
+          true,
+          AT.plusSeconds(2),
+          AT.plusSeconds(2).withNano(120_000_000));
+
+  private final AtomicInteger reads = new AtomicInteger();
+
+  @Test
+  void writeTo_ShouldWriteTheLampsOfThePageAndTheCursorOfTheNext() throws Exception {
+    // Given
+    final StreamedLampPage page = new StreamedLampPage(rows(first, second, third), 0, 2);
+    page.setTotal(3L);
+    page.setTotalExact(true);
+
+    // When
+    final String json = write(page);
+
+    // Then
+    assertThat(json)
+        .isEqualTo(
+            "{\"data\":["
+                + "{\"id\":\"00000000-0000-0000-0000-000000000001\",\"status\":true,"
+                + "\"createdAt\":\"2026-01-01T10:00:00.123456Z\","
+                + "\"updatedAt\":\"2026-01-01T10:00:00.123456Z\"},"
+                + "{\"id\":\"00000000-0000-0000-0000-000000000002\",\"status\":false,"
+                + "\"createdAt\":\"2026-01-01T10:00:01.123456Z\","
+                + "\"updatedAt\":\"2026-01-01T10:00:01Z\"}],"
+                + "\"nextCursor\":\"2\",\"hasMore\":true,\"total\":3,\"totalExact\":true}");
+    assertThat(reads).hasValue(1);
+  }
+
+  @Test
+  void writeTo_OfTheLastPage_ShouldLeaveTheCursorOut() throws Exception {
+    // Given
+    final StreamedLampPage page = new StreamedLampPage(rows(first, second, third), 2, 2);
+
+    // When
+    final String json = write(page);
+
+    // Then
+    assertThat(json)
+        .isEqualTo(
+            "{\"data\":["
+                + "{\"id\":\"00000000-0000-0000-0000-000000000003\",\"status\":true,"
+                + "\"createdAt\":\"2026-01-01T10:00:02.123456Z\","
+                + "\"updatedAt\":\"2026-01-01T10:00:02.12Z\"}],"
+                + "\"hasMore\":false}");
+  }
+
+  @Test
+  void getters_ShouldTurnTheRowsReadIntoModels() {
+    // Given
+    final StreamedLampPage page = new StreamedLampPage(rows(first, second, third), 1, 1);
+
+    // When
+    final List<Lamp> data = page.getData();
+
+    // Then
+    assertThat(data).containsExactly(second);
+    assertThat(page.getHasMore()).isTrue();
+    assertThat(page.getNextCursor().get()).isEqualTo("2");
+    assertThat(reads).hasValue(1);
+  }
+
+  @Test
+  void writeTo_WhenTheReadFails_ShouldWriteNothing() throws Exception {
+    // Given
+    final LampRows failing =
+        (offset, limit, handler) -> {
+          throw new DataAccessResourceFailureException("down");
+        };
+    final ByteArrayBuilder buffer = new ByteArrayBuilder();
+
+    // When
+    try (JsonGenerator gen = new JsonFactory().createGenerator(buffer)) {
+      assertThatThrownBy(() -> new StreamedLampPage(failing, 0, 2).writeTo(gen))
+          .isInstanceOf(DataAccessResourceFailureException.class);
+      gen.flush();
+    }
+
+    // Then
+    assertThat(buffer.toByteArray()).isEmpty();
+  }
+
+  @Test
+  void writeTo_OfAnEmptyPage_ShouldWriteAnEmptyList() throws Exception {
+    // When
+    final String json = write(new StreamedLampPage(rows(), 0, 2));
+
+    // Then
+    assertThat(json).isEqualTo("{\"data\":[],\"hasMore\":false}");
+  }
+
+  @Test
+  void writeTo_OfALargePage_ShouldWriteEveryRowRead() throws Exception {
+    // Given
+    final Lamp[] lamps = new Lamp[2_000];
+    for (int i = 0; i < lamps.length; i++) {
+      lamps[i] = new Lamp(UUID.randomUUID(), i % 2 == 0, AT.plusSeconds(i), AT);
+    }
+
+    // When
+    final StreamedLampPage page = new StreamedLampPage(rows(lamps), 0, 1_500);
+
+    // Then
+    assertThat(write(page)).startsWith("{\"data\":[{\"id\":\"" + lamps[0].getId() + "\"");
+    assertThat(page.getData()).containsExactly(Arrays.copyOf(lamps, 1_500));
+    assertThat(page.getHasMore()).isTrue();
+  }
+
+  @Test
+  void timestamps_ShouldBeFormattedAsIsoFormatsThem() {
+    // Given
+    final List<String> times =
+        List.of(
+            "1970-01-01T00:00:00Z",
+            "1969-12-31T23:59:59.999999Z",
+            "2024-02-29T23:59:59.5Z",
+            "2000-03-01T00:00:00.000001Z",
+            "1900-01-01T12:34:56.0789Z",
+            "0000-01-01T00:00:00Z",
+            "9999-12-31T23:59:59.999999Z");
+    final SplittableRandom random = new SplittableRandom(50);
+
+    // When & Then
+    times.forEach(time -> assertFormatted(micros(OffsetDateTime.parse(time))));
+    for (int i = 0; i < 10_000; i++) {
+      assertFormatted(random.nextLong(-62_167_219_200_000_000L, 253_402_300_800_000_000L));
+    }
+  }
+
+  @Test
+  void timestamps_OutsideFourDigitYears_ShouldBeLeftToTheFormatter() throws Exception {
+    // Given
+    final OffsetDateTime late = OffsetDateTime.parse("+10000-01-01T00:00:00Z");
+    final Lamp lamp = new Lamp(first.getId(), true, AT, late);
+    final byte[] buffer = new byte[StreamedLampPage.Timestamps.MAX_LENGTH];
+
+    // When
+    final String json = write(new StreamedLampPage(rows(lamp), 0, 1));
+
+    // Then
+    assertThat(StreamedLampPage.Timestamps.format(micros(late), buffer)).isNegative();
+    assertThat(
+            StreamedLampPage.Timestamps.format(
+                micros(OffsetDateTime.parse("-0001-12-31T23:59:59Z")), buffer))
+        .isNegative();
+    assertThat(json).contains("\"updatedAt\":\"+10000-01-01T00:00:00Z\"");
+  }
+
+  private static void assertFormatted(final long micros) {
+    final byte[] buffer = new byte[StreamedLampPage.Timestamps.MAX_LENGTH];
+    final int length = StreamedLampPage.Timestamps.format(micros, buffer);
+    assertThat(new String(buffer, 0, length, StandardCharsets.US_ASCII))
+        .isEqualTo(
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(
+                Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC)));
+  }
+
+  private static String write(final StreamedLampPage page) throws Exception {
+    final ByteArrayBuilder buffer = new ByteArrayBuilder();
+    try (JsonGenerator gen = new JsonFactory().createGenerator(buffer)) {
+      page.writeTo(gen);
+    }
+    return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private LampRows rows(final Lamp... lamps) {
+    return (offset, limit, handler) -> {
+      reads.incrementAndGet();
+      final int end = (int) Math.min((long) offset + limit, lamps.length);
+      for (int i = offset; i < end; i++) {
+        handler.row(
+            lamps[i].getId().toString().getBytes(StandardCharsets.US_ASCII),
+            lamps[i].getStatus(),
+            micros(lamps[i].getCreatedAt()),
+            micros(lamps[i].getUpdatedAt()));
+      }
+      return Math.max(end - offset, 0);
+    };
+  }
+
+  private static long micros(final OffsetDateTime time) {
+    return ChronoUnit.MICROS.between(Instant.EPOCH, time.toInstant());
+  }
+}